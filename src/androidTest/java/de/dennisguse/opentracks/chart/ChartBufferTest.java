@@ -0,0 +1,87 @@
+package de.dennisguse.opentracks.chart;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+@RunWith(AndroidJUnit4.class)
+public class ChartBufferTest {
+
+    @Test
+    public void publish_snapshotsAreImmutable() {
+        // given
+        ChartBuffer chartBuffer = new ChartBuffer(2);
+        chartBuffer.add(1, new double[]{10, Double.NaN});
+        assertEquals(0, chartBuffer.getSnapshot().size);
+
+        // when
+        chartBuffer.publish();
+        ChartBuffer.Snapshot snapshot = chartBuffer.getSnapshot();
+        for (int i = 2; i <= 5000; i++) {
+            chartBuffer.add(i, new double[]{10 * i, i});
+        }
+        chartBuffer.publish();
+
+        // then
+        assertEquals(1, snapshot.size);
+        assertEquals(1, snapshot.getX(0), 0);
+        assertEquals(10, snapshot.getValue(0, 0), 0);
+        assertEquals(Double.NaN, snapshot.getValue(1, 0), 0);
+
+        ChartBuffer.Snapshot newSnapshot = chartBuffer.getSnapshot();
+        assertEquals(5000, newSnapshot.size);
+        assertEquals(snapshot.generation, newSnapshot.generation);
+        assertEquals(5000, newSnapshot.getX(4999), 0);
+        assertEquals(50000, newSnapshot.getValue(0, 4999), 0);
+        assertEquals(5000, newSnapshot.getValue(1, 4999), 0);
+    }
+
+    @Test
+    public void decimate() {
+        // given
+        ChartBuffer chartBuffer = new ChartBuffer(1);
+        for (int i = 0; i < 5; i++) {
+            chartBuffer.add(i, new double[]{10 * i});
+        }
+        chartBuffer.publish();
+        ChartBuffer.Snapshot snapshot = chartBuffer.getSnapshot();
+
+        // when
+        chartBuffer.decimate();
+
+        // then
+        ChartBuffer.Snapshot decimated = chartBuffer.getSnapshot();
+        assertNotEquals(snapshot.generation, decimated.generation);
+        assertEquals(snapshot.resetCount, decimated.resetCount);
+        assertEquals(3, decimated.size);
+        assertEquals(0, decimated.getX(0), 0);
+        assertEquals(2, decimated.getX(1), 0);
+        assertEquals(40, decimated.getValue(0, 2), 0);
+
+        assertEquals(5, snapshot.size);
+        assertEquals(1, snapshot.getX(1), 0);
+    }
+
+    @Test
+    public void reset() {
+        // given
+        ChartBuffer chartBuffer = new ChartBuffer(1);
+        chartBuffer.add(1, new double[]{1});
+        chartBuffer.publish();
+        ChartBuffer.Snapshot snapshot = chartBuffer.getSnapshot();
+
+        // when
+        chartBuffer.reset();
+
+        // then
+        ChartBuffer.Snapshot reset = chartBuffer.getSnapshot();
+        assertEquals(0, reset.size);
+        assertNotEquals(snapshot.generation, reset.generation);
+        assertNotEquals(snapshot.resetCount, reset.resetCount);
+        assertEquals(1, snapshot.size);
+    }
+}
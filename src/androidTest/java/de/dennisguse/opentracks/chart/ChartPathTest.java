@@ -0,0 +1,130 @@
+package de.dennisguse.opentracks.chart;
+
+import android.graphics.Matrix;
+import android.graphics.RectF;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(AndroidJUnit4.class)
+public class ChartPathTest {
+
+    private static final double ALL = Double.POSITIVE_INFINITY;
+
+    private final Random random = new Random(42);
+
+    private static void add(ChartBuffer chartBuffer, double x, double y) {
+        chartBuffer.add(x, new double[]{y});
+    }
+
+    @Test
+    public void update_noDecimationIfLessThanOnePointPerPixel() {
+        // given
+        ChartBuffer chartBuffer = new ChartBuffer(1);
+        for (int i = 0; i < 1000; i++) {
+            add(chartBuffer, i, random.nextDouble());
+        }
+        chartBuffer.publish();
+        ChartPath chartPath = new ChartPath();
+
+        // when / then: identity; one pixel per x unit
+        assertEquals(1000, chartPath.update(chartBuffer.getSnapshot(), 0, new Matrix(), 0, -ALL, ALL));
+    }
+
+    @Test
+    public void update_skipsMissingValues() {
+        // given
+        ChartBuffer chartBuffer = new ChartBuffer(1);
+        for (int i = 0; i < 1000; i++) {
+            add(chartBuffer, i, i % 2 == 0 ? Double.NaN : random.nextDouble());
+        }
+        chartBuffer.publish();
+        ChartPath chartPath = new ChartPath();
+
+        // when / then
+        assertEquals(500, chartPath.update(chartBuffer.getSnapshot(), 0, new Matrix(), 0, -ALL, ALL));
+    }
+
+    @Test
+    public void update_decimatesAndKeepsSpikes() {
+        // given: 1000 points per pixel
+        ChartBuffer chartBuffer = new ChartBuffer(1);
+        for (int i = 0; i < 100000; i++) {
+            double y = 1 + random.nextDouble();
+            if (i == 50500) {
+                y = 1000;
+            }
+            if (i == 70700) {
+                y = -1000;
+            }
+            add(chartBuffer, i / 1000.0, y);
+        }
+        chartBuffer.publish();
+        ChartPath chartPath = new ChartPath();
+
+        // when
+        int numberOfPoints = chartPath.update(chartBuffer.getSnapshot(), 0, new Matrix(), 0, -ALL, ALL);
+
+        // then: at most 4 points per pixel
+        assertTrue(numberOfPoints <= 4 * 100);
+        RectF bounds = new RectF();
+        chartPath.getStrokePath().computeBounds(bounds, true);
+        assertEquals(-1000, bounds.top, 0.01);
+        assertEquals(1000, bounds.bottom, 0.01);
+
+        // when: zoomed in (10 pixels per x unit)
+        Matrix zoomed = new Matrix();
+        zoomed.setScale(10, 1);
+
+        // then
+        assertTrue(chartPath.update(chartBuffer.getSnapshot(), 0, zoomed, 0, -ALL, ALL) > numberOfPoints);
+    }
+
+    @Test
+    public void update_incremental() {
+        // given
+        ChartBuffer chartBuffer = new ChartBuffer(1);
+        ChartPath incremental = new ChartPath();
+
+        // when
+        for (int i = 0; i < 10000; i++) {
+            add(chartBuffer, i / 100.0, random.nextDouble() * 100);
+            if (i % 77 == 0) {
+                chartBuffer.publish();
+                incremental.update(chartBuffer.getSnapshot(), 0, new Matrix(), 0, -ALL, ALL);
+            }
+        }
+        chartBuffer.publish();
+
+        // then
+        ChartPath complete = new ChartPath();
+        assertEquals(complete.update(chartBuffer.getSnapshot(), 0, new Matrix(), 0, -ALL, ALL), incremental.update(chartBuffer.getSnapshot(), 0, new Matrix(), 0, -ALL, ALL));
+    }
+
+    @Test
+    public void update_cullsChunks() {
+        // given: 10 points per pixel
+        ChartBuffer chartBuffer = new ChartBuffer(1);
+        for (int i = 0; i < 100000; i++) {
+            add(chartBuffer, i / 10.0, random.nextDouble());
+        }
+        chartBuffer.publish();
+        ChartBuffer.Snapshot snapshot = chartBuffer.getSnapshot();
+        ChartPath chartPath = new ChartPath();
+
+        // when / then
+        int numberOfPoints = chartPath.update(snapshot, 0, new Matrix(), 0, -ALL, ALL);
+        int numberOfVisiblePoints = chartPath.update(snapshot, 0, new Matrix(), 0, 5000, 5010);
+        assertTrue(numberOfVisiblePoints > 0);
+        assertTrue(numberOfVisiblePoints < 3 * ChartPath.CHUNK_SIZE);
+        assertTrue(numberOfVisiblePoints < numberOfPoints);
+        assertEquals(0, chartPath.update(snapshot, 0, new Matrix(), 0, 20000, 30000));
+    }
+}
@@ -0,0 +1,53 @@
+package de.dennisguse.opentracks.content.data;
+
+import android.util.Log;
+
+import androidx.test.filters.LargeTest;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Measures the heap usage of 100k {@link TrackPoint}s with all values set.
+ * The measurement depends on the garbage collector, so it is repeated; the minimum is logged.
+ */
+@RunWith(JUnit4.class)
+public class TrackPointBenchmarkTest {
+
+    private static final String TAG = TrackPointBenchmarkTest.class.getSimpleName();
+
+    private static final int NUM_TRACKPOINTS = 100000;
+    private static final int MEASUREMENT_ITERATIONS = 3;
+
+    @LargeTest
+    @Test
+    public void heap_100kTrackPoints() {
+        Runtime runtime = Runtime.getRuntime();
+        long bytes = Long.MAX_VALUE;
+
+        for (int iteration = 0; iteration < MEASUREMENT_ITERATIONS; iteration++) {
+            runtime.gc();
+            long heapBefore = runtime.totalMemory() - runtime.freeMemory();
+
+            List<TrackPoint> trackPoints = new ArrayList<>(NUM_TRACKPOINTS);
+            for (int i = 0; i < NUM_TRACKPOINTS; i++) {
+                trackPoints.add(TestDataUtil.createTrackPoint(i));
+            }
+
+            runtime.gc();
+            long heapAfter = runtime.totalMemory() - runtime.freeMemory();
+
+            // Keeps the TrackPoints reachable until the heap was measured.
+            assertEquals(NUM_TRACKPOINTS, trackPoints.size());
+            bytes = Math.min(bytes, heapAfter - heapBefore);
+        }
+
+        Log.i(TAG, "Heap of " + NUM_TRACKPOINTS + " TrackPoints: " + bytes + " bytes (" + bytes / NUM_TRACKPOINTS + " bytes per TrackPoint incl. the list)");
+    }
+}
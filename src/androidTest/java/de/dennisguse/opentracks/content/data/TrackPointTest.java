@@ -2,9 +2,12 @@ package de.dennisguse.opentracks.content.data;
 
 import org.junit.Test;
 
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
@@ -25,4 +28,43 @@ public class TrackPointTest {
 
         assertFalse(tp.isRecent());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void setOptionalValue_null() {
+        TrackPoint tp = new TrackPoint(TrackPoint.Type.TRACKPOINT);
+        assertFalse(tp.hasSpeed());
+
+        tp.setSpeed(5f);
+        assertTrue(tp.hasSpeed());
+        assertEquals(5f, tp.getSpeed(), 0.01);
+
+        tp.setSpeed(null);
+        assertFalse(tp.hasSpeed());
+    }
+
+    @Test
+    public void reset() {
+        TrackPoint tp = TestDataUtil.createTrackPoint(1);
+        tp.reset(TrackPoint.Type.SEGMENT_END_MANUAL);
+
+        assertEquals(TrackPoint.Type.SEGMENT_END_MANUAL, tp.getType());
+        assertFalse(tp.hasLocation());
+        assertFalse(tp.hasAltitude());
+        assertFalse(tp.hasHeartRate());
+        assertFalse(tp.hasElevationGain());
+    }
+
+    /**
+     * Optional values are stored as primitives (with a presence bitmask) and not as boxed objects (one object per value).
+     */
+    @Test
+    public void fields_optionalValuesArePrimitives() {
+        for (Field field : TrackPoint.class.getDeclaredFields()) {
+            if (Modifier.isStatic(field.getModifiers())) {
+                continue;
+            }
+            Class<?> fieldType = field.getType();
+            assertFalse(field.getName(), fieldType == Double.class || fieldType == Float.class || fieldType == Integer.class || fieldType == Long.class);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package de.dennisguse.opentracks.content.provider;
+
+import android.content.ContentResolver;
+import android.net.Uri;
+import android.os.Handler;
+import android.os.Looper;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.time.Duration;
+
+import de.dennisguse.opentracks.content.data.TrackPointsColumns;
+import de.dennisguse.opentracks.content.data.TracksColumns;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@RunWith(MockitoJUnitRunner.class)
+public class ContentChangeNotifierTest {
+
+    @Mock
+    private ContentResolver contentResolverMock;
+
+    @Test
+    public void testNotifyChange_coalesced() {
+        // given
+        ContentChangeNotifier notifier = new ContentChangeNotifier(contentResolverMock, new Handler(Looper.getMainLooper()), Duration.ofMinutes(1));
+
+        // when
+        notifier.notifyChange(TrackPointsColumns.CONTENT_URI_BY_ID);
+        notifier.notifyChange(TracksColumns.CONTENT_URI);
+        notifier.notifyChange(TrackPointsColumns.CONTENT_URI_BY_ID);
+        notifier.notifyChange(TracksColumns.CONTENT_URI);
+
+        // then
+        verify(contentResolverMock, never()).notifyChange(any(Uri.class), any(), anyBoolean());
+
+        // when
+        notifier.flush();
+
+        // then
+        verify(contentResolverMock, times(1)).notifyChange(TrackPointsColumns.CONTENT_URI_BY_ID, null, false);
+        verify(contentResolverMock, times(1)).notifyChange(TracksColumns.CONTENT_URI, null, false);
+    }
+
+    @Test
+    public void testNotifyChange_immediately() {
+        // given
+        ContentChangeNotifier notifier = new ContentChangeNotifier(contentResolverMock, new Handler(Looper.getMainLooper()), Duration.ofMinutes(1));
+
+        // when
+        notifier.notifyChange(CustomContentProvider.notifyImmediately(TracksColumns.CONTENT_URI));
+
+        // then
+        verify(contentResolverMock, times(1)).notifyChange(TracksColumns.CONTENT_URI, null, false);
+    }
+
+    @Test
+    public void testNotifyChange_noDebounce() {
+        // given
+        ContentChangeNotifier notifier = new ContentChangeNotifier(contentResolverMock, new Handler(Looper.getMainLooper()), Duration.ZERO);
+
+        // when
+        notifier.notifyChange(TracksColumns.CONTENT_URI);
+        notifier.notifyChange(TracksColumns.CONTENT_URI);
+
+        // then
+        verify(contentResolverMock, times(2)).notifyChange(TracksColumns.CONTENT_URI, null, false);
+    }
+}
@@ -21,6 +21,7 @@ import android.content.ContentValues;
 import android.content.Context;
 import android.database.Cursor;
 import android.location.Location;
+import android.net.Uri;
 import android.util.Pair;
 
 import androidx.test.core.app.ApplicationProvider;
@@ -38,10 +39,12 @@ import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Random;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
+import de.dennisguse.opentracks.content.data.AggregatedStatisticsColumns;
 import de.dennisguse.opentracks.content.data.Marker;
 import de.dennisguse.opentracks.content.data.MarkerColumns;
 import de.dennisguse.opentracks.content.data.TestDataUtil;
@@ -50,15 +53,19 @@ import de.dennisguse.opentracks.content.data.Track;
 import de.dennisguse.opentracks.content.data.TrackPoint;
 import de.dennisguse.opentracks.content.data.TrackPointsColumns;
 import de.dennisguse.opentracks.content.data.TracksColumns;
+import de.dennisguse.opentracks.stats.IntervalIndex;
 import de.dennisguse.opentracks.stats.SensorStatistics;
 import de.dennisguse.opentracks.stats.TrackStatistics;
 import de.dennisguse.opentracks.util.FileUtils;
 import de.dennisguse.opentracks.util.UUIDUtils;
+import de.dennisguse.opentracks.viewmodels.AggregatedStatistics;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.when;
 
@@ -108,6 +115,59 @@ public class CustomContentProviderUtilsTest {
         testIterator(new Track.Id(1), 20000);
     }
 
+    @Test
+    public void testLocationIterator_paged() {
+        // given
+        Track.Id trackId = new Track.Id(1);
+        TrackPoint.Id lastPointId = initializeTrack(trackId, 21);
+        initializeTrack(new Track.Id(2), 5);
+
+        // when
+        List<TrackPoint> trackPoints = new ArrayList<>();
+        try (TrackPointIterator it = new TrackPointIterator(contentProviderUtils, trackId, null, null, 7)) {
+            while (it.hasNext()) {
+                trackPoints.add(it.next());
+            }
+            assertFalse(it.hasNext());
+        }
+
+        // then
+        assertEquals(21, trackPoints.size());
+        for (int i = 0; i < trackPoints.size(); i++) {
+            assertEquals(lastPointId.getId() - 21 + i + 1, trackPoints.get(i).getId().getId());
+        }
+    }
+
+    @Test
+    public void testLocationIterator_reuseTrackPoint() {
+        // given
+        Track.Id trackId = new Track.Id(System.currentTimeMillis());
+        contentProviderUtils.insertTrack(TestDataUtil.createTrack(trackId));
+        contentProviderUtils.insertTrackPoint(TestDataUtil.createTrackPoint(1), trackId);
+        contentProviderUtils.insertTrackPoint(TrackPoint.createSegmentEndWithTime(Instant.ofEpochSecond(10)), trackId);
+
+        try (TrackPointIterator it = contentProviderUtils.getTrackPointLocationIterator(trackId, null)) {
+            TrackPoint reuse = new TrackPoint(TrackPoint.Type.TRACKPOINT);
+
+            // when / then
+            TrackPoint first = it.next(reuse);
+            assertSame(reuse, first);
+            assertEquals(TrackPoint.Type.TRACKPOINT, first.getType());
+            assertTrue(first.hasLocation());
+            assertTrue(first.hasHeartRate());
+
+            TrackPoint second = it.next(reuse);
+            assertSame(reuse, second);
+            assertEquals(TrackPoint.Type.SEGMENT_END_MANUAL, second.getType());
+            assertEquals(Instant.ofEpochSecond(10), second.getTime());
+            assertFalse(second.hasLocation());
+            assertFalse(second.hasHeartRate());
+            assertFalse(second.hasSpeed());
+
+            assertFalse(it.hasNext());
+        }
+    }
+
     private void testIterator(Track.Id trackId, int numPoints) {
         TrackPoint.Id lastPointId = initializeTrack(trackId, numPoints);
         List<TrackPoint> locations = new ArrayList<>(numPoints);
@@ -394,6 +454,90 @@ public class CustomContentProviderUtilsTest {
         assertNotNull(contentProviderUtils.getTrack(track.getUuid()));
     }
 
+    /**
+     * Tests that the track cursor does not contain the {@link TracksColumns#INTERVALINDEX}.
+     */
+    @Test
+    public void testGetTrackCursor_withoutIntervalIndex() {
+        // given
+        Track.Id trackId = new Track.Id(System.currentTimeMillis());
+        contentProviderUtils.insertTrack(TestDataUtil.createTrack(trackId));
+        contentProviderUtils.updateIntervalIndex(trackId, new IntervalIndex());
+
+        // when
+        try (Cursor cursor = contentProviderUtils.getTrackCursor(TracksColumns._ID + "=?", new String[]{Long.toString(trackId.getId())}, null)) {
+
+            // then
+            assertTrue(cursor.moveToFirst());
+            assertEquals(-1, cursor.getColumnIndex(TracksColumns.INTERVALINDEX));
+            assertEquals(trackId, ContentProviderUtils.createTrack(cursor).getId());
+        }
+    }
+
+    /**
+     * Tests the method {@link ContentProviderUtils#getIntervalIndex(Track.Id)}: computed from the trackPoints and stored, if not stored yet.
+     */
+    @Test
+    public void testGetIntervalIndex() {
+        // given
+        Track.Id trackId = new Track.Id(System.currentTimeMillis());
+        Pair<Track, List<TrackPoint>> track = TestDataUtil.createTrack(trackId, 10);
+        TestDataUtil.insertTrackWithLocations(contentProviderUtils, track.first, track.second);
+
+        IntervalIndex expected = new IntervalIndex();
+        for (TrackPoint trackPoint : track.second) {
+            expected.add(trackPoint);
+        }
+
+        // when
+        IntervalIndex intervalIndex = contentProviderUtils.getIntervalIndex(trackId);
+
+        // then
+        assertNotNull(intervalIndex);
+        assertEquals(expected.size(), intervalIndex.size());
+        assertEquals(expected.getDistance_m(expected.size() - 1), intervalIndex.getDistance_m(intervalIndex.size() - 1), 1);
+        try (Cursor cursor = context.getContentResolver().query(TracksColumns.CONTENT_URI, new String[]{TracksColumns.INTERVALINDEX}, TracksColumns._ID + "=?", new String[]{Long.toString(trackId.getId())}, null)) {
+            assertTrue(cursor.moveToFirst());
+            assertArrayEquals(intervalIndex.toBytes(), cursor.getBlob(0));
+        }
+
+        // given
+        IntervalIndex storedIntervalIndex = new IntervalIndex(0);
+        storedIntervalIndex.add(track.second.get(0));
+        contentProviderUtils.updateIntervalIndex(trackId, storedIntervalIndex);
+
+        // when / then: not computed again
+        assertEquals(1, contentProviderUtils.getIntervalIndex(trackId).size());
+        assertNull(contentProviderUtils.getIntervalIndex(new Track.Id(-1)));
+    }
+
+    /**
+     * Tests the method {@link ContentProviderUtils#updateIntervalIndex(Track.Id, IntervalIndex, int)}: only the changed checkpoints are replaced.
+     */
+    @Test
+    public void testUpdateIntervalIndex_fromIndex() {
+        // given
+        Track.Id trackId = new Track.Id(System.currentTimeMillis());
+        Pair<Track, List<TrackPoint>> track = TestDataUtil.createTrack(trackId, 10);
+        contentProviderUtils.insertTrack(track.first);
+
+        IntervalIndex intervalIndex = new IntervalIndex(0);
+        for (TrackPoint trackPoint : track.second.subList(0, 5)) {
+            intervalIndex.add(trackPoint);
+        }
+        contentProviderUtils.updateIntervalIndex(trackId, intervalIndex);
+        int storedSize = intervalIndex.size();
+
+        // when
+        for (TrackPoint trackPoint : track.second.subList(5, 10)) {
+            intervalIndex.add(trackPoint);
+        }
+        contentProviderUtils.updateIntervalIndex(trackId, intervalIndex, storedSize - 1);
+
+        // then
+        assertArrayEquals(intervalIndex.toBytes(), contentProviderUtils.getIntervalIndex(trackId).toBytes());
+    }
+
     /**
      * Tests the method {@link ContentProviderUtils#updateTrack(Track)}
      */
@@ -414,6 +558,101 @@ public class CustomContentProviderUtilsTest {
         assertEquals(nameNew, contentProviderUtils.getTrack(trackId).getName());
     }
 
+    /**
+     * Tests the method {@link ContentProviderUtils#updateTrackStatistics(Track.Id, TrackStatistics)}
+     */
+    @Test
+    public void testUpdateTrackStatistics() {
+        // given
+        Track.Id trackId = new Track.Id(System.currentTimeMillis());
+        Track track = TestDataUtil.createTrack(trackId);
+        track.setName("name1");
+        contentProviderUtils.insertTrack(track);
+
+        TrackStatistics statistics = new TrackStatistics();
+        statistics.setStartTime(Instant.ofEpochMilli(1000));
+        statistics.setStopTime(Instant.ofEpochMilli(2500));
+        statistics.setTotalDistance(42);
+
+        // when
+        track.setName("name2");
+        contentProviderUtils.updateTrackStatistics(trackId, statistics);
+
+        // then
+        Track updatedTrack = contentProviderUtils.getTrack(trackId);
+        assertEquals("name1", updatedTrack.getName());
+        assertEquals(42, updatedTrack.getTrackStatistics().getTotalDistance(), 0.01);
+        assertEquals(Instant.ofEpochMilli(2500), updatedTrack.getTrackStatistics().getStopTime());
+    }
+
+    /**
+     * Tests the method {@link ContentProviderUtils#updateTrackStatistics(Track.Id, TrackStatistics, TrackStatistics)}: only the columns differing from the stored statistics are written.
+     */
+    @Test
+    public void testUpdateTrackStatistics_onlyChangedColumns() {
+        // given
+        Track.Id trackId = new Track.Id(System.currentTimeMillis());
+        Track track = TestDataUtil.createTrack(trackId);
+        contentProviderUtils.insertTrack(track);
+
+        TrackStatistics storedStatistics = new TrackStatistics();
+        storedStatistics.setStartTime(Instant.ofEpochMilli(1000));
+        storedStatistics.setStopTime(Instant.ofEpochMilli(2500));
+        storedStatistics.setTotalDistance(42);
+        storedStatistics.setMaxSpeed(10);
+        contentProviderUtils.updateTrackStatistics(trackId, storedStatistics);
+
+        // Modified outside of the written statistics; must be kept as the max speed did not change.
+        TrackStatistics modifiedStatistics = new TrackStatistics(storedStatistics);
+        modifiedStatistics.setMaxSpeed(20);
+        contentProviderUtils.updateTrackStatistics(trackId, modifiedStatistics);
+
+        TrackStatistics statistics = new TrackStatistics(storedStatistics);
+        statistics.setStopTime(Instant.ofEpochMilli(3500));
+        statistics.setTotalDistance(84);
+
+        // when
+        contentProviderUtils.updateTrackStatistics(trackId, statistics, storedStatistics);
+
+        // then
+        TrackStatistics updatedStatistics = contentProviderUtils.getTrack(trackId).getTrackStatistics();
+        assertEquals(84, updatedStatistics.getTotalDistance(), 0.01);
+        assertEquals(Instant.ofEpochMilli(3500), updatedStatistics.getStopTime());
+        assertEquals(Instant.ofEpochMilli(1000), updatedStatistics.getStartTime());
+        assertEquals(20, updatedStatistics.getMaxSpeed(), 0.01);
+    }
+
+    /**
+     * Tests the method {@link ContentProviderUtils#updateTrackDetails(Track)}: the statistics are not modified.
+     */
+    @Test
+    public void testUpdateTrackDetails() {
+        // given
+        Track.Id trackId = new Track.Id(System.currentTimeMillis());
+        Track track = TestDataUtil.createTrack(trackId);
+        track.setName("name1");
+        contentProviderUtils.insertTrack(track);
+
+        TrackStatistics statistics = new TrackStatistics();
+        statistics.setStartTime(Instant.ofEpochMilli(1000));
+        statistics.setStopTime(Instant.ofEpochMilli(2500));
+        statistics.setTotalDistance(42);
+        contentProviderUtils.updateTrackStatistics(trackId, statistics);
+
+        // when
+        track.setName("name2");
+        track.setCategory("category");
+        track.setTrackStatistics(new TrackStatistics());
+        contentProviderUtils.updateTrackDetails(track);
+
+        // then
+        Track updatedTrack = contentProviderUtils.getTrack(trackId);
+        assertEquals("name2", updatedTrack.getName());
+        assertEquals("category", updatedTrack.getCategory());
+        assertEquals(42, updatedTrack.getTrackStatistics().getTotalDistance(), 0.01);
+        assertEquals(Instant.ofEpochMilli(2500), updatedTrack.getTrackStatistics().getStopTime());
+    }
+
     /**
      * Tests the method {@link ContentProviderUtils#createContentValues(Marker)}.
      */
@@ -768,6 +1007,197 @@ public class CustomContentProviderUtilsTest {
         assertEquals(28, contentProviderUtils.getTrackPointCursor(trackId, null).getCount());
     }
 
+    /**
+     * Tests the methods {@link ContentProviderUtils#getTrackPointCount(Track.Id)} and {@link ContentProviderUtils#getLastTrackPointId(Track.Id)}.
+     */
+    @Test
+    public void testGetTrackPointCountAndLastTrackPointId() {
+        // given
+        Track.Id trackId = new Track.Id(System.currentTimeMillis());
+        Track.Id otherTrackId = new Track.Id(trackId.getId() + 1);
+        contentProviderUtils.insertTrack(TestDataUtil.createTrack(trackId));
+        contentProviderUtils.insertTrack(TestDataUtil.createTrack(otherTrackId));
+        assertEquals(0, contentProviderUtils.getTrackPointCount(trackId));
+        assertNull(contentProviderUtils.getLastTrackPointId(trackId));
+
+        // when: interleaved inserts
+        contentProviderUtils.bulkInsertTrackPoint(List.of(TestDataUtil.createTrackPoint(1), TestDataUtil.createTrackPoint(2)), trackId);
+        contentProviderUtils.insertTrackPoint(TestDataUtil.createTrackPoint(3), otherTrackId);
+        Uri lastUri = contentProviderUtils.insertTrackPoint(TestDataUtil.createTrackPoint(4), trackId);
+
+        // then
+        assertEquals(3, contentProviderUtils.getTrackPointCount(trackId));
+        assertEquals(new TrackPoint.Id(ContentUris.parseId(lastUri)), contentProviderUtils.getLastTrackPointId(trackId));
+        assertEquals(1, contentProviderUtils.getTrackPointCount(otherTrackId));
+
+        // when: delete last trackPoint
+        context.getContentResolver().delete(TrackPointsColumns.CONTENT_URI_BY_ID, TrackPointsColumns._ID + "=?", new String[]{Long.toString(ContentUris.parseId(lastUri))});
+
+        // then
+        assertEquals(2, contentProviderUtils.getTrackPointCount(trackId));
+        assertTrue(contentProviderUtils.getLastTrackPointId(trackId).getId() < ContentUris.parseId(lastUri));
+        assertEquals(1, contentProviderUtils.getTrackPointCount(otherTrackId));
+    }
+
+    /**
+     * Deleting trackpoints only recomputes the number of trackpoints of their tracks.
+     */
+    @Test
+    public void testDeleteTrackPoint_recomputesOnlyAffectedTracks() {
+        // given
+        Track.Id trackId = new Track.Id(System.currentTimeMillis());
+        Track.Id otherTrackId = new Track.Id(trackId.getId() + 1);
+        contentProviderUtils.insertTrack(TestDataUtil.createTrack(trackId));
+        contentProviderUtils.insertTrack(TestDataUtil.createTrack(otherTrackId));
+        Uri uri = contentProviderUtils.insertTrackPoint(TestDataUtil.createTrackPoint(1), trackId);
+        contentProviderUtils.insertTrackPoint(TestDataUtil.createTrackPoint(2), trackId);
+        contentProviderUtils.insertTrackPoint(TestDataUtil.createTrackPoint(3), otherTrackId);
+
+        // Not matching the trackpoints; would be corrected by a recompute.
+        ContentValues values = new ContentValues();
+        values.put(TracksColumns.NUMPOINTS, 42);
+        context.getContentResolver().update(TracksColumns.CONTENT_URI, values, TracksColumns._ID + "=?", new String[]{Long.toString(otherTrackId.getId())});
+
+        // when
+        context.getContentResolver().delete(TrackPointsColumns.CONTENT_URI_BY_ID, TrackPointsColumns._ID + "=?", new String[]{Long.toString(ContentUris.parseId(uri))});
+
+        // then
+        assertEquals(1, contentProviderUtils.getTrackPointCount(trackId));
+        assertEquals(42, contentProviderUtils.getTrackPointCount(otherTrackId));
+    }
+
+    /**
+     * Updating sensor data of trackpoints only invalidates the sensor statistics of their tracks.
+     */
+    @Test
+    public void testUpdateTrackPoint_invalidatesOnlyAffectedSensorStatistics() {
+        // given
+        Track.Id trackId = new Track.Id(System.currentTimeMillis());
+        Track.Id otherTrackId = new Track.Id(trackId.getId() + 1);
+        contentProviderUtils.insertTrack(TestDataUtil.createTrack(trackId));
+        contentProviderUtils.insertTrack(TestDataUtil.createTrack(otherTrackId));
+        Uri uri = contentProviderUtils.insertTrackPoint(TestDataUtil.createTrackPoint(1), trackId);
+        contentProviderUtils.insertTrackPoint(TestDataUtil.createTrackPoint(2), trackId);
+        contentProviderUtils.insertTrackPoint(TestDataUtil.createTrackPoint(3), otherTrackId);
+        contentProviderUtils.insertTrackPoint(TestDataUtil.createTrackPoint(4), otherTrackId);
+        assertNotNull(contentProviderUtils.getSensorStats(trackId));
+        assertNotNull(contentProviderUtils.getSensorStats(otherTrackId));
+
+        // when
+        ContentValues values = new ContentValues();
+        values.put(TrackPointsColumns.SENSOR_HEARTRATE, 42);
+        context.getContentResolver().update(uri, values, null, null);
+
+        // then
+        assertTrue(isSensorStatisticsStored(otherTrackId));
+        assertFalse(isSensorStatisticsStored(trackId));
+    }
+
+    private boolean isSensorStatisticsStored(Track.Id trackId) {
+        try (Cursor cursor = context.getContentResolver().query(TracksColumns.CONTENT_URI, new String[]{TracksColumns.SENSORTIME}, TracksColumns._ID + "=?", new String[]{Long.toString(trackId.getId())}, null)) {
+            assertTrue(cursor.moveToFirst());
+            return !cursor.isNull(0);
+        }
+    }
+
+    @Test
+    public void testGetAggregatedStatistics() {
+        // given
+        Track.Id trackId1 = new Track.Id(System.currentTimeMillis());
+        Track.Id trackId2 = new Track.Id(trackId1.getId() + 1);
+        Track.Id trackId3 = new Track.Id(trackId1.getId() + 2);
+        contentProviderUtils.insertTrack(createTrackWithStatistics(trackId1, "running", 1000, 10));
+        contentProviderUtils.insertTrack(createTrackWithStatistics(trackId2, "running", 2000, 12));
+        contentProviderUtils.insertTrack(createTrackWithStatistics(trackId3, "biking", 5000, 15));
+
+        // then
+        assertAggregatedStatistics(contentProviderUtils.getTracks(), contentProviderUtils.getAggregatedStatistics());
+
+        // when: change statistics and category
+        Track track2 = contentProviderUtils.getTrack(trackId2);
+        track2.getTrackStatistics().setMaxSpeed(5);
+        contentProviderUtils.updateTrack(track2);
+        Track track3 = contentProviderUtils.getTrack(trackId3);
+        track3.setCategory("running");
+        contentProviderUtils.updateTrack(track3);
+
+        // then
+        assertAggregatedStatistics(contentProviderUtils.getTracks(), contentProviderUtils.getAggregatedStatistics());
+        assertEquals(1, contentProviderUtils.getAggregatedStatistics().getCount());
+
+        // when
+        contentProviderUtils.deleteTrack(context, trackId3);
+
+        // then
+        assertAggregatedStatistics(contentProviderUtils.getTracks(), contentProviderUtils.getAggregatedStatistics());
+        assertEquals(12, contentProviderUtils.getAggregatedStatistics().get("running").getTrackStatistics().getMaxSpeed(), 0.01);
+    }
+
+    @Test
+    public void testGetAggregatedStatistics_byPeriod() {
+        // given
+        Track.Id trackId1 = new Track.Id(System.currentTimeMillis());
+        Track.Id trackId2 = new Track.Id(trackId1.getId() + 1);
+        Track.Id trackId3 = new Track.Id(trackId1.getId() + 2);
+        contentProviderUtils.insertTrack(createTrackWithStatistics(trackId1, "running", 1000, 10, Instant.parse("2021-03-15T12:00:00Z")));
+        contentProviderUtils.insertTrack(createTrackWithStatistics(trackId2, "biking", 5000, 15, Instant.parse("2021-03-20T12:00:00Z")));
+        contentProviderUtils.insertTrack(createTrackWithStatistics(trackId3, "running", 2000, 12, Instant.parse("2021-05-10T12:00:00Z")));
+
+        // when
+        Map<String, AggregatedStatistics> byMonth = contentProviderUtils.getAggregatedStatistics(AggregatedStatisticsColumns.Period.MONTH);
+        Map<String, AggregatedStatistics> byYear = contentProviderUtils.getAggregatedStatistics(AggregatedStatisticsColumns.Period.YEAR);
+
+        // then: most recent period first
+        assertEquals(List.of("2021-05", "2021-03"), new ArrayList<>(byMonth.keySet()));
+        assertEquals(1, byMonth.get("2021-05").getCount());
+        assertEquals(2000, byMonth.get("2021-05").get("running").getTrackStatistics().getTotalDistance(), 0.01);
+        assertEquals(2, byMonth.get("2021-03").getCount());
+        assertEquals(1, byMonth.get("2021-03").get("biking").getCountTracks());
+
+        assertEquals(List.of("2021"), new ArrayList<>(byYear.keySet()));
+        AggregatedStatistics.AggregatedStatistic running = byYear.get("2021").get("running");
+        assertEquals(2, running.getCountTracks());
+        assertEquals(3000, running.getTrackStatistics().getTotalDistance(), 0.01);
+        assertEquals(Duration.ofMinutes(20), running.getTrackStatistics().getTotalTime());
+        assertEquals(12, running.getTrackStatistics().getMaxSpeed(), 0.01);
+    }
+
+    private static Track createTrackWithStatistics(Track.Id trackId, String category, double totalDistance, double maxSpeed, Instant startTime) {
+        Track track = createTrackWithStatistics(trackId, category, totalDistance, maxSpeed);
+        track.getTrackStatistics().setStartTime(startTime);
+        return track;
+    }
+
+    private static Track createTrackWithStatistics(Track.Id trackId, String category, double totalDistance, double maxSpeed) {
+        Track track = TestDataUtil.createTrack(trackId);
+        track.setCategory(category);
+        TrackStatistics trackStatistics = track.getTrackStatistics();
+        trackStatistics.setStartTime(Instant.ofEpochMilli(trackId.getId()));
+        trackStatistics.setTotalDistance(totalDistance);
+        trackStatistics.setTotalTime(Duration.ofMinutes(10));
+        trackStatistics.setMovingTime(Duration.ofMinutes(8));
+        trackStatistics.setMaxSpeed(maxSpeed);
+        trackStatistics.setTotalElevationGain(10f);
+        trackStatistics.setTotalElevationLoss(5f);
+        return track;
+    }
+
+    private static void assertAggregatedStatistics(List<Track> tracks, AggregatedStatistics actual) {
+        AggregatedStatistics expected = new AggregatedStatistics(tracks);
+        assertEquals(expected.getCount(), actual.getCount());
+        for (int i = 0; i < expected.getCount(); i++) {
+            AggregatedStatistics.AggregatedStatistic expectedItem = expected.getItem(i);
+            AggregatedStatistics.AggregatedStatistic actualItem = actual.get(expectedItem.getCategory());
+            assertNotNull(actualItem);
+            assertEquals(expectedItem.getCountTracks(), actualItem.getCountTracks());
+            assertEquals(expectedItem.getTrackStatistics().getTotalDistance(), actualItem.getTrackStatistics().getTotalDistance(), 0.01);
+            assertEquals(expectedItem.getTrackStatistics().getTotalTime(), actualItem.getTrackStatistics().getTotalTime());
+            assertEquals(expectedItem.getTrackStatistics().getMovingTime(), actualItem.getTrackStatistics().getMovingTime());
+            assertEquals(expectedItem.getTrackStatistics().getMaxSpeed(), actualItem.getTrackStatistics().getMaxSpeed(), 0.01);
+            assertEquals(expectedItem.getTrackStatistics().getTotalElevationGain(), actualItem.getTrackStatistics().getTotalElevationGain(), 0.01);
+        }
+    }
+
     /**
      * Tests the method {@link ContentProviderUtils#createTrackPoint(Cursor)}.
      */
@@ -905,6 +1335,29 @@ public class CustomContentProviderUtilsTest {
         assertFalse(trackPointIterator.hasNext());
     }
 
+    @Test
+    public void testGetTrackPointLocationIterator_projectionLocation() {
+        // given
+        Track.Id trackId = new Track.Id(System.currentTimeMillis());
+        Pair<Track, List<TrackPoint>> track = TestDataUtil.createTrack(trackId, 10);
+        TestDataUtil.insertTrackWithLocations(contentProviderUtils, track.first, track.second);
+
+        // when
+        try (TrackPointIterator trackPointIterator = contentProviderUtils.getTrackPointLocationIterator(trackId, null, TrackPointsColumns.PROJECTION_LOCATION)) {
+
+            // then
+            for (int i = 0; i < track.second.size(); i++) {
+                assertTrue(trackPointIterator.hasNext());
+                TrackPoint trackPoint = trackPointIterator.next();
+                checkLocation(i, trackPoint.getLocation());
+                assertEquals(track.second.get(i).getTime(), trackPoint.getTime());
+                assertFalse(trackPoint.hasHeartRate());
+                assertFalse(trackPoint.hasElevationGain());
+            }
+            assertFalse(trackPointIterator.hasNext());
+        }
+    }
+
     /**
      * Checks the value of a location.
      *
@@ -1217,6 +1670,52 @@ public class CustomContentProviderUtilsTest {
         assertEquals(sensorStatistics.getAvgPower(), stats.avgPower, 0f);
     }
 
+    /**
+     * The sensor statistics are maintained while inserting trackpoints (one by one and in batches) and recomputed after trackpoints were deleted.
+     */
+    @Test
+    public void testGetSensorStats_incremental() {
+        // given
+        Instant start = Instant.now();
+        TestSensorDataUtil sensorDataUtil = new TestSensorDataUtil();
+        sensorDataUtil.add(start, 140f, 75f, 250f, TrackPoint.Type.SEGMENT_START_AUTOMATIC);
+        sensorDataUtil.add(start.plus(2, ChronoUnit.SECONDS), 148f, 80f, 300f, TrackPoint.Type.TRACKPOINT);
+        sensorDataUtil.add(start.plus(3, ChronoUnit.SECONDS), 150f, 82f, 325f, TrackPoint.Type.TRACKPOINT);
+        sensorDataUtil.add(start.plus(26, ChronoUnit.SECONDS), 127f, 54f, 175f, TrackPoint.Type.SEGMENT_START_MANUAL);
+        sensorDataUtil.add(start.plus(29, ChronoUnit.SECONDS), 160f, 90f, 275f, TrackPoint.Type.TRACKPOINT);
+        sensorDataUtil.add(start.plus(36, ChronoUnit.SECONDS), 155f, 85f, 280f, TrackPoint.Type.TRACKPOINT);
+        sensorDataUtil.add(start.plus(44, ChronoUnit.SECONDS), 155f, 84f, 295f, TrackPoint.Type.SEGMENT_END_MANUAL);
+        List<TrackPoint> trackPoints = sensorDataUtil.getTrackPointList();
+
+        Track.Id trackId = new Track.Id(start.toEpochMilli());
+        contentProviderUtils.insertTrack(TestDataUtil.createTrack(trackId));
+
+        // when
+        contentProviderUtils.insertTrackPoint(trackPoints.get(0), trackId);
+        contentProviderUtils.bulkInsertTrackPoint(trackPoints.subList(1, 4), trackId);
+        contentProviderUtils.insertTrackPoint(trackPoints.get(4), trackId);
+        contentProviderUtils.bulkInsertTrackPoint(trackPoints.subList(5, trackPoints.size()), trackId);
+
+        // then
+        TestSensorDataUtil.SensorDataStats stats = sensorDataUtil.computeStats();
+        SensorStatistics sensorStatistics = contentProviderUtils.getSensorStats(trackId);
+        assertEquals(stats.avgHr, sensorStatistics.getAvgHeartRate(), 0.01f);
+        assertEquals(stats.maxHr, sensorStatistics.getMaxHeartRate(), 0.01f);
+        assertEquals(stats.avgCadence, sensorStatistics.getAvgCadence(), 0.01f);
+        assertEquals(stats.maxCadence, sensorStatistics.getMaxCadence(), 0.01f);
+        assertEquals(stats.avgPower, sensorStatistics.getAvgPower(), 0.01f);
+
+        // when: delete all trackpoints of another track (sensor statistics are recomputed)
+        Track.Id otherTrackId = new Track.Id(trackId.getId() + 1);
+        TestDataUtil.createTrackAndInsert(contentProviderUtils, otherTrackId, 2);
+        context.getContentResolver().delete(TrackPointsColumns.CONTENT_URI_BY_ID, TrackPointsColumns.TRACKID + "=?", new String[]{Long.toString(otherTrackId.getId())});
+
+        // then
+        sensorStatistics = contentProviderUtils.getSensorStats(trackId);
+        assertEquals(stats.avgHr, sensorStatistics.getAvgHeartRate(), 0.01f);
+        assertEquals(stats.avgPower, sensorStatistics.getAvgPower(), 0.01f);
+    }
+
     private void testGetSensorStats_randomData(int totalPoints, boolean withStartSegments) {
         // given
         Instant start = Instant.now();
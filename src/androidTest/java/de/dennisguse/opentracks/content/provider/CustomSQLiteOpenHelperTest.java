@@ -20,11 +20,13 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import de.dennisguse.opentracks.content.data.AggregatedStatisticsColumns;
 import de.dennisguse.opentracks.content.data.MarkerColumns;
 import de.dennisguse.opentracks.content.data.TrackPointsColumns;
 import de.dennisguse.opentracks.content.data.TracksColumns;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
@@ -76,6 +78,20 @@ public class CustomSQLiteOpenHelperTest {
         return false;
     }
 
+    /**
+     * @return the details of EXPLAIN QUERY PLAN for a SQL query.
+     */
+    private static String getQueryPlan(SQLiteDatabase db, String sql) {
+        StringBuilder queryPlan = new StringBuilder();
+        try (Cursor cursor = db.rawQuery("EXPLAIN QUERY PLAN " + sql, null)) {
+            int detailIndex = cursor.getColumnIndexOrThrow("detail");
+            while (cursor.moveToNext()) {
+                queryPlan.append(cursor.getString(detailIndex)).append("\n");
+            }
+        }
+        return queryPlan.toString();
+    }
+
     @Before
     @After
     public void setUp() {
@@ -89,9 +105,13 @@ public class CustomSQLiteOpenHelperTest {
 
             assertTrue(hasSqlCreate(db, TrackPointsColumns.CREATE_TABLE));
             assertTrue(hasSqlCreate(db, TrackPointsColumns.CREATE_TABLE_INDEX));
+            assertTrue(hasSqlCreate(db, TrackPointsColumns.CREATE_TABLE_INDEX_TIME));
 
             assertTrue(hasSqlCreate(db, MarkerColumns.CREATE_TABLE));
             assertTrue(hasSqlCreate(db, MarkerColumns.CREATE_TABLE_INDEX));
+
+            assertTrue(hasSqlCreate(db, AggregatedStatisticsColumns.CREATE_TABLE));
+            assertTrue(hasSqlCreate(db, AggregatedStatisticsColumns.CREATE_TABLE_INDEX));
         } catch (Exception e) {
             fail("Database could not be created: " + e);
         }
@@ -120,19 +140,21 @@ public class CustomSQLiteOpenHelperTest {
 
 
         // then - verify table structure
-        int tableCount = 3 + 2; //Three with data tables + two SQLite
+        int tableCount = 4 + 2; //Four with data tables + two SQLite
         assertEquals(tableCount, tableByUpgrade.size());
         assertEquals(tableByUpgrade.size(), tablesByCreate.size());
 
         assertEquals(tablesByCreate.get(TracksColumns.TABLE_NAME), tableByUpgrade.get(TracksColumns.TABLE_NAME));
         assertEquals(tablesByCreate.get(TrackPointsColumns.TABLE_NAME), tableByUpgrade.get(TrackPointsColumns.TABLE_NAME));
         assertEquals(tablesByCreate.get(MarkerColumns.TABLE_NAME), tableByUpgrade.get(MarkerColumns.TABLE_NAME));
+        assertEquals(tablesByCreate.get(AggregatedStatisticsColumns.TABLE_NAME), tableByUpgrade.get(AggregatedStatisticsColumns.TABLE_NAME));
 
         // then - verify custom indices
-        assertEquals(3, indicesByCreate.size());
+        assertEquals(5, indicesByCreate.size());
         assertEquals(indicesByUpgrade.get(TracksColumns.TABLE_NAME), indicesByCreate.get(TracksColumns.TABLE_NAME));
         assertEquals(indicesByUpgrade.get(TrackPointsColumns.TABLE_NAME), indicesByCreate.get(TrackPointsColumns.TABLE_NAME));
         assertEquals(indicesByUpgrade.get(MarkerColumns.TABLE_NAME), indicesByCreate.get(MarkerColumns.TABLE_NAME));
+        assertEquals(indicesByUpgrade.get(AggregatedStatisticsColumns.TABLE_NAME), indicesByCreate.get(AggregatedStatisticsColumns.TABLE_NAME));
     }
 
     @Test
@@ -157,6 +179,25 @@ public class CustomSQLiteOpenHelperTest {
         assertEquals(0, indicesByDowngrade.size());
     }
 
+    @Test
+    public void queryPlan_trackPointIndices() {
+        String byTime = "SELECT _id FROM trackpoints WHERE trackid = 1 AND time = 1000";
+        String lastTrackPointId = "SELECT MAX(_id) FROM trackpoints WHERE trackid = 1";
+
+        // before: version 32
+        createVersion23();
+        try (SQLiteDatabase db32 = new CustomSQLiteOpenHelper(context, DATABASE_NAME, 32).getReadableDatabase()) {
+            assertFalse(getQueryPlan(db32, byTime).contains("trackpoints_trackid_time_index"));
+            assertTrue(getQueryPlan(db32, lastTrackPointId).contains("trackpoints_trackid_index"));
+        }
+
+        // after: most recent version
+        try (SQLiteDatabase db = new CustomSQLiteOpenHelper(context, DATABASE_NAME).getReadableDatabase()) {
+            assertTrue(getQueryPlan(db, byTime).contains("trackpoints_trackid_time_index"));
+            assertTrue(getQueryPlan(db, lastTrackPointId).contains("trackpoints_trackid_index"));
+        }
+    }
+
     @Test
     public void track_uuid_unique() {
         try (SQLiteDatabase db = new CustomSQLiteOpenHelper(context, DATABASE_NAME).getWritableDatabase()) {
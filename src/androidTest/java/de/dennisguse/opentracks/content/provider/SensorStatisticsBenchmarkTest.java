@@ -0,0 +1,122 @@
+package de.dennisguse.opentracks.content.provider;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.util.Log;
+
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.filters.LargeTest;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Random;
+
+import de.dennisguse.opentracks.content.data.TestDataUtil;
+import de.dennisguse.opentracks.content.data.TestSensorDataUtil;
+import de.dennisguse.opentracks.content.data.Track;
+import de.dennisguse.opentracks.content.data.TrackPoint;
+import de.dennisguse.opentracks.content.data.TrackPointsColumns;
+import de.dennisguse.opentracks.stats.SensorStatistics;
+import de.dennisguse.opentracks.stats.SensorStatisticsUpdater;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Compares the previous SQL query for the sensor statistics (correlated subquery per trackpoint) with the single pass of {@link SensorStatisticsUpdater}.
+ */
+@RunWith(AndroidJUnit4.class)
+public class SensorStatisticsBenchmarkTest {
+
+    private static final String TAG = SensorStatisticsBenchmarkTest.class.getSimpleName();
+
+    private static final int NUM_TRACKPOINTS = 50000;
+
+    // The query used up to database version 35.
+    private static final String SENSOR_STATS_QUERY =
+            "WITH time_select as " +
+                    "(SELECT t1.time * (t1.type NOT IN (-2)) time_value FROM trackpoints t1 WHERE t1._id > t._id AND t1.trackid = ? ORDER BY _id LIMIT 1) " +
+                    "SELECT " +
+                    "SUM(t.sensor_heartrate * (COALESCE(MAX(t.time, (SELECT time_value FROM time_select)), t.time) - t.time)) / SUM(COALESCE(MAX(t.time, (SELECT time_value FROM time_select)), t.time) - t.time) avg_hr, " +
+                    "MAX(t.sensor_heartrate) max_hr, " +
+                    "SUM(t.sensor_cadence * (COALESCE(MAX(t.time, (SELECT time_value FROM time_select)), t.time) - t.time)) / SUM(COALESCE(MAX(t.time, (SELECT time_value FROM time_select)), t.time) - t.time) avg_cadence, " +
+                    "MAX(t.sensor_cadence) max_cadence, " +
+                    "SUM(t.sensor_power * (COALESCE(MAX(t.time, (SELECT time_value FROM time_select)), t.time) - t.time)) / SUM(COALESCE(MAX(t.time, (SELECT time_value FROM time_select)), t.time) - t.time) avg_power " +
+                    "FROM trackpoints t WHERE t.trackid = ? AND t.type NOT IN (-2)";
+
+    private final Context context = ApplicationProvider.getApplicationContext();
+    private ContentProviderUtils contentProviderUtils;
+
+    @Before
+    @After
+    public void setUp() {
+        contentProviderUtils = new ContentProviderUtils(context);
+        contentProviderUtils.deleteAllTracks(context);
+    }
+
+    @LargeTest
+    @Test
+    public void sqlQuery_vs_singlePass() {
+        // given
+        Instant start = Instant.now();
+        TestSensorDataUtil sensorDataUtil = new TestSensorDataUtil();
+        Random random = new Random(42);
+        for (int i = 0; i < NUM_TRACKPOINTS; i++) {
+            int randomNum = random.nextInt(500) - 2;
+            TrackPoint.Type type = randomNum >= 0 ? TrackPoint.Type.TRACKPOINT : TrackPoint.Type.getById(randomNum);
+            sensorDataUtil.add(start.plus(i, ChronoUnit.SECONDS), random.nextFloat() * 110f + 90f, random.nextFloat() * 70f + 40f, random.nextFloat() * 400f + 100f, type);
+        }
+        Track.Id trackId = new Track.Id(start.toEpochMilli());
+        TestDataUtil.insertTrackWithLocations(contentProviderUtils, TestDataUtil.createTrack(trackId), sensorDataUtil.getTrackPointList());
+        String[] selectionArgs = new String[]{Long.toString(trackId.getId())};
+
+        try (SQLiteDatabase db = new CustomSQLiteOpenHelper(context).getReadableDatabase()) {
+            // when: SQL
+            long startSql = System.nanoTime();
+            float sqlAvgHr;
+            float sqlMaxHr;
+            float sqlAvgPower;
+            try (Cursor cursor = db.rawQuery(SENSOR_STATS_QUERY, new String[]{selectionArgs[0], selectionArgs[0]})) {
+                cursor.moveToFirst();
+                sqlAvgHr = cursor.getFloat(cursor.getColumnIndexOrThrow(TrackPointsColumns.ALIAS_AVG_HR));
+                sqlMaxHr = cursor.getFloat(cursor.getColumnIndexOrThrow(TrackPointsColumns.ALIAS_MAX_HR));
+                sqlAvgPower = cursor.getFloat(cursor.getColumnIndexOrThrow(TrackPointsColumns.ALIAS_AVG_POWER));
+            }
+            long durationSql = System.nanoTime() - startSql;
+
+            // when: single pass
+            long startSinglePass = System.nanoTime();
+            SensorStatisticsUpdater sensorStatisticsUpdater = new SensorStatisticsUpdater();
+            String[] projection = {TrackPointsColumns.TIME, TrackPointsColumns.TYPE, TrackPointsColumns.SENSOR_HEARTRATE, TrackPointsColumns.SENSOR_CADENCE, TrackPointsColumns.SENSOR_POWER};
+            try (Cursor cursor = db.query(TrackPointsColumns.TABLE_NAME, projection, TrackPointsColumns.TRACKID + "=?", selectionArgs, null, null, TrackPointsColumns._ID)) {
+                while (cursor.moveToNext()) {
+                    sensorStatisticsUpdater.add(cursor.getLong(0), TrackPoint.Type.getById(cursor.getInt(1)), cursor.getFloat(2), cursor.getFloat(3), cursor.getFloat(4));
+                }
+            }
+            SensorStatistics singlePass = sensorStatisticsUpdater.getSensorStatistics();
+            long durationSinglePass = System.nanoTime() - startSinglePass;
+
+            // when: stored (maintained while inserting)
+            long startStored = System.nanoTime();
+            SensorStatistics stored = contentProviderUtils.getSensorStats(trackId);
+            long durationStored = System.nanoTime() - startStored;
+
+            Log.i(TAG, NUM_TRACKPOINTS + " trackpoints: SQL " + durationSql / 1000000 + "ms; single pass " + durationSinglePass / 1000000 + "ms; stored " + durationStored / 1000000 + "ms");
+
+            // then
+            assertEquals(sqlAvgHr, singlePass.getAvgHeartRate(), 0.01);
+            assertEquals(sqlMaxHr, singlePass.getMaxHeartRate(), 0.01);
+            assertEquals(sqlAvgPower, singlePass.getAvgPower(), 0.01);
+
+            assertEquals(sqlAvgHr, stored.getAvgHeartRate(), 0.01);
+            assertEquals(sqlMaxHr, stored.getMaxHeartRate(), 0.01);
+            assertEquals(sqlAvgPower, stored.getAvgPower(), 0.01);
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package de.dennisguse.opentracks.content.provider;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.filters.LargeTest;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import de.dennisguse.opentracks.content.data.TestDataUtil;
+import de.dennisguse.opentracks.content.data.Track;
+import de.dennisguse.opentracks.content.data.TrackPoint;
+import de.dennisguse.opentracks.stats.SensorStatistics;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Compares inserting trackpoints via {@link android.content.ContentValues} and the {@link android.content.ContentResolver} with the precompiled statement of {@link CustomContentProvider#insertTrackPoints(long, List)}.
+ */
+@RunWith(AndroidJUnit4.class)
+public class TrackPointBulkInsertBenchmarkTest {
+
+    private static final String TAG = TrackPointBulkInsertBenchmarkTest.class.getSimpleName();
+
+    private static final int NUM_TRACKPOINTS = 20000;
+    private static final int BATCH_SIZE = 1000;
+
+    private final Context context = ApplicationProvider.getApplicationContext();
+    private ContentProviderUtils contentProviderUtils;
+
+    @Before
+    @After
+    public void setUp() {
+        contentProviderUtils = new ContentProviderUtils(context);
+        contentProviderUtils.deleteAllTracks(context);
+    }
+
+    @LargeTest
+    @Test
+    public void contentValues_vs_statement() {
+        // given
+        List<TrackPoint> trackPoints = new ArrayList<>(NUM_TRACKPOINTS);
+        for (int i = 0; i < NUM_TRACKPOINTS; i++) {
+            trackPoints.add(TestDataUtil.createTrackPoint(i));
+        }
+        Track.Id contentValuesTrackId = new Track.Id(1);
+        Track.Id statementTrackId = new Track.Id(2);
+        contentProviderUtils.insertTrack(TestDataUtil.createTrack(contentValuesTrackId));
+        contentProviderUtils.insertTrack(TestDataUtil.createTrack(statementTrackId));
+
+        // when: ContentValues
+        long startContentValues = System.nanoTime();
+        for (int i = 0; i < NUM_TRACKPOINTS; i += BATCH_SIZE) {
+            contentProviderUtils.bulkInsertTrackPointContentValues(trackPoints.subList(i, Math.min(NUM_TRACKPOINTS, i + BATCH_SIZE)), contentValuesTrackId);
+        }
+        long durationContentValues = System.nanoTime() - startContentValues;
+
+        // when: statement
+        long startStatement = System.nanoTime();
+        for (int i = 0; i < NUM_TRACKPOINTS; i += BATCH_SIZE) {
+            contentProviderUtils.bulkInsertTrackPoint(trackPoints.subList(i, Math.min(NUM_TRACKPOINTS, i + BATCH_SIZE)), statementTrackId);
+        }
+        long durationStatement = System.nanoTime() - startStatement;
+
+        Log.i(TAG, NUM_TRACKPOINTS + " trackpoints: ContentValues " + NUM_TRACKPOINTS * 1000000000L / durationContentValues + " rows/s; statement " + NUM_TRACKPOINTS * 1000000000L / durationStatement + " rows/s");
+
+        // then
+        assertEquals(NUM_TRACKPOINTS, contentProviderUtils.getTrackPointCount(contentValuesTrackId));
+        assertEquals(NUM_TRACKPOINTS, contentProviderUtils.getTrackPointCount(statementTrackId));
+
+        List<TrackPoint> expected = TestDataUtil.getTrackPoints(contentProviderUtils, contentValuesTrackId);
+        List<TrackPoint> actual = TestDataUtil.getTrackPoints(contentProviderUtils, statementTrackId);
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getType(), actual.get(i).getType());
+            assertEquals(expected.get(i).getTime(), actual.get(i).getTime());
+            assertEquals(expected.get(i).getLatitude(), actual.get(i).getLatitude(), 0);
+            assertEquals(expected.get(i).getLongitude(), actual.get(i).getLongitude(), 0);
+            assertEquals(expected.get(i).getAltitude(), actual.get(i).getAltitude(), 0);
+            assertEquals(expected.get(i).getSpeed(), actual.get(i).getSpeed(), 0);
+            assertEquals(expected.get(i).getHeartRate_bpm(), actual.get(i).getHeartRate_bpm(), 0);
+            assertEquals(expected.get(i).getElevationGain(), actual.get(i).getElevationGain(), 0);
+        }
+
+        SensorStatistics expectedSensorStatistics = contentProviderUtils.getSensorStats(contentValuesTrackId);
+        SensorStatistics actualSensorStatistics = contentProviderUtils.getSensorStats(statementTrackId);
+        assertEquals(expectedSensorStatistics.getAvgHeartRate(), actualSensorStatistics.getAvgHeartRate(), 0.01);
+        assertEquals(expectedSensorStatistics.getMaxHeartRate(), actualSensorStatistics.getMaxHeartRate(), 0.01);
+        assertEquals(expectedSensorStatistics.getAvgPower(), actualSensorStatistics.getAvgPower(), 0.01);
+    }
+}
@@ -0,0 +1,147 @@
+package de.dennisguse.opentracks.io.file.importer;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.time.Instant;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests for {@link ElementContent}: the numbers must be parsed exactly as {@link Double#parseDouble(String)} and {@link Float#parseFloat(String)}.
+ */
+@RunWith(JUnit4.class)
+public class ElementContentTest {
+
+    @Test
+    public void testParse_decimal() {
+        assertParse("0");
+        assertParse("-0");
+        assertParse("0.0");
+        assertParse("42");
+        assertParse("48.137154");
+        assertParse("-11.576124");
+        assertParse("+3.5");
+        assertParse(".5");
+        assertParse("-.5");
+        assertParse("5.");
+        assertParse("0.1");
+        assertParse("469.286376953125");
+    }
+
+    @Test
+    public void testParse_exponent() {
+        assertParse("1e3");
+        assertParse("1.5E-7");
+        assertParse("-2.5e+2");
+        assertParse("4.9e-324");
+        assertParse("1.7976931348623157e308");
+    }
+
+    /**
+     * Numbers that are not exact with the fast path are parsed by the fallback.
+     */
+    @Test
+    public void testParse_fallback() {
+        assertParse("9007199254740993");
+        assertParse("123456789012345678");
+        assertParse("16777217");
+        assertParse("0.1234567890123456789012345");
+        assertParse("0.12345678901");
+        assertParse("NaN");
+        assertParse("-Infinity");
+    }
+
+    @Test
+    public void testParse_whitespace() {
+        assertParse(" 42.5 ");
+        assertParse("\t-0.001\n");
+        assertParse("\n  1e3\r\n");
+    }
+
+    @Test
+    public void testParse_invalid() {
+        assertInvalid("");
+        assertInvalid(" ");
+        assertInvalid("-");
+        assertInvalid(".");
+        assertInvalid("abc");
+        assertInvalid("1.2.3");
+        assertInvalid("1,5");
+        assertInvalid("1 2");
+    }
+
+    @Test
+    public void testParse_range() {
+        String text = "lat=\"48.137154\"";
+        assertEquals(48.137154, ElementContent.parseDouble(text, 5, 14), 0);
+        assertEquals(48.137154f, ElementContent.parseFloat(text, 5, 14), 0);
+    }
+
+    @Test
+    public void testContent() {
+        // given
+        ElementContent content = new ElementContent();
+        char[] text = " 48.13 <x>7154 ".toCharArray();
+
+        // when
+        content.append(text, 0, 6);
+        content.append(text, 10, 5);
+
+        // then
+        assertEquals(48.137154, content.parseDouble(), 0);
+        assertEquals(48.137154f, content.parseFloat(), 0);
+        assertEquals("48.137154", content.getTrimmed());
+
+        // when
+        content.clear();
+        content.append(" \n ".toCharArray(), 0, 3);
+
+        // then
+        assertTrue(content.isBlank());
+        assertTrue(Double.isNaN(content.parseDouble()));
+        assertTrue(Float.isNaN(content.parseFloat()));
+        assertNull(content.parseTime());
+        assertNull(content.getTrimmed());
+    }
+
+    @Test
+    public void testContent_parseTime() {
+        // given
+        ElementContent content = new ElementContent();
+        char[] text = "\n  2020-02-29T23:59:59.123Z\n".toCharArray();
+
+        // when
+        content.append(text, 0, text.length);
+
+        // then
+        assertEquals(Instant.parse("2020-02-29T23:59:59.123Z"), content.parseTime());
+    }
+
+    /**
+     * Asserts the same result (incl. the sign of zero) as {@link Double#parseDouble(String)} and {@link Float#parseFloat(String)}.
+     */
+    private static void assertParse(String value) {
+        assertEquals(value, Double.doubleToLongBits(Double.parseDouble(value)), Double.doubleToLongBits(ElementContent.parseDouble(value, 0, value.length())));
+        assertEquals(value, Float.floatToIntBits(Float.parseFloat(value)), Float.floatToIntBits(ElementContent.parseFloat(value, 0, value.length())));
+    }
+
+    private static void assertInvalid(String value) {
+        try {
+            ElementContent.parseDouble(value, 0, value.length());
+            fail(value);
+        } catch (NumberFormatException e) {
+            // expected
+        }
+        try {
+            ElementContent.parseFloat(value, 0, value.length());
+            fail(value);
+        } catch (NumberFormatException e) {
+            // expected
+        }
+    }
+}
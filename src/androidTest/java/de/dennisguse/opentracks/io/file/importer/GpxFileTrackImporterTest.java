@@ -0,0 +1,177 @@
+package de.dennisguse.opentracks.io.file.importer;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+
+import androidx.test.core.app.ApplicationProvider;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import de.dennisguse.opentracks.R;
+import de.dennisguse.opentracks.content.data.TestDataUtil;
+import de.dennisguse.opentracks.content.data.Track;
+import de.dennisguse.opentracks.content.data.TrackPoint;
+import de.dennisguse.opentracks.content.provider.ContentProviderUtils;
+import de.dennisguse.opentracks.stats.TrackStatistics;
+import de.dennisguse.opentracks.stats.TrackStatisticsUpdater;
+import de.dennisguse.opentracks.util.PreferencesUtils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.spy;
+
+/**
+ * Tests the streamed import of {@link AbstractFileTrackImporter} (TrackPoints are inserted in chunks) using {@link GpxFileTrackImporter}.
+ */
+@RunWith(JUnit4.class)
+public class GpxFileTrackImporterTest {
+
+    // More than two chunks of TrackPoints.
+    private static final int NUM_TRACKPOINTS = 2500;
+    private static final Instant START_TIME = Instant.parse("2021-03-01T10:00:00Z");
+
+    private final Context context = ApplicationProvider.getApplicationContext();
+    private final SharedPreferences sharedPreferences = PreferencesUtils.getSharedPreferences(context);
+    private final ContentProviderUtils contentProviderUtils = new ContentProviderUtils(context);
+
+    private ExecutorService databaseWriter;
+
+    @Before
+    public void setUp() {
+        PreferencesUtils.setBoolean(sharedPreferences, context, R.string.import_prevent_reimport_key, false);
+        contentProviderUtils.deleteAllTracks(context);
+        databaseWriter = Executors.newSingleThreadExecutor();
+    }
+
+    @After
+    public void tearDown() {
+        databaseWriter.shutdownNow();
+        contentProviderUtils.deleteAllTracks(context);
+    }
+
+    @Test
+    public void importFile_inserted() {
+        // given
+        GpxFileTrackImporter trackImporter = new GpxFileTrackImporter(context, contentProviderUtils);
+
+        // when
+        Track.Id trackId = trackImporter.importFile(new ByteArrayInputStream(createGpx(NUM_TRACKPOINTS, false))).get(0);
+
+        // then
+        assertTrackPoints(trackId, NUM_TRACKPOINTS);
+        assertStoredStatistics(trackId);
+    }
+
+    @Test
+    public void importFile_insertedByDatabaseWriter() {
+        // given
+        GpxFileTrackImporter trackImporter = new GpxFileTrackImporter(context, contentProviderUtils, databaseWriter);
+
+        // when
+        Track.Id trackId = trackImporter.importFile(new ByteArrayInputStream(createGpx(NUM_TRACKPOINTS, false))).get(0);
+
+        // then
+        assertTrackPoints(trackId, NUM_TRACKPOINTS);
+        assertStoredStatistics(trackId);
+        assertNotNull(contentProviderUtils.getIntervalIndex(trackId));
+    }
+
+    @Test
+    public void importFile_parsingErrorAfterInsertedChunks_cleanedUp() {
+        // given
+        GpxFileTrackImporter trackImporter = new GpxFileTrackImporter(context, contentProviderUtils, databaseWriter);
+
+        // when
+        try {
+            trackImporter.importFile(new ByteArrayInputStream(createGpx(NUM_TRACKPOINTS, true)));
+            fail();
+        } catch (ImportParserException e) {
+            // then
+            assertEquals(0, contentProviderUtils.getTracks().size());
+        }
+    }
+
+    @Test
+    public void importFile_runtimeExceptionAfterInsertedChunks_cleanedUp() {
+        // given
+        ContentProviderUtils contentProviderUtilsSpy = spy(contentProviderUtils);
+        doThrow(new IllegalStateException("test")).when(contentProviderUtilsSpy).updateIntervalIndex(any(), any());
+        GpxFileTrackImporter trackImporter = new GpxFileTrackImporter(context, contentProviderUtilsSpy, databaseWriter);
+
+        // when
+        try {
+            trackImporter.importFile(new ByteArrayInputStream(createGpx(NUM_TRACKPOINTS, false)));
+            fail();
+        } catch (IllegalStateException e) {
+            // then
+            assertEquals(0, contentProviderUtils.getTracks().size());
+        }
+    }
+
+    private void assertTrackPoints(Track.Id trackId, int numberOfTrackPoints) {
+        List<TrackPoint> trackPoints = TestDataUtil.getTrackPoints(contentProviderUtils, trackId);
+        assertEquals(numberOfTrackPoints, trackPoints.size());
+        for (int i = 0; i < numberOfTrackPoints; i++) {
+            assertEquals(START_TIME.plusSeconds(i), trackPoints.get(i).getTime());
+            assertEquals(getLatitude(i), trackPoints.get(i).getLatitude(), 0.000001);
+        }
+    }
+
+    /**
+     * The stored statistics must match the statistics of the inserted TrackPoints.
+     */
+    private void assertStoredStatistics(Track.Id trackId) {
+        TrackStatisticsUpdater trackStatisticsUpdater = new TrackStatisticsUpdater();
+        int recordingDistanceInterval = PreferencesUtils.getRecordingDistanceInterval(sharedPreferences, context);
+        TestDataUtil.getTrackPoints(contentProviderUtils, trackId).forEach(it -> trackStatisticsUpdater.addTrackPoint(it, recordingDistanceInterval));
+        TrackStatistics expected = trackStatisticsUpdater.getTrackStatistics();
+
+        TrackStatistics stored = contentProviderUtils.getTrack(trackId).getTrackStatistics();
+        assertEquals(expected.getStartTime(), stored.getStartTime());
+        assertEquals(expected.getStopTime(), stored.getStopTime());
+        assertEquals(expected.getTotalTime(), stored.getTotalTime());
+        assertEquals(expected.getMovingTime(), stored.getMovingTime());
+        assertEquals(expected.getTotalDistance(), stored.getTotalDistance(), 0.01);
+        assertEquals(expected.getMaxSpeed(), stored.getMaxSpeed(), 0.01);
+        assertEquals(expected.getMaxElevation(), stored.getMaxElevation(), 0.01);
+        assertEquals(expected.getTotalElevationGain(), stored.getTotalElevationGain(), 0.01);
+    }
+
+    private static double getLatitude(int i) {
+        return 48.137154 + i * 0.00001;
+    }
+
+    /**
+     * @param invalidLastLocation if the last TrackPoint has an invalid location (i.e., the import fails after the first chunks were inserted)
+     */
+    private static byte[] createGpx(int numberOfTrackPoints, boolean invalidLastLocation) {
+        StringBuilder gpx = new StringBuilder();
+        gpx.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n")
+                .append("<gpx version=\"1.1\" creator=\"test\" xmlns=\"http://www.topografix.com/GPX/1/1\">\n")
+                .append("<trk>\n<name>test</name>\n<trkseg>\n");
+        for (int i = 0; i < numberOfTrackPoints; i++) {
+            double latitude = invalidLastLocation && i == numberOfTrackPoints - 1 ? 95 : getLatitude(i);
+            gpx.append(String.format(Locale.US, "<trkpt lat=\"%.6f\" lon=\"%.6f\">\n", latitude, 11.576124))
+                    .append(String.format(Locale.US, "<ele>%.1f</ele>\n", 500 + (i % 100) * 0.5))
+                    .append("<time>").append(START_TIME.plusSeconds(i)).append("</time>\n")
+                    .append("</trkpt>\n");
+        }
+        gpx.append("</trkseg>\n</trk>\n</gpx>\n");
+        return gpx.toString().getBytes(StandardCharsets.UTF_8);
+    }
+}
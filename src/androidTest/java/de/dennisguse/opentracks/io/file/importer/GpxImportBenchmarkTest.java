@@ -0,0 +1,128 @@
+package de.dennisguse.opentracks.io.file.importer;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.util.Log;
+
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.filters.LargeTest;
+
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+import java.util.Locale;
+
+import de.dennisguse.opentracks.R;
+import de.dennisguse.opentracks.content.data.TestDataUtil;
+import de.dennisguse.opentracks.content.data.Track;
+import de.dennisguse.opentracks.content.data.TrackPoint;
+import de.dennisguse.opentracks.content.provider.ContentProviderUtils;
+import de.dennisguse.opentracks.util.PreferencesUtils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+/**
+ * Measures the import throughput of a large GPX file (generated) and how fast its re-import is aborted.
+ */
+@RunWith(JUnit4.class)
+public class GpxImportBenchmarkTest {
+
+    private static final String TAG = GpxImportBenchmarkTest.class.getSimpleName();
+
+    private static final int NUM_TRACKPOINTS = 50000;
+    private static final Instant START_TIME = Instant.parse("2021-03-01T10:00:00Z");
+
+    private final Context context = ApplicationProvider.getApplicationContext();
+    private final SharedPreferences sharedPreferences = PreferencesUtils.getSharedPreferences(context);
+    private final ContentProviderUtils contentProviderUtils = new ContentProviderUtils(context);
+
+    private Track.Id importTrackId;
+
+    @After
+    public void tearDown() {
+        if (importTrackId != null) {
+            contentProviderUtils.deleteTrack(context, importTrackId);
+        }
+    }
+
+    @LargeTest
+    @Test
+    public void gpx_import() {
+        // given
+        byte[] gpx = createGpx(NUM_TRACKPOINTS);
+        GpxFileTrackImporter trackImporter = new GpxFileTrackImporter(context, contentProviderUtils);
+
+        // when
+        long start = System.nanoTime();
+        importTrackId = trackImporter.importFile(new ByteArrayInputStream(gpx)).get(0);
+        long duration = System.nanoTime() - start;
+
+        Log.i(TAG, NUM_TRACKPOINTS + " trackpoints (" + gpx.length / 1024 + " KiB): " + NUM_TRACKPOINTS * 1000000000L / duration + " trackpoints/s");
+
+        // then
+        List<TrackPoint> trackPoints = TestDataUtil.getTrackPoints(contentProviderUtils, importTrackId);
+        assertEquals(NUM_TRACKPOINTS, trackPoints.size());
+
+        TrackPoint last = trackPoints.get(NUM_TRACKPOINTS - 1);
+        assertEquals(START_TIME.plusMillis(1000L * (NUM_TRACKPOINTS - 1) + 250), last.getTime());
+        assertEquals(getLatitude(NUM_TRACKPOINTS - 1), last.getLatitude(), 0.000001);
+        assertEquals(getLongitude(NUM_TRACKPOINTS - 1), last.getLongitude(), 0.000001);
+        assertEquals(120, last.getHeartRate_bpm(), 0);
+    }
+
+    /**
+     * The file has no track uuid; so, the re-import is detected by start time and first location.
+     */
+    @LargeTest
+    @Test
+    public void gpx_reimport_aborted() {
+        // given
+        PreferencesUtils.setBoolean(sharedPreferences, context, R.string.import_prevent_reimport_key, true);
+        byte[] gpx = createGpx(NUM_TRACKPOINTS);
+        importTrackId = new GpxFileTrackImporter(context, contentProviderUtils).importFile(new ByteArrayInputStream(gpx)).get(0);
+        int numberOfTracks = contentProviderUtils.getTracks().size();
+
+        // when
+        long start = System.nanoTime();
+        try {
+            new GpxFileTrackImporter(context, contentProviderUtils).importFile(new ByteArrayInputStream(gpx));
+            fail();
+        } catch (ImportAlreadyExistsException e) {
+            Log.i(TAG, "re-import aborted after " + (System.nanoTime() - start) / 1000000 + " ms");
+        }
+
+        // then
+        assertEquals(numberOfTracks, contentProviderUtils.getTracks().size());
+    }
+
+    private static double getLatitude(int i) {
+        return 48.137154 + i * 0.00001;
+    }
+
+    private static double getLongitude(int i) {
+        return 11.576124 + i * 0.00001;
+    }
+
+    private static byte[] createGpx(int numberOfTrackPoints) {
+        StringBuilder gpx = new StringBuilder();
+        gpx.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n")
+                .append("<gpx version=\"1.1\" creator=\"test\" xmlns=\"http://www.topografix.com/GPX/1/1\" xmlns:gpxtpx=\"http://www.garmin.com/xmlschemas/TrackPointExtension/v2\">\n")
+                .append("<trk>\n<name>benchmark</name>\n<trkseg>\n");
+        for (int i = 0; i < numberOfTrackPoints; i++) {
+            gpx.append(String.format(Locale.US, "<trkpt lat=\"%.6f\" lon=\"%.6f\">\n", getLatitude(i), getLongitude(i)))
+                    .append(String.format(Locale.US, "<ele>%.1f</ele>\n", 500 + (i % 100) * 0.5))
+                    .append("<time>").append(START_TIME.plusMillis(1000L * i + 250)).append("</time>\n")
+                    .append("<extensions><gpxtpx:TrackPointExtension><gpxtpx:hr>120</gpxtpx:hr></gpxtpx:TrackPointExtension></extensions>\n")
+                    .append("</trkpt>\n");
+        }
+        gpx.append("</trkseg>\n</trk>\n</gpx>\n");
+        return gpx.toString().getBytes(StandardCharsets.UTF_8);
+    }
+}
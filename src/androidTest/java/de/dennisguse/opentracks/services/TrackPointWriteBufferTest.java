@@ -0,0 +1,152 @@
+package de.dennisguse.opentracks.services;
+
+import android.database.sqlite.SQLiteException;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import de.dennisguse.opentracks.content.data.TestDataUtil;
+import de.dennisguse.opentracks.content.data.Track;
+import de.dennisguse.opentracks.content.data.TrackPoint;
+import de.dennisguse.opentracks.content.provider.ContentProviderUtils;
+import de.dennisguse.opentracks.stats.IntervalIndex;
+import de.dennisguse.opentracks.stats.TrackStatistics;
+import de.dennisguse.opentracks.stats.TrackStatisticsUpdater;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.ArgumentMatchers.same;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class TrackPointWriteBufferTest {
+
+    private final Track.Id trackId = new Track.Id(1);
+
+    @Mock
+    private ContentProviderUtils contentProviderUtils;
+
+    @Test
+    public void flush_keepsTrackPointsIfWritingFailed() {
+        // given
+        when(contentProviderUtils.bulkInsertTrackPoint(anyList(), any()))
+                .thenThrow(new SQLiteException("busy"))
+                .thenReturn(2);
+        TrackPointWriteBuffer trackPointWriteBuffer = new TrackPointWriteBuffer(contentProviderUtils, null);
+        TrackStatisticsUpdater trackStatisticsUpdater = new TrackStatisticsUpdater();
+        IntervalIndex intervalIndex = new IntervalIndex();
+        for (int i = 0; i < 2; i++) {
+            TrackPoint trackPoint = TestDataUtil.createTrackPoint(i);
+            trackStatisticsUpdater.addTrackPoint(trackPoint, 0);
+            trackPointWriteBuffer.add(trackId, trackPoint, trackStatisticsUpdater, intervalIndex);
+        }
+
+        // when
+        trackPointWriteBuffer.flush();
+
+        // then
+        assertEquals(2, trackPointWriteBuffer.size());
+
+        // when
+        trackPointWriteBuffer.flush();
+
+        // then
+        assertEquals(0, trackPointWriteBuffer.size());
+        verify(contentProviderUtils, times(2)).bulkInsertTrackPoint(anyList(), any());
+        verify(contentProviderUtils, times(1)).updateTrackStatistics(any(), any(), any());
+    }
+
+    @Test
+    public void flushIfExpired_keepsRecentTrackPoints() {
+        // given
+        TrackPointWriteBuffer trackPointWriteBuffer = new TrackPointWriteBuffer(contentProviderUtils, null);
+        TrackStatisticsUpdater trackStatisticsUpdater = new TrackStatisticsUpdater();
+        TrackPoint trackPoint = TestDataUtil.createTrackPoint(0);
+        trackStatisticsUpdater.addTrackPoint(trackPoint, 0);
+        trackPointWriteBuffer.add(trackId, trackPoint, trackStatisticsUpdater, new IntervalIndex());
+
+        // when
+        trackPointWriteBuffer.flushIfExpired();
+
+        // then
+        assertEquals(1, trackPointWriteBuffer.size());
+        verify(contentProviderUtils, never()).bulkInsertTrackPoint(anyList(), any());
+    }
+
+    @Test
+    public void flush_writesOnlyChangedTrackStatistics() {
+        // given
+        TrackPointWriteBuffer trackPointWriteBuffer = new TrackPointWriteBuffer(contentProviderUtils, null);
+        TrackStatisticsUpdater trackStatisticsUpdater = new TrackStatisticsUpdater();
+        IntervalIndex intervalIndex = new IntervalIndex();
+        TrackPoint trackPoint = TestDataUtil.createTrackPoint(0);
+        trackStatisticsUpdater.addTrackPoint(trackPoint, 0);
+        trackPointWriteBuffer.add(trackId, trackPoint, trackStatisticsUpdater, intervalIndex);
+        trackPointWriteBuffer.flush();
+        ArgumentCaptor<TrackStatistics> captor = ArgumentCaptor.forClass(TrackStatistics.class);
+        verify(contentProviderUtils).updateTrackStatistics(eq(trackId), captor.capture(), isNull());
+        TrackStatistics writtenTrackStatistics = captor.getValue();
+
+        // A copy of the shared snapshot
+        assertNotSame(trackStatisticsUpdater.getTrackStatistics(), writtenTrackStatistics);
+        assertEquals(trackStatisticsUpdater.getTrackStatistics().getStartTime(), writtenTrackStatistics.getStartTime());
+
+        // when: statistics did not change
+        trackPointWriteBuffer.add(trackId, TestDataUtil.createTrackPoint(1), trackStatisticsUpdater, intervalIndex);
+        trackPointWriteBuffer.flush();
+
+        // then
+        verify(contentProviderUtils, times(1)).updateTrackStatistics(any(), any(), any());
+
+        // when: statistics changed
+        trackPoint = TestDataUtil.createTrackPoint(2);
+        trackStatisticsUpdater.addTrackPoint(trackPoint, 0);
+        trackPointWriteBuffer.add(trackId, trackPoint, trackStatisticsUpdater, intervalIndex);
+        trackPointWriteBuffer.flush();
+
+        // then: written against the previously written statistics
+        verify(contentProviderUtils).updateTrackStatistics(eq(trackId), any(), same(writtenTrackStatistics));
+        verify(contentProviderUtils, times(2)).updateTrackStatistics(any(), any(), any());
+    }
+
+    @Test
+    public void flush_writesOnlyChangedCheckpoints() {
+        // given
+        TrackPointWriteBuffer trackPointWriteBuffer = new TrackPointWriteBuffer(contentProviderUtils, null);
+        TrackStatisticsUpdater trackStatisticsUpdater = new TrackStatisticsUpdater();
+        IntervalIndex intervalIndex = new IntervalIndex(0);
+        for (int i = 0; i < 3; i++) {
+            TrackPoint trackPoint = TestDataUtil.createTrackPoint(i);
+            trackStatisticsUpdater.addTrackPoint(trackPoint, 0);
+            intervalIndex.add(trackPoint);
+            trackPointWriteBuffer.add(trackId, trackPoint, trackStatisticsUpdater, intervalIndex);
+        }
+
+        // when
+        trackPointWriteBuffer.flush();
+
+        // then: whole intervalIndex
+        verify(contentProviderUtils).updateIntervalIndex(trackId, intervalIndex);
+
+        // when
+        TrackPoint trackPoint = TestDataUtil.createTrackPoint(3);
+        trackStatisticsUpdater.addTrackPoint(trackPoint, 0);
+        intervalIndex.add(trackPoint);
+        trackPointWriteBuffer.add(trackId, trackPoint, trackStatisticsUpdater, intervalIndex);
+        trackPointWriteBuffer.flush();
+
+        // then: from the last written checkpoint on
+        verify(contentProviderUtils).updateIntervalIndex(trackId, intervalIndex, 2);
+        verify(contentProviderUtils, times(1)).updateIntervalIndex(any(), any());
+    }
+}
@@ -12,7 +12,6 @@ import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
 
 import de.dennisguse.opentracks.content.data.TrackPoint;
-import de.dennisguse.opentracks.stats.TrackStatistics;
 
 import static org.mockito.ArgumentMatchers.anyBoolean;
 import static org.mockito.ArgumentMatchers.anyString;
@@ -28,9 +27,6 @@ public class TrackRecordingServiceNotificationManagerTest {
     @Mock
     private TrackPoint trackPointMock;
 
-    @Mock
-    private TrackStatistics trackStatisticsMock;
-
     @Mock
     private NotificationCompat.Builder notificationCompatBuilder;
 
@@ -41,7 +37,6 @@ public class TrackRecordingServiceNotificationManagerTest {
     public void updateLocation_triggersAlertOnlyOnFirstInaccurateLocation() {
         when(trackPointMock.hasAccuracy()).thenReturn(true);
         when(trackPointMock.getAccuracy()).thenReturn(999f);
-        when(trackStatisticsMock.getTotalDistance()).thenReturn(0d);
         when(notificationCompatBuilder.setContentText(anyString())).thenReturn(notificationCompatBuilder);
         when(notificationCompatBuilder.setOnlyAlertOnce(anyBoolean())).thenReturn(notificationCompatBuilder);
 
@@ -49,10 +44,10 @@ public class TrackRecordingServiceNotificationManagerTest {
         subject.setMetricUnits(true);
 
         // when
-        subject.updateTrackPoint(context, trackStatisticsMock, trackPointMock, 100);
-        subject.updateTrackPoint(context, trackStatisticsMock, trackPointMock, 100);
-        subject.updateTrackPoint(context, trackStatisticsMock, trackPointMock, 1000);
-        subject.updateTrackPoint(context, trackStatisticsMock, trackPointMock, 100);
+        subject.updateTrackPoint(context, 0, trackPointMock, 100);
+        subject.updateTrackPoint(context, 0, trackPointMock, 100);
+        subject.updateTrackPoint(context, 0, trackPointMock, 1000);
+        subject.updateTrackPoint(context, 0, trackPointMock, 100);
 
         // then
         verify(notificationCompatBuilder, times(6)).setOnlyAlertOnce(true);
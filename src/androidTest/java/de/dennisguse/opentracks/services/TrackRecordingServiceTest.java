@@ -256,6 +256,7 @@ public class TrackRecordingServiceTest {
         // when
         service.resumeTrack(trackId);
         newTrackPoint(service);
+        service.flushTrackPoints();
 
         // then
         assertTrue(service.isRecording());
@@ -0,0 +1,71 @@
+package de.dennisguse.opentracks.stats;
+
+import android.util.Log;
+
+import androidx.test.filters.LargeTest;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.util.Random;
+
+/**
+ * Measures the nanoseconds per added value (incl. reading the average) of {@link DoubleRingBuffer} compared to re-summing the window for several window sizes.
+ * Each measurement is repeated after a warmup; the minimum is logged.
+ */
+@RunWith(JUnit4.class)
+public class DoubleRingBufferBenchmarkTest {
+
+    private static final String TAG = DoubleRingBufferBenchmarkTest.class.getSimpleName();
+
+    private static final int NUM_VALUES = 20000;
+    private static final int WARMUP_ITERATIONS = 3;
+    private static final int MEASUREMENT_ITERATIONS = 5;
+
+    @LargeTest
+    @Test
+    public void getAverage() {
+        Random random = new Random(42);
+        double[] values = new double[NUM_VALUES];
+        for (int i = 0; i < NUM_VALUES; i++) {
+            values[i] = random.nextDouble() * 100;
+        }
+
+        for (int size : new int[]{25, 100, 250, 1000}) {
+            long naive = Long.MAX_VALUE;
+            long runningSum = Long.MAX_VALUE;
+            double blackhole = 0;
+
+            for (int iteration = 0; iteration < WARMUP_ITERATIONS + MEASUREMENT_ITERATIONS; iteration++) {
+                double[] window = new double[size];
+                long start = System.nanoTime();
+                for (int i = 0; i < values.length; i++) {
+                    window[i % size] = values[i];
+                    int numberOfEntries = Math.min(i + 1, size);
+                    double sum = 0;
+                    for (int j = 0; j < numberOfEntries; j++) {
+                        sum += window[j];
+                    }
+                    blackhole += sum / numberOfEntries;
+                }
+                long naiveIteration = System.nanoTime() - start;
+
+                DoubleRingBuffer buffer = new DoubleRingBuffer(size);
+                start = System.nanoTime();
+                for (double value : values) {
+                    buffer.setNext(value);
+                    blackhole += buffer.getAverage();
+                }
+                long runningSumIteration = System.nanoTime() - start;
+
+                if (iteration >= WARMUP_ITERATIONS) {
+                    naive = Math.min(naive, naiveIteration);
+                    runningSum = Math.min(runningSum, runningSumIteration);
+                }
+            }
+
+            Log.i(TAG, "window " + size + ": re-summing " + naive / NUM_VALUES + "ns; running sum " + runningSum / NUM_VALUES + "ns per value (" + blackhole + ")");
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package de.dennisguse.opentracks.stats;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.util.ArrayDeque;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(JUnit4.class)
+public class DoubleRingBufferTest {
+
+    private static final int[] WINDOW_SIZES = {1, 2, 25, 100, 250, 1000};
+
+    private final Random random = new Random(42);
+
+    /**
+     * Computes the statistics of the window by iterating over all values.
+     */
+    private static class NaiveWindow {
+        private final int size;
+        private final ArrayDeque<Double> values = new ArrayDeque<>();
+
+        NaiveWindow(int size) {
+            this.size = size;
+        }
+
+        void add(double value) {
+            if (values.size() == size) {
+                values.removeFirst();
+            }
+            values.addLast(value);
+        }
+
+        double average() {
+            double sum = 0;
+            for (double value : values) {
+                sum += value;
+            }
+            return sum / values.size();
+        }
+
+        double min() {
+            double min = Double.POSITIVE_INFINITY;
+            for (double value : values) {
+                min = Math.min(min, value);
+            }
+            return min;
+        }
+
+        double max() {
+            double max = Double.NEGATIVE_INFINITY;
+            for (double value : values) {
+                max = Math.max(max, value);
+            }
+            return max;
+        }
+
+        double variance() {
+            double average = average();
+            double sum = 0;
+            for (double value : values) {
+                sum += (value - average) * (value - average);
+            }
+            return sum / values.size();
+        }
+    }
+
+    @Test
+    public void getAverage() {
+        for (int size : WINDOW_SIZES) {
+            // given
+            DoubleRingBuffer buffer = new DoubleRingBuffer(size);
+            NaiveWindow expected = new NaiveWindow(size);
+            assertEquals(0, buffer.getAverage(), 0);
+
+            for (int i = 0; i < 10 * size + 100; i++) {
+                // when
+                double value = random.nextDouble() * 1000 - 500;
+                buffer.setNext(value);
+                expected.add(value);
+
+                // then
+                assertEquals(expected.average(), buffer.getAverage(), 1E-9);
+            }
+            assertTrue(buffer.isFull());
+
+            // when
+            buffer.reset();
+
+            // then
+            assertFalse(buffer.isFull());
+            assertEquals(0, buffer.getAverage(), 0);
+        }
+    }
+
+    @Test
+    public void getAverage_recoversFromNaN() {
+        // given
+        DoubleRingBuffer buffer = new DoubleRingBuffer(3);
+        buffer.setNext(1);
+        buffer.setNext(Double.NaN);
+        assertTrue(Double.isNaN(buffer.getAverage()));
+
+        // when
+        buffer.setNext(2);
+        buffer.setNext(3);
+        buffer.setNext(4);
+
+        // then
+        assertEquals(3, buffer.getAverage(), 0);
+    }
+
+    @Test
+    public void getMinMax() {
+        for (int size : WINDOW_SIZES) {
+            // given
+            MinMaxDoubleRingBuffer buffer = new MinMaxDoubleRingBuffer(size);
+            NaiveWindow expected = new NaiveWindow(size);
+            assertTrue(Double.isNaN(buffer.getMin()));
+
+            for (int i = 0; i < 10 * size + 100; i++) {
+                // when: also repeated values and monotonic sequences
+                double value = i % 50 < 10 ? i : random.nextInt(100);
+                buffer.setNext(value);
+                expected.add(value);
+
+                // then
+                assertEquals(expected.min(), buffer.getMin(), 0);
+                assertEquals(expected.max(), buffer.getMax(), 0);
+                assertEquals(expected.average(), buffer.getAverage(), 1E-9);
+            }
+
+            // when
+            buffer.reset();
+            buffer.setNext(-1);
+
+            // then
+            assertEquals(-1, buffer.getMin(), 0);
+            assertEquals(-1, buffer.getMax(), 0);
+        }
+    }
+
+    @Test
+    public void getVariance() {
+        for (int size : WINDOW_SIZES) {
+            // given
+            VarianceDoubleRingBuffer buffer = new VarianceDoubleRingBuffer(size);
+            NaiveWindow expected = new NaiveWindow(size);
+
+            for (int i = 0; i < 10 * size + 100; i++) {
+                // when: large values with small variance (like elevation)
+                double value = 4000 + random.nextGaussian();
+                buffer.setNext(value);
+                expected.add(value);
+
+                // then
+                assertEquals(expected.variance(), buffer.getVariance(), 1E-6);
+            }
+        }
+    }
+}
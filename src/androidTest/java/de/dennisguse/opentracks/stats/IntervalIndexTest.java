@@ -0,0 +1,119 @@
+package de.dennisguse.opentracks.stats;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.util.Arrays;
+import java.util.List;
+
+import de.dennisguse.opentracks.content.data.TestDataUtil;
+import de.dennisguse.opentracks.content.data.Track;
+import de.dennisguse.opentracks.content.data.TrackPoint;
+import de.dennisguse.opentracks.viewmodels.IntervalStatistics;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(JUnit4.class)
+public class IntervalIndexTest {
+
+    private static IntervalIndex createIntervalIndex(List<TrackPoint> trackPoints) {
+        IntervalIndex intervalIndex = new IntervalIndex();
+        for (TrackPoint trackPoint : trackPoints) {
+            intervalIndex.add(trackPoint);
+        }
+        return intervalIndex;
+    }
+
+    @Test
+    public void add_checkpoints() {
+        // given
+        List<TrackPoint> trackPoints = TestDataUtil.createTrack(new Track.Id(1), 1000).second;
+        TrackStatisticsUpdater trackStatisticsUpdater = new TrackStatisticsUpdater();
+        for (TrackPoint trackPoint : trackPoints) {
+            trackStatisticsUpdater.addTrackPoint(trackPoint, 0);
+        }
+        TrackStatistics trackStatistics = trackStatisticsUpdater.getTrackStatistics();
+
+        // when
+        IntervalIndex intervalIndex = createIntervalIndex(trackPoints);
+
+        // then
+        assertTrue(intervalIndex.size() < trackPoints.size() / 5);
+        for (int i = 1; i < intervalIndex.size() - 1; i++) {
+            assertTrue(intervalIndex.getDistance_m(i) - intervalIndex.getDistance_m(i - 1) >= IntervalIndex.DEFAULT_CHECKPOINT_DISTANCE_M);
+        }
+
+        int last = intervalIndex.size() - 1;
+        assertEquals(trackStatistics.getTotalDistance(), intervalIndex.getDistance_m(last), 0.01);
+        assertEquals(trackStatistics.getTotalTime().toMillis(), intervalIndex.getTime_ms(last));
+        assertEquals(trackPoints.size() * TestDataUtil.ELEVATION_GAIN, intervalIndex.getGain_m(last), 0.01);
+        assertEquals(trackPoints.size() * TestDataUtil.ELEVATION_LOSS, intervalIndex.getLoss_m(last), 0.01);
+    }
+
+    @Test
+    public void toBytes_fromBytes() {
+        // given
+        IntervalIndex intervalIndex = createIntervalIndex(TestDataUtil.createTrack(new Track.Id(1), 200).second);
+
+        // when
+        IntervalIndex restored = IntervalIndex.fromBytes(intervalIndex.toBytes());
+
+        // then
+        assertEquals(intervalIndex.getCheckpointDistance_m(), restored.getCheckpointDistance_m(), 0);
+        assertEquals(intervalIndex.size(), restored.size());
+        for (int i = 0; i < intervalIndex.size(); i++) {
+            assertEquals(intervalIndex.getDistance_m(i), restored.getDistance_m(i), 0.01);
+            assertEquals(intervalIndex.getTime_ms(i), restored.getTime_ms(i));
+            assertEquals(intervalIndex.getGain_m(i), restored.getGain_m(i), 0.01);
+            assertEquals(intervalIndex.getLoss_m(i), restored.getLoss_m(i), 0.01);
+        }
+    }
+
+    /**
+     * Adding trackPoints only changes the last checkpoint and appends new ones; so the changed bytes replace the stored ones.
+     */
+    @Test
+    public void toBytes_fromIndex() {
+        // given
+        List<TrackPoint> trackPoints = TestDataUtil.createTrack(new Track.Id(1), 400).second;
+        IntervalIndex intervalIndex = createIntervalIndex(trackPoints.subList(0, 200));
+        byte[] stored = intervalIndex.toBytes();
+        int storedSize = intervalIndex.size();
+
+        // when
+        trackPoints.subList(200, 400).forEach(intervalIndex::add);
+        byte[] changed = intervalIndex.toBytes(storedSize - 1);
+
+        // then
+        int byteOffset = IntervalIndex.getByteOffset(storedSize - 1);
+        byte[] updated = Arrays.copyOf(stored, byteOffset + changed.length);
+        System.arraycopy(changed, 0, updated, byteOffset, changed.length);
+        assertArrayEquals(intervalIndex.toBytes(), updated);
+    }
+
+    /**
+     * The intervals computed from the checkpoints should match the intervals computed from the trackPoints.
+     */
+    @Test
+    public void intervalStatistics() {
+        // given
+        List<TrackPoint> trackPoints = TestDataUtil.createTrack(new Track.Id(1), 1000).second;
+        IntervalIndex intervalIndex = createIntervalIndex(trackPoints);
+
+        for (float distanceInterval_m : new float[]{1000, 3000}) {
+            // when
+            List<IntervalStatistics.Interval> expected = new IntervalStatistics(trackPoints, distanceInterval_m).getIntervalList();
+            List<IntervalStatistics.Interval> actual = new IntervalStatistics(intervalIndex, distanceInterval_m).getIntervalList();
+
+            // then
+            assertEquals(expected.size(), actual.size());
+            for (int i = 0; i < expected.size(); i++) {
+                assertEquals(expected.get(i).getDistance_m(), actual.get(i).getDistance_m(), 0.01);
+                assertEquals(expected.get(i).getSpeed_ms(), actual.get(i).getSpeed_ms(), 0.1);
+            }
+        }
+    }
+}
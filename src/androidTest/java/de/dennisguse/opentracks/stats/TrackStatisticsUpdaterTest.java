@@ -14,6 +14,8 @@ import de.dennisguse.opentracks.content.data.Track;
 import de.dennisguse.opentracks.content.data.TrackPoint;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 
 @RunWith(AndroidJUnit4.class)
 public class TrackStatisticsUpdaterTest {
@@ -45,6 +47,33 @@ public class TrackStatisticsUpdaterTest {
         assertEquals(6.566, statistics.getAverageSpeed(), 0.01);
     }
 
+    @Test
+    public void getTrackStatistics_cachedUntilTrackPointAdded() {
+        // given
+        TrackStatisticsUpdater subject = new TrackStatisticsUpdater();
+        subject.addTrackPoint(new TrackPoint(TrackPoint.Type.SEGMENT_START_MANUAL, Instant.ofEpochMilli(1000)), GPS_DISTANCE);
+        subject.addTrackPoint(new TrackPoint(0, 0, 5.0, Instant.ofEpochMilli(2000)), GPS_DISTANCE);
+        long version = subject.getVersion();
+        TrackStatistics statistics = subject.getTrackStatistics();
+
+        // when / then
+        assertSame(statistics, subject.getTrackStatistics());
+        assertEquals(version, subject.getVersion());
+
+        // when
+        TrackPoint trackPoint = new TrackPoint(0.00001, 0, 5.0, Instant.ofEpochMilli(3000));
+        trackPoint.setSpeed(5f);
+        subject.addTrackPoint(trackPoint, GPS_DISTANCE);
+
+        // then
+        assertEquals(version + 1, subject.getVersion());
+        TrackStatistics updatedStatistics = subject.getTrackStatistics();
+        assertNotSame(statistics, updatedStatistics);
+        assertEquals(0, statistics.getTotalDistance(), 0.01);
+        assertEquals(1.10, updatedStatistics.getTotalDistance(), 0.01);
+        assertEquals(updatedStatistics.getTotalDistance(), subject.getTotalDistance(), 0.0001);
+    }
+
     @Test
     public void addTrackPoint_distance_from_GPS_not_moving() {
         // given
@@ -0,0 +1,80 @@
+package de.dennisguse.opentracks.util;
+
+import android.location.Location;
+import android.util.Log;
+
+import androidx.test.filters.LargeTest;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Measures the nanoseconds per distance computation of {@link GeodesicUtils} (each {@link GeodesicUtils.Mode}) compared to {@link Location#distanceTo(Location)}.
+ * Each measurement is repeated after a warmup; the minimum is logged.
+ */
+@RunWith(JUnit4.class)
+public class GeodesicUtilsBenchmarkTest {
+
+    private static final String TAG = GeodesicUtilsBenchmarkTest.class.getSimpleName();
+
+    private static final int NUM_DISTANCES = 200000;
+    private static final int WARMUP_ITERATIONS = 3;
+    private static final int MEASUREMENT_ITERATIONS = 5;
+
+    @LargeTest
+    @Test
+    public void distance() {
+        Random random = new Random(42);
+        double[] latitudes = new double[NUM_DISTANCES + 1];
+        double[] longitudes = new double[NUM_DISTANCES + 1];
+        latitudes[0] = 48.1;
+        longitudes[0] = 11.5;
+        for (int i = 1; i <= NUM_DISTANCES; i++) {
+            latitudes[i] = latitudes[i - 1] + random.nextDouble() * 0.0002 - 0.0001;
+            longitudes[i] = longitudes[i - 1] + random.nextDouble() * 0.0002 - 0.0001;
+        }
+
+        long durationLocation = Long.MAX_VALUE;
+        double sumLocation = 0;
+        for (int iteration = 0; iteration < WARMUP_ITERATIONS + MEASUREMENT_ITERATIONS; iteration++) {
+            sumLocation = 0;
+            long start = System.nanoTime();
+            for (int i = 1; i <= NUM_DISTANCES; i++) {
+                Location previous = new Location("");
+                previous.setLatitude(latitudes[i - 1]);
+                previous.setLongitude(longitudes[i - 1]);
+                Location current = new Location("");
+                current.setLatitude(latitudes[i]);
+                current.setLongitude(longitudes[i]);
+                sumLocation += current.distanceTo(previous);
+            }
+            if (iteration >= WARMUP_ITERATIONS) {
+                durationLocation = Math.min(durationLocation, System.nanoTime() - start);
+            }
+        }
+        Log.i(TAG, "Location.distanceTo(): " + durationLocation / NUM_DISTANCES + "ns per distance");
+
+        for (GeodesicUtils.Mode mode : GeodesicUtils.Mode.values()) {
+            long duration = Long.MAX_VALUE;
+            double sum = 0;
+            for (int iteration = 0; iteration < WARMUP_ITERATIONS + MEASUREMENT_ITERATIONS; iteration++) {
+                sum = 0;
+                long start = System.nanoTime();
+                for (int i = 1; i <= NUM_DISTANCES; i++) {
+                    sum += GeodesicUtils.distance(latitudes[i - 1], longitudes[i - 1], latitudes[i], longitudes[i], mode);
+                }
+                if (iteration >= WARMUP_ITERATIONS) {
+                    duration = Math.min(duration, System.nanoTime() - start);
+                }
+            }
+
+            Log.i(TAG, mode + ": " + duration / NUM_DISTANCES + "ns per distance");
+            assertEquals(sumLocation, sum, sumLocation * 0.005);
+        }
+    }
+}
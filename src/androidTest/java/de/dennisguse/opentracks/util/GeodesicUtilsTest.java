@@ -0,0 +1,123 @@
+package de.dennisguse.opentracks.util;
+
+import android.location.Location;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+public class GeodesicUtilsTest {
+
+    private static final int NUM_SAMPLES = 10000;
+
+    private final Random random = new Random(42);
+
+    /**
+     * @return distance in meters computed by {@link Location}.
+     */
+    private static float distanceByLocation(double latitude1, double longitude1, double latitude2, double longitude2) {
+        float[] results = new float[2];
+        Location.distanceBetween(latitude1, longitude1, latitude2, longitude2, results);
+        return results[0];
+    }
+
+    /**
+     * @return initial bearing in degrees computed by {@link Location}.
+     */
+    private static float bearingByLocation(double latitude1, double longitude1, double latitude2, double longitude2) {
+        float[] results = new float[2];
+        Location.distanceBetween(latitude1, longitude1, latitude2, longitude2, results);
+        return results[1];
+    }
+
+    @Test
+    public void distance_samePoint() {
+        assertEquals(0, GeodesicUtils.distance(48.1, 11.5, 48.1, 11.5), 0);
+        assertEquals(0, GeodesicUtils.distance(48.1, 11.5, 48.1, 11.5, GeodesicUtils.Mode.HAVERSINE), 0);
+        assertEquals(0, GeodesicUtils.distance(48.1, 11.5, 48.1, 11.5, GeodesicUtils.Mode.VINCENTY), 0);
+    }
+
+    @Test
+    public void distance_vincenty_errorBound() {
+        for (int i = 0; i < NUM_SAMPLES; i++) {
+            // given: arbitrary coordinates (not nearly antipodal)
+            double latitude1 = random.nextDouble() * 160 - 80;
+            double longitude1 = random.nextDouble() * 360 - 180;
+            double latitude2 = random.nextDouble() * 160 - 80;
+            double longitude2 = longitude1 + random.nextDouble() * 180 - 90;
+
+            // when
+            double expected = distanceByLocation(latitude1, longitude1, latitude2, longitude2);
+            double actual = GeodesicUtils.distance(latitude1, longitude1, latitude2, longitude2, GeodesicUtils.Mode.VINCENTY);
+
+            // then
+            assertEquals(expected, actual, 0.1 + expected * 1E-6);
+        }
+    }
+
+    @Test
+    public void distance_haversine_errorBound() {
+        for (int i = 0; i < NUM_SAMPLES; i++) {
+            // given
+            double latitude1 = random.nextDouble() * 160 - 80;
+            double longitude1 = random.nextDouble() * 360 - 180;
+            double latitude2 = random.nextDouble() * 160 - 80;
+            double longitude2 = longitude1 + random.nextDouble() * 180 - 90;
+
+            // when
+            double expected = distanceByLocation(latitude1, longitude1, latitude2, longitude2);
+            double actual = GeodesicUtils.distance(latitude1, longitude1, latitude2, longitude2, GeodesicUtils.Mode.HAVERSINE);
+
+            // then
+            assertEquals(expected, actual, 1 + expected * 0.005);
+        }
+    }
+
+    @Test
+    public void distance_shortHops_errorBound() {
+        for (int i = 0; i < NUM_SAMPLES; i++) {
+            // given: up to about 1km
+            double latitude1 = random.nextDouble() * 160 - 80;
+            double longitude1 = random.nextDouble() * 360 - 180;
+            double latitude2 = latitude1 + random.nextDouble() * 0.018 - 0.009;
+            double longitude2 = longitude1 + random.nextDouble() * 0.018 - 0.009;
+
+            // when
+            double expected = distanceByLocation(latitude1, longitude1, latitude2, longitude2);
+            double actualEquirectangular = GeodesicUtils.distance(latitude1, longitude1, latitude2, longitude2, GeodesicUtils.Mode.EQUIRECTANGULAR);
+            double actualDefault = GeodesicUtils.distance(latitude1, longitude1, latitude2, longitude2);
+
+            // then
+            assertEquals(expected, actualEquirectangular, 0.01);
+            assertEquals(expected, actualDefault, 0.01);
+        }
+    }
+
+    @Test
+    public void distance_crossingAntimeridian() {
+        double expected = distanceByLocation(0, 179.9999, 0, -179.9999);
+
+        assertEquals(expected, GeodesicUtils.distance(0, 179.9999, 0, -179.9999), 0.01);
+        assertEquals(expected, GeodesicUtils.distance(0, 179.9999, 0, -179.9999, GeodesicUtils.Mode.EQUIRECTANGULAR), 0.01);
+    }
+
+    @Test
+    public void bearing_errorBound() {
+        for (int i = 0; i < NUM_SAMPLES; i++) {
+            // given
+            double latitude1 = random.nextDouble() * 160 - 80;
+            double longitude1 = random.nextDouble() * 360 - 180;
+            double latitude2 = latitude1 + random.nextDouble() * 2 - 1;
+            double longitude2 = longitude1 + random.nextDouble() * 2 - 1;
+
+            // when
+            float expected = bearingByLocation(latitude1, longitude1, latitude2, longitude2);
+            float actual = GeodesicUtils.bearing(latitude1, longitude1, latitude2, longitude2);
+
+            // then
+            assertEquals(expected, actual, 0.01);
+        }
+    }
+}
@@ -24,7 +24,11 @@ import androidx.test.ext.junit.runners.AndroidJUnit4;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 
+import java.time.DateTimeException;
 import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeFormatter;
 import java.util.GregorianCalendar;
 import java.util.TimeZone;
 
@@ -120,6 +124,77 @@ public class StringUtilsTest {
         assertGetTime("2010-05-04T03:02:01.8-05:30", 2010, 5, 4, 8, 32, 1, 800);
     }
 
+    /**
+     * Tests {@link StringUtils#parseTime(CharSequence, int, int)} for the UTC format (parsed without creating a String).
+     */
+    @Test
+    public void testParseTime_utc() {
+        assertParseTime("1970-01-01T00:00:00Z");
+        assertParseTime("1969-12-31T23:59:59Z");
+        assertParseTime("0001-01-01T00:00:00Z");
+        assertParseTime("2010-05-04T03:02:01Z");
+        assertParseTime("2021-12-31T23:59:59Z");
+    }
+
+    @Test
+    public void testParseTime_utcFractional() {
+        assertParseTime("2010-05-04T03:02:01.3Z");
+        assertParseTime("2010-05-04T03:02:01.35Z");
+        assertParseTime("2010-05-04T03:02:01.352Z");
+        assertParseTime("2010-05-04T03:02:01.3529Z");
+        assertParseTime("2010-05-04T03:02:01.352912Z");
+        assertParseTime("2010-05-04T03:02:01.352912745Z");
+        assertParseTime("2010-05-04T03:02:01.000000001Z");
+        assertParseTime("2010-05-04T03:02:01.000Z");
+    }
+
+    @Test
+    public void testParseTime_leapDay() {
+        assertParseTime("2020-02-29T12:00:00Z");
+        assertParseTime("2000-02-29T12:00:00Z");
+        assertParseTime("2020-03-01T00:00:00Z");
+        assertParseTime("2021-02-28T23:59:59.999Z");
+    }
+
+    @Test(expected = DateTimeException.class)
+    public void testParseTime_noLeapDay() {
+        StringUtils.parseTime("1900-02-29T12:00:00Z");
+    }
+
+    @Test(expected = DateTimeException.class)
+    public void testParseTime_invalidMonth() {
+        StringUtils.parseTime("2021-13-01T00:00:00Z");
+    }
+
+    /**
+     * Other formats than UTC are parsed by the fallback.
+     */
+    @Test
+    public void testParseTime_offset() {
+        assertParseTime("2010-05-04T03:02:01+00:00");
+        assertParseTime("2010-05-04T03:02:01+02:00");
+        assertParseTime("2010-05-04T03:02:01.352-05:30");
+        assertParseTime("2020-02-29T23:30:00-01:00");
+        assertEquals(Instant.parse("2010-05-04T03:02:01Z"), StringUtils.parseTime("2010-05-04T03:02:01"));
+    }
+
+    @Test
+    public void testParseTime_range() {
+        String text = "<time>2020-02-29T23:59:59.25Z</time>";
+        assertEquals(Instant.parse("2020-02-29T23:59:59.25Z"), StringUtils.parseTime(text, 6, text.length() - 7));
+
+        text = "<time>2010-05-04T03:02:01+02:00</time>";
+        assertEquals(OffsetDateTime.parse("2010-05-04T03:02:01+02:00").toInstant(), StringUtils.parseTime(text, 6, text.length() - 7));
+    }
+
+    /**
+     * Asserts the {@link StringUtils#parseTime(String)} returns the same as {@link DateTimeFormatter#ISO_DATE_TIME}.
+     */
+    private void assertParseTime(String xmlDateTime) {
+        Instant expected = Instant.from(DateTimeFormatter.ISO_DATE_TIME.parse(xmlDateTime));
+        assertEquals(xmlDateTime, expected, StringUtils.parseTime(xmlDateTime));
+    }
+
     /**
      * Asserts the {@link StringUtils#parseTime(String)} returns the expected values.
      *
@@ -9,6 +9,7 @@ import java.util.List;
 import de.dennisguse.opentracks.content.data.TestDataUtil;
 import de.dennisguse.opentracks.content.data.Track;
 import de.dennisguse.opentracks.content.data.TrackPoint;
+import de.dennisguse.opentracks.stats.IntervalIndex;
 import de.dennisguse.opentracks.stats.TrackStatistics;
 import de.dennisguse.opentracks.stats.TrackStatisticsUpdater;
 import de.dennisguse.opentracks.util.UnitConversions;
@@ -112,6 +113,44 @@ public class IntervalStatisticsTest {
 		whenAndThen(trackPoints, trackStatistics, distanceInterval);
 	}
 
+	/**
+	 * Tests that the intervals of {@link IntervalStatisticsModel} computed from an {@link IntervalIndex} are equal to the intervals computed from the trackPoints; also after changing the interval length.
+	 */
+	@Test
+	public void testModel_intervalIndexAndChangeIntervalOption() {
+		// given
+		List<TrackPoint> trackPoints = buildTrackPoints(1000);
+		// One checkpoint per trackPoint: the intervals are the same as if computed from the trackPoints.
+		IntervalIndex intervalIndex = new IntervalIndex(0);
+		for (TrackPoint trackPoint : trackPoints) {
+			intervalIndex.add(trackPoint);
+		}
+		IntervalStatisticsModel model = new IntervalStatisticsModel();
+
+		// when
+		model.setIntervalIndex(IntervalIndex.fromBytes(intervalIndex.toBytes()));
+
+		// then
+		assertIntervalsEqual(new IntervalStatistics(trackPoints, 1000f).getIntervalList(), model.getIntervalList(true, IntervalStatisticsModel.IntervalOption.OPTION_1));
+		assertIntervalsEqual(new IntervalStatistics(trackPoints, 3000f).getIntervalList(), model.getIntervalList(true, IntervalStatisticsModel.IntervalOption.OPTION_3));
+
+		// when
+		model.setIntervalIndex(new IntervalIndex());
+
+		// then
+		assertEquals(0, model.getIntervalList(true, IntervalStatisticsModel.IntervalOption.OPTION_3).size());
+	}
+
+	private void assertIntervalsEqual(List<IntervalStatistics.Interval> expected, List<IntervalStatistics.Interval> actual) {
+		assertEquals(expected.size(), actual.size());
+		for (int i = 0; i < expected.size(); i++) {
+			assertEquals(expected.get(i).getDistance_m(), actual.get(i).getDistance_m(), 0.01);
+			assertEquals(expected.get(i).getSpeed_ms(), actual.get(i).getSpeed_ms(), 0.01);
+			assertEquals(expected.get(i).getGain_m(), actual.get(i).getGain_m(), 0.01);
+			assertEquals(expected.get(i).getLoss_m(), actual.get(i).getLoss_m(), 0.01);
+		}
+	}
+
 	private void whenAndThen(List<TrackPoint> trackPoints, TrackStatistics trackStatistics, float distanceInterval) {
 		IntervalStatistics intervalStatistics = new IntervalStatistics(trackPoints, distanceInterval);
 		List<IntervalStatistics.Interval> intervalList = intervalStatistics.getIntervalList();
@@ -0,0 +1,191 @@
+package de.dennisguse.opentracks.chart;
+
+import androidx.annotation.NonNull;
+
+import java.util.Arrays;
+
+/**
+ * Columnar, append-only storage of the chart data: the x values (time or distance) and one column per {@link ChartValueSeries}.
+ * Missing values are stored as NaN (like in {@link ChartPoint}).
+ * The extremities of the x values and of each column are maintained while appending, so readers do not need to iterate over the data.
+ * <p>
+ * The data is written by one thread (at a time) and read via immutable {@link Snapshot}s without locking.
+ * Appended values are only visible after {@link #publish()}.
+ * Values of a published snapshot are never modified: the writer only appends beyond its size and non-append changes (decimation and reset) create new arrays.
+ */
+class ChartBuffer {
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final int numberOfColumns;
+
+    private double[] xs;
+    private double[][] columns;
+    private int size;
+
+    // Extremities; NaN if there is no value.
+    private double maxX;
+    private double[] mins;
+    private double[] maxs;
+
+    private int generation = 0;
+    private int resetCount = 0;
+
+    private volatile Snapshot snapshot;
+
+    ChartBuffer(int numberOfColumns) {
+        this.numberOfColumns = numberOfColumns;
+        allocate(INITIAL_CAPACITY);
+        publish();
+    }
+
+    /**
+     * Appends a data point; visible to readers after {@link #publish()}.
+     *
+     * @param x      the x value
+     * @param values the value of each column (NaN if not available)
+     */
+    synchronized void add(double x, @NonNull double[] values) {
+        if (size == xs.length) {
+            xs = Arrays.copyOf(xs, 2 * size);
+            for (int i = 0; i < numberOfColumns; i++) {
+                columns[i] = Arrays.copyOf(columns[i], 2 * size);
+            }
+        }
+
+        append(x, values);
+    }
+
+    private void append(double x, double[] values) {
+        xs[size] = x;
+        maxX = max(maxX, x);
+        for (int i = 0; i < numberOfColumns; i++) {
+            double value = values[i];
+            columns[i][size] = value;
+            mins[i] = min(mins[i], value);
+            maxs[i] = max(maxs[i], value);
+        }
+        size++;
+    }
+
+    private static double min(double current, double value) {
+        return Double.isNaN(current) || value < current ? value : current;
+    }
+
+    private static double max(double current, double value) {
+        return Double.isNaN(current) || value > current ? value : current;
+    }
+
+    synchronized void publish() {
+        snapshot = new Snapshot(generation, resetCount, size, xs, columns.clone(), maxX, mins.clone(), maxs.clone());
+    }
+
+    /**
+     * Drops every other data point (starting with the second one) and publishes.
+     */
+    synchronized void decimate() {
+        double[] oldXs = xs;
+        double[][] oldColumns = columns;
+        int oldSize = size;
+
+        allocate(Math.max(INITIAL_CAPACITY, oldXs.length));
+        double[] values = new double[numberOfColumns];
+        for (int i = 0; i < oldSize; i += 2) {
+            for (int j = 0; j < numberOfColumns; j++) {
+                values[j] = oldColumns[j][i];
+            }
+            append(oldXs[i], values);
+        }
+        generation++;
+        publish();
+    }
+
+    /**
+     * Clears all data and publishes.
+     */
+    synchronized void reset() {
+        allocate(INITIAL_CAPACITY);
+        generation++;
+        resetCount++;
+        publish();
+    }
+
+    @NonNull
+    Snapshot getSnapshot() {
+        return snapshot;
+    }
+
+    private void allocate(int capacity) {
+        xs = new double[capacity];
+        columns = new double[numberOfColumns][capacity];
+        size = 0;
+
+        maxX = Double.NaN;
+        mins = new double[numberOfColumns];
+        maxs = new double[numberOfColumns];
+        Arrays.fill(mins, Double.NaN);
+        Arrays.fill(maxs, Double.NaN);
+    }
+
+    /**
+     * The first {@link #size} data points of the buffer at the time of {@link #publish()}.
+     */
+    static class Snapshot {
+        /**
+         * Changes if data points were not only appended (i.e., the data must be processed from the beginning).
+         */
+        final int generation;
+        /**
+         * Changes if the buffer was reset.
+         */
+        final int resetCount;
+        final int size;
+
+        private final double[] xs;
+        private final double[][] columns;
+
+        private final double maxX;
+        private final double[] mins;
+        private final double[] maxs;
+
+        private Snapshot(int generation, int resetCount, int size, double[] xs, double[][] columns, double maxX, double[] mins, double[] maxs) {
+            this.generation = generation;
+            this.resetCount = resetCount;
+            this.size = size;
+            this.xs = xs;
+            this.columns = columns;
+            this.maxX = maxX;
+            this.mins = mins;
+            this.maxs = maxs;
+        }
+
+        double getX(int index) {
+            return xs[index];
+        }
+
+        double getValue(int column, int index) {
+            return columns[column][index];
+        }
+
+        /**
+         * @return the maximal x value; NaN if empty.
+         */
+        double getMaxX() {
+            return maxX;
+        }
+
+        /**
+         * @return the minimal value of a column; NaN if the column has no value.
+         */
+        double getMin(int column) {
+            return mins[column];
+        }
+
+        /**
+         * @return the maximal value of a column; NaN if the column has no value.
+         */
+        double getMax(int column) {
+            return maxs[column];
+        }
+    }
+}
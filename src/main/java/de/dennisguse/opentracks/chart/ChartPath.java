@@ -0,0 +1,344 @@
+package de.dennisguse.opentracks.chart;
+
+import android.graphics.Canvas;
+import android.graphics.Matrix;
+import android.graphics.Paint;
+import android.graphics.Path;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.VisibleForTesting;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The path of a {@link ChartValueSeries}.
+ * <p>
+ * The points are read from a column of a {@link ChartBuffer} (chart coordinates; x: time or distance; y: value); missing values (NaN) are skipped.
+ * For drawing, they are decimated (M4): per bucket of at most one pixel column only the first, the minimum, the maximum, and the last point are kept.
+ * So, the drawing cost is bounded by the chart's width (in pixels) instead of the number of points while spikes are preserved.
+ * The bucket width is a power of two; the decimated points are cached per bucket width (i.e., zoom level) and new points are appended to them.
+ * <p>
+ * The decimated points are stored in chunks of {@link #CHUNK_SIZE} points.
+ * The paths in view coordinates are created by transforming the chunks within the visible x-range; chunks outside are culled.
+ * <p>
+ * {@link #update(ChartBuffer.Snapshot, int, Matrix, float, double, double)} may be called from a background thread while {@link #draw(Canvas, Paint, Paint, Matrix)} draws the latest created paths.
+ */
+class ChartPath {
+
+    @VisibleForTesting
+    static final int CHUNK_SIZE = 256;
+
+    private static final int MAX_DECIMATIONS = 8;
+
+    // By exponent of the bucket width; least recently used first.
+    private final Map<Integer, Decimation> decimations = new LinkedHashMap<Integer, Decimation>(MAX_DECIMATIONS, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, Decimation> eldest) {
+            return size() > MAX_DECIMATIONS;
+        }
+    };
+
+    private final float[] matrixValues = new float[9];
+
+    // The generation of the data that was decimated.
+    private int generation = -1;
+
+    // The latest created paths.
+    private volatile Frame frame;
+
+    // Only used by draw().
+    private final Matrix correction = new Matrix();
+
+    /**
+     * Creates the paths in view coordinates.
+     *
+     * @param snapshot the data
+     * @param column   the column of the data
+     * @param matrix   transformation from chart coordinates to view coordinates
+     * @param bottom   the bottom of the chart (view coordinates)
+     * @param fromX    chunks ending before are culled (chart coordinates)
+     * @param toX      chunks starting after are culled (chart coordinates)
+     * @return the number of (decimated) points used
+     */
+    synchronized int update(@NonNull ChartBuffer.Snapshot snapshot, int column, @NonNull Matrix matrix, float bottom, double fromX, double toX) {
+        if (snapshot.generation != generation) {
+            decimations.clear();
+            generation = snapshot.generation;
+        }
+
+        frame = createFrame(snapshot, column, matrix, bottom, fromX, toX);
+        return frame.numberOfPoints;
+    }
+
+    private Frame createFrame(ChartBuffer.Snapshot snapshot, int column, Matrix matrix, float bottom, double fromX, double toX) {
+        Path fillPath = new Path();
+        Path strokePath = new Path();
+        Matrix frameMatrix = new Matrix(matrix);
+
+        matrix.getValues(matrixValues);
+        Decimation decimation = getDecimation(matrixValues[Matrix.MSCALE_X]);
+        decimation.update(snapshot, column);
+
+        List<Chunk> chunks = new ArrayList<>(decimation.chunks);
+        Chunk tail = decimation.getTail(snapshot, column);
+        if (tail != null) {
+            chunks.add(tail);
+        }
+
+        int first = -1;
+        int last = -1;
+        int numberOfPoints = 0;
+        for (int i = 0; i < chunks.size(); i++) {
+            Chunk chunk = chunks.get(i);
+            if (chunk.maxX < fromX || chunk.minX > toX) {
+                continue;
+            }
+            // Chunks share their boundary points.
+            numberOfPoints += first == -1 ? chunk.size : chunk.size - 1;
+            if (first == -1) {
+                first = i;
+            }
+            last = i;
+            fillPath.addPath(chunk.path, matrix);
+            strokePath.addPath(chunk.path, matrix);
+        }
+
+        if (first == -1) {
+            return new Frame(fillPath, strokePath, frameMatrix, 0);
+        }
+
+        // The boundary points of the used chunks (from left to right).
+        int numberOfChunks = last - first + 1;
+        float[] boundaries = new float[2 * (numberOfChunks + 1)];
+        for (int i = 0; i < numberOfChunks; i++) {
+            Chunk chunk = chunks.get(first + i);
+            boundaries[2 * i] = chunk.firstX;
+            boundaries[2 * i + 1] = chunk.firstY;
+        }
+        boundaries[2 * numberOfChunks] = chunks.get(last).lastX;
+        boundaries[2 * numberOfChunks + 1] = chunks.get(last).lastY;
+        matrix.mapPoints(boundaries);
+
+        float startX = boundaries[0];
+        float startY = boundaries[1];
+        float endX = boundaries[2 * numberOfChunks];
+        float endY = boundaries[2 * numberOfChunks + 1];
+
+        /*
+         * Each chunk is filled as polygon closed by the line between its boundary points.
+         * This contour fills the area between these lines and the bottom; as it has the same orientation, parts where a chunk is below its closing line cancel out (non-zero winding).
+         */
+        fillPath.moveTo(endX, endY);
+        fillPath.lineTo(endX, bottom);
+        fillPath.lineTo(startX, bottom);
+        for (int i = 0; i <= numberOfChunks; i++) {
+            fillPath.lineTo(boundaries[2 * i], boundaries[2 * i + 1]);
+        }
+
+        // Bottom right corner, bottom left corner, and first point
+        strokePath.moveTo(endX, endY);
+        strokePath.lineTo(endX, bottom);
+        strokePath.lineTo(startX, bottom);
+        strokePath.lineTo(startX, startY);
+
+        return new Frame(fillPath, strokePath, frameMatrix, numberOfPoints);
+    }
+
+    /**
+     * Draws the latest created paths.
+     * If these were created for another transformation (i.e., an update is pending), they are transformed to the current one.
+     *
+     * @param matrix the current transformation from chart coordinates to view coordinates
+     */
+    void draw(@NonNull Canvas canvas, @NonNull Paint fillPaint, @NonNull Paint strokePaint, @NonNull Matrix matrix) {
+        Frame frame = this.frame;
+        if (frame == null) {
+            return;
+        }
+
+        boolean transform = !frame.matrix.equals(matrix) && frame.matrix.invert(correction);
+        if (transform) {
+            correction.postConcat(matrix);
+            canvas.save();
+            canvas.concat(correction);
+        }
+        canvas.drawPath(frame.fillPath, fillPaint);
+        canvas.drawPath(frame.strokePath, strokePaint);
+        if (transform) {
+            canvas.restore();
+        }
+    }
+
+    @VisibleForTesting
+    Path getStrokePath() {
+        return frame != null ? frame.strokePath : null;
+    }
+
+    /**
+     * @param scaleX pixels per x unit
+     */
+    private Decimation getDecimation(float scaleX) {
+        // The largest power of two not exceeding the width of a pixel column (in x units); infinite if the scale is 0.
+        int exponent = Math.getExponent(1.0 / Math.abs(scaleX));
+        Decimation decimation = decimations.get(exponent);
+        if (decimation == null) {
+            decimation = new Decimation(Math.scalb(1.0, exponent));
+            decimations.put(exponent, decimation);
+        }
+        return decimation;
+    }
+
+    /**
+     * M4 decimation for one bucket width.
+     */
+    private static class Decimation {
+        private final double bucketWidth;
+
+        // The decimated points of all completed buckets.
+        private final List<Chunk> chunks = new ArrayList<>();
+
+        // The number of points that were processed.
+        private int processed = 0;
+
+        // The current bucket (not completed as further points might belong to it): indices of the first, minimum, maximum, and last point.
+        private long bucket;
+        private int bucketFirst = -1;
+        private int bucketMin;
+        private int bucketMax;
+        private int bucketLast;
+
+        Decimation(double bucketWidth) {
+            this.bucketWidth = bucketWidth;
+        }
+
+        /**
+         * Processes the points added since the last update.
+         */
+        void update(ChartBuffer.Snapshot snapshot, int column) {
+            for (; processed < snapshot.size; processed++) {
+                int i = processed;
+                double y = snapshot.getValue(column, i);
+                if (Double.isNaN(y)) {
+                    continue;
+                }
+
+                long pointBucket = (long) Math.floor(snapshot.getX(i) / bucketWidth);
+                if (bucketFirst == -1 || pointBucket != bucket) {
+                    if (bucketFirst != -1) {
+                        for (int index : getBucketIndices()) {
+                            append(chunks, snapshot, column, index);
+                        }
+                    }
+                    bucket = pointBucket;
+                    bucketFirst = bucketMin = bucketMax = bucketLast = i;
+                    continue;
+                }
+
+                if (y < snapshot.getValue(column, bucketMin)) {
+                    bucketMin = i;
+                }
+                if (y > snapshot.getValue(column, bucketMax)) {
+                    bucketMax = i;
+                }
+                bucketLast = i;
+            }
+        }
+
+        /**
+         * @return the decimated points of the current bucket (starting with the last point of the completed buckets); null if there is no current bucket.
+         */
+        Chunk getTail(ChartBuffer.Snapshot snapshot, int column) {
+            if (bucketFirst == -1) {
+                return null;
+            }
+
+            List<Chunk> tail = new ArrayList<>(1);
+            if (!chunks.isEmpty()) {
+                Chunk last = chunks.get(chunks.size() - 1);
+                tail.add(new Chunk(last.lastX, last.lastY));
+            }
+            for (int index : getBucketIndices()) {
+                append(tail, snapshot, column, index);
+            }
+            return tail.get(0);
+        }
+
+        /**
+         * @return the indices of the first, minimum, maximum, and last point of the current bucket (in the order they were added; without duplicates).
+         */
+        private int[] getBucketIndices() {
+            int[] indices = {bucketFirst, Math.min(bucketMin, bucketMax), Math.max(bucketMin, bucketMax), bucketLast};
+            int count = 1;
+            for (int i = 1; i < indices.length; i++) {
+                if (indices[i] != indices[count - 1]) {
+                    indices[count++] = indices[i];
+                }
+            }
+            return Arrays.copyOf(indices, count);
+        }
+
+        private void append(List<Chunk> chunks, ChartBuffer.Snapshot snapshot, int column, int index) {
+            float x = (float) snapshot.getX(index);
+            float y = (float) snapshot.getValue(column, index);
+            if (chunks.isEmpty()) {
+                chunks.add(new Chunk(x, y));
+                return;
+            }
+
+            Chunk last = chunks.get(chunks.size() - 1);
+            if (last.size >= CHUNK_SIZE) {
+                // Chunks share their boundary points, so the line is continuous.
+                last = new Chunk(last.lastX, last.lastY);
+                chunks.add(last);
+            }
+            last.lineTo(x, y);
+        }
+    }
+
+    /**
+     * Paths in view coordinates; not modified after creation.
+     */
+    private static class Frame {
+        private final Path fillPath;
+        private final Path strokePath;
+        private final Matrix matrix;
+        private final int numberOfPoints;
+
+        Frame(Path fillPath, Path strokePath, Matrix matrix, int numberOfPoints) {
+            this.fillPath = fillPath;
+            this.strokePath = strokePath;
+            this.matrix = matrix;
+            this.numberOfPoints = numberOfPoints;
+        }
+    }
+
+    private static class Chunk {
+        private final Path path = new Path();
+        private final float firstX;
+        private final float firstY;
+        private float lastX;
+        private float lastY;
+        private float minX;
+        private float maxX;
+        private int size = 1;
+
+        Chunk(float x, float y) {
+            path.moveTo(x, y);
+            firstX = lastX = minX = maxX = x;
+            firstY = lastY = y;
+        }
+
+        void lineTo(float x, float y) {
+            path.lineTo(x, y);
+            lastX = x;
+            lastY = y;
+            minX = Math.min(minX, x);
+            maxX = Math.max(maxX, x);
+            size++;
+        }
+    }
+}
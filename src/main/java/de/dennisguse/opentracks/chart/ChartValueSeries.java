@@ -18,10 +18,10 @@ package de.dennisguse.opentracks.chart;
 
 import android.content.Context;
 import android.graphics.Canvas;
+import android.graphics.Matrix;
 import android.graphics.Paint;
 import android.graphics.Paint.Align;
 import android.graphics.Paint.Style;
-import android.graphics.Path;
 
 import androidx.annotation.NonNull;
 
@@ -49,7 +49,7 @@ abstract class ChartValueSeries {
     private final Paint markerPaint;
     private final ExtremityMonitor extremityMonitor = new ExtremityMonitor();
     private final NumberFormat numberFormat = NumberFormat.getIntegerInstance();
-    private final Path path = new Path();
+    private final ChartPath chartPath = new ChartPath();
 
     private int interval = 1;
     private int minMarkerValue = 0;
@@ -127,26 +127,43 @@ abstract class ChartValueSeries {
      * Updates the series with a new {@link ChartPoint}.
      */
     void update(ChartPoint chartPoint) {
-        if (isChartPointValid(chartPoint)) {
-            extremityMonitor.update(extractDataFromChartPoint(chartPoint));
-        }
+        update(extractDataFromChartPoint(chartPoint));
     }
 
-    abstract double extractDataFromChartPoint(@NonNull ChartPoint chartPoint);
+    /**
+     * Updates the series with a new value (NaN if not available).
+     */
+    void update(double value) {
+        if (!Double.isNaN(value)) {
+            extremityMonitor.update(value);
+        }
+    }
 
-    boolean isChartPointValid(@NonNull ChartPoint chartPoint) {
-        return !Double.isNaN(extractDataFromChartPoint(chartPoint));
+    /**
+     * Sets the extremities (NaN if there is no data).
+     */
+    void setExtremities(double min, double max) {
+        extremityMonitor.reset();
+        update(min);
+        update(max);
     }
 
+    abstract double extractDataFromChartPoint(@NonNull ChartPoint chartPoint);
+
     protected abstract boolean drawIfChartPointHasNoData();
 
-    Path getPath() {
-        return path;
+    /**
+     * Creates the path in view coordinates; see {@link ChartPath#update(ChartBuffer.Snapshot, int, Matrix, float, double, double)}.
+     */
+    void updatePath(ChartBuffer.Snapshot snapshot, int column, Matrix matrix, float bottom, double fromX, double toX) {
+        chartPath.update(snapshot, column, matrix, bottom, fromX, toX);
     }
 
-    void drawPath(Canvas canvas) {
-        canvas.drawPath(path, fillPaint);
-        canvas.drawPath(path, strokePaint);
+    /**
+     * Draws the path; see {@link ChartPath#draw(Canvas, Paint, Paint, Matrix)}.
+     */
+    void drawPath(Canvas canvas, Matrix matrix) {
+        chartPath.draw(canvas, fillPaint, strokePaint, matrix);
     }
 
     /**
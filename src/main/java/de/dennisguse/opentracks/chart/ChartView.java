@@ -18,8 +18,11 @@ package de.dennisguse.opentracks.chart;
 
 import android.content.Context;
 import android.content.Intent;
+import android.graphics.Bitmap;
 import android.graphics.Canvas;
+import android.graphics.Color;
 import android.graphics.DashPathEffect;
+import android.graphics.Matrix;
 import android.graphics.Paint;
 import android.graphics.Paint.Align;
 import android.graphics.Paint.Style;
@@ -41,6 +44,8 @@ import java.text.NumberFormat;
 import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import de.dennisguse.opentracks.MarkerDetailActivity;
 import de.dennisguse.opentracks.R;
@@ -86,9 +91,14 @@ public class ChartView extends View {
     private final ChartValueSeries speedSeries;
     private final ChartValueSeries paceSeries;
 
-    private final List<ChartPoint> chartPoints = new ArrayList<>();
+    // Written by the thread adding chart points; read without locking.
+    private final ChartBuffer chartBuffer;
+    // The data shown; only accessed by the UI thread.
+    private ChartBuffer.Snapshot snapshot;
+
     private final List<Marker> markers = new ArrayList<>();
     private final ExtremityMonitor xExtremityMonitor = new ExtremityMonitor();
+    private final Matrix pathMatrix = new Matrix();
     private final int backgroundColor;
     private final Paint axisPaint;
     private final Paint xAxisMarkerPaint;
@@ -114,6 +124,28 @@ public class ChartView extends View {
     private int effectiveWidth = 0;
     private int effectiveHeight = 0;
 
+    // The x-range (view coordinates) of the paths; outside the paths are culled.
+    private int pathsFromX = Integer.MIN_VALUE;
+    private int pathsToX = Integer.MAX_VALUE;
+
+    // Creates the paths of the series; only while attached to a window.
+    private ExecutorService pathExecutor;
+    // Incremented for each path update; pending older updates are skipped.
+    private volatile int pathRequest = 0;
+
+    // Layers that only change with the data, the dimensions, or the zoom level; re-created by updateLayers().
+    private boolean layersValid = false;
+    // Not scrolled: series titles, axes, and y axis markers.
+    private Bitmap overlay;
+    // Scrolled: the grid and the x axis markers.
+    private final Path gridPath = new Path();
+    private String[] xAxisMarkers = new String[0];
+    private float[] xAxisMarkerPositions = new float[0];
+    // Scrolled: the markers; re-created by updateMarkerLayer() if the markers or the layers changed or if scrolled out of its x-range.
+    private volatile boolean markerLayerValid = false;
+    private Bitmap markerLayer;
+    private int markerLayerFromX = 0;
+
     private final boolean chartByDistance;
     private boolean metricUnits = true;
     private boolean reportSpeed = true;
@@ -322,6 +354,9 @@ public class ChartView extends View {
             }
         });
 
+        chartBuffer = new ChartBuffer(seriesList.size());
+        snapshot = chartBuffer.getSnapshot();
+
         backgroundColor = ThemeUtils.getBackgroundColor(context);
 
         axisPaint = new Paint();
@@ -377,6 +412,7 @@ public class ChartView extends View {
      */
     public void setMetricUnits(boolean value) {
         metricUnits = value;
+        invalidateLayers();
     }
 
     public boolean getReportSpeed() {
@@ -397,12 +433,14 @@ public class ChartView extends View {
             if (!speedSeries.isEnabled()) {
                 speedSeries.setEnabled(true);
                 paceSeries.setEnabled(false);
+                invalidateLayers();
                 return true;
             }
         } else {
             if (!paceSeries.isEnabled()) {
                 speedSeries.setEnabled(false);
                 paceSeries.setEnabled(true);
+                invalidateLayers();
                 return true;
             }
         }
@@ -414,30 +452,61 @@ public class ChartView extends View {
         showPointer = value;
     }
 
+    /**
+     * Adds chart points; shown after the next {@link #invalidate()}.
+     * May be called from any thread (as well as {@link #decimateChartPoints()} and {@link #reset()}).
+     */
     public void addChartPoints(List<ChartPoint> dataPoints) {
-        synchronized (chartPoints) {
-            chartPoints.addAll(dataPoints);
-            for (ChartPoint dataPoint : dataPoints) {
-                xExtremityMonitor.update(dataPoint.getTimeOrDistance());
-                for (ChartValueSeries i : seriesList) {
-                    i.update(dataPoint);
-                }
+        double[] values = new double[seriesList.size()];
+        for (ChartPoint dataPoint : dataPoints) {
+            for (int i = 0; i < seriesList.size(); i++) {
+                values[i] = seriesList.get(i).extractDataFromChartPoint(dataPoint);
             }
-            updateDimensions();
-            updatePaths();
+            chartBuffer.add(dataPoint.getTimeOrDistance(), values);
         }
+        chartBuffer.publish();
+    }
+
+    /**
+     * Drops every other chart point (starting with the second one).
+     */
+    public void decimateChartPoints() {
+        chartBuffer.decimate();
     }
 
     /**
      * Clears all data.
      */
     public void reset() {
-        synchronized (chartPoints) {
-            chartPoints.clear();
-            xExtremityMonitor.reset();
-            zoomLevel = 1;
-            updateDimensions();
+        chartBuffer.reset();
+    }
+
+    /**
+     * Processes the data published since the last call.
+     * To be called on the UI thread.
+     */
+    private void updateData() {
+        ChartBuffer.Snapshot newSnapshot = chartBuffer.getSnapshot();
+        if (newSnapshot == snapshot) {
+            return;
+        }
+
+        if (newSnapshot.resetCount != snapshot.resetCount) {
+            zoomLevel = MIN_ZOOM_LEVEL;
+        }
+
+        snapshot = newSnapshot;
+
+        xExtremityMonitor.reset();
+        if (snapshot.size > 0) {
+            xExtremityMonitor.update(snapshot.getMaxX());
         }
+        for (int i = 0; i < seriesList.size(); i++) {
+            seriesList.get(i).setExtremities(snapshot.getMin(i), snapshot.getMax(i));
+        }
+
+        updateDimensions();
+        updatePaths();
     }
 
     /**
@@ -452,12 +521,14 @@ public class ChartView extends View {
         synchronized (markers) {
             markers.add(marker);
         }
+        markerLayerValid = false;
     }
 
     public void clearMarker() {
         synchronized (markers) {
             markers.clear();
         }
+        markerLayerValid = false;
     }
 
     private boolean canZoomIn() {
@@ -471,6 +542,7 @@ public class ChartView extends View {
     private void zoomIn() {
         if (canZoomIn()) {
             zoomLevel++;
+            invalidateLayers();
             updatePaths();
             invalidate();
         }
@@ -486,6 +558,7 @@ public class ChartView extends View {
                 scrollX = maxWidth;
                 scrollTo(scrollX, 0);
             }
+            invalidateLayers();
             updatePaths();
             invalidate();
         }
@@ -567,31 +640,56 @@ public class ChartView extends View {
         super.onMeasure(widthMeasureSpec, heightMeasureSpec);
     }
 
+    @Override
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+        pathExecutor = Executors.newSingleThreadExecutor();
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        super.onDetachedFromWindow();
+        pathExecutor.shutdownNow();
+        pathExecutor = null;
+
+        overlay = null;
+        markerLayer = null;
+        invalidateLayers();
+    }
+
     @Override
     protected void onDraw(Canvas canvas) {
-        synchronized (chartPoints) {
-            canvas.save();
+        updateData();
+        updatePathsIfScrolled();
+        if (!layersValid) {
+            updateLayers();
+        }
+        updateMarkerLayerIfScrolled();
 
-            canvas.drawColor(backgroundColor);
+        canvas.save();
 
-            canvas.save();
+        canvas.drawColor(backgroundColor);
 
-            clipToGraphArea(canvas);
-            drawDataSeries(canvas);
-            drawMarker(canvas);
-            drawGrid(canvas);
+        canvas.save();
 
-            canvas.restore();
+        clipToGraphArea(canvas);
+        drawDataSeries(canvas);
+        if (markerLayer != null) {
+            canvas.drawBitmap(markerLayer, markerLayerFromX, topBorder, null);
+        }
+        canvas.drawPath(gridPath, gridPaint);
 
-            drawSeriesTitles(canvas);
-            drawXAxis(canvas);
-            drawYAxis(canvas);
+        canvas.restore();
+
+        drawXAxisMarkers(canvas);
+        if (overlay != null) {
+            canvas.drawBitmap(overlay, getScrollX(), 0, null);
+        }
 
-            canvas.restore();
+        canvas.restore();
 
-            if (showPointer) {
-                drawPointer(canvas);
-            }
+        if (showPointer) {
+            drawPointer(canvas);
         }
     }
 
@@ -614,11 +712,17 @@ public class ChartView extends View {
     private void drawDataSeries(Canvas canvas) {
         for (ChartValueSeries chartValueSeries : seriesList) {
             if (chartValueSeries.isEnabled() && chartValueSeries.hasData()) {
-                chartValueSeries.drawPath(canvas);
+                updatePathMatrix(chartValueSeries);
+                chartValueSeries.drawPath(canvas, pathMatrix);
             }
         }
     }
 
+    /**
+     * Draws the markers.
+     *
+     * @param canvas the canvas
+     */
     private void drawMarker(Canvas canvas) {
         synchronized (markers) {
             for (Marker marker : markers) {
@@ -638,16 +742,90 @@ public class ChartView extends View {
     }
 
     /**
-     * Draws the grid.
-     *
-     * @param canvas the canvas
+     * Invalidates the cached layers; to be called if the data, the dimensions, the zoom level, or the settings changed.
+     */
+    private void invalidateLayers() {
+        layersValid = false;
+        markerLayerValid = false;
+    }
+
+    /**
+     * Re-creates the cached layers.
+     * To be called on the UI thread.
+     */
+    private void updateLayers() {
+        updateGrid();
+        updateXAxisMarkers();
+
+        if (width <= 0 || height <= 0) {
+            overlay = null;
+        } else {
+            if (overlay == null || overlay.getWidth() != width || overlay.getHeight() != height) {
+                overlay = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+            }
+            overlay.eraseColor(Color.TRANSPARENT);
+
+            Canvas canvas = new Canvas(overlay);
+            // The overlay is drawn at the scroll position.
+            canvas.translate(-getScrollX(), 0);
+            drawSeriesTitles(canvas);
+            drawXAxis(canvas);
+            drawYAxis(canvas);
+        }
+
+        layersValid = true;
+    }
+
+    /**
+     * Re-creates the marker layer if invalid or if the visible x-range is not within it.
+     * To be called on the UI thread.
      */
-    private void drawGrid(Canvas canvas) {
+    private void updateMarkerLayerIfScrolled() {
+        int visibleFromX = getScrollX() + leftBorder;
+        if (!markerLayerValid || markerLayer == null || visibleFromX < markerLayerFromX || visibleFromX + effectiveWidth > markerLayerFromX + markerLayer.getWidth()) {
+            updateMarkerLayer();
+        }
+    }
+
+    /**
+     * Re-creates the marker layer.
+     * It covers the graph area; if zoomed, the visible part plus one width on each side to allow scrolling (same as {@link #updatePaths()}).
+     * To be called on the UI thread.
+     */
+    private void updateMarkerLayer() {
+        // Set before drawing: markers added meanwhile invalidate the layer again.
+        markerLayerValid = true;
+
+        boolean zoomed = zoomLevel > MIN_ZOOM_LEVEL;
+        int layerWidth = zoomed ? 3 * effectiveWidth : effectiveWidth;
+        if (layerWidth <= 0 || effectiveHeight <= 0) {
+            markerLayer = null;
+            return;
+        }
+
+        markerLayerFromX = zoomed ? getScrollX() + leftBorder - effectiveWidth : leftBorder;
+        if (markerLayer == null || markerLayer.getWidth() != layerWidth || markerLayer.getHeight() != effectiveHeight) {
+            markerLayer = Bitmap.createBitmap(layerWidth, effectiveHeight, Bitmap.Config.ARGB_8888);
+        }
+        markerLayer.eraseColor(Color.TRANSPARENT);
+
+        Canvas canvas = new Canvas(markerLayer);
+        // The marker layer is drawn at (markerLayerFromX, topBorder).
+        canvas.translate(-markerLayerFromX, -topBorder);
+        drawMarker(canvas);
+    }
+
+    /**
+     * Updates the grid.
+     */
+    private void updateGrid() {
+        gridPath.rewind();
+
         // X axis grid
-        List<Double> xAxisMarkerPositions = getXAxisMarkerPositions(getXAxisInterval());
-        for (double position : xAxisMarkerPositions) {
+        for (double position : getXAxisMarkerPositions(getXAxisInterval())) {
             int x = getX(position);
-            canvas.drawLine(x, topBorder, x, topBorder + effectiveHeight, gridPaint);
+            gridPath.moveTo(x, topBorder);
+            gridPath.lineTo(x, topBorder + effectiveHeight);
         }
         // Y axis grid
         float rightEdge = getX(maxX);
@@ -655,7 +833,8 @@ public class ChartView extends View {
             double percentage = (double) i / Y_AXIS_INTERVALS;
             int range = effectiveHeight - 2 * yAxisOffset;
             int y = topBorder + yAxisOffset + (int) (percentage * range);
-            canvas.drawLine(leftBorder, y, rightEdge, y, gridPaint);
+            gridPath.moveTo(leftBorder, y);
+            gridPath.lineTo(rightEdge, y);
         }
     }
 
@@ -714,12 +893,27 @@ public class ChartView extends View {
         Rect rect = getRect(axisPaint, label);
         int yOffset = rect.height() / 2;
         canvas.drawText(label, x + effectiveWidth + spacer, y + yOffset, axisPaint);
+    }
+
+    /**
+     * Updates the x axis markers (text and position).
+     */
+    private void updateXAxisMarkers() {
+        int spacing = spacer + getRect(axisPaint, getXAxisLabel()).height() / 2;
 
         double interval = getXAxisInterval();
         NumberFormat numberFormat = interval < 1 ? X_FRACTION_FORMAT : X_NUMBER_FORMAT;
 
-        for (double markerPosition : getXAxisMarkerPositions(interval)) {
-            drawXAxisMarker(canvas, markerPosition, numberFormat, spacer + yOffset);
+        List<Double> markerPositions = getXAxisMarkerPositions(interval);
+        xAxisMarkers = new String[markerPositions.size()];
+        xAxisMarkerPositions = new float[2 * markerPositions.size()];
+        for (int i = 0; i < markerPositions.size(); i++) {
+            double value = markerPositions.get(i);
+            String marker = chartByDistance ? numberFormat.format(value) : StringUtils.formatElapsedTime((Duration.ofMillis((long) value)));
+            Rect rect = getRect(xAxisMarkerPaint, marker);
+            xAxisMarkers[i] = marker;
+            xAxisMarkerPositions[2 * i] = getX(value);
+            xAxisMarkerPositions[2 * i + 1] = topBorder + effectiveHeight + spacing + rect.height();
         }
     }
 
@@ -733,17 +927,14 @@ public class ChartView extends View {
     }
 
     /**
-     * Draws a x axis marker.
+     * Draws the x axis markers.
      *
-     * @param canvas       canvas
-     * @param value        value
-     * @param numberFormat the number format
-     * @param spacing      the spacing between x axis and marker
+     * @param canvas canvas
      */
-    private void drawXAxisMarker(Canvas canvas, double value, NumberFormat numberFormat, int spacing) {
-        String marker = chartByDistance ? numberFormat.format(value) : StringUtils.formatElapsedTime((Duration.ofMillis((long) value)));
-        Rect rect = getRect(xAxisMarkerPaint, marker);
-        canvas.drawText(marker, getX(value), topBorder + effectiveHeight + spacing + rect.height(), xAxisMarkerPaint);
+    private void drawXAxisMarkers(Canvas canvas) {
+        for (int i = 0; i < xAxisMarkers.length; i++) {
+            canvas.drawText(xAxisMarkers[i], xAxisMarkerPositions[2 * i], xAxisMarkerPositions[2 * i + 1], xAxisMarkerPaint);
+        }
     }
 
     private double getXAxisInterval() {
@@ -836,17 +1027,18 @@ public class ChartView extends View {
      * @param canvas the canvas
      */
     private void drawPointer(Canvas canvas) {
-        ChartValueSeries firstChartValueSeries = null;
-        for (ChartValueSeries chartValueSeries : seriesList) {
+        int firstChartValueSeries = -1;
+        for (int i = 0; i < seriesList.size(); i++) {
+            ChartValueSeries chartValueSeries = seriesList.get(i);
             if (chartValueSeries.isEnabled() && chartValueSeries.hasData()) {
-                firstChartValueSeries = chartValueSeries;
+                firstChartValueSeries = i;
                 break;
             }
         }
-        if (firstChartValueSeries != null && chartPoints.size() > 0) {
+        if (firstChartValueSeries != -1 && snapshot.size > 0) {
             int dx = getX(maxX) - pointer.getIntrinsicWidth() / 2;
-            double value = firstChartValueSeries.extractDataFromChartPoint(chartPoints.get(chartPoints.size() - 1));
-            int dy = getY(firstChartValueSeries, value) - pointer.getIntrinsicHeight();
+            double value = snapshot.getValue(firstChartValueSeries, snapshot.size - 1);
+            int dy = getY(seriesList.get(firstChartValueSeries), value) - pointer.getIntrinsicHeight();
             canvas.translate(dx, dy);
             pointer.draw(canvas);
         }
@@ -855,73 +1047,75 @@ public class ChartView extends View {
     /**
      * Updates paths.
      * The path needs to be updated any time after the data or the dimensions change.
+     * New data is appended to the {@link ChartPath}s in chart coordinates; here they are only transformed into view coordinates.
+     * If zoomed, only the visible part (plus one width on each side to allow scrolling) is used.
+     * <p>
+     * While attached to a window, the paths are created in the background; until then the previous paths are drawn (transformed to the current dimensions).
      */
     private void updatePaths() {
-        synchronized (chartPoints) {
-            for (ChartValueSeries chartValueSeries : seriesList) {
-                chartValueSeries.getPath().reset();
-            }
-            drawPaths();
-            closePaths();
+        double fromX = Double.NEGATIVE_INFINITY;
+        double toX = Double.POSITIVE_INFINITY;
+        if (zoomLevel > MIN_ZOOM_LEVEL && effectiveWidth > 0) {
+            pathsFromX = getScrollX() + leftBorder - effectiveWidth;
+            pathsToX = getScrollX() + leftBorder + 2 * effectiveWidth;
+            fromX = getXValue(pathsFromX);
+            toX = getXValue(pathsToX);
+        } else {
+            pathsFromX = Integer.MIN_VALUE;
+            pathsToX = Integer.MAX_VALUE;
         }
-    }
 
-    private void drawPaths() {
-        boolean[] hasMoved = new boolean[seriesList.size()];
+        final ChartBuffer.Snapshot snapshot = this.snapshot;
+        final float bottom = topBorder + effectiveHeight;
+        final double from = fromX;
+        final double to = toX;
+        final Matrix[] matrices = new Matrix[seriesList.size()];
+        for (int i = 0; i < seriesList.size(); i++) {
+            updatePathMatrix(seriesList.get(i));
+            matrices[i] = new Matrix(pathMatrix);
+        }
 
-        for (ChartPoint dataPoint : chartPoints) {
+        final int request = ++pathRequest;
+        Runnable update = () -> {
             for (int i = 0; i < seriesList.size(); i++) {
-                ChartValueSeries chartValueSeries = seriesList.get(i);
-
-                if (!chartValueSeries.isChartPointValid(dataPoint)) {
-                    continue;
-                }
-
-                double value = chartValueSeries.extractDataFromChartPoint(dataPoint);
-                Path path = chartValueSeries.getPath();
-                int x = getX(dataPoint.getTimeOrDistance());
-                int y = getY(chartValueSeries, value);
-                if (!hasMoved[i]) {
-                    hasMoved[i] = true;
-                    path.moveTo(x, y);
-                } else {
-                    path.lineTo(x, y);
+                if (request != pathRequest) {
+                    // Superseded by a newer request.
+                    return;
                 }
+                seriesList.get(i).updatePath(snapshot, i, matrices[i], bottom, from, to);
             }
+            postInvalidate();
+        };
+
+        if (pathExecutor == null || pathExecutor.isShutdown()) {
+            update.run();
+        } else {
+            pathExecutor.execute(update);
         }
     }
 
-    private void closePaths() {
-        for (ChartValueSeries chartValueSeries : seriesList) {
-            int first = getFirstPopulatedChartDataIndex(chartValueSeries);
-
-            if (first != -1) {
-                int xCorner = getX(chartPoints.get(first).getTimeOrDistance());
-                int yCorner = topBorder + effectiveHeight;
-                Path path = chartValueSeries.getPath();
-                // Bottom right corner
-                path.lineTo(getX(chartPoints.get(chartPoints.size() - 1).getTimeOrDistance()), yCorner);
-                // Bottom left corner
-                path.lineTo(xCorner, yCorner);
-                // Top right corner
-                double value = chartValueSeries.extractDataFromChartPoint(chartPoints.get(first));
-                path.lineTo(xCorner, getY(chartValueSeries, value));
-            }
+    /**
+     * Updates the paths if the visible x-range was culled.
+     */
+    private void updatePathsIfScrolled() {
+        int visibleFromX = getScrollX() + leftBorder;
+        if (visibleFromX < pathsFromX || visibleFromX + effectiveWidth > pathsToX) {
+            updatePaths();
         }
     }
 
     /**
-     * Finds the index of the first data point containing data for a series.
+     * Sets {@link #pathMatrix} to the transformation from chart coordinates to view coordinates of a chart value series (same as {@link #getX(double)} and {@link #getY(ChartValueSeries, double)}).
      *
-     * @return -1 if no data point contains data for the series.
+     * @param chartValueSeries the chart value series
      */
-    private int getFirstPopulatedChartDataIndex(ChartValueSeries chartValueSeries) {
-        for (int i = 0; i < chartPoints.size(); i++) {
-            if (chartValueSeries.isChartPointValid(chartPoints.get(i))) {
-                return i;
-            }
-        }
-        return -1;
+    private void updatePathMatrix(ChartValueSeries chartValueSeries) {
+        int effectiveSpread = chartValueSeries.getInterval() * Y_AXIS_INTERVALS;
+        int rangeHeight = effectiveHeight - 2 * yAxisOffset;
+        float scaleX = maxX > 0 ? (float) (effectiveWidth * zoomLevel / maxX) : 0;
+        float scaleY = -(float) rangeHeight / effectiveSpread;
+        pathMatrix.setScale(scaleX, scaleY);
+        pathMatrix.postTranslate(leftBorder, topBorder + yAxisOffset + rangeHeight - chartValueSeries.getMinMarkerValue() * scaleY);
     }
 
     /**
@@ -952,6 +1146,7 @@ public class ChartView extends View {
         bottomBorder = (int) (density * BORDER + getRect(xAxisMarkerPaint, "1").height() + spacer + (xAxisLabelRect.height() / 2));
         rightBorder = (int) (density * BORDER + xAxisLabelRect.width() + spacer);
         updateEffectiveDimensions();
+        invalidateLayers();
     }
 
     /**
@@ -973,6 +1168,7 @@ public class ChartView extends View {
             width = newWidth;
             height = newHeight;
             updateEffectiveDimensions();
+            invalidateLayers();
             updatePaths();
         }
     }
@@ -990,6 +1186,15 @@ public class ChartView extends View {
         return leftBorder + (int) (percentage * effectiveWidth * zoomLevel);
     }
 
+    /**
+     * Gets the value for a x position; inverse of {@link #getX(double)}.
+     *
+     * @param x the x position
+     */
+    private double getXValue(int x) {
+        return (double) (x - leftBorder) / (effectiveWidth * zoomLevel) * maxX;
+    }
+
     /**
      * Gets the y position for a value in a chart value series
      *
@@ -1028,7 +1233,7 @@ public class ChartView extends View {
      * Returns true if the index is allowed when the chartData is empty.
      */
     private boolean allowIfEmpty(ChartValueSeries chartValueSeries) {
-        if (!chartPoints.isEmpty()) {
+        if (snapshot.size > 0) {
             return false;
         }
 
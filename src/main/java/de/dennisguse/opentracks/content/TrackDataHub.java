@@ -47,6 +47,7 @@ import de.dennisguse.opentracks.util.PreferencesUtils;
  * Receives data from {@link de.dennisguse.opentracks.content.provider.CustomContentProvider} and distributes it to {@link TrackDataListener} after some processing.
  * <p>
  * {@link TrackPoint}s are filtered/downsampled with a dynamic sampling frequency.
+ * If more than the targeted number of {@link TrackPoint}s were sampled in, the sampling frequency is doubled and the {@link TrackDataListener}s drop every other sampled in {@link TrackPoint} (instead of reloading the whole track).
  *
  * @author Rodrigo Damazio
  */
@@ -84,6 +85,8 @@ public class TrackDataHub implements SharedPreferences.OnSharedPreferenceChangeL
 
     // Track points sampling state
     private int numLoadedPoints;
+    private int numSampledInPoints;
+    private int samplingFrequency;
     private TrackPoint.Id firstSeenTrackPointId;
     private TrackPoint.Id lastSeenTrackPointId;
 
@@ -342,41 +345,49 @@ public class TrackDataHub implements SharedPreferences.OnSharedPreferenceChangeL
             return;
         }
 
-        if (updateSamplingState && numLoadedPoints >= targetNumPoints) {
-            // Reload and resample the track at a lower frequency.
-            Log.i(TAG, "Resampling track after " + numLoadedPoints + " points.");
-            resetSamplingState();
+        if (selectedTrackId == null) {
+            Log.w(TAG, "This should not happen, but it does"); //TODO
+            return;
+        }
+
+        // All listeners use the same sampling frequency (also those loading the already seen track points); so, all have the same sampled in track points.
+        if (samplingFrequency == -1) {
+            int numTotalPoints = contentProviderUtils.getTrackPointCount(selectedTrackId);
+            samplingFrequency = 1 + numTotalPoints / targetNumPoints;
+        }
+
+        // Only if the sampled in track points grew past the target (i.e., not again right after decimating).
+        while (updateSamplingState && numSampledInPoints > targetNumPoints) {
+            // Decimate the already sampled in track points and continue with a lower frequency.
+            Log.i(TAG, "Decimating track after " + numSampledInPoints + " sampled in points.");
+            samplingFrequency *= 2;
+            numSampledInPoints = (numSampledInPoints + 1) / 2;
             for (TrackDataListener listener : sampledInListeners) {
-                listener.clearTrackPoints();
+                listener.onSampledInTrackPointsDecimated();
             }
         }
 
         int localNumLoadedTrackPoints = updateSamplingState ? numLoadedPoints : 0;
+        int localNumSampledInTrackPoints = updateSamplingState ? numSampledInPoints : 0;
+        int localSamplingFrequency = samplingFrequency;
         TrackPoint.Id localFirstSeenTrackPointId = updateSamplingState ? firstSeenTrackPointId : null;
         TrackPoint.Id localLastSeenTrackPointIdId = updateSamplingState ? lastSeenTrackPointId : null;
         TrackPoint.Id maxPointId = updateSamplingState ? null : lastSeenTrackPointId;
 
-        if (selectedTrackId == null) {
-            Log.w(TAG, "This should not happen, but it does"); //TODO
-            return;
-        }
-
         TrackPoint.Id lastTrackPointId = contentProviderUtils.getLastTrackPointId(selectedTrackId);
-        int samplingFrequency = -1;
-
-
-        TrackPoint.Id next = null;
-        if (localLastSeenTrackPointIdId != null) {
-            next = new TrackPoint.Id(localLastSeenTrackPointIdId.getId() + 1); //TODO startTrackPointId + 1 is an assumption assumption; should be derived from the DB.
-        }
 
-        TrackPoint trackPoint = null;
-        try (TrackPointIterator trackPointIterator = contentProviderUtils.getTrackPointLocationIterator(selectedTrackId, next)) {
+        TrackPoint lastLoadedTrackPoint = null;
+        // Trackpoint ids are increasing, but not necessarily contiguous; so continue with the last seen trackPoint (inclusive) and skip it.
+        try (TrackPointIterator trackPointIterator = contentProviderUtils.getTrackPointLocationIterator(selectedTrackId, localLastSeenTrackPointIdId)) {
 
             while (trackPointIterator.hasNext()) {
-                trackPoint = trackPointIterator.next();
+                TrackPoint trackPoint = trackPointIterator.next();
                 TrackPoint.Id trackPointId = trackPoint.getId();
 
+                if (localLastSeenTrackPointIdId != null && trackPointId.getId() <= localLastSeenTrackPointIdId.getId()) {
+                    continue;
+                }
+
                 // Stop if past the last wanted point
                 if (maxPointId != null && trackPointId.getId() > maxPointId.getId()) {
                     break;
@@ -386,17 +397,12 @@ public class TrackDataHub implements SharedPreferences.OnSharedPreferenceChangeL
                     localFirstSeenTrackPointId = trackPointId;
                 }
 
-                if (samplingFrequency == -1) {
-                    long numTotalPoints = Math.max(0L, lastTrackPointId.getId() - localFirstSeenTrackPointId.getId()); //TODO That is an assumption; should be derived from the DB.
-                    samplingFrequency = 1 + (int) (numTotalPoints / targetNumPoints);
-                }
-
-
                 // Also include the last point if the selected track is not recording.
-                if ((localNumLoadedTrackPoints % samplingFrequency == 0) || (trackPointId == lastTrackPointId && !isSelectedTrackRecording())) {
+                if ((localNumLoadedTrackPoints % localSamplingFrequency == 0) || (trackPointId.equals(lastTrackPointId) && !isSelectedTrackRecording())) {
                     for (TrackDataListener trackDataListener : sampledInListeners) {
                         trackDataListener.onSampledInTrackPoint(trackPoint);
                     }
+                    localNumSampledInTrackPoints++;
                 } else {
                     for (TrackDataListener trackDataListener : sampledOutListeners) {
                         trackDataListener.onSampledOutTrackPoint(trackPoint);
@@ -404,22 +410,24 @@ public class TrackDataHub implements SharedPreferences.OnSharedPreferenceChangeL
                 }
 
                 localNumLoadedTrackPoints++;
+                lastLoadedTrackPoint = trackPoint;
             }
         }
 
-        if (trackPoint != null) {
-            localLastSeenTrackPointIdId = trackPoint.getId();
+        if (lastLoadedTrackPoint != null) {
+            localLastSeenTrackPointIdId = lastLoadedTrackPoint.getId();
         }
 
         if (updateSamplingState) {
             numLoadedPoints = localNumLoadedTrackPoints;
+            numSampledInPoints = localNumSampledInTrackPoints;
             firstSeenTrackPointId = localFirstSeenTrackPointId;
             lastSeenTrackPointId = localLastSeenTrackPointIdId;
         }
 
-        if (trackPoint != null) {
+        if (lastLoadedTrackPoint != null) {
             for (TrackDataListener listener : sampledInListeners) {
-                listener.onNewTrackPointsDone(trackPoint);
+                listener.onNewTrackPointsDone(lastLoadedTrackPoint);
             }
         }
     }
@@ -429,6 +437,8 @@ public class TrackDataHub implements SharedPreferences.OnSharedPreferenceChangeL
      */
     private void resetSamplingState() {
         numLoadedPoints = 0;
+        numSampledInPoints = 0;
+        samplingFrequency = -1;
         firstSeenTrackPointId = null;
         lastSeenTrackPointId = null;
     }
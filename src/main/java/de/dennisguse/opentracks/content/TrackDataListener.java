@@ -56,6 +56,12 @@ public interface TrackDataListener {
      */
     void onSampledOutTrackPoint(@NonNull TrackPoint trackPoint);
 
+    /**
+     * Called when the sampling frequency was doubled to stay within the number of displayed track points.
+     * Every other previously sampled in track point (starting with the second one) is not part of the sample anymore and should be dropped.
+     */
+    void onSampledInTrackPointsDecimated();
+
     /**
      * Called when finish sending new track points.
      * This gets called after every batch of calls to {@link #onSampledInTrackPoint(TrackPoint)} and {@link #onSampledOutTrackPoint(TrackPoint)}.
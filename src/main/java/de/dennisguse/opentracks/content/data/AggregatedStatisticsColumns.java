@@ -0,0 +1,62 @@
+package de.dennisguse.opentracks.content.data;
+
+import android.net.Uri;
+import android.provider.BaseColumns;
+
+import de.dennisguse.opentracks.content.provider.ContentProviderUtils;
+
+/**
+ * Constants for the aggregated statistics table: the statistics of all tracks per category.
+ * The table is read-only and maintained by the ContentProvider whenever tracks are inserted, updated, or deleted.
+ * <p>
+ * {@link #CONTENT_URI_BY_PERIOD} provides the same columns per category and period (week, month, or year; based on the start time of the tracks).
+ */
+public interface AggregatedStatisticsColumns extends BaseColumns {
+
+    String TABLE_NAME = "aggregatedstats";
+    Uri CONTENT_URI = Uri.parse(ContentProviderUtils.CONTENT_BASE_URI + "/" + TABLE_NAME);
+    Uri CONTENT_URI_BY_PERIOD = Uri.parse(ContentProviderUtils.CONTENT_BASE_URI + "/" + TABLE_NAME + "/period");
+    String CONTENT_TYPE = "vnd.android.cursor.dir/vnd.de.dennisguse.aggregatedstats";
+
+    // Columns
+    String CATEGORY = "category"; // track activity type ("" for tracks without category)
+    String NUMTRACKS = "numtracks"; // number of tracks
+    String TOTALDISTANCE = "totaldistance"; // total distance
+    String TOTALTIME = "totaltime"; // total time
+    String MOVINGTIME = "movingtime"; // moving time
+    String MAXSPEED = "maxspeed"; // maximum speed
+    String ELEVATIONGAIN = "elevationgain"; // elevation gain
+    String ELEVATIONLOSS = "elevationloss"; // elevation loss
+
+    String PERIOD = "period"; // the period (virtual column; only CONTENT_URI_BY_PERIOD)
+
+    String DEFAULT_SORT_ORDER = NUMTRACKS + " DESC, " + CATEGORY;
+
+    String CREATE_TABLE = "CREATE TABLE " + TABLE_NAME + " ("
+            + _ID + " INTEGER PRIMARY KEY AUTOINCREMENT, "
+            + CATEGORY + " TEXT NOT NULL, "
+            + NUMTRACKS + " INTEGER NOT NULL DEFAULT 0, "
+            + TOTALDISTANCE + " FLOAT NOT NULL DEFAULT 0, "
+            + TOTALTIME + " INTEGER NOT NULL DEFAULT 0, "
+            + MOVINGTIME + " INTEGER NOT NULL DEFAULT 0, "
+            + MAXSPEED + " FLOAT NOT NULL DEFAULT 0, "
+            + ELEVATIONGAIN + " FLOAT NOT NULL DEFAULT 0, "
+            + ELEVATIONLOSS + " FLOAT NOT NULL DEFAULT 0)";
+
+    String CREATE_TABLE_INDEX = "CREATE UNIQUE INDEX " + TABLE_NAME + "_" + CATEGORY + "_index ON " + TABLE_NAME + "(" + CATEGORY + ")";
+
+    /**
+     * Periods for {@link #CONTENT_URI_BY_PERIOD}; the format is used by SQLite's strftime.
+     */
+    enum Period {
+        WEEK("%Y-%W"),
+        MONTH("%Y-%m"),
+        YEAR("%Y");
+
+        public final String format;
+
+        Period(String format) {
+            this.format = format;
+        }
+    }
+}
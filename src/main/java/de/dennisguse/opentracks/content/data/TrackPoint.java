@@ -25,6 +25,8 @@ import java.time.Duration;
 import java.time.Instant;
 import java.util.Objects;
 
+import de.dennisguse.opentracks.util.GeodesicUtils;
+
 /**
  * This class extends the standard Android location with extra information.
  * <p>
@@ -48,16 +50,31 @@ public class TrackPoint {
     // Anything faster than that (in meters per second) will be considered moving.
     private static final double MAX_NO_MOVEMENT_SPEED = 0.224;
 
+    // Presence of the optional (primitive) values; avoids boxing them.
+    private static final int HAS_LATITUDE = 1;
+    private static final int HAS_LONGITUDE = 1 << 1;
+    private static final int HAS_ACCURACY = 1 << 2;
+    private static final int HAS_ALTITUDE = 1 << 3;
+    private static final int HAS_SPEED = 1 << 4;
+    private static final int HAS_BEARING = 1 << 5;
+    private static final int HAS_SENSOR_DISTANCE = 1 << 6;
+    private static final int HAS_HEART_RATE = 1 << 7;
+    private static final int HAS_CYCLING_CADENCE = 1 << 8;
+    private static final int HAS_POWER = 1 << 9;
+    private static final int HAS_ELEVATION_GAIN = 1 << 10;
+    private static final int HAS_ELEVATION_LOSS = 1 << 11;
+
     private TrackPoint.Id id;
 
     private Instant time;
-    private Double latitude;
-    private Double longitude;
-    private Float accuracy;
-    private Double altitude_m;
-    private Float speed_mps;
-    private Float bearing;
-    private Float sensorDistance_m;
+    private int present;
+    private double latitude;
+    private double longitude;
+    private float accuracy;
+    private double altitude_m;
+    private float speed_mps;
+    private float bearing;
+    private float sensorDistance_m;
 
     public enum Type {
         SEGMENT_START_MANUAL(-2), //Start of a segment due to user interaction (start, resume)
@@ -78,8 +95,11 @@ public class TrackPoint {
             return name() + "(" + type_db + ")";
         }
 
+        // values() creates a new array on every call
+        private static final Type[] VALUES = values();
+
         public static Type getById(int id) {
-            for (Type e : values()) {
+            for (Type e : VALUES) {
                 if (e.type_db == id) return e;
             }
 
@@ -90,11 +110,11 @@ public class TrackPoint {
     @NonNull
     private Type type;
 
-    private Float heartRate_bpm = null;
-    private Float cyclingCadence_rpm = null;
-    private Float power = null;
-    private Float elevationGain = null;
-    private Float elevationLoss = null;
+    private float heartRate_bpm;
+    private float cyclingCadence_rpm;
+    private float power;
+    private float elevationGain;
+    private float elevationLoss;
 
     public TrackPoint(@NonNull Type type) {
         this.type = type;
@@ -103,11 +123,11 @@ public class TrackPoint {
     public TrackPoint(@NonNull Location location) {
         this(Type.TRACKPOINT);
 
-        this.latitude = location.getLatitude();
-        this.longitude = location.getLongitude();
-        this.altitude_m = location.getAltitude();
-        this.speed_mps = location.getSpeed();
-        this.accuracy = location.getAccuracy();
+        setLatitude(location.getLatitude());
+        setLongitude(location.getLongitude());
+        setAltitude(location.getAltitude());
+        setSpeed(location.getSpeed());
+        setAccuracy(location.getAccuracy());
 
         setTime(Instant.now());
     }
@@ -119,12 +139,26 @@ public class TrackPoint {
 
     public TrackPoint(double latitude, double longitude, Double altitude, Instant time) {
         this(Type.TRACKPOINT);
-        this.latitude = latitude;
-        this.longitude = longitude;
-        this.altitude_m = altitude;
+        setLatitude(latitude);
+        setLongitude(longitude);
+        if (altitude != null) {
+            setAltitude(altitude);
+        }
         this.time = time;
     }
 
+    /**
+     * Clears all data, so that this instance can be reused (e.g., while iterating over the database).
+     *
+     * @param type the new type
+     */
+    public void reset(@NonNull Type type) {
+        this.type = type;
+        id = null;
+        time = null;
+        present = 0;
+    }
+
     @Deprecated //See #316
     public static TrackPoint createSegmentStartManual() {
         return createSegmentStartManualWithTime(Instant.now());
@@ -180,8 +214,20 @@ public class TrackPoint {
         this.id = id;
     }
 
+    private boolean has(int flag) {
+        return (present & flag) != 0;
+    }
+
+    private void setPresent(int flag, boolean isPresent) {
+        if (isPresent) {
+            present |= flag;
+        } else {
+            present &= ~flag;
+        }
+    }
+
     public boolean hasLocation() {
-        return latitude != null && longitude != null;
+        return has(HAS_LATITUDE) && has(HAS_LONGITUDE);
     }
 
     public double getLatitude() {
@@ -190,6 +236,7 @@ public class TrackPoint {
 
     public void setLatitude(double latitude) {
         this.latitude = latitude;
+        setPresent(HAS_LATITUDE, true);
     }
 
     public double getLongitude() {
@@ -198,6 +245,7 @@ public class TrackPoint {
 
     public void setLongitude(double longitude) {
         this.longitude = longitude;
+        setPresent(HAS_LONGITUDE, true);
     }
 
     @NonNull
@@ -222,27 +270,45 @@ public class TrackPoint {
     }
 
     public boolean hasElevationGain() {
-        return elevationGain != null;
+        return has(HAS_ELEVATION_GAIN);
     }
 
     public float getElevationGain() {
         return elevationGain;
     }
 
-    public void setElevationGain(Float elevationGain) {
+    public void setElevationGain(float elevationGain) {
         this.elevationGain = elevationGain;
+        setPresent(HAS_ELEVATION_GAIN, true);
+    }
+
+    public void setElevationGain(@Nullable Float elevationGain) {
+        if (elevationGain == null) {
+            setPresent(HAS_ELEVATION_GAIN, false);
+        } else {
+            setElevationGain(elevationGain.floatValue());
+        }
     }
 
     public boolean hasElevationLoss() {
-        return elevationLoss != null;
+        return has(HAS_ELEVATION_LOSS);
     }
 
     public float getElevationLoss() {
         return elevationLoss;
     }
 
-    public void setElevationLoss(Float elevationLoss) {
+    public void setElevationLoss(float elevationLoss) {
         this.elevationLoss = elevationLoss;
+        setPresent(HAS_ELEVATION_LOSS, true);
+    }
+
+    public void setElevationLoss(@Nullable Float elevationLoss) {
+        if (elevationLoss == null) {
+            setPresent(HAS_ELEVATION_LOSS, false);
+        } else {
+            setElevationLoss(elevationLoss.floatValue());
+        }
     }
 
     public Instant getTime() {
@@ -260,7 +326,7 @@ public class TrackPoint {
 
 
     public boolean hasAltitude() {
-        return altitude_m != null;
+        return has(HAS_ALTITUDE);
     }
 
     public double getAltitude() {
@@ -269,18 +335,28 @@ public class TrackPoint {
 
     public void setAltitude(double altitude) {
         this.altitude_m = altitude;
+        setPresent(HAS_ALTITUDE, true);
     }
 
     public boolean hasSpeed() {
-        return speed_mps != null;
+        return has(HAS_SPEED);
     }
 
     public float getSpeed() {
         return speed_mps;
     }
 
-    public void setSpeed(Float speed) {
+    public void setSpeed(float speed) {
         this.speed_mps = speed;
+        setPresent(HAS_SPEED, true);
+    }
+
+    public void setSpeed(@Nullable Float speed) {
+        if (speed == null) {
+            setPresent(HAS_SPEED, false);
+        } else {
+            setSpeed(speed.floatValue());
+        }
     }
 
     public boolean isMoving() {
@@ -288,19 +364,28 @@ public class TrackPoint {
     }
 
     public boolean hasBearing() {
-        return bearing != null;
+        return has(HAS_BEARING);
     }
 
     public float getBearing() {
         return bearing;
     }
 
-    public void setBearing(Float bearing) {
+    public void setBearing(float bearing) {
         this.bearing = bearing;
+        setPresent(HAS_BEARING, true);
+    }
+
+    public void setBearing(@Nullable Float bearing) {
+        if (bearing == null) {
+            setPresent(HAS_BEARING, false);
+        } else {
+            setBearing(bearing.floatValue());
+        }
     }
 
     public boolean hasAccuracy() {
-        return accuracy != null;
+        return has(HAS_ACCURACY);
     }
 
     public float getAccuracy() {
@@ -309,6 +394,7 @@ public class TrackPoint {
 
     public void setAccuracy(float horizontalAccuracy) {
         this.accuracy = horizontalAccuracy;
+        setPresent(HAS_ACCURACY, true);
     }
 
     public float distanceToPrevious(@NonNull TrackPoint previous) {
@@ -316,7 +402,10 @@ public class TrackPoint {
             return getSensorDistance();
         }
 
-        return getLocation().distanceTo(previous.getLocation());
+        if (!hasLocation() || !previous.hasLocation()) {
+            return getLocation().distanceTo(previous.getLocation());
+        }
+        return (float) GeodesicUtils.distance(previous.latitude, previous.longitude, latitude, longitude);
     }
 
     public boolean fulfillsAccuracy(int poorAccuracy) {
@@ -324,24 +413,39 @@ public class TrackPoint {
     }
 
     public float bearingTo(@NonNull TrackPoint dest) {
-        return getLocation().bearingTo(dest.getLocation());
+        if (!hasLocation() || !dest.hasLocation()) {
+            return getLocation().bearingTo(dest.getLocation());
+        }
+        return GeodesicUtils.bearing(latitude, longitude, dest.latitude, dest.longitude);
     }
 
     public float bearingTo(@NonNull Location dest) {
-        return getLocation().bearingTo(dest);
+        if (!hasLocation()) {
+            return getLocation().bearingTo(dest);
+        }
+        return GeodesicUtils.bearing(latitude, longitude, dest.getLatitude(), dest.getLongitude());
     }
 
     // Sensor data
     public boolean hasSensorDistance() {
-        return sensorDistance_m != null;
+        return has(HAS_SENSOR_DISTANCE);
     }
 
-    public Float getSensorDistance() {
+    public float getSensorDistance() {
         return sensorDistance_m;
     }
 
-    public void setSensorDistance(Float distance_m) {
+    public void setSensorDistance(float distance_m) {
         this.sensorDistance_m = distance_m;
+        setPresent(HAS_SENSOR_DISTANCE, true);
+    }
+
+    public void setSensorDistance(@Nullable Float distance_m) {
+        if (distance_m == null) {
+            setPresent(HAS_SENSOR_DISTANCE, false);
+        } else {
+            setSensorDistance(distance_m.floatValue());
+        }
     }
 
     public boolean hasSensorData() {
@@ -349,39 +453,66 @@ public class TrackPoint {
     }
 
     public boolean hasHeartRate() {
-        return heartRate_bpm != null && heartRate_bpm > 0;
+        return has(HAS_HEART_RATE) && heartRate_bpm > 0;
     }
 
     public float getHeartRate_bpm() {
         return heartRate_bpm;
     }
 
-    public void setHeartRate_bpm(Float heartRate_bpm) {
+    public void setHeartRate_bpm(float heartRate_bpm) {
         this.heartRate_bpm = heartRate_bpm;
+        setPresent(HAS_HEART_RATE, true);
+    }
+
+    public void setHeartRate_bpm(@Nullable Float heartRate_bpm) {
+        if (heartRate_bpm == null) {
+            setPresent(HAS_HEART_RATE, false);
+        } else {
+            setHeartRate_bpm(heartRate_bpm.floatValue());
+        }
     }
 
     public boolean hasCyclingCadence() {
-        return cyclingCadence_rpm != null;
+        return has(HAS_CYCLING_CADENCE);
     }
 
     public float getCyclingCadence_rpm() {
         return cyclingCadence_rpm;
     }
 
-    public void setCyclingCadence_rpm(Float cyclingCadence_rpm) {
+    public void setCyclingCadence_rpm(float cyclingCadence_rpm) {
         this.cyclingCadence_rpm = cyclingCadence_rpm;
+        setPresent(HAS_CYCLING_CADENCE, true);
+    }
+
+    public void setCyclingCadence_rpm(@Nullable Float cyclingCadence_rpm) {
+        if (cyclingCadence_rpm == null) {
+            setPresent(HAS_CYCLING_CADENCE, false);
+        } else {
+            setCyclingCadence_rpm(cyclingCadence_rpm.floatValue());
+        }
     }
 
     public boolean hasPower() {
-        return power != null;
+        return has(HAS_POWER);
     }
 
     public float getPower() {
         return power;
     }
 
-    public void setPower(Float power) {
+    public void setPower(float power) {
         this.power = power;
+        setPresent(HAS_POWER, true);
+    }
+
+    public void setPower(@Nullable Float power) {
+        if (power == null) {
+            setPresent(HAS_POWER, false);
+        } else {
+            setPower(power.floatValue());
+        }
     }
 
     @NonNull
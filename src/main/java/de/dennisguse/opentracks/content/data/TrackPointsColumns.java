@@ -82,5 +82,17 @@ public interface TrackPointsColumns extends BaseColumns {
             + "FOREIGN KEY (" + TRACKID + ") REFERENCES " + TracksColumns.TABLE_NAME + "(" + TracksColumns._ID + ") ON UPDATE CASCADE ON DELETE CASCADE"
             + ")";
 
+    // SQLite appends the rowid (i.e., _id) to every index; so this index also serves trackid=? AND _id>=? and MAX(_id) WHERE trackid=?.
     String CREATE_TABLE_INDEX = "CREATE INDEX " + TABLE_NAME + "_" + TRACKID + "_index ON " + TABLE_NAME + "(" + TRACKID + ")";
+
+    String CREATE_TABLE_INDEX_TIME = "CREATE INDEX " + TABLE_NAME + "_" + TRACKID + "_" + TIME + "_index ON " + TABLE_NAME + "(" + TRACKID + ", " + TIME + ")";
+
+    // Columns required to create a TrackPoint with location (e.g., for maps).
+    String[] PROJECTION_LOCATION = new String[]{_ID, TYPE, LONGITUDE, LATITUDE, TIME, ALTITUDE, ACCURACY, SPEED, BEARING};
+
+    // Columns required by TrackStatisticsUpdater (i.e., no bearing and no heart rate, cadence, or power).
+    String[] PROJECTION_STATISTICS = new String[]{_ID, TYPE, LONGITUDE, LATITUDE, TIME, ALTITUDE, SPEED, SENSOR_DISTANCE, ELEVATION_GAIN, ELEVATION_LOSS};
+
+    // Columns required by IntervalIndex.
+    String[] PROJECTION_INTERVAL_INDEX = new String[]{_ID, TYPE, LONGITUDE, LATITUDE, TIME, SENSOR_DISTANCE, ELEVATION_GAIN, ELEVATION_LOSS};
 }
@@ -43,8 +43,8 @@ public interface TracksColumns extends BaseColumns {
     String STARTTIME = "starttime"; // track start time
     String STOPTIME = "stoptime"; // track stop time
     String MARKER_COUNT = "markerCount"; // the numbers of markers (virtual column)
-    @Deprecated
-    String NUMPOINTS = "numpoints"; // number of track points //TODO UNUSED
+    String NUMPOINTS = "numpoints"; // number of track points (maintained by the ContentProvider)
+    String LASTTRACKPOINTID = "lasttrackpointid"; // id of the last track point (maintained by the ContentProvider)
     String TOTALDISTANCE = "totaldistance"; // total distance
     String TOTALTIME = "totaltime"; // total time
     String MOVINGTIME = "movingtime"; // moving time
@@ -57,6 +57,15 @@ public interface TracksColumns extends BaseColumns {
     String ELEVATIONGAIN = "elevationgain"; // elevation gain
     String ELEVATIONLOSS = "elevationloss"; // elevation loss
     String ICON = "icon"; // track activity type icon
+    String INTERVALINDEX = "intervalindex"; // cumulative distance, time, gain, and loss at checkpoints (see IntervalIndex)
+
+    // Sensor statistics (maintained by the ContentProvider; see SensorStatisticsUpdater); computed on demand if SENSORTIME is null
+    String SENSORTIME = "sensortime"; // time that the sensor averages are weighted with
+    String AVGHEARTRATE = "avgheartrate"; // average heart rate
+    String MAXHEARTRATE = "maxheartrate"; // maximum heart rate
+    String AVGCADENCE = "avgcadence"; // average cadence
+    String MAXCADENCE = "maxcadence"; // maximum cadence
+    String AVGPOWER = "avgpower"; // average power
 
     String CREATE_TABLE = "CREATE TABLE " + TABLE_NAME + " ("
             + _ID + " INTEGER PRIMARY KEY AUTOINCREMENT, "
@@ -77,7 +86,18 @@ public interface TracksColumns extends BaseColumns {
             + ELEVATIONGAIN + " FLOAT, "
             + ICON + " TEXT, "
             + UUID + " BLOB, "
-            + ELEVATIONLOSS + " FLOAT)";
+            + ELEVATIONLOSS + " FLOAT, "
+            + LASTTRACKPOINTID + " INTEGER, "
+            + INTERVALINDEX + " BLOB, "
+            + SENSORTIME + " INTEGER, "
+            + AVGHEARTRATE + " FLOAT, "
+            + MAXHEARTRATE + " FLOAT, "
+            + AVGCADENCE + " FLOAT, "
+            + MAXCADENCE + " FLOAT, "
+            + AVGPOWER + " FLOAT)";
+
+    // All columns except the INTERVALINDEX (only read via ContentProviderUtils.getIntervalIndex()).
+    String[] DEFAULT_PROJECTION = new String[]{_ID, NAME, DESCRIPTION, CATEGORY, STARTTIME, STOPTIME, NUMPOINTS, TOTALDISTANCE, TOTALTIME, MOVINGTIME, AVGSPEED, AVGMOVINGSPEED, MAXSPEED, MINELEVATION, MAXELEVATION, ELEVATIONGAIN, ICON, UUID, ELEVATIONLOSS, LASTTRACKPOINTID, SENSORTIME, AVGHEARTRATE, MAXHEARTRATE, AVGCADENCE, MAXCADENCE, AVGPOWER};
 
     String CREATE_TABLE_INDEX = "CREATE UNIQUE INDEX " + TABLE_NAME + "_" + UUID + "_index ON " + TABLE_NAME + "(" + UUID + ")";
 
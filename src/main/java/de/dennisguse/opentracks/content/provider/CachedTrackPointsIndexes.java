@@ -25,20 +25,21 @@ class CachedTrackPointsIndexes {
     final int elevationLossIndex;
 
     CachedTrackPointsIndexes(Cursor cursor) {
-        idIndex = cursor.getColumnIndex(TrackPointsColumns._ID);
-        typeIndex = cursor.getColumnIndex(TrackPointsColumns.TYPE);
-        longitudeIndex = cursor.getColumnIndexOrThrow(TrackPointsColumns.LONGITUDE);
-        latitudeIndex = cursor.getColumnIndexOrThrow(TrackPointsColumns.LATITUDE);
-        timeIndex = cursor.getColumnIndexOrThrow(TrackPointsColumns.TIME);
-        altitudeIndex = cursor.getColumnIndexOrThrow(TrackPointsColumns.ALTITUDE);
-        accuracyIndex = cursor.getColumnIndexOrThrow(TrackPointsColumns.ACCURACY);
-        speedIndex = cursor.getColumnIndexOrThrow(TrackPointsColumns.SPEED);
-        bearingIndex = cursor.getColumnIndexOrThrow(TrackPointsColumns.BEARING);
-        sensorHeartRateIndex = cursor.getColumnIndexOrThrow(TrackPointsColumns.SENSOR_HEARTRATE);
-        sensorCadenceIndex = cursor.getColumnIndexOrThrow(TrackPointsColumns.SENSOR_CADENCE);
-        sensorDistanceIndex = cursor.getColumnIndexOrThrow(TrackPointsColumns.SENSOR_DISTANCE);
-        sensorPowerIndex = cursor.getColumnIndexOrThrow(TrackPointsColumns.SENSOR_POWER);
-        elevationGainIndex = cursor.getColumnIndexOrThrow(TrackPointsColumns.ELEVATION_GAIN);
-        elevationLossIndex = cursor.getColumnIndexOrThrow(TrackPointsColumns.ELEVATION_LOSS);
+        idIndex = cursor.getColumnIndexOrThrow(TrackPointsColumns._ID);
+        typeIndex = cursor.getColumnIndexOrThrow(TrackPointsColumns.TYPE);
+        // Optional columns: -1 if not part of the projection
+        longitudeIndex = cursor.getColumnIndex(TrackPointsColumns.LONGITUDE);
+        latitudeIndex = cursor.getColumnIndex(TrackPointsColumns.LATITUDE);
+        timeIndex = cursor.getColumnIndex(TrackPointsColumns.TIME);
+        altitudeIndex = cursor.getColumnIndex(TrackPointsColumns.ALTITUDE);
+        accuracyIndex = cursor.getColumnIndex(TrackPointsColumns.ACCURACY);
+        speedIndex = cursor.getColumnIndex(TrackPointsColumns.SPEED);
+        bearingIndex = cursor.getColumnIndex(TrackPointsColumns.BEARING);
+        sensorHeartRateIndex = cursor.getColumnIndex(TrackPointsColumns.SENSOR_HEARTRATE);
+        sensorCadenceIndex = cursor.getColumnIndex(TrackPointsColumns.SENSOR_CADENCE);
+        sensorDistanceIndex = cursor.getColumnIndex(TrackPointsColumns.SENSOR_DISTANCE);
+        sensorPowerIndex = cursor.getColumnIndex(TrackPointsColumns.SENSOR_POWER);
+        elevationGainIndex = cursor.getColumnIndex(TrackPointsColumns.ELEVATION_GAIN);
+        elevationLossIndex = cursor.getColumnIndex(TrackPointsColumns.ELEVATION_LOSS);
     }
 }
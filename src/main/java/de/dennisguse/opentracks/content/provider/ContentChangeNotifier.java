@@ -0,0 +1,94 @@
+package de.dennisguse.opentracks.content.provider;
+
+import android.content.ContentResolver;
+import android.net.Uri;
+import android.os.Handler;
+import android.os.Looper;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.VisibleForTesting;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Coalesces change notifications of the {@link CustomContentProvider}.
+ * All changes of an {@link Uri} within the debounce window are reported once to the {@link android.database.ContentObserver}s.
+ * <p>
+ * Callers that need to be notified synchronously can opt-out via {@link CustomContentProvider#notifyImmediately(Uri)}.
+ */
+class ContentChangeNotifier {
+
+    static final String QUERY_PARAMETER_NOTIFY_IMMEDIATELY = "notifyImmediately";
+
+    private final ContentResolver contentResolver;
+    private final Handler handler;
+
+    private volatile Duration debounce;
+
+    // Uris with pending notifications (without query parameters)
+    private final Set<Uri> pendingUris = new LinkedHashSet<>();
+
+    /**
+     * @param debounce the debounce window; {@link Duration#ZERO} to notify immediately.
+     */
+    ContentChangeNotifier(@NonNull ContentResolver contentResolver, @NonNull Duration debounce) {
+        this(contentResolver, new Handler(Looper.getMainLooper()), debounce);
+    }
+
+    @VisibleForTesting
+    ContentChangeNotifier(@NonNull ContentResolver contentResolver, @NonNull Handler handler, @NonNull Duration debounce) {
+        this.contentResolver = contentResolver;
+        this.handler = handler;
+        this.debounce = debounce;
+    }
+
+    /**
+     * @param debounce the debounce window; {@link Duration#ZERO} to notify immediately.
+     */
+    void setDebounce(@NonNull Duration debounce) {
+        this.debounce = debounce;
+    }
+
+    /**
+     * Notifies about a change of the uri; might be delayed up to the debounce window.
+     */
+    void notifyChange(@NonNull Uri uri) {
+        Uri notifyUri = uri.buildUpon().clearQuery().build();
+        if (debounce.isZero() || isNotifyImmediately(uri)) {
+            contentResolver.notifyChange(notifyUri, null, false);
+            return;
+        }
+
+        synchronized (pendingUris) {
+            boolean scheduled = !pendingUris.isEmpty();
+            pendingUris.add(notifyUri);
+            if (!scheduled) {
+                handler.postDelayed(this::flush, debounce.toMillis());
+            }
+        }
+    }
+
+    /**
+     * Sends all pending notifications.
+     */
+    @VisibleForTesting
+    void flush() {
+        List<Uri> uris;
+        synchronized (pendingUris) {
+            uris = new ArrayList<>(pendingUris);
+            pendingUris.clear();
+        }
+
+        for (Uri uri : uris) {
+            contentResolver.notifyChange(uri, null, false);
+        }
+    }
+
+    private static boolean isNotifyImmediately(@NonNull Uri uri) {
+        return uri.getBooleanQueryParameter(QUERY_PARAMETER_NOTIFY_IMMEDIATELY, false);
+    }
+}
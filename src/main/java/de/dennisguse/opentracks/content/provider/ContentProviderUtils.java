@@ -16,6 +16,8 @@
 
 package de.dennisguse.opentracks.content.provider;
 
+import android.content.ContentProvider;
+import android.content.ContentProviderClient;
 import android.content.ContentResolver;
 import android.content.ContentUris;
 import android.content.ContentValues;
@@ -35,20 +37,26 @@ import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.UUID;
 
 import de.dennisguse.opentracks.BuildConfig;
+import de.dennisguse.opentracks.content.data.AggregatedStatisticsColumns;
 import de.dennisguse.opentracks.content.data.Marker;
 import de.dennisguse.opentracks.content.data.MarkerColumns;
 import de.dennisguse.opentracks.content.data.Track;
 import de.dennisguse.opentracks.content.data.TrackPoint;
 import de.dennisguse.opentracks.content.data.TrackPointsColumns;
 import de.dennisguse.opentracks.content.data.TracksColumns;
+import de.dennisguse.opentracks.stats.IntervalIndex;
 import de.dennisguse.opentracks.stats.SensorStatistics;
 import de.dennisguse.opentracks.stats.TrackStatistics;
 import de.dennisguse.opentracks.util.FileUtils;
 import de.dennisguse.opentracks.util.UUIDUtils;
+import de.dennisguse.opentracks.viewmodels.AggregatedStatistics;
 
 /**
  * {@link ContentProviderUtils} implementation.
@@ -186,6 +194,68 @@ public class ContentProviderUtils {
         contentResolver.delete(TracksColumns.CONTENT_URI, TracksColumns._ID + "=?", new String[]{Long.toString(trackId.getId())});
     }
 
+    /**
+     * Gets the statistics of all tracks per category.
+     * These are maintained by the {@link CustomContentProvider}; the tracks are not loaded.
+     */
+    @NonNull
+    public AggregatedStatistics getAggregatedStatistics() {
+        List<AggregatedStatistics.AggregatedStatistic> aggregatedStatistics = new ArrayList<>();
+        try (Cursor cursor = contentResolver.query(AggregatedStatisticsColumns.CONTENT_URI, null, null, null, null)) {
+            if (cursor != null) {
+                while (cursor.moveToNext()) {
+                    aggregatedStatistics.add(createAggregatedStatistic(cursor));
+                }
+            }
+        }
+        return AggregatedStatistics.of(aggregatedStatistics);
+    }
+
+    /**
+     * Gets the statistics of all tracks per period (based on the start time) and category.
+     *
+     * @param period the period
+     * @return the statistics by period (formatted); most recent period first.
+     */
+    @NonNull
+    public Map<String, AggregatedStatistics> getAggregatedStatistics(@NonNull AggregatedStatisticsColumns.Period period) {
+        Map<String, List<AggregatedStatistics.AggregatedStatistic>> aggregatedStatisticsByPeriod = new LinkedHashMap<>();
+        try (Cursor cursor = contentResolver.query(Uri.withAppendedPath(AggregatedStatisticsColumns.CONTENT_URI_BY_PERIOD, period.name()), null, null, null, null)) {
+            if (cursor != null) {
+                int periodIndex = cursor.getColumnIndexOrThrow(AggregatedStatisticsColumns.PERIOD);
+                while (cursor.moveToNext()) {
+                    String periodValue = cursor.isNull(periodIndex) ? "" : cursor.getString(periodIndex);
+                    List<AggregatedStatistics.AggregatedStatistic> aggregatedStatistics = aggregatedStatisticsByPeriod.get(periodValue);
+                    if (aggregatedStatistics == null) {
+                        aggregatedStatistics = new ArrayList<>();
+                        aggregatedStatisticsByPeriod.put(periodValue, aggregatedStatistics);
+                    }
+                    aggregatedStatistics.add(createAggregatedStatistic(cursor));
+                }
+            }
+        }
+
+        Map<String, AggregatedStatistics> result = new LinkedHashMap<>();
+        for (Map.Entry<String, List<AggregatedStatistics.AggregatedStatistic>> entry : aggregatedStatisticsByPeriod.entrySet()) {
+            result.put(entry.getKey(), AggregatedStatistics.of(entry.getValue()));
+        }
+        return result;
+    }
+
+    private static AggregatedStatistics.AggregatedStatistic createAggregatedStatistic(Cursor cursor) {
+        TrackStatistics trackStatistics = new TrackStatistics();
+        trackStatistics.setTotalDistance(cursor.getDouble(cursor.getColumnIndexOrThrow(AggregatedStatisticsColumns.TOTALDISTANCE)));
+        trackStatistics.setTotalTime(Duration.ofMillis(cursor.getLong(cursor.getColumnIndexOrThrow(AggregatedStatisticsColumns.TOTALTIME))));
+        trackStatistics.setMovingTime(Duration.ofMillis(cursor.getLong(cursor.getColumnIndexOrThrow(AggregatedStatisticsColumns.MOVINGTIME))));
+        trackStatistics.setMaxSpeed(cursor.getDouble(cursor.getColumnIndexOrThrow(AggregatedStatisticsColumns.MAXSPEED)));
+        trackStatistics.setTotalElevationGain(cursor.getFloat(cursor.getColumnIndexOrThrow(AggregatedStatisticsColumns.ELEVATIONGAIN)));
+        trackStatistics.setTotalElevationLoss(cursor.getFloat(cursor.getColumnIndexOrThrow(AggregatedStatisticsColumns.ELEVATIONLOSS)));
+
+        String category = cursor.getString(cursor.getColumnIndexOrThrow(AggregatedStatisticsColumns.CATEGORY));
+        int countTracks = cursor.getInt(cursor.getColumnIndexOrThrow(AggregatedStatisticsColumns.NUMTRACKS));
+        return new AggregatedStatistics.AggregatedStatistic(category, trackStatistics, countTracks);
+    }
+
     //TODO Only use for tests; also move to tests.
     public List<Track> getTracks() {
         ArrayList<Track> tracks = new ArrayList<>();
@@ -219,8 +289,9 @@ public class ContentProviderUtils {
      * @param trackUUID the track uuid.
      */
     public Track getTrack(@NonNull UUID trackUUID) {
-        String trackUUIDsearch = UUIDUtils.toHex(trackUUID);
-        try (Cursor cursor = getTrackCursor("hex(" + TracksColumns.UUID + ")=?", new String[]{trackUUIDsearch}, null)) {
+        // Compared as blob literal, so the index on uuid is used (unlike hex(uuid)=?); selection arguments are always bound as text.
+        String selection = TracksColumns.UUID + "=X'" + UUIDUtils.toHex(trackUUID) + "'";
+        try (Cursor cursor = getTrackCursor(selection, null, null)) {
             if (cursor != null && cursor.moveToNext()) {
                 return createTrack(cursor);
             }
@@ -228,6 +299,33 @@ public class ContentProviderUtils {
         return null;
     }
 
+    /**
+     * Gets a track by start time and first location; e.g., to detect re-imports of files without track uuid.
+     *
+     * @param startTime  the start time of the track
+     * @param trackPoint the first trackPoint with location of the track
+     * @return the first track with this start time containing a trackPoint with the same time and location; null if there is none.
+     */
+    public Track getTrack(@NonNull Instant startTime, @NonNull TrackPoint trackPoint) {
+        List<Track> tracks = new ArrayList<>();
+        try (Cursor cursor = getTrackCursor(TracksColumns.STARTTIME + "=?", new String[]{Long.toString(startTime.toEpochMilli())}, TracksColumns._ID)) {
+            while (cursor != null && cursor.moveToNext()) {
+                tracks.add(createTrack(cursor));
+            }
+        }
+
+        String selection = TrackPointsColumns.TRACKID + "=? AND " + TrackPointsColumns.TIME + "=?";
+        for (Track track : tracks) {
+            TrackPoint storedTrackPoint = findTrackPointBy(selection, new String[]{Long.toString(track.getId().getId()), Long.toString(trackPoint.getTime().toEpochMilli())});
+            if (storedTrackPoint != null && storedTrackPoint.hasLocation()
+                    && Math.round(storedTrackPoint.getLatitude() * 1E6) == (int) (trackPoint.getLatitude() * 1E6)
+                    && Math.round(storedTrackPoint.getLongitude() * 1E6) == (int) (trackPoint.getLongitude() * 1E6)) {
+                return track;
+            }
+        }
+        return null;
+    }
+
     /**
      * Gets a track cursor.
      * The caller owns the returned cursor and is responsible for closing it.
@@ -237,7 +335,7 @@ public class ContentProviderUtils {
      * @param sortOrder     the sort order. Can be null
      */
     public Cursor getTrackCursor(String selection, String[] selectionArgs, String sortOrder) {
-        return contentResolver.query(TracksColumns.CONTENT_URI, null, selection, selectionArgs, sortOrder);
+        return contentResolver.query(TracksColumns.CONTENT_URI, TracksColumns.DEFAULT_PROJECTION, selection, selectionArgs, sortOrder);
     }
 
     /**
@@ -261,9 +359,48 @@ public class ContentProviderUtils {
         contentResolver.update(TracksColumns.CONTENT_URI, createContentValues(track), TracksColumns._ID + "=?", new String[]{Long.toString(track.getId().getId())});
     }
 
+    /**
+     * Updates only the name, description, category, and icon of a track.
+     * NOTE: the {@link TrackStatistics} are not modified (e.g., they are written separately while recording).
+     *
+     * @param track the track
+     */
+    public void updateTrackDetails(Track track) {
+        ContentValues values = new ContentValues();
+        values.put(TracksColumns.NAME, track.getName());
+        values.put(TracksColumns.DESCRIPTION, track.getDescription());
+        values.put(TracksColumns.CATEGORY, track.getCategory());
+        values.put(TracksColumns.ICON, track.getIcon());
+        contentResolver.update(TracksColumns.CONTENT_URI, values, TracksColumns._ID + "=?", new String[]{Long.toString(track.getId().getId())});
+    }
+
+    /**
+     * Updates only the {@link TrackStatistics} of a track.
+     * NOTE: name, description, category, and icon are not modified.
+     *
+     * @param trackId         the track id
+     * @param trackStatistics the trackStatistics
+     */
+    public void updateTrackStatistics(@NonNull Track.Id trackId, @NonNull TrackStatistics trackStatistics) {
+        updateTrackStatistics(trackId, trackStatistics, null);
+    }
+
+    /**
+     * Updates only the values of the {@link TrackStatistics} that changed compared to the stored ones.
+     * NOTE: name, description, category, and icon are not modified.
+     *
+     * @param trackId               the track id
+     * @param trackStatistics       the trackStatistics
+     * @param storedTrackStatistics the trackStatistics that were stored before; null to write all values
+     */
+    public void updateTrackStatistics(@NonNull Track.Id trackId, @NonNull TrackStatistics trackStatistics, @Nullable TrackStatistics storedTrackStatistics) {
+        ContentValues values = new ContentValues();
+        putTrackStatistics(values, trackStatistics, storedTrackStatistics);
+        contentResolver.update(TracksColumns.CONTENT_URI, values, TracksColumns._ID + "=?", new String[]{Long.toString(trackId.getId())});
+    }
+
     private ContentValues createContentValues(Track track) {
         ContentValues values = new ContentValues();
-        TrackStatistics trackStatistics = track.getTrackStatistics();
 
         if (track.getId() != null) {
             values.put(TracksColumns._ID, track.getId().getId());
@@ -272,25 +409,56 @@ public class ContentProviderUtils {
         values.put(TracksColumns.NAME, track.getName());
         values.put(TracksColumns.DESCRIPTION, track.getDescription());
         values.put(TracksColumns.CATEGORY, track.getCategory());
-        if (trackStatistics.getStartTime() != null) {
+        putTrackStatistics(values, track.getTrackStatistics());
+        values.put(TracksColumns.ICON, track.getIcon());
+
+        return values;
+    }
+
+    private static void putTrackStatistics(ContentValues values, TrackStatistics trackStatistics) {
+        putTrackStatistics(values, trackStatistics, null);
+    }
+
+    /**
+     * @param previous only values that differ from these are put; null to put all values
+     */
+    private static void putTrackStatistics(ContentValues values, @NonNull TrackStatistics trackStatistics, @Nullable TrackStatistics previous) {
+        if (trackStatistics.getStartTime() != null && (previous == null || !trackStatistics.getStartTime().equals(previous.getStartTime()))) {
             values.put(TracksColumns.STARTTIME, trackStatistics.getStartTime().toEpochMilli());
         }
-        if (trackStatistics.getStopTime() != null) {
+        if (trackStatistics.getStopTime() != null && (previous == null || !trackStatistics.getStopTime().equals(previous.getStopTime()))) {
             values.put(TracksColumns.STOPTIME, trackStatistics.getStopTime().toEpochMilli());
         }
-        values.put(TracksColumns.TOTALDISTANCE, trackStatistics.getTotalDistance());
-        values.put(TracksColumns.TOTALTIME, trackStatistics.getTotalTime().toMillis());
-        values.put(TracksColumns.MOVINGTIME, trackStatistics.getMovingTime().toMillis());
-        values.put(TracksColumns.AVGSPEED, trackStatistics.getAverageSpeed());
-        values.put(TracksColumns.AVGMOVINGSPEED, trackStatistics.getAverageMovingSpeed());
-        values.put(TracksColumns.MAXSPEED, trackStatistics.getMaxSpeed());
-        values.put(TracksColumns.MINELEVATION, trackStatistics.getMinElevation());
-        values.put(TracksColumns.MAXELEVATION, trackStatistics.getMaxElevation());
-        values.put(TracksColumns.ELEVATIONGAIN, trackStatistics.getTotalElevationGain());
-        values.put(TracksColumns.ELEVATIONLOSS, trackStatistics.getTotalElevationLoss());
-        values.put(TracksColumns.ICON, track.getIcon());
-
-        return values;
+        if (previous == null || Double.compare(trackStatistics.getTotalDistance(), previous.getTotalDistance()) != 0) {
+            values.put(TracksColumns.TOTALDISTANCE, trackStatistics.getTotalDistance());
+        }
+        if (previous == null || !trackStatistics.getTotalTime().equals(previous.getTotalTime())) {
+            values.put(TracksColumns.TOTALTIME, trackStatistics.getTotalTime().toMillis());
+        }
+        if (previous == null || !trackStatistics.getMovingTime().equals(previous.getMovingTime())) {
+            values.put(TracksColumns.MOVINGTIME, trackStatistics.getMovingTime().toMillis());
+        }
+        if (previous == null || Double.compare(trackStatistics.getAverageSpeed(), previous.getAverageSpeed()) != 0) {
+            values.put(TracksColumns.AVGSPEED, trackStatistics.getAverageSpeed());
+        }
+        if (previous == null || Double.compare(trackStatistics.getAverageMovingSpeed(), previous.getAverageMovingSpeed()) != 0) {
+            values.put(TracksColumns.AVGMOVINGSPEED, trackStatistics.getAverageMovingSpeed());
+        }
+        if (previous == null || Double.compare(trackStatistics.getMaxSpeed(), previous.getMaxSpeed()) != 0) {
+            values.put(TracksColumns.MAXSPEED, trackStatistics.getMaxSpeed());
+        }
+        if (previous == null || Double.compare(trackStatistics.getMinElevation(), previous.getMinElevation()) != 0) {
+            values.put(TracksColumns.MINELEVATION, trackStatistics.getMinElevation());
+        }
+        if (previous == null || Double.compare(trackStatistics.getMaxElevation(), previous.getMaxElevation()) != 0) {
+            values.put(TracksColumns.MAXELEVATION, trackStatistics.getMaxElevation());
+        }
+        if (previous == null || !Objects.equals(trackStatistics.getTotalElevationGain(), previous.getTotalElevationGain())) {
+            values.put(TracksColumns.ELEVATIONGAIN, trackStatistics.getTotalElevationGain());
+        }
+        if (previous == null || !Objects.equals(trackStatistics.getTotalElevationLoss(), previous.getTotalElevationLoss())) {
+            values.put(TracksColumns.ELEVATIONLOSS, trackStatistics.getTotalElevationLoss());
+        }
     }
 
     public Marker createMarker(Cursor cursor) {
@@ -524,56 +692,101 @@ public class ContentProviderUtils {
      * @param indexes the cached trackPoints indexes
      */
     static TrackPoint fillTrackPoint(Cursor cursor, CachedTrackPointsIndexes indexes) {
-        TrackPoint trackPoint = new TrackPoint(TrackPoint.Type.getById(cursor.getInt(indexes.typeIndex)));
-        trackPoint.setId(new TrackPoint.Id(cursor.getInt(indexes.idIndex)));
+        return fillTrackPoint(cursor, indexes, new TrackPoint(TrackPoint.Type.TRACKPOINT));
+    }
+
+    /**
+     * Fills an existing {@link TrackPoint} from a cursor; all previous data of the {@link TrackPoint} is overwritten.
+     *
+     * @param cursor     the cursor pointing to a trackPoint.
+     * @param indexes    the cached trackPoints indexes
+     * @param trackPoint the trackPoint to be filled
+     */
+    static TrackPoint fillTrackPoint(Cursor cursor, CachedTrackPointsIndexes indexes, @NonNull TrackPoint trackPoint) {
+        trackPoint.reset(TrackPoint.Type.getById(cursor.getInt(indexes.typeIndex)));
+        trackPoint.setId(new TrackPoint.Id(cursor.getLong(indexes.idIndex)));
 
-        if (!cursor.isNull(indexes.longitudeIndex)) {
+        if (!isNull(cursor, indexes.longitudeIndex)) {
             trackPoint.setLongitude(((double) cursor.getInt(indexes.longitudeIndex)) / 1E6);
         }
-        if (!cursor.isNull(indexes.latitudeIndex)) {
+        if (!isNull(cursor, indexes.latitudeIndex)) {
             trackPoint.setLatitude(((double) cursor.getInt(indexes.latitudeIndex)) / 1E6);
         }
-        if (!cursor.isNull(indexes.timeIndex)) {
+        if (!isNull(cursor, indexes.timeIndex)) {
             trackPoint.setTime(Instant.ofEpochMilli(cursor.getLong(indexes.timeIndex)));
         }
-        if (!cursor.isNull(indexes.altitudeIndex)) {
+        if (!isNull(cursor, indexes.altitudeIndex)) {
             trackPoint.setAltitude(cursor.getFloat(indexes.altitudeIndex));
         }
-        if (!cursor.isNull(indexes.accuracyIndex)) {
+        if (!isNull(cursor, indexes.accuracyIndex)) {
             trackPoint.setAccuracy(cursor.getFloat(indexes.accuracyIndex));
         }
-        if (!cursor.isNull(indexes.speedIndex)) {
+        if (!isNull(cursor, indexes.speedIndex)) {
             trackPoint.setSpeed(cursor.getFloat(indexes.speedIndex));
         }
-        if (!cursor.isNull(indexes.bearingIndex)) {
+        if (!isNull(cursor, indexes.bearingIndex)) {
             trackPoint.setBearing(cursor.getFloat(indexes.bearingIndex));
         }
 
-        if (!cursor.isNull(indexes.sensorHeartRateIndex)) {
+        if (!isNull(cursor, indexes.sensorHeartRateIndex)) {
             trackPoint.setHeartRate_bpm(cursor.getFloat(indexes.sensorHeartRateIndex));
         }
-        if (!cursor.isNull(indexes.sensorCadenceIndex)) {
+        if (!isNull(cursor, indexes.sensorCadenceIndex)) {
             trackPoint.setCyclingCadence_rpm(cursor.getFloat(indexes.sensorCadenceIndex));
         }
-        if (!cursor.isNull(indexes.sensorDistanceIndex)) {
+        if (!isNull(cursor, indexes.sensorDistanceIndex)) {
             trackPoint.setSensorDistance(cursor.getFloat(indexes.sensorDistanceIndex));
         }
-        if (!cursor.isNull(indexes.sensorPowerIndex)) {
+        if (!isNull(cursor, indexes.sensorPowerIndex)) {
             trackPoint.setPower(cursor.getFloat(indexes.sensorPowerIndex));
         }
 
-        if (!cursor.isNull(indexes.elevationGainIndex)) {
+        if (!isNull(cursor, indexes.elevationGainIndex)) {
             trackPoint.setElevationGain(cursor.getFloat(indexes.elevationGainIndex));
         }
-        if (!cursor.isNull(indexes.elevationLossIndex)) {
+        if (!isNull(cursor, indexes.elevationLossIndex)) {
             trackPoint.setElevationLoss(cursor.getFloat(indexes.elevationLossIndex));
         }
 
         return trackPoint;
     }
 
-    //TODO Only used for file import; might be better to replace it.
+    /**
+     * @return true if the column is not part of the projection or its value is null.
+     */
+    private static boolean isNull(Cursor cursor, int columnIndex) {
+        return columnIndex == -1 || cursor.isNull(columnIndex);
+    }
+
+    /**
+     * Inserts trackPoints in one transaction.
+     * If the {@link CustomContentProvider} runs in this process, the trackPoints are passed directly (see {@link CustomContentProvider#insertTrackPoints(long, List)}).
+     *
+     * @param trackPoints the trackPoints
+     * @param trackId     the track id
+     * @return the number of inserted trackPoints
+     */
     public int bulkInsertTrackPoint(List<TrackPoint> trackPoints, Track.Id trackId) {
+        ContentProviderClient contentProviderClient = contentResolver.acquireContentProviderClient(AUTHORITY_PACKAGE);
+        if (contentProviderClient != null) {
+            try {
+                ContentProvider contentProvider = contentProviderClient.getLocalContentProvider();
+                if (contentProvider instanceof CustomContentProvider) {
+                    return ((CustomContentProvider) contentProvider).insertTrackPoints(trackId.getId(), trackPoints);
+                }
+            } finally {
+                contentProviderClient.release();
+            }
+        }
+
+        return bulkInsertTrackPointContentValues(trackPoints, trackId);
+    }
+
+    /**
+     * Inserts trackPoints via {@link ContentResolver#bulkInsert(Uri, ContentValues[])}.
+     */
+    @VisibleForTesting
+    int bulkInsertTrackPointContentValues(List<TrackPoint> trackPoints, Track.Id trackId) {
         ContentValues[] values = new ContentValues[trackPoints.size()];
         for (int i = 0; i < trackPoints.size(); i++) {
             values[i] = createContentValues(trackPoints.get(i), trackId);
@@ -582,23 +795,110 @@ public class ContentProviderUtils {
     }
 
     /**
-     * Gets the last location id for a track.
-     * Returns -1L if it doesn't exist.
+     * Gets the last trackPoint id for a track.
+     * Returns null if it doesn't exist.
      *
      * @param trackId the track id
      */
-    @Deprecated
     public TrackPoint.Id getLastTrackPointId(@NonNull Track.Id trackId) {
-        String selection = TrackPointsColumns._ID + "=(SELECT MAX(" + TrackPointsColumns._ID + ") from " + TrackPointsColumns.TABLE_NAME + " WHERE " + TrackPointsColumns.TRACKID + "=?)";
+        String[] projection = new String[]{TracksColumns.LASTTRACKPOINTID};
         String[] selectionArgs = new String[]{Long.toString(trackId.getId())};
-        try (Cursor cursor = getTrackPointCursor(new String[]{TrackPointsColumns._ID}, selection, selectionArgs, TrackPointsColumns._ID)) {
-            if (cursor != null && cursor.moveToFirst()) {
-                return new TrackPoint.Id(cursor.getLong(cursor.getColumnIndexOrThrow(TrackPointsColumns._ID)));
+        try (Cursor cursor = contentResolver.query(TracksColumns.CONTENT_URI, projection, TracksColumns._ID + "=?", selectionArgs, null)) {
+            if (cursor != null && cursor.moveToFirst() && !cursor.isNull(0)) {
+                return new TrackPoint.Id(cursor.getLong(0));
             }
         }
         return null;
     }
 
+    /**
+     * Gets the number of trackPoints of a track.
+     *
+     * @param trackId the track id
+     */
+    public int getTrackPointCount(@NonNull Track.Id trackId) {
+        String[] projection = new String[]{TracksColumns.NUMPOINTS};
+        String[] selectionArgs = new String[]{Long.toString(trackId.getId())};
+        try (Cursor cursor = contentResolver.query(TracksColumns.CONTENT_URI, projection, TracksColumns._ID + "=?", selectionArgs, null)) {
+            if (cursor != null && cursor.moveToFirst()) {
+                return cursor.getInt(0);
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Gets the {@link IntervalIndex} of a track.
+     * If it was not stored yet (i.e., tracks created before it was introduced), it is computed from the trackPoints and stored.
+     *
+     * @param trackId the track id
+     * @return null if the track does not exist.
+     */
+    @Nullable
+    public IntervalIndex getIntervalIndex(@NonNull Track.Id trackId) {
+        String[] projection = new String[]{TracksColumns.INTERVALINDEX};
+        String[] selectionArgs = new String[]{Long.toString(trackId.getId())};
+        try (Cursor cursor = contentResolver.query(TracksColumns.CONTENT_URI, projection, TracksColumns._ID + "=?", selectionArgs, null)) {
+            if (cursor == null || !cursor.moveToFirst()) {
+                return null;
+            }
+            if (!cursor.isNull(0)) {
+                return IntervalIndex.fromBytes(cursor.getBlob(0));
+            }
+        }
+
+        IntervalIndex intervalIndex = new IntervalIndex();
+        try (TrackPointIterator trackPointIterator = getTrackPointLocationIterator(trackId, null, TrackPointsColumns.PROJECTION_INTERVAL_INDEX)) {
+            while (trackPointIterator.hasNext()) {
+                intervalIndex.add(trackPointIterator.next());
+            }
+        }
+
+        // Only if it was not stored in the meantime (e.g., while recording).
+        ContentValues values = new ContentValues();
+        values.put(TracksColumns.INTERVALINDEX, intervalIndex.toBytes());
+        contentResolver.update(TracksColumns.CONTENT_URI, values, TracksColumns._ID + "=? AND " + TracksColumns.INTERVALINDEX + " IS NULL", selectionArgs);
+        return intervalIndex;
+    }
+
+    /**
+     * Stores the {@link IntervalIndex} of a track.
+     *
+     * @param trackId       the track id
+     * @param intervalIndex the intervalIndex
+     */
+    public void updateIntervalIndex(@NonNull Track.Id trackId, @NonNull IntervalIndex intervalIndex) {
+        ContentValues values = new ContentValues();
+        values.put(TracksColumns.INTERVALINDEX, intervalIndex.toBytes());
+        contentResolver.update(TracksColumns.CONTENT_URI, values, TracksColumns._ID + "=?", new String[]{Long.toString(trackId.getId())});
+    }
+
+    /**
+     * Stores the checkpoints of the {@link IntervalIndex} of a track starting at fromIndex; the checkpoints before were stored already.
+     * While recording, only the last checkpoint changes and new ones are appended; so the stored checkpoints are neither serialized nor transferred again.
+     * If the {@link CustomContentProvider} runs in another process or less checkpoints are stored, the whole intervalIndex is stored.
+     *
+     * @param trackId       the track id
+     * @param intervalIndex the intervalIndex
+     * @param fromIndex     the first checkpoint that changed
+     */
+    public void updateIntervalIndex(@NonNull Track.Id trackId, @NonNull IntervalIndex intervalIndex, int fromIndex) {
+        ContentProviderClient contentProviderClient = contentResolver.acquireContentProviderClient(AUTHORITY_PACKAGE);
+        if (contentProviderClient != null) {
+            try {
+                ContentProvider contentProvider = contentProviderClient.getLocalContentProvider();
+                if (contentProvider instanceof CustomContentProvider
+                        && ((CustomContentProvider) contentProvider).updateIntervalIndex(trackId.getId(), IntervalIndex.getByteOffset(fromIndex), intervalIndex.toBytes(fromIndex))) {
+                    return;
+                }
+            } finally {
+                contentProviderClient.release();
+            }
+        }
+
+        updateIntervalIndex(trackId, intervalIndex);
+    }
+
     /**
      * Gets the trackPoint id for a location.
      *
@@ -634,17 +934,48 @@ public class ContentProviderUtils {
      */
     @NonNull
     public Cursor getTrackPointCursor(@NonNull Track.Id trackId, TrackPoint.Id startTrackPointId) {
+        return getTrackPointCursor(trackId, startTrackPointId, null);
+    }
+
+    /**
+     * Creates a location cursor. The caller owns the returned cursor and is responsible for closing it.
+     *
+     * @param trackId           the track id
+     * @param startTrackPointId the starting trackPoint id. `null` to ignore
+     * @param projection        the columns to load (must contain {@link TrackPointsColumns#_ID} and {@link TrackPointsColumns#TYPE}); `null` for all columns
+     */
+    @NonNull
+    public Cursor getTrackPointCursor(@NonNull Track.Id trackId, TrackPoint.Id startTrackPointId, @Nullable String[] projection) {
+        return getTrackPointCursor(trackId, startTrackPointId, true, projection, -1);
+    }
+
+    /**
+     * Creates a location cursor for (a page of) trackPoints ordered by id; used for keyset pagination.
+     * The caller owns the returned cursor and is responsible for closing it.
+     *
+     * @param trackId           the track id
+     * @param startTrackPointId the starting trackPoint id. `null` to ignore
+     * @param includeStart      true to include the starting trackPoint
+     * @param projection        the columns to load; `null` for all columns
+     * @param maxCount          the maximum number of trackPoints; -1 for all
+     */
+    @NonNull
+    Cursor getTrackPointCursor(@NonNull Track.Id trackId, @Nullable TrackPoint.Id startTrackPointId, boolean includeStart, @Nullable String[] projection, int maxCount) {
         String selection;
         String[] selectionArgs;
         if (startTrackPointId != null) {
-            selection = TrackPointsColumns.TRACKID + "=? AND " + TrackPointsColumns._ID + ">=?";
+            selection = TrackPointsColumns.TRACKID + "=? AND " + TrackPointsColumns._ID + (includeStart ? ">=?" : ">?");
             selectionArgs = new String[]{Long.toString(trackId.getId()), Long.toString(startTrackPointId.getId())};
         } else {
             selection = TrackPointsColumns.TRACKID + "=?";
             selectionArgs = new String[]{Long.toString(trackId.getId())};
         }
 
-        return getTrackPointCursor(null, selection, selectionArgs, TrackPointsColumns.DEFAULT_SORT_ORDER);
+        String sortOrder = TrackPointsColumns.DEFAULT_SORT_ORDER;
+        if (maxCount >= 0) {
+            sortOrder += " LIMIT " + maxCount;
+        }
+        return getTrackPointCursor(projection, selection, selectionArgs, sortOrder);
     }
 
     /**
@@ -734,7 +1065,19 @@ public class ContentProviderUtils {
      * @param startTrackPointId the starting trackPoint id. `null` to ignore
      */
     public TrackPointIterator getTrackPointLocationIterator(final Track.Id trackId, final TrackPoint.Id startTrackPointId) {
-        return new TrackPointIterator(this, trackId, startTrackPointId);
+        return new TrackPointIterator(this, trackId, startTrackPointId, null);
+    }
+
+    /**
+     * Like {@link #getTrackPointLocationIterator(Track.Id, TrackPoint.Id)}, but only loads the columns of the projection (e.g., {@link TrackPointsColumns#PROJECTION_LOCATION}).
+     * Columns not in the projection are not set in the returned {@link TrackPoint}s.
+     *
+     * @param trackId           the track id
+     * @param startTrackPointId the starting trackPoint id. `null` to ignore
+     * @param projection        the columns to load (must contain {@link TrackPointsColumns#_ID} and {@link TrackPointsColumns#TYPE})
+     */
+    public TrackPointIterator getTrackPointLocationIterator(final Track.Id trackId, final TrackPoint.Id startTrackPointId, @NonNull String[] projection) {
+        return new TrackPointIterator(this, trackId, startTrackPointId, projection);
     }
 
     private TrackPoint findTrackPointBy(String selection, String[] selectionArgs) {
@@ -26,22 +26,34 @@ import android.database.SQLException;
 import android.database.sqlite.SQLiteDatabase;
 import android.database.sqlite.SQLiteException;
 import android.database.sqlite.SQLiteQueryBuilder;
+import android.database.sqlite.SQLiteStatement;
 import android.net.Uri;
 import android.text.TextUtils;
 import android.util.Log;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.annotation.VisibleForTesting;
 
+import java.time.Duration;
 import java.util.Arrays;
-
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import de.dennisguse.opentracks.R;
+import de.dennisguse.opentracks.content.data.AggregatedStatisticsColumns;
 import de.dennisguse.opentracks.content.data.MarkerColumns;
 import de.dennisguse.opentracks.content.data.TrackPoint;
 import de.dennisguse.opentracks.content.data.TrackPointsColumns;
 import de.dennisguse.opentracks.content.data.TracksColumns;
+import de.dennisguse.opentracks.stats.SensorStatisticsUpdater;
 
 /**
  * A {@link ContentProvider} that handles access to track points, tracks, and markers tables.
+ * The aggregated statistics table is read-only and maintained whenever tracks are changed.
  * <p>
  * Data consistency is enforced using Foreign Key Constraints within the database incl. cascading deletes.
  *
@@ -57,37 +69,157 @@ public class CustomContentProvider extends ContentProvider {
 
     private SQLiteDatabase db;
 
+    private ContentChangeNotifier contentChangeNotifier;
+
     /**
-     * The string representing the query that compute sensor stats from trackpoints table.
-     * It computes the average for heart rate, cadence, and power (duration-based average) and the maximum for heart rate and cadence.
-     * Finally, it ignores manual pause (SEGMENT_START_MANUAL).
+     * The sensor statistics of a track; the averages are only defined if they have a weight.
      */
-    private final String SENSOR_STATS_QUERY =
-            "WITH time_select as " +
-                "(SELECT t1." + TrackPointsColumns.TIME + " * (t1." + TrackPointsColumns.TYPE + " NOT IN (" + TrackPoint.Type.SEGMENT_START_MANUAL.type_db + ")) time_value " +
-                "FROM " + TrackPointsColumns.TABLE_NAME + " t1 " +
-                "WHERE t1." + TrackPointsColumns._ID + " > t." + TrackPointsColumns._ID + " AND t1." + TrackPointsColumns.TRACKID + " = ? ORDER BY _id LIMIT 1) " +
+    private static final String[] SENSOR_STATISTICS_PROJECTION = {
+            "CASE WHEN " + TracksColumns.SENSORTIME + " > 0 THEN " + TracksColumns.AVGHEARTRATE + " END " + TrackPointsColumns.ALIAS_AVG_HR,
+            TracksColumns.MAXHEARTRATE + " " + TrackPointsColumns.ALIAS_MAX_HR,
+            "CASE WHEN " + TracksColumns.SENSORTIME + " > 0 THEN " + TracksColumns.AVGCADENCE + " END " + TrackPointsColumns.ALIAS_AVG_CADENCE,
+            TracksColumns.MAXCADENCE + " " + TrackPointsColumns.ALIAS_MAX_CADENCE,
+            "CASE WHEN " + TracksColumns.SENSORTIME + " > 0 THEN " + TracksColumns.AVGPOWER + " END " + TrackPointsColumns.ALIAS_AVG_POWER
+    };
 
-            "SELECT " +
-                "SUM(t." + TrackPointsColumns.SENSOR_HEARTRATE + " * (COALESCE(MAX(t." + TrackPointsColumns.TIME + ", (SELECT time_value FROM time_select)), t." + TrackPointsColumns.TIME + ") - t." + TrackPointsColumns.TIME + ")) " +
-                "/ " +
-                "SUM(COALESCE(MAX(t." + TrackPointsColumns.TIME + ", (SELECT time_value FROM time_select)), t." + TrackPointsColumns.TIME + ") - t." + TrackPointsColumns.TIME + ") " + TrackPointsColumns.ALIAS_AVG_HR + ", " +
+    /**
+     * Columns of the tracks table to continue the sensor statistics of a track.
+     */
+    private static final String[] SENSOR_STATISTICS_TRACK_PROJECTION = {
+            TracksColumns.NUMPOINTS,
+            TracksColumns.LASTTRACKPOINTID,
+            TracksColumns.SENSORTIME,
+            TracksColumns.AVGHEARTRATE,
+            TracksColumns.MAXHEARTRATE,
+            TracksColumns.AVGCADENCE,
+            TracksColumns.MAXCADENCE,
+            TracksColumns.AVGPOWER
+    };
 
-                "MAX(t." + TrackPointsColumns.SENSOR_HEARTRATE + ") " + TrackPointsColumns.ALIAS_MAX_HR + ", " +
+    /**
+     * Columns of the trackpoints table that are used by the sensor statistics.
+     */
+    private static final String[] SENSOR_STATISTICS_TRACKPOINT_PROJECTION = {
+            TrackPointsColumns.TIME,
+            TrackPointsColumns.TYPE,
+            TrackPointsColumns.SENSOR_HEARTRATE,
+            TrackPointsColumns.SENSOR_CADENCE,
+            TrackPointsColumns.SENSOR_POWER
+    };
 
-                "SUM(t." + TrackPointsColumns.SENSOR_CADENCE + " * (COALESCE(MAX(t." + TrackPointsColumns.TIME + ", (SELECT time_value FROM time_select)), t." + TrackPointsColumns.TIME + ") - t." + TrackPointsColumns.TIME + ")) " +
-                "/ " +
-                "SUM(COALESCE(MAX(t." + TrackPointsColumns.TIME + ", (SELECT time_value FROM time_select)), t." + TrackPointsColumns.TIME + ") - t." + TrackPointsColumns.TIME + ") " + TrackPointsColumns.ALIAS_AVG_CADENCE + ", " +
+    /**
+     * The sensor statistics of tracks are recomputed on demand (e.g., after trackpoints were deleted); the tracks are selected by appending a WHERE clause.
+     */
+    private static final String SENSOR_STATISTICS_INVALIDATE =
+            "UPDATE " + TracksColumns.TABLE_NAME + " SET " + TracksColumns.SENSORTIME + " = NULL";
 
-                "MAX(t." + TrackPointsColumns.SENSOR_CADENCE + ") " + TrackPointsColumns.ALIAS_MAX_CADENCE + ", " +
+    /**
+     * Increments the number of trackpoints of a track and sets its last trackpoint id.
+     */
+    private static final String TRACKPOINT_INDEX_INCREMENT =
+            "UPDATE " + TracksColumns.TABLE_NAME + " SET " +
+                    TracksColumns.NUMPOINTS + " = IFNULL(" + TracksColumns.NUMPOINTS + ", 0) + ?, " +
+                    TracksColumns.LASTTRACKPOINTID + " = MAX(IFNULL(" + TracksColumns.LASTTRACKPOINTID + ", 0), ?) " +
+                    "WHERE " + TracksColumns._ID + " = ?";
 
-                "SUM(t." + TrackPointsColumns.SENSOR_POWER + " * (COALESCE(MAX(t." + TrackPointsColumns.TIME + ", (SELECT time_value FROM time_select)), t." + TrackPointsColumns.TIME + ") - t." + TrackPointsColumns.TIME + ")) " +
-                "/ " +
-                "SUM(COALESCE(MAX(t." + TrackPointsColumns.TIME + ", (SELECT time_value FROM time_select)), t." + TrackPointsColumns.TIME + ") - t." + TrackPointsColumns.TIME + ") " + TrackPointsColumns.ALIAS_AVG_POWER + " " +
+    /**
+     * Inserts a trackpoint; the arguments are bound by {@link #bindTrackPoint(SQLiteStatement, long, TrackPoint)}.
+     */
+    private static final String TRACKPOINT_INSERT =
+            "INSERT INTO " + TrackPointsColumns.TABLE_NAME + " (" +
+                    TrackPointsColumns.TRACKID + ", " +
+                    TrackPointsColumns.TYPE + ", " +
+                    TrackPointsColumns.LONGITUDE + ", " +
+                    TrackPointsColumns.LATITUDE + ", " +
+                    TrackPointsColumns.TIME + ", " +
+                    TrackPointsColumns.ALTITUDE + ", " +
+                    TrackPointsColumns.ACCURACY + ", " +
+                    TrackPointsColumns.SPEED + ", " +
+                    TrackPointsColumns.BEARING + ", " +
+                    TrackPointsColumns.SENSOR_HEARTRATE + ", " +
+                    TrackPointsColumns.SENSOR_CADENCE + ", " +
+                    TrackPointsColumns.SENSOR_DISTANCE + ", " +
+                    TrackPointsColumns.SENSOR_POWER + ", " +
+                    TrackPointsColumns.ELEVATION_GAIN + ", " +
+                    TrackPointsColumns.ELEVATION_LOSS +
+                    ") VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
 
-            "FROM " + TrackPointsColumns.TABLE_NAME + " t " +
-            "WHERE t." + TrackPointsColumns.TRACKID + " = ? " +
-            "AND t." + TrackPointsColumns.TYPE + " NOT IN (" + TrackPoint.Type.SEGMENT_START_MANUAL.type_db + ")";
+    /**
+     * Replaces the bytes of the stored interval index of a track from an offset on; only if at least offset bytes are stored.
+     * Arguments: offset, bytes, track id, offset.
+     */
+    private static final String INTERVALINDEX_UPDATE =
+            "UPDATE " + TracksColumns.TABLE_NAME +
+                    " SET " + TracksColumns.INTERVALINDEX + " = CAST(substr(" + TracksColumns.INTERVALINDEX + ", 1, ?) || ? AS BLOB)" +
+                    " WHERE " + TracksColumns._ID + " = ? AND length(" + TracksColumns.INTERVALINDEX + ") >= ?";
+
+    /**
+     * Recomputes the number of trackpoints and the last trackpoint id of tracks (e.g., after trackpoints were deleted); the tracks are selected by appending a WHERE clause.
+     */
+    private static final String TRACKPOINT_INDEX_RECOMPUTE =
+            "UPDATE " + TracksColumns.TABLE_NAME + " SET " +
+                    TracksColumns.NUMPOINTS + " = (SELECT COUNT(*) FROM " + TrackPointsColumns.TABLE_NAME + " WHERE " + TrackPointsColumns.TRACKID + " = " + TracksColumns.TABLE_NAME + "." + TracksColumns._ID + "), " +
+                    TracksColumns.LASTTRACKPOINTID + " = (SELECT MAX(" + TrackPointsColumns._ID + ") FROM " + TrackPointsColumns.TABLE_NAME + " WHERE " + TrackPointsColumns.TRACKID + " = " + TracksColumns.TABLE_NAME + "." + TracksColumns._ID + ")";
+
+    /**
+     * Columns of the tracks table that are aggregated in the {@link AggregatedStatisticsColumns} table.
+     */
+    private static final String[] AGGREGATED_TRACK_PROJECTION = {
+            TracksColumns._ID,
+            "IFNULL(" + TracksColumns.CATEGORY + ", '')",
+            TracksColumns.TOTALDISTANCE,
+            TracksColumns.TOTALTIME,
+            TracksColumns.MOVINGTIME,
+            TracksColumns.MAXSPEED,
+            TracksColumns.ELEVATIONGAIN,
+            TracksColumns.ELEVATIONLOSS
+    };
+
+    private static final String AGGREGATED_STATISTICS_INSERT_CATEGORY =
+            "INSERT OR IGNORE INTO " + AggregatedStatisticsColumns.TABLE_NAME + " (" + AggregatedStatisticsColumns.CATEGORY + ") VALUES (?)";
+
+    /**
+     * Adds (or subtracts) the statistics of one track to its category.
+     */
+    private static final String AGGREGATED_STATISTICS_ADD =
+            "UPDATE " + AggregatedStatisticsColumns.TABLE_NAME + " SET " +
+                    AggregatedStatisticsColumns.NUMTRACKS + " = " + AggregatedStatisticsColumns.NUMTRACKS + " + ?, " +
+                    AggregatedStatisticsColumns.TOTALDISTANCE + " = " + AggregatedStatisticsColumns.TOTALDISTANCE + " + ?, " +
+                    AggregatedStatisticsColumns.TOTALTIME + " = " + AggregatedStatisticsColumns.TOTALTIME + " + ?, " +
+                    AggregatedStatisticsColumns.MOVINGTIME + " = " + AggregatedStatisticsColumns.MOVINGTIME + " + ?, " +
+                    AggregatedStatisticsColumns.ELEVATIONGAIN + " = " + AggregatedStatisticsColumns.ELEVATIONGAIN + " + ?, " +
+                    AggregatedStatisticsColumns.ELEVATIONLOSS + " = " + AggregatedStatisticsColumns.ELEVATIONLOSS + " + ?, " +
+                    AggregatedStatisticsColumns.MAXSPEED + " = MAX(" + AggregatedStatisticsColumns.MAXSPEED + ", ?) " +
+                    "WHERE " + AggregatedStatisticsColumns.CATEGORY + " = ?";
+
+    /**
+     * The maximum cannot be subtracted: recomputes the maximum speed of a category, if the removed track might have had the maximum speed.
+     */
+    private static final String AGGREGATED_STATISTICS_RECOMPUTE_MAXSPEED =
+            "UPDATE " + AggregatedStatisticsColumns.TABLE_NAME + " SET " +
+                    AggregatedStatisticsColumns.MAXSPEED + " = (SELECT IFNULL(MAX(" + TracksColumns.MAXSPEED + "), 0) FROM " + TracksColumns.TABLE_NAME + " WHERE IFNULL(" + TracksColumns.CATEGORY + ", '') = ?) " +
+                    "WHERE " + AggregatedStatisticsColumns.CATEGORY + " = ? AND " + AggregatedStatisticsColumns.MAXSPEED + " <= ?";
+
+    private static final String AGGREGATED_STATISTICS_DELETE_EMPTY =
+            "DELETE FROM " + AggregatedStatisticsColumns.TABLE_NAME + " WHERE " + AggregatedStatisticsColumns.NUMTRACKS + " <= 0";
+
+    /**
+     * Aggregates the tracks per period (the strftime format) and category; not materialized.
+     */
+    private static final String AGGREGATED_STATISTICS_BY_PERIOD_QUERY =
+            "SELECT " +
+                    "IFNULL(" + TracksColumns.CATEGORY + ", '') " + AggregatedStatisticsColumns.CATEGORY + ", " +
+                    "strftime(?, " + TracksColumns.STARTTIME + " / 1000, 'unixepoch', 'localtime') " + AggregatedStatisticsColumns.PERIOD + ", " +
+                    "COUNT(*) " + AggregatedStatisticsColumns.NUMTRACKS + ", " +
+                    "IFNULL(SUM(" + TracksColumns.TOTALDISTANCE + "), 0) " + AggregatedStatisticsColumns.TOTALDISTANCE + ", " +
+                    "IFNULL(SUM(" + TracksColumns.TOTALTIME + "), 0) " + AggregatedStatisticsColumns.TOTALTIME + ", " +
+                    "IFNULL(SUM(" + TracksColumns.MOVINGTIME + "), 0) " + AggregatedStatisticsColumns.MOVINGTIME + ", " +
+                    "IFNULL(MAX(" + TracksColumns.MAXSPEED + "), 0) " + AggregatedStatisticsColumns.MAXSPEED + ", " +
+                    "IFNULL(SUM(" + TracksColumns.ELEVATIONGAIN + "), 0) " + AggregatedStatisticsColumns.ELEVATIONGAIN + ", " +
+                    "IFNULL(SUM(" + TracksColumns.ELEVATIONLOSS + "), 0) " + AggregatedStatisticsColumns.ELEVATIONLOSS + " " +
+                    "FROM " + TracksColumns.TABLE_NAME + " " +
+                    "GROUP BY " + AggregatedStatisticsColumns.PERIOD + ", " + AggregatedStatisticsColumns.CATEGORY + " " +
+                    "ORDER BY " + AggregatedStatisticsColumns.PERIOD + " DESC, " + AggregatedStatisticsColumns.DEFAULT_SORT_ORDER;
 
     public CustomContentProvider() {
         uriMatcher = new UriMatcher(UriMatcher.NO_MATCH);
@@ -102,6 +234,9 @@ public class CustomContentProvider extends ContentProvider {
         uriMatcher.addURI(ContentProviderUtils.AUTHORITY_PACKAGE, MarkerColumns.CONTENT_URI.getPath(), UrlType.MARKERS.ordinal());
         uriMatcher.addURI(ContentProviderUtils.AUTHORITY_PACKAGE, MarkerColumns.CONTENT_URI.getPath() + "/#", UrlType.MARKERS_BY_ID.ordinal());
         uriMatcher.addURI(ContentProviderUtils.AUTHORITY_PACKAGE, MarkerColumns.CONTENT_URI_BY_TRACKID.getPath() + "/*", UrlType.MARKERS_BY_TRACKID.ordinal());
+
+        uriMatcher.addURI(ContentProviderUtils.AUTHORITY_PACKAGE, AggregatedStatisticsColumns.CONTENT_URI.getPath(), UrlType.AGGREGATED_STATISTICS.ordinal());
+        uriMatcher.addURI(ContentProviderUtils.AUTHORITY_PACKAGE, AggregatedStatisticsColumns.CONTENT_URI_BY_PERIOD.getPath() + "/*", UrlType.AGGREGATED_STATISTICS_BY_PERIOD.ordinal());
     }
 
     @Override
@@ -125,9 +260,30 @@ public class CustomContentProvider extends ContentProvider {
         } catch (SQLiteException e) {
             Log.e(TAG, "Unable to open database for writing.", e);
         }
+        contentChangeNotifier = new ContentChangeNotifier(context.getContentResolver(), Duration.ofMillis(context.getResources().getInteger(R.integer.contentProviderNotificationDebounceMillis)));
         return db != null;
     }
 
+    /**
+     * Changes of the returned {@link Uri} are notified immediately to the {@link android.database.ContentObserver}s.
+     * By default, notifications are debounced (see {@link ContentChangeNotifier}).
+     *
+     * @param url the content url
+     */
+    public static Uri notifyImmediately(@NonNull Uri url) {
+        return url.buildUpon().appendQueryParameter(ContentChangeNotifier.QUERY_PARAMETER_NOTIFY_IMMEDIATELY, Boolean.TRUE.toString()).build();
+    }
+
+    /**
+     * Sets the window in which change notifications are coalesced.
+     *
+     * @param debounce the debounce window; {@link Duration#ZERO} to notify immediately.
+     */
+    @VisibleForTesting
+    void setNotificationDebounce(@NonNull Duration debounce) {
+        contentChangeNotifier.setDebounce(debounce);
+    }
+
     @Override
     public int delete(@NonNull Uri url, String where, String[] selectionArgs) {
         String table;
@@ -151,12 +307,25 @@ public class CustomContentProvider extends ContentProvider {
         int count;
         try {
             db.beginTransaction();
+            Map<Long, AggregatedTrack> deletedTracks = TracksColumns.TABLE_NAME.equals(table) ? queryAggregatedTracks(where, selectionArgs) : null;
+            Set<Long> trackIdsOfDeletedTrackPoints = TrackPointsColumns.TABLE_NAME.equals(table) ? queryTrackIdsOfTrackPoints(where, selectionArgs) : null;
             count = db.delete(table, where, selectionArgs);
+            if (count > 0 && trackIdsOfDeletedTrackPoints != null && !trackIdsOfDeletedTrackPoints.isEmpty()) {
+                String whereTracks = " WHERE " + TracksColumns._ID + " IN (" + TextUtils.join(SQL_LIST_DELIMITER, trackIdsOfDeletedTrackPoints) + ")";
+                db.execSQL(TRACKPOINT_INDEX_RECOMPUTE + whereTracks);
+                db.execSQL(SENSOR_STATISTICS_INVALIDATE + whereTracks);
+            }
+            if (deletedTracks != null) {
+                updateAggregatedStatistics(deletedTracks, new HashMap<>());
+            }
             db.setTransactionSuccessful();
         } finally {
             db.endTransaction();
         }
-        getContext().getContentResolver().notifyChange(url, null, false);
+        contentChangeNotifier.notifyChange(url);
+        if (TracksColumns.TABLE_NAME.equals(table)) {
+            contentChangeNotifier.notifyChange(AggregatedStatisticsColumns.CONTENT_URI);
+        }
 
         if (shouldVacuum) {
             // If a potentially large amount of data was deleted, reclaim its space.
@@ -183,6 +352,9 @@ public class CustomContentProvider extends ContentProvider {
             case MARKERS_BY_ID:
             case MARKERS_BY_TRACKID:
                 return MarkerColumns.CONTENT_ITEMTYPE;
+            case AGGREGATED_STATISTICS:
+            case AGGREGATED_STATISTICS_BY_PERIOD:
+                return AggregatedStatisticsColumns.CONTENT_TYPE;
             default:
                 throw new IllegalArgumentException("Unknown URL " + url);
         }
@@ -201,7 +373,10 @@ public class CustomContentProvider extends ContentProvider {
         } finally {
             db.endTransaction();
         }
-        getContext().getContentResolver().notifyChange(url, null, false);
+        contentChangeNotifier.notifyChange(url);
+        if (getUrlType(url) == UrlType.TRACKS) {
+            contentChangeNotifier.notifyChange(AggregatedStatisticsColumns.CONTENT_URI);
+        }
         return result;
     }
 
@@ -213,18 +388,25 @@ public class CustomContentProvider extends ContentProvider {
             db.beginTransaction();
 
             UrlType urlType = getUrlType(url);
-            for (numInserted = 0; numInserted < valuesBulk.length; numInserted++) {
-                ContentValues contentValues = valuesBulk[numInserted];
-                if (contentValues == null) {
-                    contentValues = new ContentValues();
+            if (urlType == UrlType.TRACKPOINTS) {
+                numInserted = bulkInsertTrackPoints(url, valuesBulk);
+            } else {
+                for (numInserted = 0; numInserted < valuesBulk.length; numInserted++) {
+                    ContentValues contentValues = valuesBulk[numInserted];
+                    if (contentValues == null) {
+                        contentValues = new ContentValues();
+                    }
+                    insertContentValues(url, urlType, contentValues);
                 }
-                insertContentValues(url, urlType, contentValues);
             }
             db.setTransactionSuccessful();
         } finally {
             db.endTransaction();
         }
-        getContext().getContentResolver().notifyChange(url, null, false);
+        contentChangeNotifier.notifyChange(url);
+        if (getUrlType(url) == UrlType.TRACKS) {
+            contentChangeNotifier.notifyChange(AggregatedStatisticsColumns.CONTENT_URI);
+        }
         return numInserted;
     }
 
@@ -246,7 +428,10 @@ public class CustomContentProvider extends ContentProvider {
                 queryBuilder.appendWhere(TrackPointsColumns.TRACKID + " IN (" + TextUtils.join(SQL_LIST_DELIMITER, ContentProviderUtils.parseTrackIdsFromUri(url)) + ")");
                 break;
             case TRACKS:
-                if (projection != null && Arrays.asList(projection).contains(TracksColumns.MARKER_COUNT)) {
+                if (projection == null) {
+                    projection = TracksColumns.DEFAULT_PROJECTION;
+                }
+                if (Arrays.asList(projection).contains(TracksColumns.MARKER_COUNT)) {
                     queryBuilder.setTables(TracksColumns.TABLE_NAME + " LEFT OUTER JOIN (SELECT " + MarkerColumns.TRACKID + " AS markerTrackId, COUNT(*) AS " + TracksColumns.MARKER_COUNT + " FROM " + MarkerColumns.TABLE_NAME + " GROUP BY " + MarkerColumns.TRACKID + ") ON (" + TracksColumns.TABLE_NAME + "." + TracksColumns._ID + "= markerTrackId)");
                 } else {
                     queryBuilder.setTables(TracksColumns.TABLE_NAME);
@@ -254,12 +439,19 @@ public class CustomContentProvider extends ContentProvider {
                 sortOrder = sort != null ? sort : TracksColumns.DEFAULT_SORT_ORDER;
                 break;
             case TRACKS_BY_ID:
+                if (projection == null) {
+                    projection = TracksColumns.DEFAULT_PROJECTION;
+                }
                 queryBuilder.setTables(TracksColumns.TABLE_NAME);
                 queryBuilder.appendWhere(TracksColumns._ID + " IN (" + TextUtils.join(SQL_LIST_DELIMITER, ContentProviderUtils.parseTrackIdsFromUri(url)) + ")");
                 break;
             case TRACKS_SENSOR_STATS:
                 long trackId = ContentUris.parseId(url);
-                return db.rawQuery(SENSOR_STATS_QUERY, new String[]{String.valueOf(trackId), String.valueOf(trackId)});
+                computeSensorStatisticsIfMissing(trackId);
+                queryBuilder.setTables(TracksColumns.TABLE_NAME);
+                queryBuilder.appendWhere(TracksColumns._ID + "=" + trackId);
+                projection = SENSOR_STATISTICS_PROJECTION;
+                break;
             case MARKERS:
                 queryBuilder.setTables(MarkerColumns.TABLE_NAME);
                 sortOrder = sort != null ? sort : MarkerColumns.DEFAULT_SORT_ORDER;
@@ -272,6 +464,15 @@ public class CustomContentProvider extends ContentProvider {
                 queryBuilder.setTables(MarkerColumns.TABLE_NAME);
                 queryBuilder.appendWhere(MarkerColumns.TRACKID + " IN (" + TextUtils.join(SQL_LIST_DELIMITER, ContentProviderUtils.parseTrackIdsFromUri(url)) + ")");
                 break;
+            case AGGREGATED_STATISTICS:
+                queryBuilder.setTables(AggregatedStatisticsColumns.TABLE_NAME);
+                sortOrder = sort != null ? sort : AggregatedStatisticsColumns.DEFAULT_SORT_ORDER;
+                break;
+            case AGGREGATED_STATISTICS_BY_PERIOD:
+                AggregatedStatisticsColumns.Period period = AggregatedStatisticsColumns.Period.valueOf(url.getLastPathSegment());
+                Cursor periodCursor = db.rawQuery(AGGREGATED_STATISTICS_BY_PERIOD_QUERY, new String[]{period.format});
+                periodCursor.setNotificationUri(getContext().getContentResolver(), AggregatedStatisticsColumns.CONTENT_URI);
+                return periodCursor;
             default:
                 throw new IllegalArgumentException("Unknown url " + url);
         }
@@ -322,15 +523,33 @@ public class CustomContentProvider extends ContentProvider {
             default:
                 throw new IllegalArgumentException("Unknown url " + url);
         }
+        boolean updatesAggregatedStatistics = TracksColumns.TABLE_NAME.equals(table) && affectsAggregatedStatistics(values);
+        boolean updatesSensorStatistics = TrackPointsColumns.TABLE_NAME.equals(table) && affectsSensorStatistics(values);
         int count;
         try {
             db.beginTransaction();
+            Map<Long, AggregatedTrack> tracksBefore = updatesAggregatedStatistics ? queryAggregatedTracks(whereClause, selectionArgs) : null;
+            Set<Long> trackIdsOfUpdatedTrackPoints = updatesSensorStatistics ? queryTrackIdsOfTrackPoints(whereClause, selectionArgs) : null;
             count = db.update(table, values, whereClause, selectionArgs);
+            if (updatesSensorStatistics && count > 0 && !trackIdsOfUpdatedTrackPoints.isEmpty()) {
+                if (values.getAsLong(TrackPointsColumns.TRACKID) != null) {
+                    // The trackpoints were moved to another track.
+                    trackIdsOfUpdatedTrackPoints.add(values.getAsLong(TrackPointsColumns.TRACKID));
+                }
+                db.execSQL(SENSOR_STATISTICS_INVALIDATE + " WHERE " + TracksColumns._ID + " IN (" + TextUtils.join(SQL_LIST_DELIMITER, trackIdsOfUpdatedTrackPoints) + ")");
+            }
+            if (updatesAggregatedStatistics && !tracksBefore.isEmpty()) {
+                Map<Long, AggregatedTrack> tracksAfter = queryAggregatedTracks(TracksColumns._ID + " IN (" + TextUtils.join(SQL_LIST_DELIMITER, tracksBefore.keySet()) + ")", null);
+                updateAggregatedStatistics(tracksBefore, tracksAfter);
+            }
             db.setTransactionSuccessful();
         } finally {
             db.endTransaction();
         }
-        getContext().getContentResolver().notifyChange(url, null, false);
+        contentChangeNotifier.notifyChange(url);
+        if (updatesAggregatedStatistics) {
+            contentChangeNotifier.notifyChange(AggregatedStatisticsColumns.CONTENT_URI);
+        }
         return count;
     }
 
@@ -366,25 +585,388 @@ public class CustomContentProvider extends ContentProvider {
     }
 
     private Uri insertTrackPoint(Uri url, ContentValues values) {
+        Long trackId = values.getAsLong(TrackPointsColumns.TRACKID);
+        SensorStatisticsUpdater sensorStatisticsUpdater = trackId != null ? loadSensorStatistics(trackId) : null;
+
+        long rowId = insertTrackPointRow(url, values);
+        updateTrackPointIndex(trackId, 1, rowId);
+        if (sensorStatisticsUpdater != null) {
+            addToSensorStatistics(sensorStatisticsUpdater, values);
+            storeSensorStatistics(trackId, sensorStatisticsUpdater);
+        }
+        return ContentUris.appendId(TrackPointsColumns.CONTENT_URI_BY_ID.buildUpon(), rowId).build();
+    }
+
+    /**
+     * Inserts trackpoints and updates the trackpoint index and the sensor statistics once per track.
+     * Must be called within a transaction.
+     *
+     * @return the number of inserted trackpoints
+     */
+    private int bulkInsertTrackPoints(Uri url, ContentValues[] valuesBulk) {
+        Map<Long, Integer> numInsertedByTrackId = new HashMap<>();
+        Map<Long, Long> lastTrackPointIdByTrackId = new HashMap<>();
+        Map<Long, SensorStatisticsUpdater> sensorStatisticsByTrackId = new HashMap<>();
+
+        for (ContentValues values : valuesBulk) {
+            if (values == null) {
+                values = new ContentValues();
+            }
+            Long trackId = values.getAsLong(TrackPointsColumns.TRACKID);
+            if (trackId != null && !numInsertedByTrackId.containsKey(trackId)) {
+                sensorStatisticsByTrackId.put(trackId, loadSensorStatistics(trackId));
+            }
+
+            long rowId = insertTrackPointRow(url, values);
+
+            Integer numInserted = numInsertedByTrackId.get(trackId);
+            numInsertedByTrackId.put(trackId, numInserted == null ? 1 : numInserted + 1);
+            lastTrackPointIdByTrackId.put(trackId, rowId);
+
+            SensorStatisticsUpdater sensorStatisticsUpdater = sensorStatisticsByTrackId.get(trackId);
+            if (sensorStatisticsUpdater != null) {
+                addToSensorStatistics(sensorStatisticsUpdater, values);
+            }
+        }
+
+        for (Map.Entry<Long, Integer> entry : numInsertedByTrackId.entrySet()) {
+            updateTrackPointIndex(entry.getKey(), entry.getValue(), lastTrackPointIdByTrackId.get(entry.getKey()));
+        }
+        for (Map.Entry<Long, SensorStatisticsUpdater> entry : sensorStatisticsByTrackId.entrySet()) {
+            if (entry.getValue() != null) {
+                storeSensorStatistics(entry.getKey(), entry.getValue());
+            }
+        }
+        return valuesBulk.length;
+    }
+
+    /**
+     * Inserts trackpoints of a track in one transaction using one precompiled statement (i.e., without {@link ContentValues} and {@link android.content.ContentResolver}).
+     * Updates the trackpoint index and the sensor statistics like {@link #bulkInsert(Uri, ContentValues[])}.
+     * Only for callers within this process (see {@link ContentProviderUtils#bulkInsertTrackPoint}).
+     *
+     * @param trackId     the track id
+     * @param trackPoints the trackpoints
+     * @return the number of inserted trackpoints
+     */
+    int insertTrackPoints(long trackId, @NonNull List<TrackPoint> trackPoints) {
+        if (trackPoints.isEmpty()) {
+            return 0;
+        }
+
+        try {
+            db.beginTransaction();
+            SensorStatisticsUpdater sensorStatisticsUpdater = loadSensorStatistics(trackId);
+
+            long rowId = -1;
+            try (SQLiteStatement statement = db.compileStatement(TRACKPOINT_INSERT)) {
+                for (TrackPoint trackPoint : trackPoints) {
+                    bindTrackPoint(statement, trackId, trackPoint);
+                    rowId = statement.executeInsert();
+                    if (rowId < 0) {
+                        throw new SQLiteException("Failed to insert a track point " + trackPoint);
+                    }
+                    if (sensorStatisticsUpdater != null) {
+                        sensorStatisticsUpdater.add(trackPoint);
+                    }
+                }
+            }
+
+            updateTrackPointIndex(trackId, trackPoints.size(), rowId);
+            if (sensorStatisticsUpdater != null) {
+                storeSensorStatistics(trackId, sensorStatisticsUpdater);
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+        contentChangeNotifier.notifyChange(TrackPointsColumns.CONTENT_URI_BY_ID);
+        return trackPoints.size();
+    }
+
+    /**
+     * Replaces the stored interval index of a track from byteOffset on (i.e., the bytes before are neither transferred nor modified).
+     * Only for callers within this process (see {@link ContentProviderUtils#updateIntervalIndex(de.dennisguse.opentracks.content.data.Track.Id, de.dennisguse.opentracks.stats.IntervalIndex, int)}).
+     *
+     * @param trackId    the track id
+     * @param byteOffset the number of stored bytes to keep
+     * @param bytes      the bytes to store after byteOffset
+     * @return false if less than byteOffset bytes were stored (nothing was updated)
+     */
+    boolean updateIntervalIndex(long trackId, int byteOffset, @NonNull byte[] bytes) {
+        int count;
+        try (SQLiteStatement statement = db.compileStatement(INTERVALINDEX_UPDATE)) {
+            statement.bindLong(1, byteOffset);
+            statement.bindBlob(2, bytes);
+            statement.bindLong(3, trackId);
+            statement.bindLong(4, byteOffset);
+            count = statement.executeUpdateDelete();
+        }
+        if (count == 0) {
+            return false;
+        }
+        contentChangeNotifier.notifyChange(TracksColumns.CONTENT_URI);
+        return true;
+    }
+
+    /**
+     * Binds the values of a trackpoint to {@link #TRACKPOINT_INSERT}; same values as {@link ContentProviderUtils} puts into the {@link ContentValues}.
+     */
+    private static void bindTrackPoint(SQLiteStatement statement, long trackId, TrackPoint trackPoint) {
+        statement.clearBindings();
+        statement.bindLong(1, trackId);
+        statement.bindLong(2, trackPoint.getType().type_db);
+        if (trackPoint.hasLocation()) {
+            statement.bindLong(3, (int) (trackPoint.getLongitude() * 1E6));
+            statement.bindLong(4, (int) (trackPoint.getLatitude() * 1E6));
+        }
+        statement.bindLong(5, trackPoint.getTime().toEpochMilli());
+        if (trackPoint.hasAltitude()) {
+            statement.bindDouble(6, trackPoint.getAltitude());
+        }
+        if (trackPoint.hasAccuracy()) {
+            statement.bindDouble(7, trackPoint.getAccuracy());
+        }
+        if (trackPoint.hasSpeed()) {
+            statement.bindDouble(8, trackPoint.getSpeed());
+        }
+        if (trackPoint.hasBearing()) {
+            statement.bindDouble(9, trackPoint.getBearing());
+        }
+        if (trackPoint.hasHeartRate()) {
+            statement.bindDouble(10, trackPoint.getHeartRate_bpm());
+        }
+        if (trackPoint.hasCyclingCadence()) {
+            statement.bindDouble(11, trackPoint.getCyclingCadence_rpm());
+        }
+        if (trackPoint.hasSensorDistance()) {
+            statement.bindDouble(12, trackPoint.getSensorDistance());
+        }
+        if (trackPoint.hasPower()) {
+            statement.bindDouble(13, trackPoint.getPower());
+        }
+        if (trackPoint.hasElevationGain()) {
+            statement.bindDouble(14, trackPoint.getElevationGain());
+        }
+        if (trackPoint.hasElevationLoss()) {
+            statement.bindDouble(15, trackPoint.getElevationLoss());
+        }
+    }
+
+    private long insertTrackPointRow(Uri url, ContentValues values) {
         boolean hasTime = values.containsKey(TrackPointsColumns.TIME);
         if (!hasTime) {
             throw new IllegalArgumentException("Latitude, longitude, and time values are required.");
         }
         long rowId = db.insert(TrackPointsColumns.TABLE_NAME, TrackPointsColumns._ID, values);
         if (rowId >= 0) {
-            return ContentUris.appendId(TrackPointsColumns.CONTENT_URI_BY_ID.buildUpon(), rowId).build();
+            return rowId;
         }
         throw new SQLiteException("Failed to insert a track point " + url);
     }
 
+    /**
+     * @return the ids of the tracks that have trackpoints matching the selection.
+     */
+    private Set<Long> queryTrackIdsOfTrackPoints(String whereClause, String[] selectionArgs) {
+        Set<Long> trackIds = new HashSet<>();
+        try (Cursor cursor = db.query(true, TrackPointsColumns.TABLE_NAME, new String[]{TrackPointsColumns.TRACKID}, whereClause, selectionArgs, null, null, null, null)) {
+            while (cursor.moveToNext()) {
+                trackIds.add(cursor.getLong(0));
+            }
+        }
+        return trackIds;
+    }
+
+    /**
+     * Updates {@link TracksColumns#NUMPOINTS} and {@link TracksColumns#LASTTRACKPOINTID} after trackpoints were inserted.
+     *
+     * @param trackId          the track id
+     * @param numInserted      the number of inserted trackpoints
+     * @param lastTrackPointId the id of the last inserted trackpoint
+     */
+    private void updateTrackPointIndex(Long trackId, int numInserted, long lastTrackPointId) {
+        if (trackId == null) {
+            return;
+        }
+        db.execSQL(TRACKPOINT_INDEX_INCREMENT, new Object[]{numInserted, lastTrackPointId, trackId});
+    }
+
+    /**
+     * Loads the sensor statistics of a track to continue them with new trackpoints.
+     * Must be called within a transaction before the trackpoints are inserted.
+     *
+     * @param trackId the track id
+     * @return null if the sensor statistics of the track are not stored (they are computed on demand).
+     */
+    @Nullable
+    private SensorStatisticsUpdater loadSensorStatistics(long trackId) {
+        long lastTrackPointId;
+        SensorStatisticsUpdater sensorStatisticsUpdater;
+        try (Cursor cursor = db.query(TracksColumns.TABLE_NAME, SENSOR_STATISTICS_TRACK_PROJECTION, TracksColumns._ID + "=?", new String[]{Long.toString(trackId)}, null, null, null)) {
+            if (!cursor.moveToFirst()) {
+                return null;
+            }
+            if (cursor.isNull(0) || cursor.getLong(0) == 0) {
+                // No trackpoints yet
+                return new SensorStatisticsUpdater();
+            }
+            if (cursor.isNull(1) || cursor.isNull(2)) {
+                return null;
+            }
+            lastTrackPointId = cursor.getLong(1);
+            sensorStatisticsUpdater = new SensorStatisticsUpdater(cursor.getLong(2), getDouble(cursor, 3), getDouble(cursor, 4), getDouble(cursor, 5), getDouble(cursor, 6), getDouble(cursor, 7));
+        }
+
+        try (Cursor cursor = db.query(TrackPointsColumns.TABLE_NAME, SENSOR_STATISTICS_TRACKPOINT_PROJECTION, TrackPointsColumns._ID + "=?", new String[]{Long.toString(lastTrackPointId)}, null, null, null)) {
+            if (!cursor.moveToFirst()) {
+                return null;
+            }
+            sensorStatisticsUpdater.setLastTrackPoint(cursor.getLong(0), TrackPoint.Type.getById(cursor.getInt(1)), getFloat(cursor, 2), getFloat(cursor, 3), getFloat(cursor, 4));
+        }
+        return sensorStatisticsUpdater;
+    }
+
+    /**
+     * Computes the sensor statistics of a track in one pass over its trackpoints, if these are not stored (e.g., for tracks recorded before database version 36).
+     *
+     * @param trackId the track id
+     */
+    private void computeSensorStatisticsIfMissing(long trackId) {
+        String[] selectionArgs = new String[]{Long.toString(trackId)};
+        try {
+            db.beginTransaction();
+            boolean isMissing;
+            try (Cursor cursor = db.query(TracksColumns.TABLE_NAME, new String[]{TracksColumns.SENSORTIME}, TracksColumns._ID + "=?", selectionArgs, null, null, null)) {
+                isMissing = cursor.moveToFirst() && cursor.isNull(0);
+            }
+
+            if (isMissing) {
+                SensorStatisticsUpdater sensorStatisticsUpdater = new SensorStatisticsUpdater();
+                try (Cursor cursor = db.query(TrackPointsColumns.TABLE_NAME, SENSOR_STATISTICS_TRACKPOINT_PROJECTION, TrackPointsColumns.TRACKID + "=?", selectionArgs, null, null, TrackPointsColumns._ID)) {
+                    while (cursor.moveToNext()) {
+                        sensorStatisticsUpdater.add(cursor.getLong(0), TrackPoint.Type.getById(cursor.getInt(1)), getFloat(cursor, 2), getFloat(cursor, 3), getFloat(cursor, 4));
+                    }
+                }
+                storeSensorStatistics(trackId, sensorStatisticsUpdater);
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    private static void addToSensorStatistics(SensorStatisticsUpdater sensorStatisticsUpdater, ContentValues values) {
+        Integer type = values.getAsInteger(TrackPointsColumns.TYPE);
+        sensorStatisticsUpdater.add(
+                values.getAsLong(TrackPointsColumns.TIME),
+                type != null ? TrackPoint.Type.getById(type) : TrackPoint.Type.TRACKPOINT,
+                values.getAsFloat(TrackPointsColumns.SENSOR_HEARTRATE),
+                values.getAsFloat(TrackPointsColumns.SENSOR_CADENCE),
+                values.getAsFloat(TrackPointsColumns.SENSOR_POWER));
+    }
+
+    private void storeSensorStatistics(long trackId, SensorStatisticsUpdater sensorStatisticsUpdater) {
+        ContentValues values = new ContentValues();
+        values.put(TracksColumns.SENSORTIME, sensorStatisticsUpdater.getSensorTime_ms());
+        values.put(TracksColumns.AVGHEARTRATE, sensorStatisticsUpdater.getAvgHeartRate_bpm());
+        values.put(TracksColumns.MAXHEARTRATE, sensorStatisticsUpdater.getMaxHeartRate_bpm());
+        values.put(TracksColumns.AVGCADENCE, sensorStatisticsUpdater.getAvgCadence_rpm());
+        values.put(TracksColumns.MAXCADENCE, sensorStatisticsUpdater.getMaxCadence_rpm());
+        values.put(TracksColumns.AVGPOWER, sensorStatisticsUpdater.getAvgPower_w());
+        db.update(TracksColumns.TABLE_NAME, values, TracksColumns._ID + "=?", new String[]{Long.toString(trackId)});
+    }
+
+    private static boolean affectsSensorStatistics(ContentValues values) {
+        return values.containsKey(TrackPointsColumns.TRACKID)
+                || values.containsKey(TrackPointsColumns.TIME)
+                || values.containsKey(TrackPointsColumns.TYPE)
+                || values.containsKey(TrackPointsColumns.SENSOR_HEARTRATE)
+                || values.containsKey(TrackPointsColumns.SENSOR_CADENCE)
+                || values.containsKey(TrackPointsColumns.SENSOR_POWER);
+    }
+
+    private static Double getDouble(Cursor cursor, int index) {
+        return cursor.isNull(index) ? null : cursor.getDouble(index);
+    }
+
+    private static Float getFloat(Cursor cursor, int index) {
+        return cursor.isNull(index) ? null : cursor.getFloat(index);
+    }
+
     private Uri insertTrack(Uri url, ContentValues contentValues) {
         long rowId = db.insert(TracksColumns.TABLE_NAME, TracksColumns._ID, contentValues);
         if (rowId >= 0) {
+            updateAggregatedStatistics(new HashMap<>(), queryAggregatedTracks(TracksColumns._ID + "=?", new String[]{Long.toString(rowId)}));
             return ContentUris.appendId(TracksColumns.CONTENT_URI.buildUpon(), rowId).build();
         }
         throw new SQLException("Failed to insert a track " + url);
     }
 
+    private static boolean affectsAggregatedStatistics(ContentValues values) {
+        return values.containsKey(TracksColumns.CATEGORY)
+                || values.containsKey(TracksColumns.TOTALDISTANCE)
+                || values.containsKey(TracksColumns.TOTALTIME)
+                || values.containsKey(TracksColumns.MOVINGTIME)
+                || values.containsKey(TracksColumns.MAXSPEED)
+                || values.containsKey(TracksColumns.ELEVATIONGAIN)
+                || values.containsKey(TracksColumns.ELEVATIONLOSS);
+    }
+
+    /**
+     * @return the aggregated values of the selected tracks by track id.
+     */
+    private Map<Long, AggregatedTrack> queryAggregatedTracks(String whereClause, String[] selectionArgs) {
+        Map<Long, AggregatedTrack> tracks = new HashMap<>();
+        try (Cursor cursor = db.query(TracksColumns.TABLE_NAME, AGGREGATED_TRACK_PROJECTION, whereClause, selectionArgs, null, null, null)) {
+            while (cursor.moveToNext()) {
+                AggregatedTrack track = new AggregatedTrack(cursor);
+                tracks.put(track.id, track);
+            }
+        }
+        return tracks;
+    }
+
+    /**
+     * Updates the {@link AggregatedStatisticsColumns} table incrementally: removes the tracks before and adds the tracks after a change.
+     * Must be called within a transaction after the tracks table was changed.
+     *
+     * @param tracksBefore the changed tracks before the change (deleted tracks)
+     * @param tracksAfter  the changed tracks after the change (inserted tracks)
+     */
+    private void updateAggregatedStatistics(Map<Long, AggregatedTrack> tracksBefore, Map<Long, AggregatedTrack> tracksAfter) {
+        for (AggregatedTrack track : tracksBefore.values()) {
+            addToAggregatedStatistics(track, -1);
+        }
+        for (AggregatedTrack track : tracksAfter.values()) {
+            addToAggregatedStatistics(track, 1);
+        }
+
+        for (AggregatedTrack before : tracksBefore.values()) {
+            AggregatedTrack after = tracksAfter.get(before.id);
+            if (after == null || !after.category.equals(before.category) || after.maxSpeed < before.maxSpeed) {
+                db.execSQL(AGGREGATED_STATISTICS_RECOMPUTE_MAXSPEED, new Object[]{before.category, before.category, before.maxSpeed});
+            }
+        }
+
+        if (!tracksBefore.isEmpty()) {
+            db.execSQL(AGGREGATED_STATISTICS_DELETE_EMPTY);
+        }
+    }
+
+    private void addToAggregatedStatistics(AggregatedTrack track, int sign) {
+        db.execSQL(AGGREGATED_STATISTICS_INSERT_CATEGORY, new Object[]{track.category});
+        db.execSQL(AGGREGATED_STATISTICS_ADD, new Object[]{
+                sign,
+                sign * track.totalDistance,
+                sign * track.totalTime,
+                sign * track.movingTime,
+                sign * track.elevationGain,
+                sign * track.elevationLoss,
+                sign > 0 ? track.maxSpeed : 0,
+                track.category});
+    }
+
     private Uri insertMarker(Uri url, ContentValues contentValues) {
         long rowId = db.insert(MarkerColumns.TABLE_NAME, MarkerColumns._ID, contentValues);
         if (rowId >= 0) {
@@ -403,6 +985,33 @@ public class CustomContentProvider extends ContentProvider {
         TRACKS_SENSOR_STATS,
         MARKERS,
         MARKERS_BY_ID,
-        MARKERS_BY_TRACKID
+        MARKERS_BY_TRACKID,
+        AGGREGATED_STATISTICS,
+        AGGREGATED_STATISTICS_BY_PERIOD
+    }
+
+    /**
+     * The values of a track that are aggregated (see {@link #AGGREGATED_TRACK_PROJECTION}).
+     */
+    private static class AggregatedTrack {
+        final long id;
+        final String category;
+        final double totalDistance;
+        final long totalTime;
+        final long movingTime;
+        final double maxSpeed;
+        final double elevationGain;
+        final double elevationLoss;
+
+        AggregatedTrack(Cursor cursor) {
+            id = cursor.getLong(0);
+            category = cursor.getString(1);
+            totalDistance = cursor.getDouble(2);
+            totalTime = cursor.getLong(3);
+            movingTime = cursor.getLong(4);
+            maxSpeed = cursor.getDouble(5);
+            elevationGain = cursor.getDouble(6);
+            elevationLoss = cursor.getDouble(7);
+        }
     }
 }
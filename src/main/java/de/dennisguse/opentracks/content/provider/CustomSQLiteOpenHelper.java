@@ -11,6 +11,7 @@ import androidx.annotation.VisibleForTesting;
 
 import java.util.UUID;
 
+import de.dennisguse.opentracks.content.data.AggregatedStatisticsColumns;
 import de.dennisguse.opentracks.content.data.MarkerColumns;
 import de.dennisguse.opentracks.content.data.Track;
 import de.dennisguse.opentracks.content.data.TrackPointsColumns;
@@ -25,7 +26,7 @@ public class CustomSQLiteOpenHelper extends SQLiteOpenHelper {
 
     private static final String TAG = CustomSQLiteOpenHelper.class.getSimpleName();
 
-    private static final int DATABASE_VERSION = 31;
+    private static final int DATABASE_VERSION = 36;
 
     @VisibleForTesting
     public static final String DATABASE_NAME = "database.db";
@@ -48,12 +49,16 @@ public class CustomSQLiteOpenHelper extends SQLiteOpenHelper {
     public void onCreate(SQLiteDatabase db) {
         db.execSQL(TrackPointsColumns.CREATE_TABLE);
         db.execSQL(TrackPointsColumns.CREATE_TABLE_INDEX);
+        db.execSQL(TrackPointsColumns.CREATE_TABLE_INDEX_TIME);
 
         db.execSQL(TracksColumns.CREATE_TABLE);
         db.execSQL(TracksColumns.CREATE_TABLE_INDEX);
 
         db.execSQL(MarkerColumns.CREATE_TABLE);
         db.execSQL(MarkerColumns.CREATE_TABLE_INDEX);
+
+        db.execSQL(AggregatedStatisticsColumns.CREATE_TABLE);
+        db.execSQL(AggregatedStatisticsColumns.CREATE_TABLE_INDEX);
     }
 
     @Override
@@ -85,6 +90,21 @@ public class CustomSQLiteOpenHelper extends SQLiteOpenHelper {
                 case 31:
                     upgradeFrom30to31(db);
                     break;
+                case 32:
+                    upgradeFrom31to32(db);
+                    break;
+                case 33:
+                    upgradeFrom32to33(db);
+                    break;
+                case 34:
+                    upgradeFrom33to34(db);
+                    break;
+                case 35:
+                    upgradeFrom34to35(db);
+                    break;
+                case 36:
+                    upgradeFrom35to36(db);
+                    break;
 
                 default:
                     throw new RuntimeException("Not implemented: upgrade to " + toVersion);
@@ -121,6 +141,21 @@ public class CustomSQLiteOpenHelper extends SQLiteOpenHelper {
                 case 30:
                     downgradeFrom31to30(db);
                     break;
+                case 31:
+                    downgradeFrom32to31(db);
+                    break;
+                case 32:
+                    downgradeFrom33to32(db);
+                    break;
+                case 33:
+                    downgradeFrom34to33(db);
+                    break;
+                case 34:
+                    downgradeFrom35to34(db);
+                    break;
+                case 35:
+                    downgradeFrom36to35(db);
+                    break;
                 default:
                     throw new RuntimeException("Not implemented: downgrade to " + toVersion);
             }
@@ -427,4 +462,140 @@ public class CustomSQLiteOpenHelper extends SQLiteOpenHelper {
         db.setTransactionSuccessful();
         db.endTransaction();
     }
+
+    /**
+     * Maintain number of trackpoints and the last trackpoint id per track.
+     */
+    private void upgradeFrom31to32(SQLiteDatabase db) {
+        db.beginTransaction();
+
+        // Tracks
+        db.execSQL("ALTER TABLE tracks ADD COLUMN lasttrackpointid INTEGER");
+        db.execSQL("UPDATE tracks SET numpoints = (SELECT COUNT(*) FROM trackpoints WHERE trackpoints.trackid = tracks._id), lasttrackpointid = (SELECT MAX(_id) FROM trackpoints WHERE trackpoints.trackid = tracks._id)");
+
+        db.setTransactionSuccessful();
+        db.endTransaction();
+    }
+
+    private void downgradeFrom32to31(SQLiteDatabase db) {
+        db.beginTransaction();
+
+        // Tracks
+        db.execSQL("DROP INDEX tracks_uuid_index");
+
+        db.execSQL("ALTER TABLE tracks RENAME TO tracks_old");
+        db.execSQL("CREATE TABLE tracks (_id INTEGER PRIMARY KEY AUTOINCREMENT, name TEXT, description TEXT, category TEXT, starttime INTEGER, stoptime INTEGER, numpoints INTEGER, totaldistance FLOAT, totaltime INTEGER, movingtime INTEGER, avgspeed FLOAT, avgmovingspeed FLOAT, maxspeed FLOAT, minelevation FLOAT, maxelevation FLOAT, elevationgain FLOAT, icon TEXT, uuid BLOB, elevationloss FLOAT)");
+        db.execSQL("INSERT INTO tracks SELECT _id, name, description, category, starttime, stoptime, numpoints, totaldistance, totaltime, movingtime, avgspeed, avgmovingspeed, maxspeed, minelevation, maxelevation, elevationgain, icon, uuid, elevationloss FROM tracks_old");
+        db.execSQL("DROP TABLE tracks_old");
+
+        db.execSQL("CREATE UNIQUE INDEX tracks_uuid_index ON tracks(uuid)");
+
+        db.setTransactionSuccessful();
+        db.endTransaction();
+    }
+
+    /**
+     * Add index for looking up trackpoints by time.
+     */
+    private void upgradeFrom32to33(SQLiteDatabase db) {
+        db.beginTransaction();
+
+        db.execSQL("CREATE INDEX trackpoints_trackid_time_index ON trackpoints(trackid, time)");
+
+        db.setTransactionSuccessful();
+        db.endTransaction();
+    }
+
+    private void downgradeFrom33to32(SQLiteDatabase db) {
+        db.beginTransaction();
+
+        db.execSQL("DROP INDEX trackpoints_trackid_time_index");
+
+        db.setTransactionSuccessful();
+        db.endTransaction();
+    }
+
+    /**
+     * Store the interval index per track; computed on demand for existing tracks.
+     */
+    private void upgradeFrom33to34(SQLiteDatabase db) {
+        db.beginTransaction();
+
+        db.execSQL("ALTER TABLE tracks ADD COLUMN intervalindex BLOB");
+
+        db.setTransactionSuccessful();
+        db.endTransaction();
+    }
+
+    private void downgradeFrom34to33(SQLiteDatabase db) {
+        db.beginTransaction();
+
+        db.execSQL("DROP INDEX tracks_uuid_index");
+
+        db.execSQL("ALTER TABLE tracks RENAME TO tracks_old");
+        db.execSQL("CREATE TABLE tracks (_id INTEGER PRIMARY KEY AUTOINCREMENT, name TEXT, description TEXT, category TEXT, starttime INTEGER, stoptime INTEGER, numpoints INTEGER, totaldistance FLOAT, totaltime INTEGER, movingtime INTEGER, avgspeed FLOAT, avgmovingspeed FLOAT, maxspeed FLOAT, minelevation FLOAT, maxelevation FLOAT, elevationgain FLOAT, icon TEXT, uuid BLOB, elevationloss FLOAT, lasttrackpointid INTEGER)");
+        db.execSQL("INSERT INTO tracks SELECT _id, name, description, category, starttime, stoptime, numpoints, totaldistance, totaltime, movingtime, avgspeed, avgmovingspeed, maxspeed, minelevation, maxelevation, elevationgain, icon, uuid, elevationloss, lasttrackpointid FROM tracks_old");
+        db.execSQL("DROP TABLE tracks_old");
+
+        db.execSQL("CREATE UNIQUE INDEX tracks_uuid_index ON tracks(uuid)");
+
+        db.setTransactionSuccessful();
+        db.endTransaction();
+    }
+
+    /**
+     * Materialize the aggregated statistics per category.
+     */
+    private void upgradeFrom34to35(SQLiteDatabase db) {
+        db.beginTransaction();
+
+        db.execSQL("CREATE TABLE aggregatedstats (_id INTEGER PRIMARY KEY AUTOINCREMENT, category TEXT NOT NULL, numtracks INTEGER NOT NULL DEFAULT 0, totaldistance FLOAT NOT NULL DEFAULT 0, totaltime INTEGER NOT NULL DEFAULT 0, movingtime INTEGER NOT NULL DEFAULT 0, maxspeed FLOAT NOT NULL DEFAULT 0, elevationgain FLOAT NOT NULL DEFAULT 0, elevationloss FLOAT NOT NULL DEFAULT 0)");
+        db.execSQL("CREATE UNIQUE INDEX aggregatedstats_category_index ON aggregatedstats(category)");
+        db.execSQL("INSERT INTO aggregatedstats (category, numtracks, totaldistance, totaltime, movingtime, maxspeed, elevationgain, elevationloss) SELECT IFNULL(category, ''), COUNT(*), IFNULL(SUM(totaldistance), 0), IFNULL(SUM(totaltime), 0), IFNULL(SUM(movingtime), 0), IFNULL(MAX(maxspeed), 0), IFNULL(SUM(elevationgain), 0), IFNULL(SUM(elevationloss), 0) FROM tracks GROUP BY IFNULL(category, '')");
+
+        db.setTransactionSuccessful();
+        db.endTransaction();
+    }
+
+    private void downgradeFrom35to34(SQLiteDatabase db) {
+        db.beginTransaction();
+
+        db.execSQL("DROP TABLE aggregatedstats");
+
+        db.setTransactionSuccessful();
+        db.endTransaction();
+    }
+
+    /**
+     * Store the sensor statistics per track; computed on demand for existing tracks.
+     */
+    private void upgradeFrom35to36(SQLiteDatabase db) {
+        db.beginTransaction();
+
+        db.execSQL("ALTER TABLE tracks ADD COLUMN sensortime INTEGER");
+        db.execSQL("ALTER TABLE tracks ADD COLUMN avgheartrate FLOAT");
+        db.execSQL("ALTER TABLE tracks ADD COLUMN maxheartrate FLOAT");
+        db.execSQL("ALTER TABLE tracks ADD COLUMN avgcadence FLOAT");
+        db.execSQL("ALTER TABLE tracks ADD COLUMN maxcadence FLOAT");
+        db.execSQL("ALTER TABLE tracks ADD COLUMN avgpower FLOAT");
+
+        db.setTransactionSuccessful();
+        db.endTransaction();
+    }
+
+    private void downgradeFrom36to35(SQLiteDatabase db) {
+        db.beginTransaction();
+
+        db.execSQL("DROP INDEX tracks_uuid_index");
+
+        db.execSQL("ALTER TABLE tracks RENAME TO tracks_old");
+        db.execSQL("CREATE TABLE tracks (_id INTEGER PRIMARY KEY AUTOINCREMENT, name TEXT, description TEXT, category TEXT, starttime INTEGER, stoptime INTEGER, numpoints INTEGER, totaldistance FLOAT, totaltime INTEGER, movingtime INTEGER, avgspeed FLOAT, avgmovingspeed FLOAT, maxspeed FLOAT, minelevation FLOAT, maxelevation FLOAT, elevationgain FLOAT, icon TEXT, uuid BLOB, elevationloss FLOAT, lasttrackpointid INTEGER, intervalindex BLOB)");
+        db.execSQL("INSERT INTO tracks SELECT _id, name, description, category, starttime, stoptime, numpoints, totaldistance, totaltime, movingtime, avgspeed, avgmovingspeed, maxspeed, minelevation, maxelevation, elevationgain, icon, uuid, elevationloss, lasttrackpointid, intervalindex FROM tracks_old");
+        db.execSQL("DROP TABLE tracks_old");
+
+        db.execSQL("CREATE UNIQUE INDEX tracks_uuid_index ON tracks(uuid)");
+
+        db.setTransactionSuccessful();
+        db.endTransaction();
+    }
 }
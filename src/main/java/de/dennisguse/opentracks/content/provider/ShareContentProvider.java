@@ -215,7 +215,7 @@ public class ShareContentProvider extends CustomContentProvider {
         String[] trackIdsString = trackIds.stream().map(Track.Id::toString).toArray(String[]::new);
         String whereClause = String.format(TracksColumns._ID + " IN (%s)", TextUtils.join(",", Collections.nCopies(trackIds.size(), "?")));
 
-        try (Cursor cursor = super.query(TracksColumns.CONTENT_URI, null, whereClause, trackIdsString, TracksColumns._ID)) {
+        try (Cursor cursor = super.query(TracksColumns.CONTENT_URI, TracksColumns.DEFAULT_PROJECTION, whereClause, trackIdsString, TracksColumns._ID)) {
             while (cursor.moveToNext()) {
                 tracks.add(ContentProviderUtils.createTrack(cursor));
             }
@@ -3,7 +3,7 @@ package de.dennisguse.opentracks.content.provider;
 import android.database.Cursor;
 
 import androidx.annotation.NonNull;
-import androidx.annotation.VisibleForTesting;
+import androidx.annotation.Nullable;
 
 import java.util.Iterator;
 import java.util.NoSuchElementException;
@@ -12,49 +12,97 @@ import de.dennisguse.opentracks.content.data.Track;
 import de.dennisguse.opentracks.content.data.TrackPoint;
 
 /**
- * A lightweight wrapper around the original {@link Cursor}.
+ * A lightweight iterator over the {@link TrackPoint}s of a track.
+ * <p>
+ * {@link TrackPoint}s are loaded page by page (keyset pagination on the trackPoint id), so that iteration starts immediately and memory usage is bounded also for very long tracks.
  */
 public class TrackPointIterator implements Iterator<TrackPoint>, AutoCloseable {
 
     private static final String TAG = TrackPointIterator.class.getSimpleName();
 
+    public static final int DEFAULT_PAGE_SIZE = 1000;
+
     private final ContentProviderUtils contentProviderUtils;
     private final Track.Id trackId;
+    private final String[] projection;
+    private final int pageSize;
     private final CachedTrackPointsIndexes indexes;
     private Cursor cursor;
 
+    // Id of the last returned trackPoint; the next page starts after it.
+    private TrackPoint.Id lastTrackPointId;
+
     public TrackPointIterator(ContentProviderUtils contentProviderUtils, Track.Id trackId, TrackPoint.Id startTrackPointId) {
+        this(contentProviderUtils, trackId, startTrackPointId, null);
+    }
+
+    /**
+     * @param projection the columns to load; `null` for all columns
+     */
+    public TrackPointIterator(ContentProviderUtils contentProviderUtils, Track.Id trackId, TrackPoint.Id startTrackPointId, @Nullable String[] projection) {
+        this(contentProviderUtils, trackId, startTrackPointId, projection, DEFAULT_PAGE_SIZE);
+    }
+
+    /**
+     * @param projection the columns to load; `null` for all columns
+     * @param pageSize   the number of trackPoints loaded per query
+     */
+    public TrackPointIterator(ContentProviderUtils contentProviderUtils, Track.Id trackId, TrackPoint.Id startTrackPointId, @Nullable String[] projection, int pageSize) {
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("pageSize must be positive");
+        }
         this.contentProviderUtils = contentProviderUtils;
         this.trackId = trackId;
+        this.projection = projection;
+        this.pageSize = pageSize;
 
-        cursor = getCursor(startTrackPointId);
+        cursor = contentProviderUtils.getTrackPointCursor(trackId, startTrackPointId, true, projection, pageSize);
         indexes = new CachedTrackPointsIndexes(cursor);
     }
 
-    private Cursor getCursor(TrackPoint.Id trackPointId) {
-        return contentProviderUtils.getTrackPointCursor(trackId, trackPointId);
-    }
-
     @Override
     public boolean hasNext() {
         if (cursor == null) {
             return false;
         }
-        return !cursor.isLast() && !cursor.isAfterLast();
+        if (cursor.getPosition() < cursor.getCount() - 1) {
+            return true;
+        }
+        if (cursor.getCount() < pageSize) {
+            // Last page
+            return false;
+        }
+
+        cursor.close();
+        cursor = contentProviderUtils.getTrackPointCursor(trackId, lastTrackPointId, false, projection, pageSize);
+        return cursor.getCount() > 0;
     }
 
     @Override
     @NonNull
     public TrackPoint next() {
-        if (cursor == null || !cursor.moveToNext()) {
+        if (!hasNext() || !cursor.moveToNext()) {
             throw new NoSuchElementException();
         }
-        return ContentProviderUtils.fillTrackPoint(cursor, indexes);
+        TrackPoint trackPoint = ContentProviderUtils.fillTrackPoint(cursor, indexes);
+        lastTrackPointId = trackPoint.getId();
+        return trackPoint;
     }
 
-    @VisibleForTesting
-    public int getCount() {
-        return cursor.getCount();
+    /**
+     * Like {@link #next()}, but fills the given {@link TrackPoint} instead of creating a new one.
+     * The caller must not keep a reference to the returned {@link TrackPoint} as it is overwritten by the next call.
+     *
+     * @param reuse the trackPoint to be filled
+     */
+    @NonNull
+    public TrackPoint next(@NonNull TrackPoint reuse) {
+        if (!hasNext() || !cursor.moveToNext()) {
+            throw new NoSuchElementException();
+        }
+        TrackPoint trackPoint = ContentProviderUtils.fillTrackPoint(cursor, indexes, reuse);
+        lastTrackPointId = trackPoint.getId();
+        return trackPoint;
     }
 
     @Override
@@ -69,4 +117,4 @@ public class TrackPointIterator implements Iterator<TrackPoint>, AutoCloseable {
     public void remove() {
         throw new UnsupportedOperationException();
     }
-}
\ No newline at end of file
+}
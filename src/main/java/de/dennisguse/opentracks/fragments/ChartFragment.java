@@ -243,6 +243,13 @@ public class ChartFragment extends Fragment implements TrackDataListener {
         }
     }
 
+    @Override
+    public void onSampledInTrackPointsDecimated() {
+        // Also if not resumed: the TrackDataHub continues with the lower sampling frequency anyway.
+        chartView.decimateChartPoints();
+        runOnUiThread(updateChart);
+    }
+
     @Override
     public void onNewTrackPointsDone(@NonNull TrackPoint unused) {
         if (isResumed()) {
@@ -15,6 +15,8 @@ import androidx.annotation.Nullable;
 import androidx.fragment.app.Fragment;
 import androidx.fragment.app.FragmentActivity;
 
+import java.util.List;
+
 import de.dennisguse.opentracks.R;
 import de.dennisguse.opentracks.TrackActivityDataHubInterface;
 import de.dennisguse.opentracks.adapters.IntervalStatisticsAdapter;
@@ -23,7 +25,9 @@ import de.dennisguse.opentracks.content.TrackDataListener;
 import de.dennisguse.opentracks.content.data.Marker;
 import de.dennisguse.opentracks.content.data.Track;
 import de.dennisguse.opentracks.content.data.TrackPoint;
+import de.dennisguse.opentracks.content.provider.ContentProviderUtils;
 import de.dennisguse.opentracks.databinding.IntervalListViewBinding;
+import de.dennisguse.opentracks.stats.IntervalIndex;
 import de.dennisguse.opentracks.util.PreferencesUtils;
 import de.dennisguse.opentracks.util.UnitConversions;
 import de.dennisguse.opentracks.viewmodels.IntervalStatistics;
@@ -156,8 +160,8 @@ public class IntervalsFragment extends Fragment implements TrackDataListener {
             return;
         }
 
-        IntervalStatistics intervalStatistics = viewModel.getIntervalStats(metricUnits, selectedInterval);
-        adapter = new IntervalStatisticsAdapter(getContext(), intervalStatistics.getIntervalList(), category, stackModeListView);
+        List<IntervalStatistics.Interval> intervalList = viewModel.getIntervalList(metricUnits, selectedInterval);
+        adapter = new IntervalStatisticsAdapter(getContext(), intervalList, category, stackModeListView);
         viewBinding.intervalList.setAdapter(adapter);
     }
 
@@ -167,7 +171,7 @@ public class IntervalsFragment extends Fragment implements TrackDataListener {
      */
     private synchronized void resumeTrackDataHub() {
         trackDataHub = ((TrackActivityDataHubInterface) getActivity()).getTrackDataHub();
-        trackDataHub.registerTrackDataListener(this, true, false, true, true);
+        trackDataHub.registerTrackDataListener(this, true, false, false, false);
     }
 
     /**
@@ -182,6 +186,10 @@ public class IntervalsFragment extends Fragment implements TrackDataListener {
     @Override
     public void onTrackUpdated(Track track) {
         if (isResumed()) {
+            // The intervals are computed from the stored IntervalIndex of the track; the trackPoints are not needed.
+            IntervalIndex intervalIndex = track != null ? new ContentProviderUtils(getContext()).getIntervalIndex(track.getId()) : null;
+            viewModel.setIntervalIndex(intervalIndex != null ? intervalIndex : new IntervalIndex());
+
             getActivity().runOnUiThread(() -> {
                 if (isResumed()) {
                     // Set category.
@@ -190,6 +198,8 @@ public class IntervalsFragment extends Fragment implements TrackDataListener {
                     // Set rate label.
                     boolean reportSpeed = PreferencesUtils.isReportSpeed(sharedPreferences, getContext(), category); //TODO Handle sharedPreferenceChangeListener
                     viewBinding.intervalRate.setText(reportSpeed ? R.string.stats_speed : R.string.stats_pace);
+
+                    loadIntervals();
                 }
             });
         }
@@ -197,30 +207,27 @@ public class IntervalsFragment extends Fragment implements TrackDataListener {
 
     @Override
     public void clearTrackPoints() {
-        if (isResumed()) {
-            viewModel.clear();
-        }
+        // We don't care.
     }
 
     @Override
     public void onSampledInTrackPoint(@NonNull TrackPoint trackPoint) {
-        if (isResumed()) {
-            viewModel.add(trackPoint);
-        }
+        // We don't care.
     }
 
     @Override
     public void onSampledOutTrackPoint(@NonNull TrackPoint trackPoint) {
-        if (isResumed()) {
-            viewModel.add(trackPoint);
-        }
+        // We don't care.
+    }
+
+    @Override
+    public void onSampledInTrackPointsDecimated() {
+        // We don't care.
     }
 
     @Override
     public void onNewTrackPointsDone(@NonNull TrackPoint unused) {
-        if (isResumed()) {
-            runOnUiThread(this::loadIntervals);
-        }
+        // We don't care.
     }
 
     @Override
@@ -224,6 +224,11 @@ public class StatisticsRecordingFragment extends Fragment implements TrackDataLi
         // We don't care.
     }
 
+    @Override
+    public void onSampledInTrackPointsDecimated() {
+        // We don't care.
+    }
+
     @Override
     public void onNewTrackPointsDone(@NonNull TrackPoint newLastTrackPoint) {
         if (isResumed()) {
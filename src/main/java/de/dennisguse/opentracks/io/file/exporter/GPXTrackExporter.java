@@ -123,10 +123,12 @@ public class GPXTrackExporter implements TrackExporter {
         boolean wroteSegment = false;
 
         try (TrackPointIterator trackPointIterator = contentProviderUtils.getTrackPointLocationIterator(track.getId(), null)) {
+            // TrackPoints are written immediately; so one instance is reused.
+            TrackPoint trackPoint = new TrackPoint(TrackPoint.Type.TRACKPOINT);
             while (trackPointIterator.hasNext()) {
                 if (Thread.interrupted()) throw new InterruptedException();
 
-                TrackPoint trackPoint = trackPointIterator.next();
+                trackPointIterator.next(trackPoint);
 
                 if (!wroteTrack) {
                     writeBeginTrack(track);
@@ -83,7 +83,7 @@ public class KMLTrackExporter implements TrackExporter {
     private final List<Float> elevationLossList = new ArrayList<>();
 
     @Deprecated // Figure out a better way to do this! (if needed)
-    private TrackPoint startTrackPoint;
+    private Instant startTime;
 
     public KMLTrackExporter(Context context, boolean exportTrackDetail, boolean exportSensorData, boolean exportPhotos) {
         this.context = context;
@@ -156,13 +156,15 @@ public class KMLTrackExporter implements TrackExporter {
         boolean wroteSegment = false;
 
         try (TrackPointIterator trackPointIterator = contentProviderUtils.getTrackPointLocationIterator(track.getId(), null)) {
+            // TrackPoints are written immediately; so one instance is reused.
+            TrackPoint trackPoint = new TrackPoint(TrackPoint.Type.TRACKPOINT);
             while (trackPointIterator.hasNext()) {
                 if (Thread.interrupted()) throw new InterruptedException();
 
-                TrackPoint trackPoint = trackPointIterator.next();
+                trackPointIterator.next(trackPoint);
                 setLocationTime(trackPoint, offset);
-                if (startTrackPoint == null) {
-                    startTrackPoint = trackPoint;
+                if (startTime == null) {
+                    startTime = trackPoint.getTime();
                 }
 
                 if (!wroteTrack) {
@@ -208,7 +210,7 @@ public class KMLTrackExporter implements TrackExporter {
 
             writeEndTrack();
 
-            startTrackPoint = null;
+            startTime = null;
         }
     }
 
@@ -495,7 +497,7 @@ public class KMLTrackExporter implements TrackExporter {
         if (exportTrackDetail) {
             return StringUtils.formatDateTimeIso8601(Instant.ofEpochMilli(location.getTime()));
         } else {
-            return StringUtils.formatDateTimeIso8601(Instant.ofEpochMilli(location.getTime() - startTrackPoint.getTime().toEpochMilli()));
+            return StringUtils.formatDateTimeIso8601(Instant.ofEpochMilli(location.getTime() - startTime.toEpochMilli()));
         }
     }
 
@@ -21,25 +21,27 @@ import android.content.SharedPreferences;
 import android.database.sqlite.SQLiteConstraintException;
 import android.net.Uri;
 import android.util.Log;
+import android.util.Xml;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 
-import org.xml.sax.Locator;
-import org.xml.sax.SAXException;
-import org.xml.sax.helpers.DefaultHandler;
+import org.xmlpull.v1.XmlPullParser;
+import org.xmlpull.v1.XmlPullParserException;
 
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.time.DateTimeException;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
 import java.util.UUID;
-
-import javax.xml.parsers.ParserConfigurationException;
-import javax.xml.parsers.SAXParserFactory;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 import de.dennisguse.opentracks.R;
 import de.dennisguse.opentracks.content.data.Marker;
@@ -47,98 +49,152 @@ import de.dennisguse.opentracks.content.data.Track;
 import de.dennisguse.opentracks.content.data.TrackPoint;
 import de.dennisguse.opentracks.content.provider.ContentProviderUtils;
 import de.dennisguse.opentracks.content.provider.TrackPointIterator;
+import de.dennisguse.opentracks.stats.IntervalIndex;
 import de.dennisguse.opentracks.stats.TrackStatisticsUpdater;
 import de.dennisguse.opentracks.util.FileUtils;
 import de.dennisguse.opentracks.util.LocationUtils;
 import de.dennisguse.opentracks.util.PreferencesUtils;
-import de.dennisguse.opentracks.util.StringUtils;
 import de.dennisguse.opentracks.util.TrackIconUtils;
 
 /**
  * Abstract class for file track importers.
+ * <p>
+ * The file is read with an {@link XmlPullParser}; the content of the elements is collected in a reused buffer and numbers and times are parsed from it directly (see {@link ElementContent}).
+ * <p>
+ * TrackPoints are streamed to the database: the track is inserted with the first TrackPoints and further TrackPoints are inserted in chunks of {@link #MAX_BUFFERED_TRACK_POINTS}.
+ * If a database writer is given, the chunks are inserted by it while parsing continues (at most one chunk per importer is pending).
+ * The statistics are computed while inserting and stored at the end of the track.
+ * If the import fails, the already inserted tracks are deleted.
+ * <p>
+ * If re-imports should be prevented, the import is aborted as early as possible: after the track uuid was read (it is in front of the TrackPoints) or, if the file has no track uuid, after the first TrackPoint with location (see {@link ContentProviderUtils#getTrack(Instant, TrackPoint)}).
  *
  * @author Jimmy Shih
  */
-abstract class AbstractFileTrackImporter extends DefaultHandler implements TrackImporter {
+abstract class AbstractFileTrackImporter implements TrackImporter {
 
     private static final String TAG = AbstractFileTrackImporter.class.getSimpleName();
 
+    // The maximal number of TrackPoints kept in memory before these are inserted.
+    private static final int MAX_BUFFERED_TRACK_POINTS = 1000;
+
     private final Context context;
     private final ContentProviderUtils contentProviderUtils;
     private final int recordingDistanceInterval;
 
+    // Inserts the TrackPoints; null to insert them on the parsing thread.
+    private final ExecutorService databaseWriter;
+    private Future<?> pendingTrackPoints;
+
     private final List<Track.Id> trackIds = new ArrayList<>();
     private final List<Marker> markers = new ArrayList<>();
 
     // The current element content
-    //TODO Should be made private and getter be used by child classes.
-    protected String content;
+    protected final ElementContent content = new ElementContent();
 
     protected String icon;
     protected String name;
     protected String description;
     protected String category;
-    protected String latitude;
-    protected String longitude;
-    protected String altitude;
-    protected String time;
-    protected String speed;
-    protected String heartrate;
-    protected String cadence;
-    protected String power;
     protected String markerType;
     protected String photoUrl;
     protected String uuid;
-    protected String gain;
-    protected String loss;
-    protected String distance;
+
+    // Values of the current TrackPoint; NaN or null if not available.
+    protected double latitude = Double.NaN;
+    protected double longitude = Double.NaN;
+    protected double altitude = Double.NaN;
+    protected Instant time;
+    protected float speed = Float.NaN;
+    protected float heartrate = Float.NaN;
+    protected float cadence = Float.NaN;
+    protected float power = Float.NaN;
+    protected float gain = Float.NaN;
+    protected float loss = Float.NaN;
+    protected float distance = Float.NaN;
 
     // The current track data
     private TrackData trackData;
 
-    // The SAX locator to get the current line information
-    private Locator locator;
+    // The parser to get the current line information and the attributes
+    private XmlPullParser parser;
 
     private final SharedPreferences sharedPreferences;
 
     AbstractFileTrackImporter(Context context, ContentProviderUtils contentProviderUtils) {
+        this(context, contentProviderUtils, null);
+    }
+
+    AbstractFileTrackImporter(Context context, ContentProviderUtils contentProviderUtils, @Nullable ExecutorService databaseWriter) {
         this.context = context;
         this.contentProviderUtils = contentProviderUtils;
+        this.databaseWriter = databaseWriter;
         sharedPreferences = PreferencesUtils.getSharedPreferences(context);
         this.recordingDistanceInterval = PreferencesUtils.getRecordingDistanceInterval(sharedPreferences, context);
     }
 
-    @Override
-    public void setDocumentLocator(Locator locator) {
-        this.locator = locator;
-    }
+    /**
+     * On element start; the element content is not yet available.
+     *
+     * @param tag the qualified name of the element (e.g., gx:coord)
+     */
+    protected abstract void startElement(@NonNull String tag);
 
-    @Override
-    public void characters(char[] ch, int start, int length) {
-        String newContent = new String(ch, start, length);
-        if (content == null) {
-            content = newContent;
-        } else {
-            // In 99% of the cases, a single call to this method will be made for each sequence of characters we're interested in, so we'll rarely be concatenating strings, thus not justifying the use of a StringBuilder.
-            content += newContent;
-        }
-    }
+    /**
+     * On element end; the element content is available in {@link #content}.
+     *
+     * @param tag the qualified name of the element (e.g., gx:coord)
+     */
+    protected abstract void endElement(@NonNull String tag);
 
     @Override
     @NonNull
     public List<Track.Id> importFile(InputStream inputStream) {
         try {
-            SAXParserFactory.newInstance().newSAXParser().parse(inputStream, this);
+            parser = Xml.newPullParser();
+            // Tags are matched including their namespace prefix.
+            parser.setFeature(XmlPullParser.FEATURE_PROCESS_NAMESPACES, false);
+            parser.setInput(inputStream, null);
+
+            int[] textStartAndLength = new int[2];
+            for (int eventType = parser.getEventType(); eventType != XmlPullParser.END_DOCUMENT; eventType = parser.next()) {
+                switch (eventType) {
+                    case XmlPullParser.START_TAG:
+                        content.clear();
+                        startElement(parser.getName());
+                        break;
+                    case XmlPullParser.TEXT:
+                        char[] text = parser.getTextCharacters(textStartAndLength);
+                        content.append(text, textStartAndLength[0], textStartAndLength[1]);
+                        break;
+                    case XmlPullParser.END_TAG:
+                        endElement(parser.getName());
+                        content.clear();
+                        break;
+                }
+            }
             return trackIds;
-        } catch (IOException | SAXException | ParserConfigurationException | ParsingException e) {
+        } catch (IOException | XmlPullParserException | ParsingException e) {
             Log.e(TAG, "Unable to import file", e);
-            if (trackIds.size() > 0) {
-                cleanImport();
-            }
+            abortImport();
             throw new ImportParserException(e);
         } catch (SQLiteConstraintException e) {
             Log.e(TAG, "Unable to import file", e);
+            abortImport();
             throw new ImportAlreadyExistsException(e);
+        } catch (RuntimeException e) {
+            Log.e(TAG, "Unable to import file", e);
+            abortImport();
+            throw e;
+        }
+    }
+
+    /**
+     * Waits for the pending TrackPoints and deletes the already inserted tracks.
+     */
+    private void abortImport() {
+        awaitPendingTrackPointsQuietly();
+        if (trackIds.size() > 0) {
+            cleanImport();
         }
     }
 
@@ -220,7 +276,7 @@ abstract class AbstractFileTrackImporter extends DefaultHandler implements Track
     /**
      * On track start.
      */
-    protected void onTrackStart() throws SAXException {
+    protected void onTrackStart() {
         trackData = new TrackData();
     }
 
@@ -228,17 +284,30 @@ abstract class AbstractFileTrackImporter extends DefaultHandler implements Track
      * On track end.
      */
     protected void onTrackEnd() {
-        if (name != null) {
-            trackData.track.setName(name);
-        }
+        flushTrackPoints(trackData.bufferedTrackPoints.size());
+        awaitPendingTrackPoints();
 
-        try {
-            trackData.track.setUuid(UUID.fromString(uuid));
-        } catch (IllegalArgumentException | NullPointerException e) {
-            Log.w(TAG, "could not parse Track UUID, generating a new one.");
-            trackData.track.setUuid(UUID.randomUUID());
+        if (!trackData.statistics.isTrackInitialized()) {
+            if (trackData.track.getId() != null) {
+                cleanImport();
+            }
+            throw new ImportParserException("Track did not contain any locations.");
         }
 
+        // Track data might be after the TrackPoints.
+        setTrackData();
+        trackData.track.setTrackStatistics(trackData.statistics.getTrackStatistics());
+        contentProviderUtils.updateTrack(trackData.track);
+        contentProviderUtils.updateIntervalIndex(trackData.track.getId(), trackData.intervalIndex);
+    }
+
+    /**
+     * Sets name, description, category, and icon of the current track.
+     */
+    private void setTrackData() {
+        if (name != null) {
+            trackData.track.setName(name);
+        }
         if (description != null) {
             trackData.track.setDescription(description);
         }
@@ -251,16 +320,20 @@ abstract class AbstractFileTrackImporter extends DefaultHandler implements Track
         if (icon != null) {
             trackData.track.setIcon(icon);
         }
+    }
 
-        TrackStatisticsUpdater statistics = new TrackStatisticsUpdater();
-        //TODO I guess, we should not filter by recordingDistanceInterval on import; the data is already recorded, so we should not change it.
-        for (TrackPoint trackPoint : trackData.bufferedTrackPoints) {
-            statistics.addTrackPoint(trackPoint, recordingDistanceInterval);
-        }
-        if (!statistics.isTrackInitialized()) {
-            throw new ImportParserException("Track did not contain any locations.");
+    /**
+     * Inserts the current track (without TrackPoints and statistics).
+     */
+    private void insertTrack() {
+        setTrackData();
+
+        UUID trackUuid = parseUuid();
+        if (trackUuid == null) {
+            Log.w(TAG, "could not parse Track UUID, generating a new one.");
+            trackUuid = UUID.randomUUID();
         }
-        trackData.track.setTrackStatistics(statistics.getTrackStatistics());
+        trackData.track.setUuid(trackUuid);
 
         Track track = contentProviderUtils.getTrack(trackData.track.getUuid());
         if (track != null) {
@@ -281,8 +354,48 @@ abstract class AbstractFileTrackImporter extends DefaultHandler implements Track
         Track.Id trackId = new Track.Id(Long.parseLong(uri.getLastPathSegment()));
         trackIds.add(trackId);
         trackData.track.setId(trackId);
+    }
+
+    @Nullable
+    private UUID parseUuid() {
+        if (uuid == null) {
+            return null;
+        }
+        try {
+            return UUID.fromString(uuid);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * On track uuid end: aborts the import, if a track with this uuid exists and re-imports should be prevented.
+     * So, the TrackPoints are not parsed.
+     */
+    protected void onTrackUuidEnd() {
+        UUID trackUuid = parseUuid();
+        if (trackUuid == null || !PreferencesUtils.getPreventReimportTracks(sharedPreferences, context)) {
+            return;
+        }
 
-        flushTrackPoints();
+        if (contentProviderUtils.getTrack(trackUuid) != null) {
+            throw new ImportAlreadyExistsException(context.getString(R.string.import_prevent_reimport));
+        }
+    }
+
+    /**
+     * Aborts the import, if the track has no uuid and was imported before (i.e., a track has the same start time and first location), and re-imports should be prevented.
+     *
+     * @param trackPoint the first TrackPoint with location
+     */
+    private void checkAlreadyImported(TrackPoint trackPoint) {
+        if (parseUuid() != null || trackData.startTime == null || trackData.track.getId() != null || !PreferencesUtils.getPreventReimportTracks(sharedPreferences, context)) {
+            return;
+        }
+
+        if (contentProviderUtils.getTrack(trackData.startTime, trackPoint) != null) {
+            throw new ImportAlreadyExistsException(context.getString(R.string.import_prevent_reimport));
+        }
     }
 
     protected void onTrackSegmentStart() {
@@ -309,7 +422,7 @@ abstract class AbstractFileTrackImporter extends DefaultHandler implements Track
         }
     }
 
-    protected void addMarker() throws ParsingException {
+    protected void addMarker() {
         // Markers must have a time, else cannot match to the track points
         if (time == null) {
             Log.w(TAG, "Marker without time ignored.");
@@ -340,7 +453,7 @@ abstract class AbstractFileTrackImporter extends DefaultHandler implements Track
         markers.add(marker);
     }
 
-    protected TrackPoint getTrackPoint() throws ParsingException {
+    protected TrackPoint getTrackPoint() {
         TrackPoint trackPoint = createTrackPoint();
 
         if (trackPoint.hasLocation()) {
@@ -400,7 +513,69 @@ abstract class AbstractFileTrackImporter extends DefaultHandler implements Track
      * @param message the message
      */
     protected String createErrorMessage(String message) {
-        return String.format(Locale.US, "Parsing error at line: %d column: %d. %s", locator.getLineNumber(), locator.getColumnNumber(), message);
+        return String.format(Locale.US, "Parsing error at line: %d column: %d. %s", parser.getLineNumber(), parser.getColumnNumber(), message);
+    }
+
+    /**
+     * Gets an attribute of the current start element.
+     *
+     * @param name the attribute name
+     * @return null if not available
+     */
+    @Nullable
+    protected String getAttributeValue(@NonNull String name) {
+        return parser.getAttributeValue(null, name);
+    }
+
+    /**
+     * @param what the value (for the error message)
+     * @return the content as number; NaN if blank
+     */
+    protected double parseContentDouble(@NonNull String what) {
+        try {
+            return content.parseDouble();
+        } catch (NumberFormatException e) {
+            throw new ParsingException(createErrorMessage(String.format(Locale.US, "Unable to parse %s: %s", what, content)), e);
+        }
+    }
+
+    /**
+     * @param what the value (for the error message)
+     * @return the content as number; NaN if blank
+     */
+    protected float parseContentFloat(@NonNull String what) {
+        try {
+            return content.parseFloat();
+        } catch (NumberFormatException e) {
+            throw new ParsingException(createErrorMessage(String.format(Locale.US, "Unable to parse %s: %s", what, content)), e);
+        }
+    }
+
+    /**
+     * @return the content as time; null if blank
+     */
+    protected Instant parseContentTime() {
+        try {
+            return content.parseTime();
+        } catch (DateTimeException e) {
+            throw new ParsingException(createErrorMessage(String.format(Locale.US, "Unable to parse time: %s", content)), e);
+        }
+    }
+
+    /**
+     * @param what  the value (for the error message)
+     * @param value the value (e.g., of an attribute)
+     * @return the value as number; NaN if null
+     */
+    protected double parseDouble(@NonNull String what, @Nullable String value) {
+        if (value == null) {
+            return Double.NaN;
+        }
+        try {
+            return ElementContent.parseDouble(value, 0, value.length());
+        } catch (NumberFormatException e) {
+            throw new ParsingException(createErrorMessage(String.format(Locale.US, "Unable to parse %s: %s", what, value)), e);
+        }
     }
 
     /**
@@ -429,86 +604,42 @@ abstract class AbstractFileTrackImporter extends DefaultHandler implements Track
         return null;
     }
 
-    private TrackPoint createTrackPoint() throws ParsingException {
-        TrackPoint trackPoint = new TrackPoint(TrackPoint.Type.TRACKPOINT);
-
-        try {
-            trackPoint.setTime(StringUtils.parseTime(time));
-        } catch (Exception e) {
-            throw new ParsingException(createErrorMessage(String.format(Locale.US, "Unable to parse time: %s", time)), e);
+    private TrackPoint createTrackPoint() {
+        if (time == null) {
+            throw new ParsingException(createErrorMessage("Unable to parse time: null"));
         }
+        TrackPoint trackPoint = new TrackPoint(TrackPoint.Type.TRACKPOINT);
+        trackPoint.setTime(time);
 
-        if (latitude == null || longitude == null) {
+        if (Double.isNaN(latitude) || Double.isNaN(longitude)) {
             return trackPoint;
         }
+        trackPoint.setLatitude(latitude);
+        trackPoint.setLongitude(longitude);
 
-        try {
-            trackPoint.setLatitude(Double.parseDouble(latitude));
-            trackPoint.setLongitude(Double.parseDouble(longitude));
-        } catch (NumberFormatException e) {
-            throw new ParsingException(createErrorMessage(String.format(Locale.US, "Unable to parse latitude longitude: %s %s", latitude, longitude)), e);
+        if (!Double.isNaN(altitude)) {
+            trackPoint.setAltitude(altitude);
         }
-
-
-        if (altitude != null) {
-            try {
-                trackPoint.setAltitude(Double.parseDouble(altitude));
-            } catch (NumberFormatException e) {
-                throw new ParsingException(createErrorMessage(String.format(Locale.US, "Unable to parse altitude: %s", altitude)), e);
-            }
+        if (!Float.isNaN(speed)) {
+            trackPoint.setSpeed(speed);
         }
-
-        if (speed != null) {
-            try {
-                trackPoint.setSpeed(Float.parseFloat(speed));
-            } catch (Exception e) {
-                throw new ParsingException(createErrorMessage(String.format(Locale.US, "Unable to parse speed: %s", speed)), e);
-            }
+        if (!Float.isNaN(heartrate)) {
+            trackPoint.setHeartRate_bpm(heartrate);
         }
-        if (heartrate != null) {
-            try {
-                trackPoint.setHeartRate_bpm(Float.parseFloat(heartrate));
-            } catch (Exception e) {
-                throw new ParsingException(createErrorMessage(String.format(Locale.US, "Unable to parse heart rate: %s", heartrate)), e);
-            }
+        if (!Float.isNaN(cadence)) {
+            trackPoint.setCyclingCadence_rpm(cadence);
         }
-
-        if (cadence != null) {
-            try {
-                trackPoint.setCyclingCadence_rpm(Float.parseFloat(cadence));
-            } catch (Exception e) {
-                throw new ParsingException(createErrorMessage(String.format(Locale.US, "Unable to parse cadence: %s", cadence)), e);
-            }
+        if (!Float.isNaN(power)) {
+            trackPoint.setPower(power);
         }
-
-        if (power != null) {
-            try {
-                trackPoint.setPower(Float.parseFloat(power));
-            } catch (Exception e) {
-                throw new ParsingException(createErrorMessage(String.format(Locale.US, "Unable to parse power: %s", power)), e);
-            }
+        if (!Float.isNaN(gain)) {
+            trackPoint.setElevationGain(gain);
         }
-
-        if (gain != null) {
-            try {
-                trackPoint.setElevationGain(Float.parseFloat(gain));
-            } catch (Exception e) {
-                throw new ParsingException(createErrorMessage(String.format(Locale.US, "Unable to parse elevation gain: %s", gain)), e);
-            }
-        }
-        if (loss != null) {
-            try {
-                trackPoint.setElevationLoss(Float.parseFloat(loss));
-            } catch (Exception e) {
-                throw new ParsingException(createErrorMessage(String.format(Locale.US, "Unable to parse elevation loss: %s", loss)), e);
-            }
+        if (!Float.isNaN(loss)) {
+            trackPoint.setElevationLoss(loss);
         }
-        if (distance != null) {
-            try {
-                trackPoint.setSensorDistance(Float.parseFloat(distance));
-            } catch (Exception e) {
-                throw new ParsingException(createErrorMessage(String.format(Locale.US, "Unable to parse distance: %s", distance)), e);
-            }
+        if (!Float.isNaN(distance)) {
+            trackPoint.setSensorDistance(distance);
         }
 
         return trackPoint;
@@ -516,11 +647,24 @@ abstract class AbstractFileTrackImporter extends DefaultHandler implements Track
 
     /**
      * Inserts a trackPoint.
+     * It is buffered and inserted with the following TrackPoints.
      *
      * @param trackPoint the trackPoint
      */
     protected void insertTrackPoint(TrackPoint trackPoint) {
+        if (trackData.startTime == null) {
+            trackData.startTime = trackPoint.getTime();
+        }
+        if (!trackData.hasLocation && trackPoint.hasLocation()) {
+            trackData.hasLocation = true;
+            checkAlreadyImported(trackPoint);
+        }
+
         trackData.bufferedTrackPoints.add(trackPoint);
+        if (trackData.bufferedTrackPoints.size() > MAX_BUFFERED_TRACK_POINTS) {
+            // The last TrackPoint might still be modified (see onTrackSegmentEnd()).
+            flushTrackPoints(trackData.bufferedTrackPoints.size() - 1);
+        }
     }
 
     protected boolean isFirstTrackPointInSegment() {
@@ -528,12 +672,71 @@ abstract class AbstractFileTrackImporter extends DefaultHandler implements Track
     }
 
     /**
-     * Flushes the TrackPoints to the database.
+     * Flushes the first buffered TrackPoints to the database and adds them to the statistics.
+     * Inserts the track, if not yet done.
+     *
+     * @param count the number of TrackPoints
      */
-    private void flushTrackPoints() {
-        if (trackData.bufferedTrackPoints.size() > 0) {
-            contentProviderUtils.bulkInsertTrackPoint(trackData.bufferedTrackPoints, trackData.track.getId());
-            trackData.bufferedTrackPoints.clear();
+    private void flushTrackPoints(int count) {
+        if (count == 0) {
+            return;
+        }
+
+        List<TrackPoint> trackPoints = trackData.bufferedTrackPoints.subList(0, count);
+        //TODO I guess, we should not filter by recordingDistanceInterval on import; the data is already recorded, so we should not change it.
+        for (TrackPoint trackPoint : trackPoints) {
+            trackData.statistics.addTrackPoint(trackPoint, recordingDistanceInterval);
+            trackData.intervalIndex.add(trackPoint);
+        }
+
+        if (trackData.track.getId() == null) {
+            insertTrack();
+        }
+
+        if (databaseWriter == null) {
+            contentProviderUtils.bulkInsertTrackPoint(trackPoints, trackData.track.getId());
+            trackPoints.clear();
+            return;
+        }
+
+        List<TrackPoint> trackPointsToInsert = new ArrayList<>(trackPoints);
+        trackPoints.clear();
+        Track.Id trackId = trackData.track.getId();
+        awaitPendingTrackPoints();
+        pendingTrackPoints = databaseWriter.submit(() -> contentProviderUtils.bulkInsertTrackPoint(trackPointsToInsert, trackId));
+    }
+
+    /**
+     * Waits until the TrackPoints submitted to the database writer are inserted.
+     */
+    private void awaitPendingTrackPoints() {
+        if (pendingTrackPoints == null) {
+            return;
+        }
+
+        try {
+            pendingTrackPoints.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new ImportParserException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ImportParserException(e);
+        } finally {
+            pendingTrackPoints = null;
+        }
+    }
+
+    /**
+     * Waits until the TrackPoints submitted to the database writer are inserted (if the import failed); so, these can be deleted.
+     */
+    private void awaitPendingTrackPointsQuietly() {
+        try {
+            awaitPendingTrackPoints();
+        } catch (RuntimeException e) {
+            Log.w(TAG, "Unable to insert TrackPoints", e);
         }
     }
 
@@ -542,6 +745,7 @@ abstract class AbstractFileTrackImporter extends DefaultHandler implements Track
      */
     private void cleanImport() {
         contentProviderUtils.deleteTracks(context, trackIds);
+        trackIds.clear();
     }
 
     /**
@@ -560,17 +764,25 @@ abstract class AbstractFileTrackImporter extends DefaultHandler implements Track
         // The last location in the current segment; Null if the current segment doesn't have a last location
         TrackPoint lastLocationInCurrentSegment;
 
-        // The buffered locations
+        // The time of the first TrackPoint and if a TrackPoint with location was inserted (to detect re-imports)
+        Instant startTime;
+        boolean hasLocation = false;
+
+        // The buffered locations; not yet inserted
         final List<TrackPoint> bufferedTrackPoints = new ArrayList<>();
+
+        // The statistics of the inserted locations
+        final TrackStatisticsUpdater statistics = new TrackStatisticsUpdater();
+        final IntervalIndex intervalIndex = new IntervalIndex();
     }
 
     public static class ParsingException extends RuntimeException {
 
-        private ParsingException(@NonNull String message) {
+        ParsingException(@NonNull String message) {
             super(message);
         }
 
-        private ParsingException(@NonNull String message, Exception cause) {
+        ParsingException(@NonNull String message, Exception cause) {
             super(message, cause);
         }
 
@@ -0,0 +1,250 @@
+package de.dennisguse.opentracks.io.file.importer;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.time.Instant;
+import java.util.Arrays;
+
+import de.dennisguse.opentracks.util.StringUtils;
+
+/**
+ * The character content of the current XML element.
+ * The buffer is reused for all elements, so values can be parsed without creating a String per element.
+ * <p>
+ * Numbers are parsed directly from the characters if the result is exact (i.e., the same as {@link Double#parseDouble(String)} and {@link Float#parseFloat(String)}); otherwise, these are used.
+ */
+class ElementContent implements CharSequence {
+
+    // Powers of ten that are exact doubles.
+    private static final double[] DOUBLE_POWERS_OF_TEN = {1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22};
+    // Powers of ten that are exact floats.
+    private static final float[] FLOAT_POWERS_OF_TEN = {1e0f, 1e1f, 1e2f, 1e3f, 1e4f, 1e5f, 1e6f, 1e7f, 1e8f, 1e9f, 1e10f};
+
+    // Mantissas up to these are exact doubles (2^53) and floats (2^24).
+    private static final long MAX_DOUBLE_MANTISSA = 1L << 53;
+    private static final long MAX_FLOAT_MANTISSA = 1L << 24;
+
+    // Number of bits for the scale in the result of parseDecimal().
+    private static final int SCALE_BITS = 5;
+
+    private char[] chars = new char[256];
+    private int length = 0;
+
+    void append(char[] source, int start, int length) {
+        if (this.length + length > chars.length) {
+            chars = Arrays.copyOf(chars, Math.max(2 * chars.length, this.length + length));
+        }
+        System.arraycopy(source, start, chars, this.length, length);
+        this.length += length;
+    }
+
+    void clear() {
+        length = 0;
+    }
+
+    /**
+     * @return true if the content is empty or only whitespace.
+     */
+    boolean isBlank() {
+        return getStart(this, 0, length) == length;
+    }
+
+    /**
+     * @return the content without leading and trailing whitespace; null if blank.
+     */
+    @Nullable
+    String getTrimmed() {
+        int start = getStart(this, 0, length);
+        int end = getEnd(this, start, length);
+        return start < end ? new String(chars, start, end - start) : null;
+    }
+
+    /**
+     * Splits the content (without leading and trailing whitespace) at a separator.
+     *
+     * @param separator the separator
+     * @param bounds    is filled with start and end (exclusive) of each part
+     * @return the number of parts; 0 if blank; -1 if there are more parts than fit into bounds.
+     */
+    int split(char separator, @NonNull int[] bounds) {
+        int start = getStart(this, 0, length);
+        int end = getEnd(this, start, length);
+        if (start == end) {
+            return 0;
+        }
+
+        int parts = 0;
+        for (int partStart = start; ; parts++) {
+            if (2 * parts + 1 >= bounds.length) {
+                return -1;
+            }
+            int partEnd = partStart;
+            while (partEnd < end && chars[partEnd] != separator) {
+                partEnd++;
+            }
+            bounds[2 * parts] = partStart;
+            bounds[2 * parts + 1] = partEnd;
+            if (partEnd == end) {
+                return parts + 1;
+            }
+            partStart = partEnd + 1;
+        }
+    }
+
+    /**
+     * @return the content as number; NaN if blank.
+     * @throws NumberFormatException if the content is not a number.
+     */
+    double parseDouble() {
+        return isBlank() ? Double.NaN : parseDouble(this, 0, length);
+    }
+
+    /**
+     * @return the content as number; NaN if blank.
+     * @throws NumberFormatException if the content is not a number.
+     */
+    float parseFloat() {
+        return isBlank() ? Float.NaN : parseFloat(this, 0, length);
+    }
+
+    /**
+     * @return the content as time (see {@link StringUtils#parseTime(CharSequence, int, int)}); null if blank.
+     */
+    @Nullable
+    Instant parseTime() {
+        int start = getStart(this, 0, length);
+        int end = getEnd(this, start, length);
+        return start < end ? StringUtils.parseTime(this, start, end) : null;
+    }
+
+    /**
+     * Parses a number like {@link Double#parseDouble(String)} (leading and trailing whitespace is ignored).
+     *
+     * @param chars the characters
+     * @param start the first character
+     * @param end   the end (exclusive)
+     * @throws NumberFormatException if the characters are not a number.
+     */
+    static double parseDouble(@NonNull CharSequence chars, int start, int end) {
+        start = getStart(chars, start, end);
+        end = getEnd(chars, start, end);
+
+        long decimal = parseDecimal(chars, start, end, MAX_DOUBLE_MANTISSA, DOUBLE_POWERS_OF_TEN.length - 1);
+        if (decimal == -1) {
+            return Double.parseDouble(chars.subSequence(start, end).toString());
+        }
+        // Both values are exact, so the division is correctly rounded.
+        double value = getMantissa(decimal) / DOUBLE_POWERS_OF_TEN[getScale(decimal)];
+        return chars.charAt(start) == '-' ? -value : value;
+    }
+
+    /**
+     * Parses a number like {@link Float#parseFloat(String)} (leading and trailing whitespace is ignored).
+     *
+     * @param chars the characters
+     * @param start the first character
+     * @param end   the end (exclusive)
+     * @throws NumberFormatException if the characters are not a number.
+     */
+    static float parseFloat(@NonNull CharSequence chars, int start, int end) {
+        start = getStart(chars, start, end);
+        end = getEnd(chars, start, end);
+
+        long decimal = parseDecimal(chars, start, end, MAX_FLOAT_MANTISSA, FLOAT_POWERS_OF_TEN.length - 1);
+        if (decimal == -1) {
+            return Float.parseFloat(chars.subSequence(start, end).toString());
+        }
+        // Both values are exact, so the division is correctly rounded.
+        float value = getMantissa(decimal) / FLOAT_POWERS_OF_TEN[getScale(decimal)];
+        return chars.charAt(start) == '-' ? -value : value;
+    }
+
+    /**
+     * Parses a plain decimal number (optional sign, digits, and optional fraction; no exponent).
+     *
+     * @param maxMantissa the maximal mantissa
+     * @param maxScale    the maximal number of fraction digits
+     * @return the mantissa (without sign) and the number of fraction digits (see {@link #getMantissa(long)} and {@link #getScale(long)}); -1 if not a plain decimal number or out of range.
+     */
+    private static long parseDecimal(CharSequence chars, int start, int end, long maxMantissa, int maxScale) {
+        int i = start;
+        if (i < end && (chars.charAt(i) == '-' || chars.charAt(i) == '+')) {
+            i++;
+        }
+
+        long mantissa = 0;
+        int scale = 0;
+        boolean hasDigits = false;
+        boolean hasDot = false;
+        for (; i < end; i++) {
+            char c = chars.charAt(i);
+            if (c >= '0' && c <= '9') {
+                hasDigits = true;
+                mantissa = 10 * mantissa + (c - '0');
+                if (mantissa > maxMantissa) {
+                    return -1;
+                }
+                if (hasDot && ++scale > maxScale) {
+                    return -1;
+                }
+            } else if (c == '.' && !hasDot) {
+                hasDot = true;
+            } else {
+                return -1;
+            }
+        }
+
+        return hasDigits ? mantissa << SCALE_BITS | scale : -1;
+    }
+
+    private static long getMantissa(long decimal) {
+        return decimal >>> SCALE_BITS;
+    }
+
+    private static int getScale(long decimal) {
+        return (int) (decimal & ((1 << SCALE_BITS) - 1));
+    }
+
+    private static int getStart(CharSequence chars, int start, int end) {
+        while (start < end && chars.charAt(start) <= ' ') {
+            start++;
+        }
+        return start;
+    }
+
+    private static int getEnd(CharSequence chars, int start, int end) {
+        while (end > start && chars.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        return end;
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public char charAt(int index) {
+        if (index >= length) {
+            throw new IndexOutOfBoundsException("index " + index + " length " + length);
+        }
+        return chars[index];
+    }
+
+    @NonNull
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        if (start < 0 || end > length || start > end) {
+            throw new IndexOutOfBoundsException("start " + start + " end " + end + " length " + length);
+        }
+        return new String(chars, start, end - start);
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+        return new String(chars, 0, length);
+    }
+}
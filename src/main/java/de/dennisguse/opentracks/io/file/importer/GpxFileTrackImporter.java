@@ -18,10 +18,10 @@ package de.dennisguse.opentracks.io.file.importer;
 
 import android.content.Context;
 
+import androidx.annotation.NonNull;
 import androidx.annotation.VisibleForTesting;
 
-import org.xml.sax.Attributes;
-import org.xml.sax.SAXException;
+import java.util.concurrent.ExecutorService;
 
 import de.dennisguse.opentracks.content.data.TrackPoint;
 import de.dennisguse.opentracks.content.provider.ContentProviderUtils;
@@ -79,11 +79,23 @@ public class GpxFileTrackImporter extends AbstractFileTrackImporter {
         super(context, contentProviderUtils);
     }
 
+    /**
+     * @param databaseWriter inserts the TrackPoints while parsing continues
+     */
+    GpxFileTrackImporter(Context context, ExecutorService databaseWriter) {
+        this(context, new ContentProviderUtils(context), databaseWriter);
+    }
+
+    @VisibleForTesting
+    GpxFileTrackImporter(Context context, ContentProviderUtils contentProviderUtils, ExecutorService databaseWriter) {
+        super(context, contentProviderUtils, databaseWriter);
+    }
+
     @Override
-    public void startElement(String uri, String localName, String tag, Attributes attributes) throws SAXException {
+    protected void startElement(@NonNull String tag) {
         switch (tag) {
             case TAG_MARKER:
-                onMarkerStart(attributes);
+                onMarkerStart();
                 break;
             case TAG_TRACK:
                 onTrackStart();
@@ -92,13 +104,13 @@ public class GpxFileTrackImporter extends AbstractFileTrackImporter {
                 onTrackSegmentStart();
                 break;
             case TAG_TRACK_POINT:
-                onTrackPointStart(attributes);
+                onTrackPointStart();
                 break;
         }
     }
 
     @Override
-    public void endElement(String uri, String localName, String tag) throws SAXException {
+    protected void endElement(@NonNull String tag) {
         switch (tag) {
             case TAG_GPX:
                 onFileEnd();
@@ -116,83 +128,63 @@ public class GpxFileTrackImporter extends AbstractFileTrackImporter {
                 onTrackPointEnd();
                 break;
             case TAG_NAME:
-                if (content != null) {
-                    name = content.trim();
+                if (!content.isBlank()) {
+                    name = content.getTrimmed();
                 }
                 break;
             case TAG_DESCRIPTION:
-                if (content != null) {
-                    description = content.trim();
+                if (!content.isBlank()) {
+                    description = content.getTrimmed();
                 }
                 break;
             case TAG_TYPE:
-                if (content != null) {
-                    category = content.trim();
+                if (!content.isBlank()) {
+                    category = content.getTrimmed();
                 }
                 break;
             case TAG_TIME:
-                if (content != null) {
-                    time = content.trim();
-                }
+                time = parseContentTime();
                 break;
             case TAG_ELEVATION:
-                if (content != null) {
-                    altitude = content.trim();
-                }
+                altitude = parseContentDouble("altitude");
                 break;
             case TAG_COMMENT:
-                if (content != null) {
-                    markerType = content.trim();
+                if (!content.isBlank()) {
+                    markerType = content.getTrimmed();
                 }
                 break;
             case TAG_EXTENSION_SPEED:
-                if (content != null) {
-                    speed = content.trim();
-                }
+                speed = parseContentFloat("speed");
                 break;
             case TAG_EXTENSION_HEARTRATE:
-                if (content != null) {
-                    heartrate = content.trim();
-                }
+                heartrate = parseContentFloat("heart rate");
                 break;
             case TAG_EXTENSION_CADENCE:
-                if (content != null) {
-                    cadence = content.trim();
-                }
+                cadence = parseContentFloat("cadence");
                 break;
             case TAG_EXTENSION_POWER:
-                if (content != null) {
-                    power = content.trim();
-                }
+                power = parseContentFloat("power");
                 break;
             case TAG_ID:
-                if (content != null) {
-                    uuid = content.trim();
+                if (!content.isBlank()) {
+                    uuid = content.getTrimmed();
                 }
+                onTrackUuidEnd();
                 break;
             case TAG_EXTENSION_GAIN:
-                if (content != null) {
-                    gain = content.trim();
-                }
+                gain = parseContentFloat("elevation gain");
                 break;
             case TAG_EXTENSION_LOSS:
-                if (content != null) {
-                    loss = content.trim();
-                }
+                loss = parseContentFloat("elevation loss");
                 break;
             case TAG_EXTENSION_DISTANCE:
-                if (content != null) {
-                    distance = content.trim();
-                }
+                distance = parseContentFloat("distance");
                 break;
         }
-
-        // Reset element content
-        content = null;
     }
 
     @Override
-    protected void onTrackStart() throws SAXException {
+    protected void onTrackStart() {
         super.onTrackStart();
         name = null;
         description = null;
@@ -201,18 +193,16 @@ public class GpxFileTrackImporter extends AbstractFileTrackImporter {
 
     /**
      * On track point start.
-     *
-     * @param attributes the attributes
      */
-    private void onTrackPointStart(Attributes attributes) {
-        latitude = attributes.getValue(ATTRIBUTE_LAT);
-        longitude = attributes.getValue(ATTRIBUTE_LON);
-        altitude = null;
+    private void onTrackPointStart() {
+        latitude = parseDouble("latitude", getAttributeValue(ATTRIBUTE_LAT));
+        longitude = parseDouble("longitude", getAttributeValue(ATTRIBUTE_LON));
+        altitude = Double.NaN;
         time = null;
-        speed = null;
-        power = null;
-        gain = null;
-        loss = null;
+        speed = Float.NaN;
+        power = Float.NaN;
+        gain = Float.NaN;
+        loss = Float.NaN;
     }
 
     private void onTrackPointEnd() {
@@ -224,14 +214,14 @@ public class GpxFileTrackImporter extends AbstractFileTrackImporter {
         insertTrackPoint(trackPoint);
     }
 
-    private void onMarkerStart(Attributes attributes) {
+    private void onMarkerStart() {
         name = null;
         description = null;
         category = null;
         photoUrl = null;
-        latitude = attributes.getValue(ATTRIBUTE_LAT);
-        longitude = attributes.getValue(ATTRIBUTE_LON);
-        altitude = null;
+        latitude = parseDouble("latitude", getAttributeValue(ATTRIBUTE_LAT));
+        longitude = parseDouble("longitude", getAttributeValue(ATTRIBUTE_LON));
+        altitude = Double.NaN;
         time = null;
         markerType = null;
     }
@@ -15,12 +15,23 @@ import androidx.documentfile.provider.DocumentFile;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 import de.dennisguse.opentracks.R;
 import de.dennisguse.opentracks.content.data.Track;
 import de.dennisguse.opentracks.io.file.TrackFileFormat;
 import de.dennisguse.opentracks.util.FileUtils;
 
+/**
+ * Imports files.
+ * <p>
+ * The files of a job are imported in parallel by {@link #NUMBER_OF_WORKERS} threads (parsing is CPU bound); each worker takes the next file as soon as it is done.
+ * The TrackPoints of all files are inserted by one database writer thread (SQLite only has one writer anyway); so, parsing does not wait for the database.
+ * <p>
+ * If the job is stopped, files not yet being imported are skipped; the job is redelivered and each file reports its result (again) with its uri.
+ */
 public class ImportService extends JobIntentService {
 
     private static final String TAG = ImportService.class.getSimpleName();
@@ -28,32 +39,58 @@ public class ImportService extends JobIntentService {
     private static final int JOB_ID = 2;
 
     private static final String EXTRA_RECEIVER = "extra_receiver";
-    private static final String EXTRA_URI = "extra_uri";
+    private static final String EXTRA_URIS = "extra_uris";
+
+    static final int NUMBER_OF_WORKERS = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors()));
 
     private ResultReceiver resultReceiver;
 
-    public static void enqueue(Context context, ImportServiceResultReceiver receiver, Uri uri) {
+    /**
+     * @param uris the files of one batch; the number should be bounded (size of the intent and execution time of a job)
+     */
+    public static void enqueue(Context context, ImportServiceResultReceiver receiver, ArrayList<Uri> uris) {
         Intent intent = new Intent(context, JobService.class);
         intent.putExtra(EXTRA_RECEIVER, receiver);
-        intent.putExtra(EXTRA_URI, uri);
+        intent.putParcelableArrayListExtra(EXTRA_URIS, uris);
         enqueueWork(context, ImportService.class, JOB_ID, intent);
     }
 
     @Override
     protected void onHandleWork(@NonNull Intent intent) {
         resultReceiver = intent.getParcelableExtra(EXTRA_RECEIVER);
-        Uri uri = intent.getParcelableExtra(EXTRA_URI);
-        importFile(DocumentFile.fromSingleUri(this, uri));
+        ArrayList<Uri> uris = intent.getParcelableArrayListExtra(EXTRA_URIS);
+
+        ExecutorService databaseWriter = Executors.newSingleThreadExecutor();
+        ExecutorService workers = Executors.newFixedThreadPool(Math.min(NUMBER_OF_WORKERS, uris.size()));
+        for (Uri uri : uris) {
+            workers.execute(() -> {
+                if (!isStopped()) {
+                    importFile(DocumentFile.fromSingleUri(this, uri), databaseWriter);
+                }
+            });
+        }
+
+        workers.shutdown();
+        try {
+            // Each imported file reports its result; so, the job is done if all files were imported (or skipped as the job was stopped).
+            workers.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Log.w(TAG, "Interrupted while importing files", e);
+            workers.shutdownNow();
+            Thread.currentThread().interrupt();
+        } finally {
+            databaseWriter.shutdown();
+        }
     }
 
-    private void importFile(DocumentFile file) {
+    private void importFile(DocumentFile file, ExecutorService databaseWriter) {
         TrackImporter trackImporter;
         String fileExtension = FileUtils.getExtension(file);
 
         if (TrackFileFormat.GPX.getExtension().equals(fileExtension)) {
-            trackImporter = new GpxFileTrackImporter(this);
+            trackImporter = new GpxFileTrackImporter(this, databaseWriter);
         } else if (TrackFileFormat.KML_WITH_TRACKDETAIL_AND_SENSORDATA.getExtension().equals(fileExtension)) {
-            trackImporter = new KmlFileTrackImporter(this);
+            trackImporter = new KmlFileTrackImporter(this, databaseWriter);
         } else if (TrackFileFormat.KMZ_WITH_TRACKDETAIL_AND_SENSORDATA_AND_PICTURES.getExtension().equals(fileExtension)) {
             trackImporter = new KmzTrackImporter(this, file.getUri());
         } else {
@@ -79,12 +116,17 @@ public class ImportService extends JobIntentService {
         } catch (ImportAlreadyExistsException e) {
             Log.d(TAG, "Track already exists: " + e.getMessage(), e);
             sendResult(ImportServiceResultReceiver.RESULT_CODE_ALREADY_EXISTS, null, file, e.getMessage());
+        } catch (RuntimeException e) {
+            // Every file must report a result; otherwise, the import is never finished.
+            Log.e(TAG, "Unable to import file", e);
+            sendResult(ImportServiceResultReceiver.RESULT_CODE_ERROR, null, file, getString(R.string.import_unable_to_import_file, e.getMessage()));
         }
     }
 
     private void sendResult(int resultCode, ArrayList<Track.Id> trackId, DocumentFile file, String message) {
         Bundle bundle = new Bundle();
         bundle.putParcelableArrayList(ImportServiceResultReceiver.RESULT_EXTRA_LIST_TRACK_ID, trackId);
+        bundle.putParcelable(ImportServiceResultReceiver.RESULT_EXTRA_URI, file.getUri());
         bundle.putString(ImportServiceResultReceiver.RESULT_EXTRA_FILENAME, file.getName());
         bundle.putString(ImportServiceResultReceiver.RESULT_EXTRA_MESSAGE, message);
         resultReceiver.send(resultCode, bundle);
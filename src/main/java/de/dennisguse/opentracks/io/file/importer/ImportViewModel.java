@@ -1,6 +1,7 @@
 package de.dennisguse.opentracks.io.file.importer;
 
 import android.app.Application;
+import android.net.Uri;
 import android.os.Bundle;
 import android.os.Handler;
 
@@ -12,22 +13,34 @@ import androidx.lifecycle.MutableLiveData;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 import de.dennisguse.opentracks.R;
 import de.dennisguse.opentracks.content.data.Track;
 import de.dennisguse.opentracks.util.FileUtils;
 
+/**
+ * Imports the files in batches via the {@link ImportService} (the files of a batch are imported in parallel).
+ * The next batch is enqueued, when all files of the current batch were imported; so, cancel takes effect after the current batch.
+ * If a batch is redelivered by the {@link ImportService}, only the first result of each file is counted.
+ */
 public class ImportViewModel extends AndroidViewModel implements ImportServiceResultReceiver.Receiver {
 
     private static final String TAG = ImportViewModel.class.getSimpleName();
 
+    // Several files per worker, so the workers are not idle while the slowest file of a batch is imported.
+    private static final int FILES_PER_BATCH = 4 * ImportService.NUMBER_OF_WORKERS;
+
     private MutableLiveData<Summary> importData;
     private final ImportServiceResultReceiver resultReceiver;
     private final Summary summary;
     private boolean cancel = false;
     private final List<DocumentFile> filesToImport = new ArrayList<>();
+    // The files of the current batch without result.
+    private final Set<Uri> pendingUris = new HashSet<>();
 
     public ImportViewModel(@NonNull Application application) {
         super(application);
@@ -51,15 +64,20 @@ public class ImportViewModel extends AndroidViewModel implements ImportServiceRe
         List<DocumentFile> fileList = documentFiles.stream().map(FileUtils::getFiles).flatMap(Collection::stream).collect(Collectors.toList());
         summary.totalCount = fileList.size();
         filesToImport.addAll(fileList);
-        importNextFile();
+        importNextFiles();
     }
 
-    private void importNextFile() {
+    private void importNextFiles() {
         if (cancel || filesToImport.isEmpty()) {
             return;
         }
-        ImportService.enqueue(getApplication(), resultReceiver, filesToImport.get(0).getUri());
-        filesToImport.remove(0);
+
+        List<DocumentFile> batch = filesToImport.subList(0, Math.min(FILES_PER_BATCH, filesToImport.size()));
+        ArrayList<Uri> uris = batch.stream().map(DocumentFile::getUri).collect(Collectors.toCollection(ArrayList::new));
+        batch.clear();
+
+        pendingUris.addAll(uris);
+        ImportService.enqueue(getApplication(), resultReceiver, uris);
     }
 
     @Override
@@ -68,6 +86,12 @@ public class ImportViewModel extends AndroidViewModel implements ImportServiceRe
             throw new RuntimeException(TAG + ": onReceiveResult resultData NULL");
         }
 
+        Uri uri = resultData.getParcelable(ImportServiceResultReceiver.RESULT_EXTRA_URI);
+        if (!pendingUris.remove(uri)) {
+            // Already counted: the batch was redelivered.
+            return;
+        }
+
         ArrayList<Track.Id> trackIds = resultData.getParcelableArrayList(ImportServiceResultReceiver.RESULT_EXTRA_LIST_TRACK_ID);
         String fileName = resultData.getString(ImportServiceResultReceiver.RESULT_EXTRA_FILENAME);
         String message = resultData.getString(ImportServiceResultReceiver.RESULT_EXTRA_MESSAGE);
@@ -89,7 +113,10 @@ public class ImportViewModel extends AndroidViewModel implements ImportServiceRe
         }
 
         importData.postValue(summary);
-        importNextFile();
+
+        if (pendingUris.isEmpty()) {
+            importNextFiles();
+        }
     }
 
     static class Summary {
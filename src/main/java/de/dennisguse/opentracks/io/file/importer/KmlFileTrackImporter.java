@@ -19,12 +19,12 @@ package de.dennisguse.opentracks.io.file.importer;
 import android.content.Context;
 import android.util.Log;
 
+import androidx.annotation.NonNull;
 import androidx.annotation.VisibleForTesting;
 
-import org.xml.sax.Attributes;
-import org.xml.sax.SAXException;
-
 import java.util.ArrayList;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
 
 import de.dennisguse.opentracks.content.data.TrackPoint;
 import de.dennisguse.opentracks.content.provider.ContentProviderUtils;
@@ -62,6 +62,9 @@ public class KmlFileTrackImporter extends AbstractFileTrackImporter {
 
     private static final String ATTRIBUTE_NAME = "name";
 
+    // Start and end of longitude, latitude, and altitude within the content.
+    private final int[] coordinateBounds = new int[6];
+
     private boolean trackStarted = false;
     private String extendedDataType;
     private final ArrayList<TrackPoint> trackPoints = new ArrayList<>();
@@ -82,8 +85,15 @@ public class KmlFileTrackImporter extends AbstractFileTrackImporter {
         super(context, contentProviderUtils);
     }
 
+    /**
+     * @param databaseWriter inserts the TrackPoints while parsing continues
+     */
+    KmlFileTrackImporter(Context context, ExecutorService databaseWriter) {
+        super(context, new ContentProviderUtils(context), databaseWriter);
+    }
+
     @Override
-    public void startElement(String uri, String localName, String tag, Attributes attributes) throws SAXException {
+    protected void startElement(@NonNull String tag) {
         switch (tag) {
             case TAG_PLACEMARK:
             case TAG_PHOTO_OVERLAY:
@@ -96,18 +106,18 @@ public class KmlFileTrackImporter extends AbstractFileTrackImporter {
                 break;
             case TAG_GX_TRACK:
                 if (!trackStarted) {
-                    throw new SAXException("No " + TAG_GX_MULTI_TRACK);
+                    throw new ParsingException(createErrorMessage("No " + TAG_GX_MULTI_TRACK));
                 }
                 onTrackSegmentStart();
                 break;
             case TAG_GX_SIMPLE_ARRAY_DATA:
-                onExtendedDataStart(attributes);
+                onExtendedDataStart();
                 break;
         }
     }
 
     @Override
-    public void endElement(String uri, String localName, String tag) throws SAXException {
+    protected void endElement(@NonNull String tag) {
         switch (tag) {
             case TAG_KML:
                 onFileEnd();
@@ -133,50 +143,45 @@ public class KmlFileTrackImporter extends AbstractFileTrackImporter {
                 onExtendedDataValueEnd();
                 break;
             case TAG_NAME:
-                if (content != null) {
-                    name = content.trim();
+                if (!content.isBlank()) {
+                    name = content.getTrimmed();
                 }
                 break;
             case TAG_UUID:
-                if (content != null) {
-                    uuid = content.trim();
+                if (!content.isBlank()) {
+                    uuid = content.getTrimmed();
                 }
+                onTrackUuidEnd();
                 break;
             case TAG_DESCRIPTION:
-                if (content != null) {
-                    description = content.trim();
+                if (!content.isBlank()) {
+                    description = content.getTrimmed();
                 }
                 break;
             case TAG_ICON:
-                if (content != null) {
-                    icon = content.trim();
+                if (!content.isBlank()) {
+                    icon = content.getTrimmed();
                 }
                 break;
             case TAG_VALUE:
-                if (content != null) {
-                    category = content.trim();
+                if (!content.isBlank()) {
+                    category = content.getTrimmed();
                 }
                 break;
             case TAG_WHEN:
-                if (content != null) {
-                    time = content.trim();
-                }
-
+                time = parseContentTime();
                 break;
             case TAG_STYLE_URL:
-                if (content != null) {
-                    markerType = content.trim();
+                if (!content.isBlank()) {
+                    markerType = content.getTrimmed();
                 }
                 break;
             case TAG_HREF:
-                if (content != null) {
-                    photoUrl = content.trim();
+                if (!content.isBlank()) {
+                    photoUrl = content.getTrimmed();
                 }
                 break;
         }
-
-        // Reset element content
-        content = null;
     }
 
     private void onMarkerStart() {
@@ -186,14 +191,14 @@ public class KmlFileTrackImporter extends AbstractFileTrackImporter {
         description = null;
         category = null;
         photoUrl = null;
-        latitude = null;
-        longitude = null;
-        altitude = null;
+        latitude = Double.NaN;
+        longitude = Double.NaN;
+        altitude = Double.NaN;
         time = null;
         markerType = null;
     }
 
-    private void onMarkerEnd() throws SAXException {
+    private void onMarkerEnd() {
         if (!MARKER_STYLE.equals(markerType)) {
             return;
         }
@@ -201,14 +206,31 @@ public class KmlFileTrackImporter extends AbstractFileTrackImporter {
     }
 
     private void onMarkerLocationEnd() {
-        if (content != null) {
-            String[] parts = content.trim().split(",");
-            if (parts.length != 2 && parts.length != 3) {
-                return;
-            }
-            longitude = parts[0];
-            latitude = parts[1];
-            altitude = parts.length == 3 ? parts[2] : null;
+        setCoordinates(',');
+    }
+
+    /**
+     * Sets longitude, latitude, and (optional) altitude from the content; does nothing if it does not contain two or three parts.
+     *
+     * @param separator the separator of the parts
+     */
+    private void setCoordinates(char separator) {
+        int parts = content.split(separator, coordinateBounds);
+        if (parts != 2 && parts != 3) {
+            return;
+        }
+        longitude = parseCoordinate(0);
+        latitude = parseCoordinate(1);
+        altitude = parts == 3 ? parseCoordinate(2) : Double.NaN;
+    }
+
+    private double parseCoordinate(int part) {
+        int start = coordinateBounds[2 * part];
+        int end = coordinateBounds[2 * part + 1];
+        try {
+            return ElementContent.parseDouble(content, start, end);
+        } catch (NumberFormatException e) {
+            throw new ParsingException(createErrorMessage(String.format(Locale.US, "Unable to parse coordinates: %s", content)), e);
         }
     }
 
@@ -260,17 +282,9 @@ public class KmlFileTrackImporter extends AbstractFileTrackImporter {
     /**
      * On track point end. gx:coord end tag.
      */
-    private void onTrackPointEnd() throws SAXException {
+    private void onTrackPointEnd() {
         // Add trackPoint to trackPoints
-        if (content == null) {
-            return;
-        }
-        String[] parts = content.trim().split(" ");
-        if (parts.length == 2 || parts.length == 3) {
-            longitude = parts[0];
-            latitude = parts[1];
-            altitude = parts.length == 3 ? parts[2] : null;
-        }
+        setCoordinates(' ');
 
         // Similar to GPX
         boolean isFirstTrackPointInSegment = isFirstTrackPointInSegment();
@@ -284,31 +298,28 @@ public class KmlFileTrackImporter extends AbstractFileTrackImporter {
 
         // Reset variables for next trackpoint (which might not have such data).
         time = null;
-        longitude = null;
-        latitude = null;
-        altitude = null;
+        longitude = Double.NaN;
+        latitude = Double.NaN;
+        altitude = Double.NaN;
     }
 
     /**
      * On extended data start. gx:SimpleArrayData start tag.
      */
-    private void onExtendedDataStart(Attributes attributes) {
-        extendedDataType = attributes.getValue(ATTRIBUTE_NAME);
+    private void onExtendedDataStart() {
+        extendedDataType = getAttributeValue(ATTRIBUTE_NAME);
     }
 
     /**
      * On extended data value end. gx:value end tag.
      */
-    private void onExtendedDataValueEnd() throws SAXException {
+    private void onExtendedDataValueEnd() {
         Float value = null;
-        if (content != null) {
-            content = content.trim();
-            if (!content.equals("")) {
-                try {
-                    value = Float.parseFloat(content);
-                } catch (NumberFormatException e) {
-                    throw new SAXException(createErrorMessage("Unable to parse gx:value:" + content), e);
-                }
+        if (!content.isBlank()) {
+            try {
+                value = content.parseFloat();
+            } catch (NumberFormatException e) {
+                throw new ParsingException(createErrorMessage("Unable to parse gx:value:" + content), e);
             }
         }
         switch (extendedDataType) {
@@ -0,0 +1,201 @@
+package de.dennisguse.opentracks.services;
+
+import android.database.sqlite.SQLiteException;
+import android.os.Handler;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import de.dennisguse.opentracks.content.data.Track;
+import de.dennisguse.opentracks.content.data.TrackPoint;
+import de.dennisguse.opentracks.content.provider.ContentProviderUtils;
+import de.dennisguse.opentracks.stats.IntervalIndex;
+import de.dennisguse.opentracks.stats.TrackStatistics;
+import de.dennisguse.opentracks.stats.TrackStatisticsUpdater;
+
+/**
+ * Write-behind buffer for recorded {@link TrackPoint}s.
+ * Instead of one insert and one track update per {@link TrackPoint}, {@link TrackPoint}s are staged and written using one bulk insert and one update of the {@link TrackStatistics} and the {@link IntervalIndex}.
+ * The {@link TrackStatistics} are only taken from the {@link TrackStatisticsUpdater} when flushing and only the changed values are written.
+ * Likewise, only the checkpoints of the {@link IntervalIndex} that changed since the last flush are written (i.e., the last written one and the new ones).
+ * <p>
+ * The buffer is flushed if it contains {@link #MAX_BUFFERED_TRACKPOINTS} or if the oldest staged {@link TrackPoint} is older than {@link #MAX_BUFFER_AGE}.
+ * The latter is also checked via the handler (if given), so {@link TrackPoint}s are written even if no further {@link TrackPoint}s are added (e.g., while idle).
+ * {@link #flush()} must be called whenever the recording is paused or stopped and if the system might kill the process.
+ * <p>
+ * If writing fails, the staged {@link TrackPoint}s are kept and written with the next flush.
+ */
+class TrackPointWriteBuffer {
+
+    private static final String TAG = TrackPointWriteBuffer.class.getSimpleName();
+
+    @VisibleForTesting
+    static final int MAX_BUFFERED_TRACKPOINTS = 20;
+
+    @VisibleForTesting
+    static final Duration MAX_BUFFER_AGE = Duration.ofSeconds(10);
+
+    private final ContentProviderUtils contentProviderUtils;
+    private final Handler handler;
+    private final Runnable flushIfExpired = this::flushIfExpired;
+
+    private final List<TrackPoint> trackPoints = new ArrayList<>(MAX_BUFFERED_TRACKPOINTS);
+    private Track.Id trackId;
+    private TrackStatisticsUpdater trackStatisticsUpdater;
+    private IntervalIndex intervalIndex;
+    private Instant firstBufferedAt;
+
+    // The last written statistics of trackId and their version.
+    private TrackStatistics writtenTrackStatistics;
+    private TrackStatisticsUpdater writtenTrackStatisticsUpdater;
+    private long writtenVersion;
+
+    // The last written intervalIndex of trackId and its size at that time.
+    private IntervalIndex writtenIntervalIndex;
+    private int writtenIntervalIndexSize;
+
+    /**
+     * @param handler to flush the buffer, if the oldest staged {@link TrackPoint} becomes too old; null to check only while adding
+     */
+    TrackPointWriteBuffer(@NonNull ContentProviderUtils contentProviderUtils, @Nullable Handler handler) {
+        this.contentProviderUtils = contentProviderUtils;
+        this.handler = handler;
+    }
+
+    /**
+     * Stages a trackPoint; might flush the buffer.
+     *
+     * @param trackId                the track id
+     * @param trackPoint             the trackPoint
+     * @param trackStatisticsUpdater the statistics of the track including the trackPoint
+     * @param intervalIndex          the intervalIndex of the track including the trackPoint
+     */
+    synchronized void add(@NonNull Track.Id trackId, @NonNull TrackPoint trackPoint, @NonNull TrackStatisticsUpdater trackStatisticsUpdater, @NonNull IntervalIndex intervalIndex) {
+        if (this.trackId != null && !this.trackId.equals(trackId)) {
+            flush();
+            if (!trackPoints.isEmpty()) {
+                Log.e(TAG, "Dropping " + trackPoints.size() + " trackPoints of track " + this.trackId + " that could not be written.");
+                clear();
+            }
+            writtenTrackStatistics = null;
+            writtenIntervalIndex = null;
+        }
+
+        if (trackPoints.isEmpty()) {
+            firstBufferedAt = Instant.now();
+            scheduleFlush(MAX_BUFFER_AGE);
+        }
+        this.trackId = trackId;
+        this.trackPoints.add(trackPoint);
+        this.trackStatisticsUpdater = trackStatisticsUpdater;
+        this.intervalIndex = intervalIndex;
+
+        if (trackPoints.size() >= MAX_BUFFERED_TRACKPOINTS || !Instant.now().isBefore(firstBufferedAt.plus(MAX_BUFFER_AGE))) {
+            flush();
+        }
+    }
+
+    /**
+     * Writes all staged trackPoints, the latest {@link TrackStatistics}, and the {@link IntervalIndex} to the database.
+     */
+    synchronized void flush() {
+        if (trackId == null) {
+            return;
+        }
+
+        try {
+            if (!trackPoints.isEmpty()) {
+                // Inserted in one transaction: either all or none.
+                contentProviderUtils.bulkInsertTrackPoint(trackPoints, trackId);
+                trackPoints.clear();
+            }
+            if (trackStatisticsUpdater != null && (trackStatisticsUpdater != writtenTrackStatisticsUpdater || trackStatisticsUpdater.getVersion() != writtenVersion)) {
+                if (intervalIndex != null) {
+                    writeIntervalIndex();
+                }
+                // A copy: the snapshot of the trackStatisticsUpdater is shared.
+                TrackStatistics trackStatistics = new TrackStatistics(trackStatisticsUpdater.getTrackStatistics());
+                contentProviderUtils.updateTrackStatistics(trackId, trackStatistics, writtenTrackStatistics);
+                writtenTrackStatistics = trackStatistics;
+                writtenTrackStatisticsUpdater = trackStatisticsUpdater;
+                writtenVersion = trackStatisticsUpdater.getVersion();
+            }
+        } catch (SQLiteException e) {
+            /*
+             * Insert failed, most likely because of SqlLite error code 5 (SQLite_BUSY).
+             * This is expected to happen extremely rarely; the remaining data is written with the next flush.
+             */
+            Log.w(TAG, "SQLiteException; keeping " + trackPoints.size() + " trackPoints for the next flush.", e);
+            writtenTrackStatistics = null;
+            writtenIntervalIndex = null;
+            return;
+        }
+
+        clear();
+    }
+
+    private void writeIntervalIndex() {
+        if (intervalIndex == writtenIntervalIndex && writtenIntervalIndexSize > 0) {
+            // Adding trackPoints only modifies the last checkpoint and appends new ones.
+            contentProviderUtils.updateIntervalIndex(trackId, intervalIndex, writtenIntervalIndexSize - 1);
+        } else {
+            contentProviderUtils.updateIntervalIndex(trackId, intervalIndex);
+        }
+        writtenIntervalIndex = intervalIndex;
+        writtenIntervalIndexSize = intervalIndex.size();
+    }
+
+    /**
+     * Flushes if the oldest staged trackPoint is older than {@link #MAX_BUFFER_AGE}; otherwise checks again later.
+     */
+    @VisibleForTesting
+    synchronized void flushIfExpired() {
+        if (firstBufferedAt == null) {
+            return;
+        }
+
+        Duration age = Duration.between(firstBufferedAt, Instant.now());
+        if (age.compareTo(MAX_BUFFER_AGE) < 0) {
+            scheduleFlush(MAX_BUFFER_AGE.minus(age));
+            return;
+        }
+
+        flush();
+        if (firstBufferedAt != null) {
+            // Flush failed; retry.
+            scheduleFlush(MAX_BUFFER_AGE);
+        }
+    }
+
+    /**
+     * Removes all staged data (i.e., after writing).
+     */
+    private void clear() {
+        trackPoints.clear();
+        trackStatisticsUpdater = null;
+        intervalIndex = null;
+        firstBufferedAt = null;
+        if (handler != null) {
+            handler.removeCallbacks(flushIfExpired);
+        }
+    }
+
+    private void scheduleFlush(Duration delay) {
+        if (handler != null) {
+            handler.removeCallbacks(flushIfExpired);
+            handler.postDelayed(flushIfExpired, delay.toMillis());
+        }
+    }
+
+    @VisibleForTesting
+    synchronized int size() {
+        return trackPoints.size();
+    }
+}
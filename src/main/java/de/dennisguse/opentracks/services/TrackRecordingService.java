@@ -23,7 +23,6 @@ import android.content.Context;
 import android.content.Intent;
 import android.content.SharedPreferences;
 import android.content.SharedPreferences.OnSharedPreferenceChangeListener;
-import android.database.sqlite.SQLiteException;
 import android.net.Uri;
 import android.os.Bundle;
 import android.os.Handler;
@@ -46,6 +45,7 @@ import de.dennisguse.opentracks.TrackRecordingActivity;
 import de.dennisguse.opentracks.content.data.Marker;
 import de.dennisguse.opentracks.content.data.Track;
 import de.dennisguse.opentracks.content.data.TrackPoint;
+import de.dennisguse.opentracks.content.data.TrackPointsColumns;
 import de.dennisguse.opentracks.content.provider.ContentProviderUtils;
 import de.dennisguse.opentracks.content.provider.CustomContentProvider;
 import de.dennisguse.opentracks.content.provider.TrackPointIterator;
@@ -58,6 +58,7 @@ import de.dennisguse.opentracks.services.sensors.ElevationSumManager;
 import de.dennisguse.opentracks.services.tasks.AnnouncementPeriodicTaskFactory;
 import de.dennisguse.opentracks.services.tasks.PeriodicTaskExecutor;
 import de.dennisguse.opentracks.settings.SettingsActivity;
+import de.dennisguse.opentracks.stats.IntervalIndex;
 import de.dennisguse.opentracks.stats.TrackStatistics;
 import de.dennisguse.opentracks.stats.TrackStatisticsUpdater;
 import de.dennisguse.opentracks.util.ExportUtils;
@@ -79,6 +80,7 @@ public class TrackRecordingService extends Service implements HandlerServer.Hand
 
     // The following variables are set in onCreate:
     private ContentProviderUtils contentProviderUtils;
+    private TrackPointWriteBuffer trackPointWriteBuffer;
     private PeriodicTaskExecutor voiceExecutor;
     private TrackRecordingServiceNotificationManager notificationManager;
 
@@ -125,8 +127,7 @@ public class TrackRecordingService extends Service implements HandlerServer.Hand
     private ElevationSumManager elevationSumManager;
 
     private TrackStatisticsUpdater trackStatisticsUpdater;
-    private TrackPoint lastTrackPoint;
-    private boolean isIdle;
+    private TrackRecordingState recordingState;
 
     private TrackRecordingServiceBinder binder = new TrackRecordingServiceBinder(this);
 
@@ -141,6 +142,7 @@ public class TrackRecordingService extends Service implements HandlerServer.Hand
         handlerServer = new HandlerServer(this);
 
         contentProviderUtils = new ContentProviderUtils(this);
+        trackPointWriteBuffer = new TrackPointWriteBuffer(contentProviderUtils, new Handler());
         voiceExecutor = new PeriodicTaskExecutor(this, new AnnouncementPeriodicTaskFactory());
 
         notificationManager = new TrackRecordingServiceNotificationManager(this);
@@ -178,6 +180,10 @@ public class TrackRecordingService extends Service implements HandlerServer.Hand
         handlerServer.stop(this);
         handlerServer = null;
 
+        // Do not lose any buffered trackPoints
+        trackPointWriteBuffer.flush();
+        trackPointWriteBuffer = null;
+
         if (remoteSensorManager != null) {
             remoteSensorManager.stop();
             remoteSensorManager = null;
@@ -211,6 +217,20 @@ public class TrackRecordingService extends Service implements HandlerServer.Hand
         super.onDestroy();
     }
 
+    @Override
+    public void onLowMemory() {
+        // The process might be killed soon.
+        trackPointWriteBuffer.flush();
+        super.onLowMemory();
+    }
+
+    @Override
+    public void onTrimMemory(int level) {
+        // The process might be killed soon.
+        trackPointWriteBuffer.flush();
+        super.onTrimMemory(level);
+    }
+
     public boolean isRecording() {
         return PreferencesUtils.isRecording(recordingTrackId);
     }
@@ -223,11 +243,24 @@ public class TrackRecordingService extends Service implements HandlerServer.Hand
         return recordingTrackId;
     }
 
+    /**
+     * @return a copy of the statistics of the recording track (the caller may modify it); null if not recording.
+     */
     public TrackStatistics getTrackStatistics() {
         if (trackStatisticsUpdater == null) {
             return null;
         }
-        return trackStatisticsUpdater.getTrackStatistics();
+        return new TrackStatistics(trackStatisticsUpdater.getTrackStatistics());
+    }
+
+    /**
+     * @return the total distance of the recording track (without creating a {@link TrackStatistics} snapshot); null if not recording.
+     */
+    public Double getTotalDistance() {
+        if (trackStatisticsUpdater == null) {
+            return null;
+        }
+        return trackStatisticsUpdater.getTotalDistance();
     }
 
     //TODO Throw exception, when not recording.
@@ -257,7 +290,7 @@ public class TrackRecordingService extends Service implements HandlerServer.Hand
             name = getString(R.string.marker_name_format, nextMarkerNumber + 1);
         }
 
-        TrackPoint trackPoint = getLastValidTrackPointInCurrentSegment(recordingTrackId);
+        TrackPoint trackPoint = recordingState != null ? recordingState.getLastValidStoredTrackPoint() : null;
         if (trackPoint == null) {
             Log.i(TAG, "Could not create a marker as trackPoint is unknown.");
             return null;
@@ -302,7 +335,9 @@ public class TrackRecordingService extends Service implements HandlerServer.Hand
 
         TrackPoint segmentStartTrackPoint = TrackPoint.createSegmentStartManual();
         trackStatisticsUpdater = new TrackStatisticsUpdater();
-        insertTrackPoint(track, segmentStartTrackPoint);
+        recordingState = new TrackRecordingState(track, new IntervalIndex());
+        insertTrackPoint(segmentStartTrackPoint);
+        trackPointWriteBuffer.flush();
 
         //TODO Pass TrackPoint
         track.setName(TrackNameUtils.getTrackName(this, trackId, segmentStartTrackPoint.getTime()));
@@ -310,8 +345,7 @@ public class TrackRecordingService extends Service implements HandlerServer.Hand
         String category = PreferencesUtils.getDefaultActivity(sharedPreferences, this);
         track.setCategory(category);
         track.setIcon(TrackIconUtils.getIconValue(this, category));
-        track.setTrackStatistics(trackStatisticsUpdater.getTrackStatistics());
-        contentProviderUtils.updateTrack(track);
+        contentProviderUtils.updateTrackDetails(track);
 
         startRecording();
         return trackId;
@@ -333,8 +367,10 @@ public class TrackRecordingService extends Service implements HandlerServer.Hand
         // Sync the real time setting the stop time with current time.
         track.getTrackStatistics().setStopTime(Instant.now());
         trackStatisticsUpdater = new TrackStatisticsUpdater(track.getTrackStatistics());
+        recordingState = new TrackRecordingState(track, loadIntervalIndex(trackId));
 
-        insertTrackPoint(track, TrackPoint.createSegmentStartManual());
+        insertTrackPoint(TrackPoint.createSegmentStartManual());
+        trackPointWriteBuffer.flush();
 
         // Update shared preferences.
         updateRecordingState(trackId, false);
@@ -359,8 +395,9 @@ public class TrackRecordingService extends Service implements HandlerServer.Hand
         Log.d(TAG, "Restarting track: " + track.getId());
 
         trackStatisticsUpdater = new TrackStatisticsUpdater();
+        recordingState = new TrackRecordingState(track, loadIntervalIndex(track.getId()));
 
-        try (TrackPointIterator trackPointIterator = contentProviderUtils.getTrackPointLocationIterator(track.getId(), null)) {
+        try (TrackPointIterator trackPointIterator = contentProviderUtils.getTrackPointLocationIterator(track.getId(), null, TrackPointsColumns.PROJECTION_STATISTICS)) {
             trackStatisticsUpdater.addTrackPoint(trackPointIterator, recordingDistanceInterval);
         } catch (RuntimeException e) {
             Log.e(TAG, "RuntimeException", e);
@@ -377,9 +414,9 @@ public class TrackRecordingService extends Service implements HandlerServer.Hand
         updateRecordingState(recordingTrackId, false);
 
         // Update database
-        Track track = contentProviderUtils.getTrack(recordingTrackId);
-        if (track != null) {
-            insertTrackPoint(track, TrackPoint.createSegmentStartManual());
+        if (recordingState != null) {
+            insertTrackPoint(TrackPoint.createSegmentStartManual());
+            trackPointWriteBuffer.flush();
         }
 
         startRecording();
@@ -396,8 +433,9 @@ public class TrackRecordingService extends Service implements HandlerServer.Hand
         elevationSumManager = new ElevationSumManager();
         elevationSumManager.start(this);
 
-        lastTrackPoint = null;
-        isIdle = false;
+        if (recordingState != null) {
+            recordingState.resetSegment();
+        }
 
         startGps();
 
@@ -429,22 +467,22 @@ public class TrackRecordingService extends Service implements HandlerServer.Hand
 
         updateRecordingState(null, true);
 
-        if (!wasPause) {
+        if (!wasPause && recordingState != null) {
             // Update database
-            Track track = contentProviderUtils.getTrack(trackId);
-            if (track != null) {
-                if (lastTrackPoint != null) {
-                    insertTrackPointIfNewer(track, lastTrackPoint);
-                }
-
-                insertTrackPoint(track, TrackPoint.createSegmentEnd());
+            TrackPoint lastTrackPoint = recordingState.getLastTrackPoint();
+            if (lastTrackPoint != null) {
+                insertTrackPointIfNewer(lastTrackPoint);
             }
+
+            insertTrackPoint(TrackPoint.createSegmentEnd());
         }
+        trackPointWriteBuffer.flush();
 
         Track track = contentProviderUtils.getTrack(trackId);
         ExportUtils.postWorkoutExport(this, track, new ExportServiceResultReceiver(new Handler(), this));
 
         endRecording(true);
+        recordingState = null;
     }
 
     void pauseCurrentTrack() {
@@ -456,13 +494,14 @@ public class TrackRecordingService extends Service implements HandlerServer.Hand
         updateRecordingState(recordingTrackId, true);
 
         // Update database
-        Track track = contentProviderUtils.getTrack(recordingTrackId);
-        if (track != null) {
+        if (recordingState != null) {
+            TrackPoint lastTrackPoint = recordingState.getLastTrackPoint();
             if (lastTrackPoint != null) {
-                insertTrackPointIfNewer(track, lastTrackPoint);
+                insertTrackPointIfNewer(lastTrackPoint);
             }
-            insertTrackPoint(track, TrackPoint.createSegmentEnd());
+            insertTrackPoint(TrackPoint.createSegmentEnd());
         }
+        trackPointWriteBuffer.flush();
 
         endRecording(false);
 
@@ -488,7 +527,9 @@ public class TrackRecordingService extends Service implements HandlerServer.Hand
             elevationSumManager = null;
         }
 
-        lastTrackPoint = null;
+        if (recordingState != null) {
+            recordingState.resetSegment();
+        }
 
         handlerServer.stop(this);
 
@@ -511,23 +552,6 @@ public class TrackRecordingService extends Service implements HandlerServer.Hand
         }
     }
 
-    /**
-     * Gets the last valid track point in the current segment.
-     *
-     * @param trackId the track id
-     * @return the location or null
-     */
-    private TrackPoint getLastValidTrackPointInCurrentSegment(Track.Id trackId) {
-        if (!currentSegmentHasTrackPoint()) {
-            return null;
-        }
-        return contentProviderUtils.getLastValidTrackPoint(trackId);
-    }
-
-    private boolean currentSegmentHasTrackPoint() {
-        return lastTrackPoint != null;
-    }
-
     /**
      * Updates the recording states.
      * This will inform subscribed {@link OnSharedPreferenceChangeListener}.
@@ -550,75 +574,75 @@ public class TrackRecordingService extends Service implements HandlerServer.Hand
             return;
         }
 
-        Track track = contentProviderUtils.getTrack(recordingTrackId);
-        if (track == null) {
+        if (recordingState == null) {
             Log.w(TAG, "Ignore newTrackPoint. No track.");
             return;
         }
 
         fillWithSensorDataSet(trackPoint);
 
-        notificationManager.updateTrackPoint(this, track.getTrackStatistics(), trackPoint, recordingGpsAccuracy);
+        notificationManager.updateTrackPoint(this, trackStatisticsUpdater.getTotalDistance(), trackPoint, recordingGpsAccuracy);
 
-        //TODO Figure out how to avoid loading the lastValidTrackPoint from the database
-        TrackPoint lastValidTrackPoint = getLastValidTrackPointInCurrentSegment(track.getId());
+        TrackPoint lastValidTrackPoint = recordingState.getLastValidStoredTrackPoint();
 
         //Storing trackPoint
 
         // Always insert the first segment location
-        if (!currentSegmentHasTrackPoint()) {
-            insertTrackPoint(track, trackPoint);
-            lastTrackPoint = trackPoint;
+        if (lastValidTrackPoint == null) {
+            insertTrackPoint(trackPoint);
+            recordingState.setLastTrackPoint(trackPoint);
             return;
         }
 
+        TrackPoint lastTrackPoint = recordingState.getLastTrackPoint();
+
         double distanceToLastTrackLocation = trackPoint.distanceToPrevious(lastValidTrackPoint);
         if (distanceToLastTrackLocation > maxRecordingDistance) {
-            insertTrackPointIfNewer(track, lastTrackPoint);
+            insertTrackPointIfNewer(lastTrackPoint);
 
             trackPoint.setType(TrackPoint.Type.SEGMENT_START_AUTOMATIC);
-            insertTrackPoint(track, trackPoint);
+            insertTrackPoint(trackPoint);
 
-            isIdle = false;
-            lastTrackPoint = trackPoint;
+            recordingState.setIdle(false);
+            recordingState.setLastTrackPoint(trackPoint);
             return;
         }
 
         if (trackPoint.hasSensorData() || distanceToLastTrackLocation >= recordingDistanceInterval) {
-            insertTrackPointIfNewer(track, lastTrackPoint);
+            insertTrackPointIfNewer(lastTrackPoint);
 
-            insertTrackPoint(track, trackPoint);
+            insertTrackPoint(trackPoint);
 
-            isIdle = false;
+            recordingState.setIdle(false);
 
-            lastTrackPoint = trackPoint;
+            recordingState.setLastTrackPoint(trackPoint);
             return;
         }
 
-        if (!isIdle && !trackPoint.isMoving()) {
-            insertTrackPointIfNewer(track, lastTrackPoint);
+        if (!recordingState.isIdle() && !trackPoint.isMoving()) {
+            insertTrackPointIfNewer(lastTrackPoint);
 
-            insertTrackPoint(track, trackPoint);
+            insertTrackPoint(trackPoint);
 
-            isIdle = true;
+            recordingState.setIdle(true);
 
-            lastTrackPoint = trackPoint;
+            recordingState.setLastTrackPoint(trackPoint);
             return;
         }
 
-        if (isIdle && trackPoint.isMoving()) {
-            insertTrackPointIfNewer(track, lastTrackPoint);
+        if (recordingState.isIdle() && trackPoint.isMoving()) {
+            insertTrackPointIfNewer(lastTrackPoint);
 
-            insertTrackPoint(track, trackPoint);
+            insertTrackPoint(trackPoint);
 
-            isIdle = false;
+            recordingState.setIdle(false);
 
-            lastTrackPoint = trackPoint;
+            recordingState.setLastTrackPoint(trackPoint);
             return;
         }
 
         Log.d(TAG, "Not recording TrackPoint, idle");
-        lastTrackPoint = trackPoint;
+        recordingState.setLastTrackPoint(trackPoint);
     }
 
     @Override
@@ -638,52 +662,51 @@ public class TrackRecordingService extends Service implements HandlerServer.Hand
     /**
      * Inserts a trackPoint if this trackPoint is different than lastValidTrackPoint.
      *
-     * @param track      the track
      * @param trackPoint the trackPoint
      */
-    private void insertTrackPointIfNewer(@NonNull Track track, @NonNull TrackPoint trackPoint) {
-        TrackPoint lastValidTrackPoint = getLastValidTrackPointInCurrentSegment(track.getId());
+    private void insertTrackPointIfNewer(@NonNull TrackPoint trackPoint) {
+        TrackPoint lastValidTrackPoint = recordingState.getLastValidStoredTrackPoint();
         if (lastValidTrackPoint != null && trackPoint.getTime().equals(lastValidTrackPoint.getTime())) {
             // Do not insert if inserted already
             Log.w(TAG, "Ignore insertTrackPoint. trackPoint time same as last valid track point time.");
             return;
         }
 
-        insertTrackPoint(track, trackPoint);
+        insertTrackPoint(trackPoint);
     }
 
     /**
-     * Inserts a trackPoint.
+     * Inserts a trackPoint into the track of the {@link TrackRecordingState}.
+     * The trackPoint is written to the database by the {@link TrackPointWriteBuffer}.
      *
-     * @param track      the track
      * @param trackPoint the trackPoint
      */
-    private void insertTrackPoint(@NonNull Track track, @NonNull TrackPoint trackPoint) {
-        try {
-            if (elevationSumManager != null) {
-                trackPoint.setElevationGain(elevationSumManager.getElevationGain_m());
-                trackPoint.setElevationLoss(elevationSumManager.getElevationLoss_m());
-                elevationSumManager.reset();
-            }
-            if (remoteSensorManager != null) {
-                fillWithSensorDataSet(trackPoint);
-                remoteSensorManager.reset();
-            }
-            contentProviderUtils.insertTrackPoint(trackPoint, track.getId());
-            trackStatisticsUpdater.addTrackPoint(trackPoint, recordingDistanceInterval);
-
-            track.setTrackStatistics(trackStatisticsUpdater.getTrackStatistics());
-            contentProviderUtils.updateTrack(track);
-        } catch (SQLiteException e) {
-            /*
-             * Insert failed, most likely because of SqlLite error code 5 (SQLite_BUSY).
-             * This is expected to happen extremely rarely (if our listener gets invoked twice at about the same time).
-             */
-            Log.w(TAG, "SQLiteException", e);
+    private void insertTrackPoint(@NonNull TrackPoint trackPoint) {
+        if (elevationSumManager != null) {
+            trackPoint.setElevationGain(elevationSumManager.getElevationGain_m());
+            trackPoint.setElevationLoss(elevationSumManager.getElevationLoss_m());
+            elevationSumManager.reset();
         }
+        if (remoteSensorManager != null) {
+            fillWithSensorDataSet(trackPoint);
+            remoteSensorManager.reset();
+        }
+        trackStatisticsUpdater.addTrackPoint(trackPoint, recordingDistanceInterval);
+        recordingState.getIntervalIndex().add(trackPoint);
+
+        // Only the statistics are written: name, category, etc. might have been changed by the user meanwhile.
+        trackPointWriteBuffer.add(recordingState.getTrack().getId(), trackPoint, trackStatisticsUpdater, recordingState.getIntervalIndex());
+        recordingState.onTrackPointStored(trackPoint);
+
         voiceExecutor.update();
     }
 
+    @NonNull
+    private IntervalIndex loadIntervalIndex(@NonNull Track.Id trackId) {
+        IntervalIndex intervalIndex = contentProviderUtils.getIntervalIndex(trackId);
+        return intervalIndex != null ? intervalIndex : new IntervalIndex();
+    }
+
     SensorDataSet getSensorDataSet() {
         if (remoteSensorManager == null) {
             return null;
@@ -750,6 +773,11 @@ public class TrackRecordingService extends Service implements HandlerServer.Hand
         }
     }
 
+    @VisibleForTesting
+    public void flushTrackPoints() {
+        trackPointWriteBuffer.flush();
+    }
+
     @VisibleForTesting
     public void setRemoteSensorManager(BluetoothRemoteSensorManager remoteSensorManager) {
         this.remoteSensorManager = remoteSensorManager;
@@ -130,4 +130,10 @@ class TrackRecordingServiceBinder extends android.os.Binder implements TrackReco
     public void newTrackPoint(TrackPoint trackPoint, int recordingGpsAccuracy) {
         trackRecordingService.newTrackPoint(trackPoint, recordingGpsAccuracy);
     }
+
+    @VisibleForTesting
+    @Override
+    public void flushTrackPoints() {
+        trackRecordingService.flushTrackPoints();
+    }
 }
@@ -100,6 +100,12 @@ public interface TrackRecordingServiceInterface {
     @VisibleForTesting
     void newTrackPoint(TrackPoint trackPoint, int recordingGpsAccuracy);
 
+    /**
+     * Writes the buffered track points of the current recording track to the database.
+     */
+    @VisibleForTesting
+    void flushTrackPoints();
+
     void addListener(TrackRecordingServiceCallback listener);
 
     GpsStatusValue getGpsStatus();
@@ -0,0 +1,107 @@
+package de.dennisguse.opentracks.services;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import de.dennisguse.opentracks.content.data.Track;
+import de.dennisguse.opentracks.content.data.TrackPoint;
+import de.dennisguse.opentracks.stats.IntervalIndex;
+
+/**
+ * In-memory state of the track that is currently recorded by the {@link TrackRecordingService}.
+ * Keeps the {@link Track} and the last {@link TrackPoint}s, so that new {@link TrackPoint}s can be processed without querying the database.
+ * <p>
+ * Should only be restored from the database, if the {@link TrackRecordingService} was restarted.
+ */
+class TrackRecordingState {
+
+    @NonNull
+    private final Track track;
+
+    @NonNull
+    private final IntervalIndex intervalIndex;
+
+    // The last received trackPoint; might not have been stored.
+    private TrackPoint lastTrackPoint;
+
+    // The last stored (maybe still buffered) trackPoint of the current segment that has a valid location (TRACKPOINT or SEGMENT_START_AUTOMATIC).
+    private TrackPoint lastValidStoredTrackPoint;
+
+    private boolean isIdle;
+
+    TrackRecordingState(@NonNull Track track, @NonNull IntervalIndex intervalIndex) {
+        this.track = track;
+        this.intervalIndex = intervalIndex;
+    }
+
+    @NonNull
+    Track getTrack() {
+        return track;
+    }
+
+    @NonNull
+    Track.Id getTrackId() {
+        return track.getId();
+    }
+
+    @NonNull
+    IntervalIndex getIntervalIndex() {
+        return intervalIndex;
+    }
+
+    /**
+     * Resets the state of the current segment (e.g., if the recording was paused).
+     */
+    void resetSegment() {
+        lastTrackPoint = null;
+        lastValidStoredTrackPoint = null;
+        isIdle = false;
+    }
+
+    boolean currentSegmentHasTrackPoint() {
+        return lastTrackPoint != null;
+    }
+
+    @Nullable
+    TrackPoint getLastTrackPoint() {
+        return lastTrackPoint;
+    }
+
+    void setLastTrackPoint(TrackPoint lastTrackPoint) {
+        this.lastTrackPoint = lastTrackPoint;
+    }
+
+    /**
+     * @return the last valid stored trackPoint of the current segment or null.
+     */
+    @Nullable
+    TrackPoint getLastValidStoredTrackPoint() {
+        if (!currentSegmentHasTrackPoint()) {
+            return null;
+        }
+        return lastValidStoredTrackPoint;
+    }
+
+    /**
+     * Needs to be called after a trackPoint was stored.
+     */
+    void onTrackPointStored(@NonNull TrackPoint trackPoint) {
+        switch (trackPoint.getType()) {
+            case TRACKPOINT:
+            case SEGMENT_START_AUTOMATIC:
+                lastValidStoredTrackPoint = trackPoint;
+                break;
+            case SEGMENT_START_MANUAL:
+            case SEGMENT_END_MANUAL:
+                break;
+        }
+    }
+
+    boolean isIdle() {
+        return isIdle;
+    }
+
+    void setIdle(boolean idle) {
+        isIdle = idle;
+    }
+}
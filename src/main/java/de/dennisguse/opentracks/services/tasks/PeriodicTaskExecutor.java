@@ -123,12 +123,12 @@ public class PeriodicTaskExecutor {
             return;
         }
 
-        TrackStatistics trackStatistics = trackRecordingService.getTrackStatistics();
-        if (trackStatistics == null) {
+        Double totalDistance = trackRecordingService.getTotalDistance();
+        if (totalDistance == null) {
             return;
         }
 
-        double distance = trackStatistics.getTotalDistance() * UnitConversions.M_TO_KM;
+        double distance = totalDistance * UnitConversions.M_TO_KM;
         if (!metricUnits) {
             distance *= UnitConversions.KM_TO_MI;
         }
@@ -22,6 +22,9 @@ import androidx.annotation.NonNull;
  * This class maintains a ring buffer of doubles.
  * This buffer is a convenient class for storing a series of doubles and calculating information about them.
  * This is a FIFO buffer.
+ * <p>
+ * The sum is maintained while adding (Kahan-compensated), so {@link #getAverage()} is O(1).
+ * See {@link MinMaxDoubleRingBuffer} and {@link VarianceDoubleRingBuffer} for further sliding window statistics.
  *
  * @author Sandor Dornbush
  */
@@ -36,6 +39,10 @@ class DoubleRingBuffer {
     // True if the buffer is full
     private boolean isFull;
 
+    // The sum of the buffer and its compensation (Kahan summation).
+    private double sum;
+    private double sumCompensation;
+
     /**
      * Creates a buffer with a certain size.
      *
@@ -46,7 +53,6 @@ class DoubleRingBuffer {
             throw new IllegalArgumentException("The buffer size must be greater than 1.");
         }
         buffer = new double[size];
-        reset();
     }
 
     /**
@@ -55,6 +61,8 @@ class DoubleRingBuffer {
     public void reset() {
         index = 0;
         isFull = false;
+        sum = 0;
+        sumCompensation = 0;
     }
 
     /**
@@ -64,18 +72,32 @@ class DoubleRingBuffer {
         return isFull;
     }
 
+    int getNumberOfEntries() {
+        return isFull ? buffer.length : index;
+    }
+
+    /**
+     * Returns the value that is overwritten by the next {@link #setNext(double)}; only if the buffer is full.
+     */
+    double getOldest() {
+        return buffer[index == buffer.length ? 0 : index];
+    }
+
+    /**
+     * Returns the i-th value in storage order (not in insertion order).
+     */
+    double get(int i) {
+        return buffer[i];
+    }
+
     /**
      * Gets the average of the buffer.
      */
     public double getAverage() {
-        int numberOfEntries = isFull ? buffer.length : index;
+        int numberOfEntries = getNumberOfEntries();
         if (numberOfEntries == 0) {
             return 0;
         }
-        double sum = 0;
-        for (int i = 0; i < numberOfEntries; i++) {
-            sum += buffer[i];
-        }
         return sum / numberOfEntries;
     }
 
@@ -89,11 +111,35 @@ class DoubleRingBuffer {
         if (index == buffer.length) {
             index = 0;
         }
+        if (isFull) {
+            addToSum(-buffer[index]);
+        }
         buffer[index] = value;
+        addToSum(value);
         index++;
         if (index == buffer.length) {
             isFull = true;
         }
+
+        if (Double.isNaN(sum) || Double.isInfinite(sum)) {
+            // Cannot be subtracted again; recompute once the value left the buffer.
+            recomputeSum();
+        }
+    }
+
+    private void addToSum(double value) {
+        double y = value - sumCompensation;
+        double t = sum + y;
+        sumCompensation = (t - sum) - y;
+        sum = t;
+    }
+
+    private void recomputeSum() {
+        sum = 0;
+        sumCompensation = 0;
+        for (int i = 0; i < getNumberOfEntries(); i++) {
+            addToSum(buffer[i]);
+        }
     }
 
     @NonNull
@@ -0,0 +1,187 @@
+package de.dennisguse.opentracks.stats;
+
+import androidx.annotation.NonNull;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.Arrays;
+
+import de.dennisguse.opentracks.content.data.TrackPoint;
+
+/**
+ * Cumulative distance, time, elevation gain, and elevation loss of a track at checkpoints.
+ * Allows to compute intervals of any length without reading the {@link TrackPoint}s of the track.
+ * <p>
+ * Checkpoints are at least {@link #getCheckpointDistance_m()} apart; the last checkpoint is always the last added {@link TrackPoint}.
+ * Only the changes between subsequent {@link TrackPoint}s that both have a location are considered (like {@link de.dennisguse.opentracks.viewmodels.IntervalStatistics}).
+ * <p>
+ * Stored per track in the database (see {@link #toBytes()}).
+ */
+public class IntervalIndex {
+
+    public static final float DEFAULT_CHECKPOINT_DISTANCE_M = 100;
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    // checkpointDistance (float)
+    private static final int BYTES_HEADER = 4;
+
+    // distance (float), time (long), gain (float), loss (float)
+    private static final int BYTES_PER_CHECKPOINT = 4 + 8 + 4 + 4;
+
+    private final float checkpointDistance_m;
+
+    private double[] distances_m = new double[INITIAL_CAPACITY];
+    private long[] times_ms = new long[INITIAL_CAPACITY];
+    private double[] gains_m = new double[INITIAL_CAPACITY];
+    private double[] losses_m = new double[INITIAL_CAPACITY];
+    private int size = 0;
+
+    private TrackPoint lastTrackPoint;
+
+    public IntervalIndex() {
+        this(DEFAULT_CHECKPOINT_DISTANCE_M);
+    }
+
+    /**
+     * @param checkpointDistance_m the minimal distance between checkpoints; 0 for one checkpoint per {@link TrackPoint}.
+     */
+    public IntervalIndex(float checkpointDistance_m) {
+        this.checkpointDistance_m = checkpointDistance_m;
+    }
+
+    public float getCheckpointDistance_m() {
+        return checkpointDistance_m;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public double getDistance_m(int index) {
+        return distances_m[index];
+    }
+
+    public long getTime_ms(int index) {
+        return times_ms[index];
+    }
+
+    public double getGain_m(int index) {
+        return gains_m[index];
+    }
+
+    public double getLoss_m(int index) {
+        return losses_m[index];
+    }
+
+    /**
+     * Adds the next trackPoint of the track.
+     * Only a reference to the trackPoint is kept until the next one is added.
+     */
+    public void add(@NonNull TrackPoint trackPoint) {
+        TrackPoint prevTrackPoint = lastTrackPoint;
+        lastTrackPoint = trackPoint;
+
+        float distance_m;
+        long time_ms;
+        if (prevTrackPoint == null) {
+            distance_m = 0;
+            time_ms = 0;
+        } else if (trackPoint.hasLocation() && prevTrackPoint.hasLocation()) {
+            distance_m = prevTrackPoint.distanceToPrevious(trackPoint);
+            time_ms = Duration.between(prevTrackPoint.getTime(), trackPoint.getTime()).toMillis();
+        } else {
+            return;
+        }
+
+        add(distance_m, time_ms, trackPoint.hasElevationGain() ? trackPoint.getElevationGain() : 0, trackPoint.hasElevationLoss() ? trackPoint.getElevationLoss() : 0);
+    }
+
+    private void add(float distance_m, long time_ms, float gain_m, float loss_m) {
+        double previousDistance_m = size == 0 ? 0 : distances_m[size - 1];
+        long previousTime_ms = size == 0 ? 0 : times_ms[size - 1];
+        double previousGain_m = size == 0 ? 0 : gains_m[size - 1];
+        double previousLoss_m = size == 0 ? 0 : losses_m[size - 1];
+
+        int index = size;
+        // Move the last checkpoint, if it is still too close to the one before.
+        if (size >= 2 && previousDistance_m - distances_m[size - 2] < checkpointDistance_m) {
+            index = size - 1;
+        } else {
+            ensureCapacity(size + 1);
+            size++;
+        }
+
+        distances_m[index] = previousDistance_m + distance_m;
+        times_ms[index] = previousTime_ms + time_ms;
+        gains_m[index] = previousGain_m + gain_m;
+        losses_m[index] = previousLoss_m + loss_m;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= distances_m.length) {
+            return;
+        }
+        int newCapacity = Math.max(capacity, distances_m.length * 2);
+        distances_m = Arrays.copyOf(distances_m, newCapacity);
+        times_ms = Arrays.copyOf(times_ms, newCapacity);
+        gains_m = Arrays.copyOf(gains_m, newCapacity);
+        losses_m = Arrays.copyOf(losses_m, newCapacity);
+    }
+
+    /**
+     * Serializes the checkpoints (not the last added {@link TrackPoint}).
+     */
+    public byte[] toBytes() {
+        ByteBuffer byteBuffer = ByteBuffer.allocate(getByteOffset(size));
+        byteBuffer.putFloat(checkpointDistance_m);
+        putCheckpoints(byteBuffer, 0);
+        return byteBuffer.array();
+    }
+
+    /**
+     * Serializes the checkpoints starting at fromIndex; replaces the bytes of {@link #toBytes()} from {@link #getByteOffset(int)} on.
+     * Allows to store only the changes, as adding a {@link TrackPoint} only modifies the last checkpoint or appends a new one.
+     */
+    public byte[] toBytes(int fromIndex) {
+        ByteBuffer byteBuffer = ByteBuffer.allocate(getByteOffset(size) - getByteOffset(fromIndex));
+        putCheckpoints(byteBuffer, fromIndex);
+        return byteBuffer.array();
+    }
+
+    /**
+     * @return the position of a checkpoint in {@link #toBytes()}.
+     */
+    public static int getByteOffset(int index) {
+        return BYTES_HEADER + index * BYTES_PER_CHECKPOINT;
+    }
+
+    private void putCheckpoints(ByteBuffer byteBuffer, int fromIndex) {
+        for (int i = fromIndex; i < size; i++) {
+            byteBuffer.putFloat((float) distances_m[i]);
+            byteBuffer.putLong(times_ms[i]);
+            byteBuffer.putFloat((float) gains_m[i]);
+            byteBuffer.putFloat((float) losses_m[i]);
+        }
+    }
+
+    /**
+     * Restores the checkpoints of {@link #toBytes()}.
+     * The next added {@link TrackPoint} only contributes its elevation gain and loss (like after a segment end).
+     */
+    public static IntervalIndex fromBytes(@NonNull byte[] bytes) {
+        ByteBuffer byteBuffer = ByteBuffer.wrap(bytes);
+        IntervalIndex intervalIndex = new IntervalIndex(byteBuffer.getFloat());
+
+        int size = byteBuffer.remaining() / BYTES_PER_CHECKPOINT;
+        intervalIndex.ensureCapacity(size);
+        for (int i = 0; i < size; i++) {
+            intervalIndex.distances_m[i] = byteBuffer.getFloat();
+            intervalIndex.times_ms[i] = byteBuffer.getLong();
+            intervalIndex.gains_m[i] = byteBuffer.getFloat();
+            intervalIndex.losses_m[i] = byteBuffer.getFloat();
+        }
+        intervalIndex.size = size;
+        return intervalIndex;
+    }
+}
@@ -0,0 +1,105 @@
+package de.dennisguse.opentracks.stats;
+
+/**
+ * A {@link DoubleRingBuffer} that also maintains the minimum and maximum of the buffer.
+ * Uses monotonic deques, so adding is amortized O(1) and {@link #getMin()}/{@link #getMax()} are O(1).
+ */
+class MinMaxDoubleRingBuffer extends DoubleRingBuffer {
+
+    private final MonotonicDeque minDeque;
+    private final MonotonicDeque maxDeque;
+
+    // Number of values added since the last reset; used as position of the values in the deques.
+    private long count;
+
+    MinMaxDoubleRingBuffer(int size) {
+        super(size);
+        minDeque = new MonotonicDeque(size, false);
+        maxDeque = new MonotonicDeque(size, true);
+    }
+
+    @Override
+    public void reset() {
+        super.reset();
+        minDeque.clear();
+        maxDeque.clear();
+        count = 0;
+    }
+
+    @Override
+    public void setNext(double value) {
+        super.setNext(value);
+        long oldestPosition = count + 1 - getNumberOfEntries();
+        minDeque.add(count, value, oldestPosition);
+        maxDeque.add(count, value, oldestPosition);
+        count++;
+    }
+
+    /**
+     * @return the minimum; NaN if empty.
+     */
+    public double getMin() {
+        return minDeque.first();
+    }
+
+    /**
+     * @return the maximum; NaN if empty.
+     */
+    public double getMax() {
+        return maxDeque.first();
+    }
+
+    /**
+     * Values in the deque are strictly decreasing (max) or increasing (min) from first to last.
+     */
+    private static class MonotonicDeque {
+
+        private final boolean isMax;
+
+        private final long[] positions;
+        private final double[] values;
+        private int head;
+        private int size;
+
+        MonotonicDeque(int capacity, boolean isMax) {
+            this.isMax = isMax;
+            positions = new long[capacity];
+            values = new double[capacity];
+        }
+
+        void clear() {
+            head = 0;
+            size = 0;
+        }
+
+        void add(long position, double value, long oldestPosition) {
+            // Remove values that can no longer be the extremum.
+            while (size > 0) {
+                double last = values[index(size - 1)];
+                if (isMax ? last > value : last < value) {
+                    break;
+                }
+                size--;
+            }
+
+            // Remove values that left the buffer.
+            while (size > 0 && positions[head] < oldestPosition) {
+                head = index(1);
+                size--;
+            }
+
+            int tail = index(size);
+            positions[tail] = position;
+            values[tail] = value;
+            size++;
+        }
+
+        double first() {
+            return size == 0 ? Double.NaN : values[head];
+        }
+
+        private int index(int offset) {
+            return (head + offset) % positions.length;
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package de.dennisguse.opentracks.stats;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import de.dennisguse.opentracks.content.data.TrackPoint;
+
+/**
+ * Computes the {@link SensorStatistics} of a track in a single pass over its {@link TrackPoint}s (in the order they were inserted).
+ * <p>
+ * The averages are weighted by the time until the next {@link TrackPoint}.
+ * {@link TrackPoint.Type#SEGMENT_START_MANUAL}s are ignored and the time before them (i.e., while paused) has no weight.
+ * <p>
+ * The state can be stored (see {@link #getSensorTime_ms()} and the average/maximum getters) to continue it later without reading the previous {@link TrackPoint}s again.
+ */
+public class SensorStatisticsUpdater {
+
+    // Sum of the weights
+    private long sensorTime_ms = 0;
+
+    // Sums weighted by time (in ms); NaN if no value was added yet.
+    private double heartRateSum = Double.NaN;
+    private double cadenceSum = Double.NaN;
+    private double powerSum = Double.NaN;
+
+    private float maxHeartRate_bpm = Float.NaN;
+    private float maxCadence_rpm = Float.NaN;
+
+    // The last added TrackPoint; its weight is known once the next one is added.
+    private boolean hasLastTrackPoint = false;
+    private long lastTime_ms;
+    private TrackPoint.Type lastType;
+    private Float lastHeartRate_bpm;
+    private Float lastCadence_rpm;
+    private Float lastPower_w;
+
+    public SensorStatisticsUpdater() {
+    }
+
+    /**
+     * Restores a stored state.
+     * The last {@link TrackPoint} must be restored via {@link #setLastTrackPoint(long, TrackPoint.Type, Float, Float, Float)}.
+     */
+    public SensorStatisticsUpdater(long sensorTime_ms, @Nullable Double avgHeartRate_bpm, @Nullable Double maxHeartRate_bpm, @Nullable Double avgCadence_rpm, @Nullable Double maxCadence_rpm, @Nullable Double avgPower_w) {
+        this.sensorTime_ms = sensorTime_ms;
+        this.heartRateSum = avgHeartRate_bpm != null ? avgHeartRate_bpm * sensorTime_ms : Double.NaN;
+        this.cadenceSum = avgCadence_rpm != null ? avgCadence_rpm * sensorTime_ms : Double.NaN;
+        this.powerSum = avgPower_w != null ? avgPower_w * sensorTime_ms : Double.NaN;
+        this.maxHeartRate_bpm = maxHeartRate_bpm != null ? maxHeartRate_bpm.floatValue() : Float.NaN;
+        this.maxCadence_rpm = maxCadence_rpm != null ? maxCadence_rpm.floatValue() : Float.NaN;
+    }
+
+    /**
+     * Sets the last added {@link TrackPoint} without adding it (e.g., after restoring a stored state).
+     */
+    public void setLastTrackPoint(long time_ms, @NonNull TrackPoint.Type type, @Nullable Float heartRate_bpm, @Nullable Float cadence_rpm, @Nullable Float power_w) {
+        hasLastTrackPoint = true;
+        lastTime_ms = time_ms;
+        lastType = type;
+        lastHeartRate_bpm = heartRate_bpm;
+        lastCadence_rpm = cadence_rpm;
+        lastPower_w = power_w;
+    }
+
+    public void add(@NonNull TrackPoint trackPoint) {
+        add(trackPoint.getTime().toEpochMilli(), trackPoint.getType(),
+                trackPoint.hasHeartRate() ? trackPoint.getHeartRate_bpm() : null,
+                trackPoint.hasCyclingCadence() ? trackPoint.getCyclingCadence_rpm() : null,
+                trackPoint.hasPower() ? trackPoint.getPower() : null);
+    }
+
+    public void add(long time_ms, @NonNull TrackPoint.Type type, @Nullable Float heartRate_bpm, @Nullable Float cadence_rpm, @Nullable Float power_w) {
+        if (hasLastTrackPoint && lastType != TrackPoint.Type.SEGMENT_START_MANUAL) {
+            long duration_ms = type != TrackPoint.Type.SEGMENT_START_MANUAL ? Math.max(0, time_ms - lastTime_ms) : 0;
+            sensorTime_ms += duration_ms;
+            heartRateSum = addWeighted(heartRateSum, lastHeartRate_bpm, duration_ms);
+            cadenceSum = addWeighted(cadenceSum, lastCadence_rpm, duration_ms);
+            powerSum = addWeighted(powerSum, lastPower_w, duration_ms);
+        }
+
+        if (type != TrackPoint.Type.SEGMENT_START_MANUAL) {
+            if (heartRate_bpm != null) {
+                maxHeartRate_bpm = Float.isNaN(maxHeartRate_bpm) ? heartRate_bpm : Math.max(maxHeartRate_bpm, heartRate_bpm);
+            }
+            if (cadence_rpm != null) {
+                maxCadence_rpm = Float.isNaN(maxCadence_rpm) ? cadence_rpm : Math.max(maxCadence_rpm, cadence_rpm);
+            }
+        }
+
+        setLastTrackPoint(time_ms, type, heartRate_bpm, cadence_rpm, power_w);
+    }
+
+    private static double addWeighted(double sum, Float value, long duration_ms) {
+        if (value == null) {
+            return sum;
+        }
+        return (Double.isNaN(sum) ? 0 : sum) + value * duration_ms;
+    }
+
+    public long getSensorTime_ms() {
+        return sensorTime_ms;
+    }
+
+    /**
+     * @return the average; 0 if only values without weight were added; null if no value was added.
+     */
+    @Nullable
+    public Double getAvgHeartRate_bpm() {
+        return average(heartRateSum);
+    }
+
+    @Nullable
+    public Double getMaxHeartRate_bpm() {
+        return Float.isNaN(maxHeartRate_bpm) ? null : (double) maxHeartRate_bpm;
+    }
+
+    /**
+     * @return the average; 0 if only values without weight were added; null if no value was added.
+     */
+    @Nullable
+    public Double getAvgCadence_rpm() {
+        return average(cadenceSum);
+    }
+
+    @Nullable
+    public Double getMaxCadence_rpm() {
+        return Float.isNaN(maxCadence_rpm) ? null : (double) maxCadence_rpm;
+    }
+
+    /**
+     * @return the average; 0 if only values without weight were added; null if no value was added.
+     */
+    @Nullable
+    public Double getAvgPower_w() {
+        return average(powerSum);
+    }
+
+    private Double average(double sum) {
+        if (Double.isNaN(sum)) {
+            return null;
+        }
+        return sensorTime_ms > 0 ? sum / sensorTime_ms : 0;
+    }
+
+    @NonNull
+    public SensorStatistics getSensorStatistics() {
+        return new SensorStatistics(
+                getMaxHeartRate_bpm() != null ? maxHeartRate_bpm : null,
+                sensorTime_ms > 0 && !Double.isNaN(heartRateSum) ? (float) (heartRateSum / sensorTime_ms) : null,
+                getMaxCadence_rpm() != null ? maxCadence_rpm : null,
+                sensorTime_ms > 0 && !Double.isNaN(cadenceSum) ? (float) (cadenceSum / sensorTime_ms) : null,
+                sensorTime_ms > 0 && !Double.isNaN(powerSum) ? (float) (powerSum / sensorTime_ms) : null);
+    }
+}
@@ -75,6 +75,11 @@ public class TrackStatisticsUpdater {
     // Current segment's last moving trackPoint
     private TrackPoint lastMovingTrackPoint;
 
+    // Incremented whenever a trackPoint is added.
+    private long version = 0;
+    // trackStatistics merged with currentSegment; null if not yet created for the current version.
+    private TrackStatistics snapshot;
+
     public TrackStatisticsUpdater() {
         trackStatistics = new TrackStatistics();
     }
@@ -89,11 +94,32 @@ public class TrackStatisticsUpdater {
         trackInitialized = true;
     }
 
+    /**
+     * Returns a snapshot of the statistics (including the current segment).
+     * The snapshot is cached until the next trackPoint is added; so it is shared and must only be read.
+     * Callers that keep or modify it must copy it (e.g., {@link de.dennisguse.opentracks.services.TrackRecordingService#getTrackStatistics()}).
+     */
     public TrackStatistics getTrackStatistics() {
-        // Take a snapshot - we don't want anyone messing with our trackStatistics
-        TrackStatistics stats = new TrackStatistics(trackStatistics);
-        stats.merge(currentSegment);
-        return stats;
+        if (snapshot == null) {
+            TrackStatistics stats = new TrackStatistics(trackStatistics);
+            stats.merge(currentSegment);
+            snapshot = stats;
+        }
+        return snapshot;
+    }
+
+    /**
+     * The version of the statistics; changes whenever a trackPoint is added.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * The total distance without creating a snapshot.
+     */
+    public double getTotalDistance() {
+        return trackStatistics.getTotalDistance() + currentSegment.getTotalDistance();
     }
 
     public boolean isTrackInitialized() {
@@ -107,6 +133,8 @@ public class TrackStatisticsUpdater {
      * @param minGPSDistance the min recording distance
      */
     public void addTrackPoint(TrackPoint trackPoint, int minGPSDistance) {
+        version++;
+        snapshot = null;
         internalAddTrackPoint(trackPoint, minGPSDistance);
         Log.d(TAG, this.toString());
     }
@@ -227,8 +255,9 @@ public class TrackStatisticsUpdater {
             speedBuffer_ms.reset();
         } else if (isValidSpeed(trackPoint, lastTrackPoint)) {
             speedBuffer_ms.setNext(trackPoint.getSpeed());
-            if (speedBuffer_ms.getAverage() > currentSegment.getMaxSpeed()) {
-                currentSegment.setMaxSpeed(speedBuffer_ms.getAverage());
+            double smoothedSpeed = speedBuffer_ms.getAverage();
+            if (smoothedSpeed > currentSegment.getMaxSpeed()) {
+                currentSegment.setMaxSpeed(smoothedSpeed);
             }
         } else {
             Log.d(TAG, "Invalid speed. speed: " + trackPoint.getSpeed() + " lastLocationSpeed: " + lastTrackPoint.getSpeed());
@@ -240,11 +269,8 @@ public class TrackStatisticsUpdater {
      */
     private void updateAbsoluteElevation(double elevation) {
         // Update elevation using the smoothed average
-        double oldAverage = elevationBuffer_m.getAverage();
         elevationBuffer_m.setNext(elevation);
-        double newAverage = elevationBuffer_m.getAverage();
-
-        currentSegment.updateElevationExtremities(newAverage);
+        currentSegment.updateElevationExtremities(elevationBuffer_m.getAverage());
     }
 
     private boolean isValidSpeed(@NonNull TrackPoint trackPoint, @NonNull TrackPoint lastTrackPoint) {
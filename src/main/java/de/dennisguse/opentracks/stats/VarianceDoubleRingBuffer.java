@@ -0,0 +1,71 @@
+package de.dennisguse.opentracks.stats;
+
+/**
+ * A {@link DoubleRingBuffer} that also maintains the variance of the buffer in O(1) per value.
+ * Uses Welford's algorithm adapted to a sliding window (numerically stable also for large values with small variance, e.g., elevation).
+ */
+class VarianceDoubleRingBuffer extends DoubleRingBuffer {
+
+    private double mean;
+
+    // Sum of the squared differences from the mean
+    private double m2;
+
+    VarianceDoubleRingBuffer(int size) {
+        super(size);
+    }
+
+    @Override
+    public void reset() {
+        super.reset();
+        mean = 0;
+        m2 = 0;
+    }
+
+    @Override
+    public void setNext(double value) {
+        boolean replacesOldest = isFull();
+        double oldest = replacesOldest ? getOldest() : 0;
+        super.setNext(value);
+
+        int numberOfEntries = getNumberOfEntries();
+        double oldMean = mean;
+        if (replacesOldest) {
+            mean += (value - oldest) / numberOfEntries;
+            m2 += (value - oldest) * (value - mean + oldest - oldMean);
+        } else {
+            mean += (value - oldMean) / numberOfEntries;
+            m2 += (value - oldMean) * (value - mean);
+        }
+
+        if (Double.isNaN(m2) || Double.isInfinite(m2)) {
+            // Cannot be subtracted again; recompute once the value left the buffer.
+            recompute();
+        } else if (m2 < 0) {
+            // Rounding
+            m2 = 0;
+        }
+    }
+
+    private void recompute() {
+        mean = 0;
+        m2 = 0;
+        for (int i = 0; i < getNumberOfEntries(); i++) {
+            double delta = get(i) - mean;
+            mean += delta / (i + 1);
+            m2 += delta * (get(i) - mean);
+        }
+    }
+
+    /**
+     * @return the population variance; 0 if empty.
+     */
+    public double getVariance() {
+        int numberOfEntries = getNumberOfEntries();
+        return numberOfEntries == 0 ? 0 : m2 / numberOfEntries;
+    }
+
+    public double getStandardDeviation() {
+        return Math.sqrt(getVariance());
+    }
+}
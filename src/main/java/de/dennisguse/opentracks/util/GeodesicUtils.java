@@ -0,0 +1,172 @@
+package de.dennisguse.opentracks.util;
+
+/**
+ * Distance and bearing between two coordinates (WGS84, in degrees) without creating {@link android.location.Location}s.
+ * <p>
+ * {@link Mode#VINCENTY} is the reference (like {@link android.location.Location#distanceTo(android.location.Location)}).
+ * {@link Mode#EQUIRECTANGULAR} is much faster and accurate for short distances (e.g., between subsequent trackpoints).
+ */
+public class GeodesicUtils {
+
+    public enum Mode {
+        /**
+         * Flat-earth approximation using the local radii of curvature of the WGS84 ellipsoid.
+         * Relative error is below 1E-5 for distances up to {@link #SHORT_DISTANCE_DEGREES}.
+         */
+        EQUIRECTANGULAR,
+
+        /**
+         * Great-circle distance on a sphere with the mean earth radius; relative error up to 0.5%.
+         */
+        HAVERSINE,
+
+        /**
+         * Vincenty's inverse formula on the WGS84 ellipsoid.
+         */
+        VINCENTY
+    }
+
+    // WGS84
+    private static final double SEMI_MAJOR_AXIS_M = 6378137.0;
+    private static final double FLATTENING = 1 / 298.257223563;
+    private static final double SEMI_MINOR_AXIS_M = SEMI_MAJOR_AXIS_M * (1 - FLATTENING);
+    private static final double ECCENTRICITY_SQUARED = FLATTENING * (2 - FLATTENING);
+
+    private static final double MEAN_EARTH_RADIUS_M = 6371008.8;
+
+    // Up to this difference in latitude and longitude (about 11km), EQUIRECTANGULAR is used by default.
+    private static final double SHORT_DISTANCE_DEGREES = 0.1;
+
+    private static final int VINCENTY_MAX_ITERATIONS = 20;
+    private static final double VINCENTY_THRESHOLD = 1.0e-12;
+
+    private GeodesicUtils() {
+    }
+
+    /**
+     * Distance in meters; uses {@link Mode#EQUIRECTANGULAR} for short and {@link Mode#VINCENTY} for long distances.
+     */
+    public static double distance(double latitude1, double longitude1, double latitude2, double longitude2) {
+        double deltaLongitude = Math.abs(normalizeLongitude(longitude2 - longitude1));
+        if (Math.abs(latitude2 - latitude1) <= SHORT_DISTANCE_DEGREES && deltaLongitude <= SHORT_DISTANCE_DEGREES) {
+            return distance(latitude1, longitude1, latitude2, longitude2, Mode.EQUIRECTANGULAR);
+        }
+        return distance(latitude1, longitude1, latitude2, longitude2, Mode.VINCENTY);
+    }
+
+    /**
+     * Distance in meters.
+     */
+    public static double distance(double latitude1, double longitude1, double latitude2, double longitude2, Mode mode) {
+        switch (mode) {
+            case EQUIRECTANGULAR:
+                return equirectangular(latitude1, longitude1, latitude2, longitude2);
+            case HAVERSINE:
+                return haversine(latitude1, longitude1, latitude2, longitude2);
+            case VINCENTY:
+                return vincenty(latitude1, longitude1, latitude2, longitude2, false);
+            default:
+                throw new RuntimeException("Not implemented: " + mode);
+        }
+    }
+
+    /**
+     * Initial bearing in degrees (-180 to 180) from the first to the second coordinate (like {@link android.location.Location#bearingTo(android.location.Location)}).
+     */
+    public static float bearing(double latitude1, double longitude1, double latitude2, double longitude2) {
+        return (float) vincenty(latitude1, longitude1, latitude2, longitude2, true);
+    }
+
+    private static double equirectangular(double latitude1, double longitude1, double latitude2, double longitude2) {
+        double meanLatitude = Math.toRadians((latitude1 + latitude2) / 2);
+        double sinMeanLatitude = Math.sin(meanLatitude);
+        double w = 1 - ECCENTRICITY_SQUARED * sinMeanLatitude * sinMeanLatitude;
+
+        double meridionalRadius = SEMI_MAJOR_AXIS_M * (1 - ECCENTRICITY_SQUARED) / (w * Math.sqrt(w));
+        double primeVerticalRadius = SEMI_MAJOR_AXIS_M / Math.sqrt(w);
+
+        double x = primeVerticalRadius * Math.cos(meanLatitude) * Math.toRadians(normalizeLongitude(longitude2 - longitude1));
+        double y = meridionalRadius * Math.toRadians(latitude2 - latitude1);
+        return Math.sqrt(x * x + y * y);
+    }
+
+    private static double haversine(double latitude1, double longitude1, double latitude2, double longitude2) {
+        double phi1 = Math.toRadians(latitude1);
+        double phi2 = Math.toRadians(latitude2);
+        double sinDeltaPhi = Math.sin((phi2 - phi1) / 2);
+        double sinDeltaLambda = Math.sin(Math.toRadians(longitude2 - longitude1) / 2);
+
+        double h = sinDeltaPhi * sinDeltaPhi + Math.cos(phi1) * Math.cos(phi2) * sinDeltaLambda * sinDeltaLambda;
+        return 2 * MEAN_EARTH_RADIUS_M * Math.asin(Math.min(1, Math.sqrt(h)));
+    }
+
+    /**
+     * Vincenty's inverse formula.
+     *
+     * @param computeBearing true to return the initial bearing (degrees) instead of the distance (meters)
+     */
+    private static double vincenty(double latitude1, double longitude1, double latitude2, double longitude2, boolean computeBearing) {
+        double deltaLongitude = Math.toRadians(longitude2 - longitude1);
+        double u1 = Math.atan((1 - FLATTENING) * Math.tan(Math.toRadians(latitude1)));
+        double u2 = Math.atan((1 - FLATTENING) * Math.tan(Math.toRadians(latitude2)));
+        double sinU1 = Math.sin(u1);
+        double cosU1 = Math.cos(u1);
+        double sinU2 = Math.sin(u2);
+        double cosU2 = Math.cos(u2);
+
+        double lambda = deltaLongitude;
+        double sinLambda = 0;
+        double cosLambda = 0;
+        double sinSigma = 0;
+        double cosSigma = 0;
+        double sigma = 0;
+        double cosSquaredAlpha = 0;
+        double cos2SigmaM = 0;
+        for (int i = 0; i < VINCENTY_MAX_ITERATIONS; i++) {
+            sinLambda = Math.sin(lambda);
+            cosLambda = Math.cos(lambda);
+            double t1 = cosU2 * sinLambda;
+            double t2 = cosU1 * sinU2 - sinU1 * cosU2 * cosLambda;
+            sinSigma = Math.sqrt(t1 * t1 + t2 * t2);
+            if (sinSigma == 0) {
+                // Coincident points
+                return 0;
+            }
+            cosSigma = sinU1 * sinU2 + cosU1 * cosU2 * cosLambda;
+            sigma = Math.atan2(sinSigma, cosSigma);
+            double sinAlpha = cosU1 * cosU2 * sinLambda / sinSigma;
+            cosSquaredAlpha = 1 - sinAlpha * sinAlpha;
+            cos2SigmaM = cosSquaredAlpha == 0 ? 0 : cosSigma - 2 * sinU1 * sinU2 / cosSquaredAlpha; // Equatorial line: cosSquaredAlpha = 0
+
+            double c = FLATTENING / 16 * cosSquaredAlpha * (4 + FLATTENING * (4 - 3 * cosSquaredAlpha));
+            double lambdaPrevious = lambda;
+            lambda = deltaLongitude + (1 - c) * FLATTENING * sinAlpha * (sigma + c * sinSigma * (cos2SigmaM + c * cosSigma * (-1 + 2 * cos2SigmaM * cos2SigmaM)));
+            if (Math.abs(lambda - lambdaPrevious) < VINCENTY_THRESHOLD) {
+                break;
+            }
+        }
+
+        if (computeBearing) {
+            return Math.toDegrees(Math.atan2(cosU2 * sinLambda, cosU1 * sinU2 - sinU1 * cosU2 * cosLambda));
+        }
+
+        double uSquared = cosSquaredAlpha * (SEMI_MAJOR_AXIS_M * SEMI_MAJOR_AXIS_M - SEMI_MINOR_AXIS_M * SEMI_MINOR_AXIS_M) / (SEMI_MINOR_AXIS_M * SEMI_MINOR_AXIS_M);
+        double a = 1 + uSquared / 16384 * (4096 + uSquared * (-768 + uSquared * (320 - 175 * uSquared)));
+        double b = uSquared / 1024 * (256 + uSquared * (-128 + uSquared * (74 - 47 * uSquared)));
+        double deltaSigma = b * sinSigma * (cos2SigmaM + b / 4 * (cosSigma * (-1 + 2 * cos2SigmaM * cos2SigmaM) - b / 6 * cos2SigmaM * (-3 + 4 * sinSigma * sinSigma) * (-3 + 4 * cos2SigmaM * cos2SigmaM)));
+        return SEMI_MINOR_AXIS_M * a * (sigma - deltaSigma);
+    }
+
+    /**
+     * @return the longitude difference in the range [-180, 180].
+     */
+    private static double normalizeLongitude(double deltaLongitude) {
+        if (deltaLongitude > 180) {
+            return deltaLongitude - 360;
+        }
+        if (deltaLongitude < -180) {
+            return deltaLongitude + 360;
+        }
+        return deltaLongitude;
+    }
+}
@@ -284,6 +284,24 @@ public class StringUtils {
      * @param xmlDateTime the XML date time string
      */
     public static Instant parseTime(String xmlDateTime) {
+        return parseTime(xmlDateTime, 0, xmlDateTime.length());
+    }
+
+    /**
+     * Gets the time from a part of an XML date time string (see {@link #parseTime(String)}).
+     * The common format yyyy-MM-ddTHH:mm:ss(.SSS)Z (UTC) is parsed without creating a String.
+     *
+     * @param chars the characters
+     * @param start the first character of the XML date time
+     * @param end   the end of the XML date time (exclusive)
+     */
+    public static Instant parseTime(@NonNull CharSequence chars, int start, int end) {
+        Instant instant = parseUtcTime(chars, start, end);
+        if (instant != null) {
+            return instant;
+        }
+
+        String xmlDateTime = chars.subSequence(start, end).toString();
         try {
             TemporalAccessor t = DateTimeFormatter.ISO_DATE_TIME.parseBest(xmlDateTime, ZonedDateTime::from, LocalDateTime::from);
             if (t instanceof LocalDateTime) {
@@ -297,6 +315,91 @@ public class StringUtils {
         }
     }
 
+    /**
+     * Parses yyyy-MM-ddTHH:mm:ss(.S+)Z; up to nine fraction digits.
+     *
+     * @return null if the characters are not in this format (or not a valid date time).
+     */
+    private static Instant parseUtcTime(CharSequence chars, int start, int end) {
+        int length = end - start;
+        if (length < 20 || chars.charAt(end - 1) != 'Z'
+                || chars.charAt(start + 4) != '-' || chars.charAt(start + 7) != '-' || chars.charAt(start + 10) != 'T'
+                || chars.charAt(start + 13) != ':' || chars.charAt(start + 16) != ':') {
+            return null;
+        }
+
+        int year = parseDigits(chars, start, start + 4);
+        int month = parseDigits(chars, start + 5, start + 7);
+        int day = parseDigits(chars, start + 8, start + 10);
+        int hour = parseDigits(chars, start + 11, start + 13);
+        int minute = parseDigits(chars, start + 14, start + 16);
+        int second = parseDigits(chars, start + 17, start + 19);
+        if (year < 0 || month < 1 || month > 12 || day < 1 || day > getLengthOfMonth(year, month) || hour < 0 || hour > 23 || minute < 0 || minute > 59 || second < 0 || second > 59) {
+            return null;
+        }
+
+        int nanos = 0;
+        if (length > 20) {
+            int fractionDigits = length - 21;
+            if (chars.charAt(start + 19) != '.' || fractionDigits < 1 || fractionDigits > 9) {
+                return null;
+            }
+            nanos = parseDigits(chars, start + 20, end - 1);
+            if (nanos < 0) {
+                return null;
+            }
+            for (int i = fractionDigits; i < 9; i++) {
+                nanos *= 10;
+            }
+        }
+
+        long epochSecond = getEpochDay(year, month, day) * 86400L + hour * 3600 + minute * 60 + second;
+        return Instant.ofEpochSecond(epochSecond, nanos);
+    }
+
+    /**
+     * @return the value of the decimal digits; -1 if there is another character.
+     */
+    private static int parseDigits(CharSequence chars, int start, int end) {
+        int value = 0;
+        for (int i = start; i < end; i++) {
+            char c = chars.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = 10 * value + (c - '0');
+        }
+        return value;
+    }
+
+    private static int getLengthOfMonth(int year, int month) {
+        switch (month) {
+            case 2:
+                boolean isLeapYear = year % 4 == 0 && (year % 100 != 0 || year % 400 == 0);
+                return isLeapYear ? 29 : 28;
+            case 4:
+            case 6:
+            case 9:
+            case 11:
+                return 30;
+            default:
+                return 31;
+        }
+    }
+
+    /**
+     * @return the days since 1970-01-01 (proleptic Gregorian calendar; year is not negative).
+     */
+    private static long getEpochDay(int year, int month, int day) {
+        // Years starting in March, so the leap day is the last day of a year.
+        int y = month <= 2 ? year - 1 : year;
+        int era = (y >= 0 ? y : y - 399) / 400;
+        int yearOfEra = y - era * 400;
+        int dayOfYear = (153 * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+        int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097L + dayOfEra - 719468;
+    }
+
     /**
      * Gets the frequency display options.
      *
@@ -47,7 +47,7 @@ public class TrackUtils {
             update = true;
         }
         if (update) {
-            contentProviderUtils.updateTrack(track);
+            contentProviderUtils.updateTrackDetails(track);
         }
     }
 }
@@ -18,11 +18,31 @@ public class AggregatedStatistics {
 
     private final List<AggregatedStatistic> dataList = new ArrayList<>();
 
+    private AggregatedStatistics() {
+    }
+
     public AggregatedStatistics(@NonNull List<Track> tracks) {
         for (Track track : tracks) {
             aggregate(track);
         }
 
+        sort();
+    }
+
+    /**
+     * @param aggregatedStatistics statistics that are already aggregated per category (e.g., by the database).
+     */
+    public static AggregatedStatistics of(@NonNull List<AggregatedStatistic> aggregatedStatistics) {
+        AggregatedStatistics result = new AggregatedStatistics();
+        for (AggregatedStatistic aggregatedStatistic : aggregatedStatistics) {
+            result.dataMap.put(aggregatedStatistic.getCategory(), aggregatedStatistic);
+        }
+        result.sort();
+        return result;
+    }
+
+    private void sort() {
+        dataList.clear();
         dataList.addAll(dataMap.values());
         Collections.sort(dataList, (o1, o2) -> {
             if (o1.getCountTracks() == o2.getCountTracks()) {
@@ -57,11 +77,16 @@ public class AggregatedStatistics {
     public static class AggregatedStatistic {
         private final String category;
         private final TrackStatistics trackStatistics;
-        private int countTracks = 1;
+        private int countTracks;
 
         public AggregatedStatistic(String category, TrackStatistics trackStatistics) {
+            this(category, trackStatistics, 1);
+        }
+
+        public AggregatedStatistic(String category, TrackStatistics trackStatistics, int countTracks) {
             this.category = category;
             this.trackStatistics = trackStatistics;
+            this.countTracks = countTracks;
         }
 
         public String getCategory() {
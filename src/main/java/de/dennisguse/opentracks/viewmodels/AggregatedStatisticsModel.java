@@ -1,21 +1,32 @@
 package de.dennisguse.opentracks.viewmodels;
 
 import android.app.Application;
+import android.database.ContentObserver;
+import android.os.Handler;
+import android.os.Looper;
 
 import androidx.annotation.NonNull;
 import androidx.lifecycle.AndroidViewModel;
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
 
-import java.util.List;
-
-import de.dennisguse.opentracks.content.data.Track;
+import de.dennisguse.opentracks.content.data.AggregatedStatisticsColumns;
 import de.dennisguse.opentracks.content.provider.ContentProviderUtils;
 
+/**
+ * Loads the {@link AggregatedStatistics} (maintained by the ContentProvider) and reloads them if tracks are changed.
+ */
 public class AggregatedStatisticsModel extends AndroidViewModel {
 
     private MutableLiveData<AggregatedStatistics> aggregatedStats;
 
+    private final ContentObserver aggregatedStatsObserver = new ContentObserver(new Handler(Looper.getMainLooper())) {
+        @Override
+        public void onChange(boolean selfChange) {
+            loadAggregatedStats();
+        }
+    };
+
     public AggregatedStatisticsModel(@NonNull Application application) {
         super(application);
     }
@@ -23,19 +34,22 @@ public class AggregatedStatisticsModel extends AndroidViewModel {
     public LiveData<AggregatedStatistics> getAggregatedStats() {
         if (aggregatedStats == null) {
             aggregatedStats = new MutableLiveData<>();
+            getApplication().getContentResolver().registerContentObserver(AggregatedStatisticsColumns.CONTENT_URI, false, aggregatedStatsObserver);
             loadAggregatedStats();
         }
         return aggregatedStats;
     }
 
+    @Override
+    protected void onCleared() {
+        super.onCleared();
+        getApplication().getContentResolver().unregisterContentObserver(aggregatedStatsObserver);
+    }
+
     private void loadAggregatedStats() {
         new Thread(() -> {
             ContentProviderUtils contentProviderUtils = new ContentProviderUtils(getApplication().getApplicationContext());
-            List<Track> tracks = contentProviderUtils.getTracks();
-
-            AggregatedStatistics aggregatedStatistics = new AggregatedStatistics(tracks);
-
-            aggregatedStats.postValue(aggregatedStatistics);
+            aggregatedStats.postValue(contentProviderUtils.getAggregatedStatistics());
         }).start();
     }
 }
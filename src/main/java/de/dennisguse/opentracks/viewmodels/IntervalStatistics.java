@@ -7,57 +7,112 @@ import java.util.ArrayList;
 import java.util.List;
 
 import de.dennisguse.opentracks.content.data.TrackPoint;
+import de.dennisguse.opentracks.stats.IntervalIndex;
 import de.dennisguse.opentracks.util.UnitConversions;
 
+/**
+ * Splits a track into intervals of the same distance.
+ * <p>
+ * Computed in one pass over the {@link TrackPoint}s or over the checkpoints of an {@link IntervalIndex}.
+ * The app uses the latter: the intervals are computed again from the stored {@link IntervalIndex} if the track changes.
+ */
 public class IntervalStatistics {
     private final List<Interval> intervalList = new ArrayList<>();
     private final float distanceInterval_m;
 
+    // The interval that is not yet completed.
+    private Interval interval = new Interval();
+    private TrackPoint lastTrackPoint;
+
+    /**
+     * @param distanceInterval_m the meters of every interval.
+     */
+    public IntervalStatistics(float distanceInterval_m) {
+        this.distanceInterval_m = distanceInterval_m;
+    }
+
     /**
      * @param trackPoints        the list of TrackPoint.
      * @param distanceInterval_m the meters of every interval.
      */
     public IntervalStatistics(@NonNull List<TrackPoint> trackPoints, float distanceInterval_m) {
-        intervalList.clear();
-        this.distanceInterval_m = distanceInterval_m;
+        this(distanceInterval_m);
+        for (TrackPoint trackPoint : trackPoints) {
+            add(trackPoint);
+        }
+    }
 
-        if (trackPoints.size() == 0) {
-            return;
+    /**
+     * Computes the intervals from the checkpoints of an {@link IntervalIndex} (i.e., without the {@link TrackPoint}s).
+     *
+     * @param intervalIndex      the intervalIndex of the track.
+     * @param distanceInterval_m the meters of every interval.
+     */
+    public IntervalStatistics(@NonNull IntervalIndex intervalIndex, float distanceInterval_m) {
+        this(distanceInterval_m);
+        for (int i = 0; i < intervalIndex.size(); i++) {
+            if (i == 0) {
+                add((float) intervalIndex.getDistance_m(0), intervalIndex.getTime_ms(0), (float) intervalIndex.getGain_m(0), (float) intervalIndex.getLoss_m(0));
+                continue;
+            }
+            add((float) (intervalIndex.getDistance_m(i) - intervalIndex.getDistance_m(i - 1)),
+                    intervalIndex.getTime_ms(i) - intervalIndex.getTime_ms(i - 1),
+                    (float) (intervalIndex.getGain_m(i) - intervalIndex.getGain_m(i - 1)),
+                    (float) (intervalIndex.getLoss_m(i) - intervalIndex.getLoss_m(i - 1)));
         }
+    }
 
-        Interval interval = new Interval();
-        interval.gain_m += trackPoints.get(0).hasElevationGain() ? trackPoints.get(0).getElevationGain() : 0;
-        interval.loss_m += trackPoints.get(0).hasElevationLoss() ? trackPoints.get(0).getElevationLoss() : 0;
-        for (int i = 1; i < trackPoints.size(); i++) {
-            TrackPoint prevTrackPoint = trackPoints.get(i - 1);
-            TrackPoint trackPoint = trackPoints.get(i);
+    public float getDistanceInterval_m() {
+        return distanceInterval_m;
+    }
 
-            if (trackPoint.hasLocation() && prevTrackPoint.hasLocation()) {
-                interval.distance_m += prevTrackPoint.distanceToPrevious(trackPoint);
-                interval.time = interval.time.plus(Duration.between(prevTrackPoint.getTime(), trackPoint.getTime()));
-                interval.gain_m += trackPoint.hasElevationGain() ? trackPoint.getElevationGain() : 0;
-                interval.loss_m += trackPoint.hasElevationLoss() ? trackPoint.getElevationLoss() : 0;
+    /**
+     * Adds the next trackPoint of the track.
+     * Only a reference to the trackPoint is kept until the next one is added.
+     */
+    public void add(@NonNull TrackPoint trackPoint) {
+        TrackPoint prevTrackPoint = lastTrackPoint;
+        lastTrackPoint = trackPoint;
+
+        float gain_m = trackPoint.hasElevationGain() ? trackPoint.getElevationGain() : 0;
+        float loss_m = trackPoint.hasElevationLoss() ? trackPoint.getElevationLoss() : 0;
+        if (prevTrackPoint == null) {
+            add(0, 0, gain_m, loss_m);
+        } else if (trackPoint.hasLocation() && prevTrackPoint.hasLocation()) {
+            add(prevTrackPoint.distanceToPrevious(trackPoint), Duration.between(prevTrackPoint.getTime(), trackPoint.getTime()).toMillis(), gain_m, loss_m);
+        }
+    }
 
-                if (interval.distance_m >= distanceInterval_m) {
-                    float adjustFactor = distanceInterval_m / interval.distance_m;
-                    Interval adjustedInterval = new Interval(interval);
-                    adjustedInterval.adjust(adjustFactor);
+    /**
+     * Adds the difference between two subsequent trackPoints.
+     */
+    public void add(float distance_m, long time_ms, float gain_m, float loss_m) {
+        interval.distance_m += distance_m;
+        interval.time_ms += time_ms;
+        interval.gain_m += gain_m;
+        interval.loss_m += loss_m;
 
-                    intervalList.add(adjustedInterval);
+        if (interval.distance_m >= distanceInterval_m) {
+            float adjustFactor = distanceInterval_m / interval.distance_m;
+            Interval adjustedInterval = new Interval(interval);
+            adjustedInterval.adjust(adjustFactor);
 
-                    interval = new Interval(interval.distance_m - adjustedInterval.distance_m, interval.time.minus(adjustedInterval.time));
-                }
-            }
-        }
+            intervalList.add(adjustedInterval);
 
-        if (interval.distance_m > 1f) {
-            intervalList.add(interval);
+            interval = new Interval(interval.distance_m - adjustedInterval.distance_m, Duration.ofMillis(interval.time_ms - adjustedInterval.time_ms));
         }
     }
 
-
+    /**
+     * @return the completed intervals and the open interval (if it is longer than 1m).
+     */
     public List<Interval> getIntervalList() {
-        return intervalList;
+        List<Interval> intervals = new ArrayList<>(intervalList.size() + 1);
+        intervals.addAll(intervalList);
+        if (interval.distance_m > 1f) {
+            intervals.add(new Interval(interval));
+        }
+        return intervals;
     }
 
     /**
@@ -67,22 +122,15 @@ public class IntervalStatistics {
      * @return the interval object or null if any interval is completed.
      */
     public Interval getLastInterval() {
-        if (intervalList.size() == 1 && intervalList.get(0).getDistance_m() < distanceInterval_m) {
+        if (intervalList.isEmpty()) {
             return null;
         }
-
-        for (int i = intervalList.size() - 1; i >= 0; i--) {
-            if (intervalList.get(i).getDistance_m() >= distanceInterval_m) {
-                return this.intervalList.get(i);
-            }
-        }
-
-        return null;
+        return intervalList.get(intervalList.size() - 1);
     }
 
     public static class Interval {
         private float distance_m = 0f;
-        private Duration time = Duration.ofSeconds(0);
+        private long time_ms = 0;
         private float gain_m = 0f;
         private float loss_m = 0f;
 
@@ -91,12 +139,12 @@ public class IntervalStatistics {
 
         public Interval(float distance_m, Duration time) {
             this.distance_m = distance_m;
-            this.time = time;
+            this.time_ms = time.toMillis();
         }
 
         public Interval(Interval i) {
             distance_m = i.distance_m;
-            time = i.time;
+            time_ms = i.time_ms;
             gain_m = i.gain_m;
             loss_m = i.loss_m;
         }
@@ -107,7 +155,7 @@ public class IntervalStatistics {
 
         public void adjust(float adjustFactor) {
             distance_m *= adjustFactor;
-            time = Duration.ofMillis((long) (time.toMillis() * adjustFactor));
+            time_ms = (long) (time_ms * adjustFactor);
         }
 
         /**
@@ -117,7 +165,7 @@ public class IntervalStatistics {
             if (distance_m == 0f) {
                 return 0f;
             }
-            return (distance_m / (time.toMillis() * (float) UnitConversions.MS_TO_S));
+            return (distance_m / (time_ms * (float) UnitConversions.MS_TO_S));
         }
 
         public float getGain_m() {
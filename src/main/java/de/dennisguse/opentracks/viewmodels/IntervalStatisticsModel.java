@@ -1,41 +1,50 @@
 package de.dennisguse.opentracks.viewmodels;
 
+import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
-import java.util.ArrayList;
 import java.util.List;
 
 import de.dennisguse.opentracks.content.data.TrackPoint;
+import de.dennisguse.opentracks.stats.IntervalIndex;
 import de.dennisguse.opentracks.util.UnitConversions;
 
 /**
  * This model is used to load intervals for a track.
  * It uses a default interval but it can be set from outside to manage the interval length.
+ * <p>
+ * The intervals are computed from an {@link IntervalIndex} (i.e., cumulative distance, time, gain, and loss) and not from {@link TrackPoint}s.
  */
 public class IntervalStatisticsModel {
 
-    private final List<TrackPoint> trackPoints = new ArrayList<>();
+    private IntervalIndex intervalIndex = new IntervalIndex(0);
 
-    public IntervalStatistics getIntervalStats(boolean metricUnits, @Nullable IntervalOption interval) {
-        synchronized (trackPoints) {
+    private IntervalStatistics intervalStatistics;
+
+    /**
+     * @return a snapshot of the intervals (changing the interval length re-computes the intervals from the {@link IntervalIndex}).
+     */
+    public List<IntervalStatistics.Interval> getIntervalList(boolean metricUnits, @Nullable IntervalOption interval) {
+        synchronized (this) {
             if (interval == null) {
                 interval = IntervalOption.OPTION_1;
             }
 
             float distanceInterval = metricUnits ? (float) (interval.getValue() * UnitConversions.KM_TO_M) : (float) (interval.getValue() * UnitConversions.MI_TO_M);
-            return new IntervalStatistics(trackPoints, distanceInterval);
-        }
-    }
-
-    public void add(TrackPoint trackPoint) {
-        synchronized (trackPoints) {
-            trackPoints.add(trackPoint);
+            if (intervalStatistics == null || intervalStatistics.getDistanceInterval_m() != distanceInterval) {
+                intervalStatistics = new IntervalStatistics(intervalIndex, distanceInterval);
+            }
+            return intervalStatistics.getIntervalList();
         }
     }
 
-    public void clear() {
-        synchronized (trackPoints) {
-            trackPoints.clear();
+    /**
+     * Replaces the data (e.g., by the {@link IntervalIndex} stored for the track).
+     */
+    public void setIntervalIndex(@NonNull IntervalIndex intervalIndex) {
+        synchronized (this) {
+            this.intervalIndex = intervalIndex;
+            intervalStatistics = null;
         }
     }
 